@@ -41,9 +41,11 @@
 
 package com.oracle.js.parser;
 
+import static com.oracle.js.parser.TokenType.ADD;
 import static com.oracle.js.parser.TokenType.ARROW;
 import static com.oracle.js.parser.TokenType.AS;
 import static com.oracle.js.parser.TokenType.ASSIGN;
+import static com.oracle.js.parser.TokenType.ASSIGN_DIV;
 import static com.oracle.js.parser.TokenType.ASSIGN_INIT;
 import static com.oracle.js.parser.TokenType.ASYNC;
 import static com.oracle.js.parser.TokenType.AWAIT;
@@ -56,6 +58,7 @@ import static com.oracle.js.parser.TokenType.COMMENT;
 import static com.oracle.js.parser.TokenType.CONST;
 import static com.oracle.js.parser.TokenType.DECPOSTFIX;
 import static com.oracle.js.parser.TokenType.DECPREFIX;
+import static com.oracle.js.parser.TokenType.DIV;
 import static com.oracle.js.parser.TokenType.ELLIPSIS;
 import static com.oracle.js.parser.TokenType.ELSE;
 import static com.oracle.js.parser.TokenType.EOF;
@@ -65,6 +68,7 @@ import static com.oracle.js.parser.TokenType.ESCSTRING;
 import static com.oracle.js.parser.TokenType.EXPORT;
 import static com.oracle.js.parser.TokenType.EXTENDS;
 import static com.oracle.js.parser.TokenType.FINALLY;
+import static com.oracle.js.parser.TokenType.FOR;
 import static com.oracle.js.parser.TokenType.FROM;
 import static com.oracle.js.parser.TokenType.FUNCTION;
 import static com.oracle.js.parser.TokenType.GET;
@@ -78,10 +82,16 @@ import static com.oracle.js.parser.TokenType.LBRACKET;
 import static com.oracle.js.parser.TokenType.LET;
 import static com.oracle.js.parser.TokenType.LPAREN;
 import static com.oracle.js.parser.TokenType.MUL;
+import static com.oracle.js.parser.TokenType.NEW;
+import static com.oracle.js.parser.TokenType.NON_OCTAL_DECIMAL;
+import static com.oracle.js.parser.TokenType.OCTAL_LEGACY;
 import static com.oracle.js.parser.TokenType.OF;
+import static com.oracle.js.parser.TokenType.OPTIONAL_CHAIN;
 import static com.oracle.js.parser.TokenType.PERIOD;
+import static com.oracle.js.parser.TokenType.PRIVATE_IDENT;
 import static com.oracle.js.parser.TokenType.RBRACE;
 import static com.oracle.js.parser.TokenType.RBRACKET;
+import static com.oracle.js.parser.TokenType.REGEX;
 import static com.oracle.js.parser.TokenType.RPAREN;
 import static com.oracle.js.parser.TokenType.SEMICOLON;
 import static com.oracle.js.parser.TokenType.SET;
@@ -90,15 +100,18 @@ import static com.oracle.js.parser.TokenType.SPREAD_ARRAY;
 import static com.oracle.js.parser.TokenType.SPREAD_OBJECT;
 import static com.oracle.js.parser.TokenType.STATIC;
 import static com.oracle.js.parser.TokenType.STRING;
+import static com.oracle.js.parser.TokenType.SUB;
 import static com.oracle.js.parser.TokenType.SUPER;
 import static com.oracle.js.parser.TokenType.TEMPLATE;
 import static com.oracle.js.parser.TokenType.TEMPLATE_HEAD;
 import static com.oracle.js.parser.TokenType.TEMPLATE_MIDDLE;
 import static com.oracle.js.parser.TokenType.TEMPLATE_TAIL;
 import static com.oracle.js.parser.TokenType.TERNARY;
+import static com.oracle.js.parser.TokenType.THIS;
 import static com.oracle.js.parser.TokenType.VAR;
 import static com.oracle.js.parser.TokenType.VOID;
 import static com.oracle.js.parser.TokenType.WHILE;
+import static com.oracle.js.parser.TokenType.WITH;
 import static com.oracle.js.parser.TokenType.YIELD;
 import static com.oracle.js.parser.TokenType.YIELD_STAR;
 
@@ -109,10 +122,12 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 import org.graalvm.collections.Pair;
 
+import com.oracle.js.parser.Lexer.LexerToken;
 import com.oracle.js.parser.ir.AccessNode;
 import com.oracle.js.parser.ir.BaseNode;
 import com.oracle.js.parser.ir.BinaryNode;
@@ -273,6 +288,9 @@ public class Parser extends AbstractParser {
 
     private boolean isModule;
 
+    /** Synthetic parent of the function being parsed again by {@link #parseLazyFunction}. */
+    private ParserContextFunctionNode lazyParseParent;
+
     public static final boolean PROFILE_PARSING = Options.getBooleanProperty("parser.profiling", false);
     public static final boolean PROFILE_PARSING_PRINT = Options.getBooleanProperty("parser.profiling.print", true);
 
@@ -465,6 +483,58 @@ public class Parser extends AbstractParser {
         return parseModule(moduleName, 0, source.getLength());
     }
 
+    /**
+     * Parse the body of a function that was skipped by the initial parse. The parser should be
+     * created with the strictness of the function and with the line offset of its first line.
+     * Nested functions are subject to lazy parsing again.
+     *
+     * @param lazyFunction the lazily parsed function
+     * @param module whether the function is part of module code
+     *
+     * @return the function node with its body parsed
+     */
+    public FunctionNode parseLazyFunction(final FunctionNode lazyFunction, final boolean module) {
+        assert lazyFunction.isLazilyParsed();
+        boolean oldModule = isModule;
+        try {
+            isModule = module;
+            // a function expression may be parenthesized
+            final int functionStart = lazyFunction.getStartWithoutParens();
+            final int functionLength = lazyFunction.getFinishWithoutParens() - functionStart;
+            prepareLexer(functionStart, functionLength);
+
+            scanFirstToken();
+
+            final long functionToken = Token.toDesc(FUNCTION, functionStart, functionLength);
+            final ParserContextFunctionNode parent = createParserContextFunctionNode(null, functionToken, 0, line, Collections.<IdentNode> emptyList(), 0);
+            parent.clearFlag(FunctionNode.IS_PROGRAM);
+
+            assert lc.getCurrentScope() == null;
+            lc.push(parent);
+            final ParserContextBlockNode body = newBlock(parent.createBodyScope());
+            lazyParseParent = parent;
+            final Expression expression;
+            try {
+                expression = type == ASYNC ? asyncFunctionExpression(false, false) : functionExpression(false, false);
+            } finally {
+                lazyParseParent = null;
+                restoreBlock(body);
+                lc.pop(parent);
+            }
+
+            final FunctionNode parsed = lazyFunction.setBody(null, ((FunctionNode) expression).getBody());
+            parsed.setLazyFreeVariables(null);
+            parsed.setUsesAncestorScope(lazyFunction.usesAncestorScope());
+            return parsed;
+        } catch (final Exception e) {
+            handleParseException(e);
+
+            return null;
+        } finally {
+            isModule = oldModule;
+        }
+    }
+
     /**
      * Parse eval code.
      *
@@ -701,6 +771,7 @@ public class Parser extends AbstractParser {
                         function.getEndParserState(),
                         function.getModule(),
                         function.getInternalName());
+        functionNode.setLazyFreeVariables(function.getLazyFreeVariables());
 
         return functionNode;
     }
@@ -4890,6 +4961,8 @@ public class Parser extends AbstractParser {
             // name is null, generate anonymous name
             functionNode.setInternalName(getDefaultFunctionName());
         }
+        // the function being parsed on demand is the only one whose body must not be skipped
+        final boolean lazyBody = env.lazyParsing && !scripting && lc.getCurrentFunction() != lazyParseParent;
         lc.push(functionNode);
 
         Block functionBody;
@@ -4906,7 +4979,7 @@ public class Parser extends AbstractParser {
                 formalParameterList(generator, async);
                 expect(RPAREN);
 
-                functionBody = functionBody(functionNode);
+                functionBody = functionBody(functionNode, lazyBody && functionNode.isSimpleParameterList());
             } finally {
                 restoreBlock(parameterBlock);
             }
@@ -5219,6 +5292,16 @@ public class Parser extends AbstractParser {
      * @return function node (body.)
      */
     private Block functionBody(final ParserContextFunctionNode functionNode) {
+        return functionBody(functionNode, false);
+    }
+
+    /**
+     * Parse function body.
+     *
+     * @param lazyBody whether the body may be skipped, see {@link #skipLazyFunctionBody}
+     * @return function node (body.)
+     */
+    private Block functionBody(final ParserContextFunctionNode functionNode, final boolean lazyBody) {
         final long bodyToken = token;
         final int bodyFinish;
         final boolean parseBody;
@@ -5255,7 +5338,8 @@ public class Parser extends AbstractParser {
                 bodyFinish = finish;
             } else {
                 expectDontAdvance(LBRACE);
-                if (parseBody || !skipFunctionBody(functionNode)) {
+                final boolean skipBody = parseBody ? lazyBody && skipLazyFunctionBody(functionNode) : skipFunctionBody(functionNode);
+                if (!skipBody) {
                     next();
                     // Gather the function elements.
                     final List<Statement> prevFunctionDecls = functionDeclarations;
@@ -5380,6 +5464,341 @@ public class Parser extends AbstractParser {
         return true;
     }
 
+    /**
+     * Skips the body of a function that is parsed on demand (see {@link #parseLazyFunction}) by
+     * scanning its tokens without building any nodes. The scan checks that brackets are balanced,
+     * validates literals, regular expressions and templates, and processes a "use strict"
+     * directive. It records the names the body may refer to from enclosing scopes, so that the
+     * translator can determine whether the closure needs its parent frame. Other early errors in
+     * the body are reported when the function is parsed on demand.
+     * <p>
+     * The body is parsed after all if the scan finds an error, which is then reported by the
+     * parser, if the body refers to eval, super, import or private names, which affect the
+     * enclosing functions or classes, or if a slash could start either a division or a regular
+     * expression, which cannot be decided without parsing.
+     *
+     * @return true if the body has been skipped and the current token is its closing brace
+     */
+    private boolean skipLazyFunctionBody(final ParserContextFunctionNode functionNode) {
+        assert type == LBRACE;
+        final ParserState bodyState = new ParserState(Token.descPosition(token), line, linePosition);
+        final long bodyPreviousToken = previousToken;
+        final TokenType bodyLast = last;
+        final int bodyFinish = finish;
+        final boolean oldStrictMode = isStrictMode;
+        final boolean oldPauseOnRightBrace = lexer.pauseOnRightBrace;
+        final Set<String> freeVariables = new HashSet<>();
+        int bodyFlags;
+        try {
+            bodyFlags = scanLazyFunctionBody(functionNode, freeVariables);
+        } catch (final ParserException e) {
+            bodyFlags = -1;
+        } finally {
+            isStrictMode = oldStrictMode;
+            lexer.pauseOnRightBrace = oldPauseOnRightBrace;
+        }
+        if (bodyFlags >= 0) {
+            functionNode.setFlag(bodyFlags);
+            for (final IdentNode parameter : functionNode.getParameters()) {
+                freeVariables.remove(parameter.getName());
+            }
+            functionNode.setLazyFreeVariables(freeVariables.toArray(new String[freeVariables.size()]));
+            return true;
+        }
+
+        // Restart from the opening brace to parse the body (and report any error).
+        stream.reset();
+        lexer = bodyState.createLexer(source, lexer, stream, scripting, env.ecmaScriptVersion, shebang, isModule, allowBigInt);
+        lexer.pauseOnRightBrace = oldPauseOnRightBrace;
+        line = bodyState.line;
+        linePosition = bodyState.linePosition;
+        type = SEMICOLON;
+        scanFirstToken();
+        previousToken = bodyPreviousToken;
+        last = bodyLast;
+        finish = bodyFinish;
+        assert type == LBRACE;
+        return false;
+    }
+
+    /**
+     * Scans the tokens of a function body up to its closing brace, see
+     * {@link #skipLazyFunctionBody}.
+     *
+     * @return the flags of the function implied by the body, or -1 if the body has to be parsed
+     */
+    private int scanLazyFunctionBody(final ParserContextFunctionNode functionNode, final Set<String> freeVariables) {
+        int bodyFlags = 0;
+        next();
+
+        // Directive prologue.
+        final List<Long> directives = new ArrayList<>();
+        TokenType previous = LBRACE;
+        while (type == STRING || type == ESCSTRING) {
+            final long directiveToken = token;
+            next();
+            if (type != SEMICOLON && type != RBRACE && (last != EOL || continuesExpression(type))) {
+                // an expression statement that starts with a string literal
+                previous = Token.descType(directiveToken);
+                break;
+            }
+            final Object directive = lexer.getValueOf(directiveToken, isStrictMode);
+            if (Token.descType(directiveToken) == STRING && "use strict".equals(directive) && !isStrictMode) {
+                bodyFlags |= FunctionNode.IS_STRICT;
+                isStrictMode = true;
+                // check that preceding directives, the function name and the parameter names
+                // do not violate strictness
+                for (final long precedingDirective : directives) {
+                    lexer.getValueOf(precedingDirective, isStrictMode);
+                }
+                if (functionNode.getIdent() != null) {
+                    verifyStrictIdent(functionNode.getIdent(), "function name");
+                }
+                for (final IdentNode param : functionNode.getParameters()) {
+                    verifyStrictIdent(param, FUNCTION_PARAMETER_CONTEXT);
+                }
+            }
+            directives.add(directiveToken);
+            previous = Token.descType(directiveToken);
+            if (type == SEMICOLON) {
+                previous = SEMICOLON;
+                next();
+            }
+        }
+
+        // Closing tokens of the open brackets: '}', ')', ']', 'c' for the closing parenthesis of a
+        // statement head, and '`' or '~' for the closing brace of a template substitution in an
+        // untagged or (possibly) tagged template, respectively.
+        final StringBuilder closers = new StringBuilder();
+        closers.append('}');
+        TokenType beforePrevious = null;
+        boolean previousClosesHead = false;
+        while (true) {
+            TokenType current = type;
+            boolean closesHead = false;
+            if ((previous == PERIOD || previous == OPTIONAL_CHAIN) && (type == IDENT || type == PRIVATE_IDENT || isIdentifierName())) {
+                // property name
+                if (type == PRIVATE_IDENT) {
+                    return -1;
+                } else if (beforePrevious == NEW && type == IDENT && "target".equals(lexer.getValueOf(token, isStrictMode))) {
+                    bodyFlags |= FunctionNode.USES_NEW_TARGET;
+                }
+                current = IDENT;
+            } else if (isOperator(previous) && !beginsOperand(type)) {
+                // missing operand, let the parser report the error
+                return -1;
+            } else {
+                switch (type) {
+                    case EOF:
+                        throw error(expectMessage(closingToken(closers.charAt(closers.length() - 1))));
+                    case LBRACE:
+                        closers.append('}');
+                        break;
+                    case LBRACKET:
+                        closers.append(']');
+                        break;
+                    case LPAREN: {
+                        final boolean head = previous == IF || previous == WHILE || previous == FOR || previous == WITH || (previous == AWAIT && beforePrevious == FOR);
+                        closers.append(head ? 'c' : ')');
+                        break;
+                    }
+                    case RPAREN:
+                    case RBRACKET:
+                    case RBRACE: {
+                        final char closer = closers.charAt(closers.length() - 1);
+                        if (type == RBRACE && (closer == '`' || closer == '~')) {
+                            // end of a template substitution
+                            lexer.scanTemplateSpan();
+                            next();
+                            assert type == TEMPLATE_MIDDLE || type == TEMPLATE_TAIL;
+                            if (closer == '`') {
+                                lexer.getValueOf(token, isStrictMode);
+                            }
+                            if (type == TEMPLATE_TAIL) {
+                                closers.setLength(closers.length() - 1);
+                            }
+                            current = type;
+                            break;
+                        }
+                        if (closingToken(closer) != type) {
+                            throw error(expectMessage(closingToken(closer)));
+                        }
+                        closers.setLength(closers.length() - 1);
+                        if (closers.length() == 0) {
+                            // closing brace of the function body
+                            return bodyFlags;
+                        }
+                        closesHead = closer == 'c';
+                        break;
+                    }
+                    case TEMPLATE:
+                    case TEMPLATE_HEAD: {
+                        final Boolean tagged = endsOperand(previous, previousClosesHead);
+                        if (tagged == Boolean.FALSE) {
+                            lexer.getValueOf(token, isStrictMode);
+                        }
+                        if (type == TEMPLATE_HEAD) {
+                            lexer.pauseOnRightBrace = true;
+                            closers.append(tagged == Boolean.FALSE ? '`' : '~');
+                        }
+                        break;
+                    }
+                    case DIV:
+                    case ASSIGN_DIV: {
+                        final Boolean division = endsOperand(previous, previousClosesHead);
+                        if (division == null) {
+                            return -1;
+                        } else if (!division) {
+                            if (!lexer.scanLiteral(token, type, lineInfoReceiver)) {
+                                throw error(AbstractParser.message(MESSAGE_EXPECTED_OPERAND, type.getNameOrType()));
+                            }
+                            next();
+                            assert type == REGEX;
+                            validateLexerToken((LexerToken) lexer.getValueOf(token, isStrictMode));
+                            current = REGEX;
+                        }
+                        break;
+                    }
+                    case ESCSTRING:
+                        lexer.getValueOf(token, isStrictMode);
+                        break;
+                    case NON_OCTAL_DECIMAL:
+                        if (isStrictMode) {
+                            throw error(AbstractParser.message("strict.no.nonoctaldecimal"), token);
+                        }
+                        break;
+                    case OCTAL_LEGACY:
+                        if (isStrictMode) {
+                            throw error(AbstractParser.message("strict.no.octal"), token);
+                        }
+                        break;
+                    case IDENT: {
+                        final String name = (String) lexer.getValueOf(token, isStrictMode);
+                        if (EVAL_NAME.equals(name)) {
+                            return -1;
+                        } else if (ARGUMENTS_NAME.equals(name)) {
+                            bodyFlags |= FunctionNode.USES_ARGUMENTS;
+                        } else {
+                            freeVariables.add(name);
+                        }
+                        break;
+                    }
+                    case THIS:
+                        bodyFlags |= FunctionNode.USES_THIS;
+                        break;
+                    case SUPER:
+                    case IMPORT:
+                    case PRIVATE_IDENT:
+                        return -1;
+                    default:
+                        if (type.isContextualKeyword() || type.getKind() == TokenKind.FUTURESTRICT) {
+                            // may be used as an identifier
+                            freeVariables.add(type.getName());
+                        }
+                        break;
+                }
+            }
+            beforePrevious = previous;
+            previous = current;
+            previousClosesHead = closesHead;
+            next();
+        }
+    }
+
+    private static TokenType closingToken(final char closer) {
+        switch (closer) {
+            case ')':
+            case 'c':
+                return RPAREN;
+            case ']':
+                return RBRACKET;
+            default:
+                return RBRACE;
+        }
+    }
+
+    /**
+     * Returns whether the given token ends an operand, i.e., whether a slash after it is a division
+     * rather than the start of a regular expression, and a template after it is tagged. Returns
+     * {@code null} if this depends on the syntactic context.
+     */
+    private static Boolean endsOperand(final TokenType previous, final boolean closesHead) {
+        switch (previous) {
+            case RPAREN:
+                return !closesHead;
+            case RBRACKET:
+            case THIS:
+            case TEMPLATE:
+            case TEMPLATE_TAIL:
+                return true;
+            case TEMPLATE_HEAD:
+            case TEMPLATE_MIDDLE:
+                return false;
+            case RBRACE:
+            case INCPREFIX:
+            case DECPREFIX:
+                // end of a block or an object literal, postfix or prefix operator
+                return null;
+            default:
+                switch (previous.getKind()) {
+                    case LITERAL:
+                        return true;
+                    case CONTEXTUAL:
+                    case FUTURE:
+                    case FUTURESTRICT:
+                        // identifier or keyword
+                        return null;
+                    default:
+                        return false;
+                }
+        }
+    }
+
+    /**
+     * Returns whether the given token is an operator that must be followed by an operand.
+     */
+    private static boolean isOperator(final TokenType previous) {
+        return previous.getKind() == TokenKind.BINARY && previous.getPrecedence() > 0 && previous != COMMARIGHT;
+    }
+
+    /**
+     * Returns whether the given token may start an operand.
+     */
+    private static boolean beginsOperand(final TokenType next) {
+        switch (next) {
+            case ADD:
+            case SUB:
+            case DIV:
+            case ASSIGN_DIV:
+                // unary operator or regular expression
+                return true;
+            case RPAREN:
+            case RBRACKET:
+            case RBRACE:
+            case EOF:
+                return false;
+            default:
+                return next.getKind() != TokenKind.BINARY;
+        }
+    }
+
+    /**
+     * Returns whether the given token after a line terminator continues the preceding expression,
+     * i.e., whether no semicolon is inserted before it.
+     */
+    private static boolean continuesExpression(final TokenType next) {
+        switch (next.getKind()) {
+            case BINARY:
+                return true;
+            case BRACKET:
+                return next != LBRACE && next != RBRACE;
+            case LITERAL:
+                return next == TEMPLATE || next == TEMPLATE_HEAD;
+            default:
+                return false;
+        }
+    }
+
     /**
      * Encapsulates part of the state of the parser, enough to reconstruct the state of both parser
      * and lexer for resuming parsing after skipping a function body.
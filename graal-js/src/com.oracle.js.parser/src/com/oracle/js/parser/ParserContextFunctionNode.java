@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2014, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2014, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -100,6 +100,9 @@ class ParserContextFunctionNode extends ParserContextBaseNode {
     private Module module;
     private String internalName;
 
+    /** Names referenced by the skipped body of this function, see {@link Parser} */
+    private String[] lazyFreeVariables;
+
     /**
      * @param token The token for the function
      * @param ident External function name
@@ -246,6 +249,25 @@ class ParserContextFunctionNode extends ParserContextBaseNode {
         this.endParserState = endParserState;
     }
 
+    /**
+     * Returns the names referenced by the body of this function if it has been skipped to be
+     * parsed on demand, or {@code null} if the body has been parsed.
+     *
+     * @return the free names of the skipped body
+     */
+    public String[] getLazyFreeVariables() {
+        return lazyFreeVariables;
+    }
+
+    /**
+     * Marks the body of this function as skipped.
+     *
+     * @param lazyFreeVariables the names referenced by the skipped body
+     */
+    public void setLazyFreeVariables(final String[] lazyFreeVariables) {
+        this.lazyFreeVariables = lazyFreeVariables;
+    }
+
     /**
      * Returns the if of this function
      *
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2010, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -102,6 +102,12 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
 
     private boolean usesAncestorScope;
 
+    /**
+     * Names referenced by the body of a lazily parsed function that are not declared within it, or
+     * {@code null} if the body of this function has been retained.
+     */
+    private String[] lazyFreeVariables;
+
     /** Is anonymous function flag. */
     public static final int IS_ANONYMOUS = 1 << 0;
 
@@ -316,6 +322,7 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
         this.numOfParams = functionNode.numOfParams;
         this.module = functionNode.module;
         this.internalName = functionNode.internalName;
+        this.lazyFreeVariables = functionNode.lazyFreeVariables;
     }
 
     @Override
@@ -756,6 +763,22 @@ public final class FunctionNode extends LexicalContextExpression implements Flag
         this.usesAncestorScope = usesAncestorScope;
     }
 
+    /**
+     * Returns true if the body of this function has been skipped by the initial parse and needs to
+     * be parsed before the function can be translated.
+     */
+    public boolean isLazilyParsed() {
+        return lazyFreeVariables != null;
+    }
+
+    public String[] getLazyFreeVariables() {
+        return lazyFreeVariables;
+    }
+
+    public void setLazyFreeVariables(String[] lazyFreeVariables) {
+        this.lazyFreeVariables = lazyFreeVariables;
+    }
+
     public boolean isNormal() {
         return !getFlag(IS_SCRIPT | IS_MODULE | IS_GETTER | IS_SETTER | IS_METHOD | IS_ARROW | IS_GENERATOR | IS_ASYNC);
     }
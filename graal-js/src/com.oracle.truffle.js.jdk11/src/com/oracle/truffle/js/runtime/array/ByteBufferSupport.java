@@ -71,6 +71,11 @@ final class NativeVarHandleByteBufferAccess extends ByteBufferAccess {
 
     static final ByteBufferAccess INSTANCE = new NativeVarHandleByteBufferAccess();
 
+    private static boolean isAligned(ByteBuffer buffer, int index, int size) {
+        // alignment of heap buffers is not stable
+        return buffer.isDirect() && buffer.alignmentOffset(index, size) == 0;
+    }
+
     @Override
     public int getInt16(ByteBuffer buffer, int index) {
         return (short) INT16.get(buffer, index);
@@ -120,6 +125,61 @@ final class NativeVarHandleByteBufferAccess extends ByteBufferAccess {
     public void putDouble(ByteBuffer buffer, int index, double value) {
         DOUBLE.set(buffer, index, value);
     }
+
+    @Override
+    public int getInt32Volatile(ByteBuffer buffer, int index) {
+        if (isAligned(buffer, index, Integer.BYTES)) {
+            return (int) INT32.getVolatile(buffer, index);
+        }
+        return super.getInt32Volatile(buffer, index);
+    }
+
+    @Override
+    public void putInt32Volatile(ByteBuffer buffer, int index, int value) {
+        if (isAligned(buffer, index, Integer.BYTES)) {
+            INT32.setVolatile(buffer, index, value);
+        } else {
+            super.putInt32Volatile(buffer, index, value);
+        }
+    }
+
+    @Override
+    public long getInt64Volatile(ByteBuffer buffer, int index) {
+        if (isAligned(buffer, index, Long.BYTES)) {
+            return (long) INT64.getVolatile(buffer, index);
+        }
+        return super.getInt64Volatile(buffer, index);
+    }
+
+    @Override
+    public void putInt64Volatile(ByteBuffer buffer, int index, long value) {
+        if (isAligned(buffer, index, Long.BYTES)) {
+            INT64.setVolatile(buffer, index, value);
+        } else {
+            super.putInt64Volatile(buffer, index, value);
+        }
+    }
+
+    @Override
+    public int compareExchangeInt32(ByteBuffer buffer, int index, int expected, int replacement) {
+        if (isAligned(buffer, index, Integer.BYTES)) {
+            return (int) INT32.compareAndExchange(buffer, index, expected, replacement);
+        }
+        return super.compareExchangeInt32(buffer, index, expected, replacement);
+    }
+
+    @Override
+    public long compareExchangeInt64(ByteBuffer buffer, int index, long expected, long replacement) {
+        if (isAligned(buffer, index, Long.BYTES)) {
+            return (long) INT64.compareAndExchange(buffer, index, expected, replacement);
+        }
+        return super.compareExchangeInt64(buffer, index, expected, replacement);
+    }
+
+    @Override
+    protected int int32AlignmentOffset(ByteBuffer buffer, int index) {
+        return buffer.isDirect() ? buffer.alignmentOffset(index, Integer.BYTES) : -1;
+    }
 }
 
 final class LittleEndianVarHandleByteBufferAccess extends ByteBufferAccess {
@@ -94,10 +94,10 @@ final class ByteBufferSupport {
 
 abstract class UnsafeByteBufferAccess extends ByteBufferAccess {
 
-    private static final Unsafe UNSAFE;
+    static final Unsafe UNSAFE;
     private static final long BUFFER_ADDRESS_FIELD_OFFSET;
 
-    private static int checkIndex(ByteBuffer buffer, int i, int nb) {
+    static int checkIndex(ByteBuffer buffer, int i, int nb) {
         if (nb < 1 || i < 0 || i > buffer.limit() - nb) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
             throw new IndexOutOfBoundsException();
@@ -105,11 +105,11 @@ abstract class UnsafeByteBufferAccess extends ByteBufferAccess {
         return i;
     }
 
-    private static long getBufferAddress(ByteBuffer buffer) {
+    static long getBufferAddress(ByteBuffer buffer) {
         return UNSAFE.getLong(buffer, BUFFER_ADDRESS_FIELD_OFFSET);
     }
 
-    private static long getAddress(ByteBuffer buffer, int index) {
+    static long getAddress(ByteBuffer buffer, int index) {
         return getBufferAddress(buffer) + index;
     }
 
@@ -182,6 +182,81 @@ abstract class UnsafeByteBufferAccess extends ByteBufferAccess {
 
 final class NativeUnsafeByteBufferAccess extends UnsafeByteBufferAccess {
     static final ByteBufferAccess INSTANCE = new NativeUnsafeByteBufferAccess();
+
+    private static boolean isAligned(long address, int size) {
+        return (address & (size - 1)) == 0;
+    }
+
+    @Override
+    public int getInt32Volatile(ByteBuffer buffer, int index) {
+        long address = getAddress(buffer, checkIndex(buffer, index, Integer.BYTES));
+        if (isAligned(address, Integer.BYTES)) {
+            return UNSAFE.getIntVolatile(null, address);
+        }
+        return super.getInt32Volatile(buffer, index);
+    }
+
+    @Override
+    public void putInt32Volatile(ByteBuffer buffer, int index, int value) {
+        long address = getAddress(buffer, checkIndex(buffer, index, Integer.BYTES));
+        if (isAligned(address, Integer.BYTES)) {
+            UNSAFE.putIntVolatile(null, address, value);
+        } else {
+            super.putInt32Volatile(buffer, index, value);
+        }
+    }
+
+    @Override
+    public long getInt64Volatile(ByteBuffer buffer, int index) {
+        long address = getAddress(buffer, checkIndex(buffer, index, Long.BYTES));
+        if (isAligned(address, Long.BYTES)) {
+            return UNSAFE.getLongVolatile(null, address);
+        }
+        return super.getInt64Volatile(buffer, index);
+    }
+
+    @Override
+    public void putInt64Volatile(ByteBuffer buffer, int index, long value) {
+        long address = getAddress(buffer, checkIndex(buffer, index, Long.BYTES));
+        if (isAligned(address, Long.BYTES)) {
+            UNSAFE.putLongVolatile(null, address, value);
+        } else {
+            super.putInt64Volatile(buffer, index, value);
+        }
+    }
+
+    @Override
+    public int compareExchangeInt32(ByteBuffer buffer, int index, int expected, int replacement) {
+        long address = getAddress(buffer, checkIndex(buffer, index, Integer.BYTES));
+        if (isAligned(address, Integer.BYTES)) {
+            for (;;) {
+                int read = UNSAFE.getIntVolatile(null, address);
+                if (read != expected || UNSAFE.compareAndSwapInt(null, address, expected, replacement)) {
+                    return read;
+                }
+            }
+        }
+        return super.compareExchangeInt32(buffer, index, expected, replacement);
+    }
+
+    @Override
+    public long compareExchangeInt64(ByteBuffer buffer, int index, long expected, long replacement) {
+        long address = getAddress(buffer, checkIndex(buffer, index, Long.BYTES));
+        if (isAligned(address, Long.BYTES)) {
+            for (;;) {
+                long read = UNSAFE.getLongVolatile(null, address);
+                if (read != expected || UNSAFE.compareAndSwapLong(null, address, expected, replacement)) {
+                    return read;
+                }
+            }
+        }
+        return super.compareExchangeInt64(buffer, index, expected, replacement);
+    }
+
+    @Override
+    protected int int32AlignmentOffset(ByteBuffer buffer, int index) {
+        return (int) ((getBufferAddress(buffer) + index) & (Integer.BYTES - 1));
+    }
 }
 
 final class ReservedUnsafeByteBufferAccess extends UnsafeByteBufferAccess {
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.parser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.js.nodes.JSNodeDecoder;
+import com.oracle.truffle.js.nodes.NodeFactory;
+import com.oracle.truffle.js.nodes.ScriptNode;
+import com.oracle.truffle.js.nodes.function.FunctionRootNode;
+import com.oracle.truffle.js.runtime.JSContext;
+
+/**
+ * Directory of binary snapshots of translated scripts (see {@link BinarySnapshotProvider}), named
+ * after the SHA-256 hash of the source code and a fingerprint of the context options and the
+ * snapshot format. Each file starts with a header holding the fingerprint and the SHA-256 hash of
+ * the source code, which are verified before the snapshot is decoded.
+ *
+ * The cache is read-only at runtime: it is populated by the snapshot tool and used in place of
+ * parsing when the {@code js.code-cache-dir} option points to the directory.
+ */
+public final class CodeCache {
+    private static final String FILE_SUFFIX = ".bin";
+    private static final int MAGIC = 0x4343534a;
+    private static final int DIGEST_LENGTH = 32;
+    private static final int HEADER_LENGTH = 4 + 4 + DIGEST_LENGTH;
+
+    private CodeCache() {
+    }
+
+    private static byte[] digest(Source source) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        return digest.digest(source.getCharacters().toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Fingerprint of the snapshot format and of the options that affect the translation. All the
+     * options cached by {@code JSContextOptions} (including the parser options, the compatibility
+     * modes and lazy parsing) are part of it, so a snapshot is only used by contexts with the
+     * options it was recorded with.
+     */
+    private static int fingerprint(JSContext context) {
+        return 31 * JSNodeDecoder.getChecksum() + context.getContextOptions().hashCode();
+    }
+
+    /**
+     * Returns the name of the cache file holding the snapshot of the given source.
+     */
+    public static String getFileName(Source source, JSContext context) {
+        CompilerAsserts.neverPartOfCompilation();
+        byte[] hash = digest(source);
+        int fingerprint = fingerprint(context);
+        StringBuilder sb = new StringBuilder(hash.length * 2 + 9 + FILE_SUFFIX.length());
+        for (byte b : hash) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        sb.append('-');
+        for (int shift = 28; shift >= 0; shift -= 4) {
+            sb.append(Character.forDigit((fingerprint >>> shift) & 0xf, 16));
+        }
+        return sb.append(FILE_SUFFIX).toString();
+    }
+
+    /**
+     * Writes the header of the cache file of the given source. The snapshot follows the header.
+     */
+    public static void writeHeader(OutputStream outs, Source source, JSContext context) throws IOException {
+        CompilerAsserts.neverPartOfCompilation();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC);
+        header.putInt(fingerprint(context));
+        header.put(digest(source));
+        outs.write(header.array());
+    }
+
+    /**
+     * Loads the script from the cache directory, or returns {@code null} if there is no usable
+     * snapshot for this source. A snapshot whose header does not match the source code and the
+     * options of the context, or that cannot be decoded, is treated like a missing one.
+     */
+    public static ScriptNode load(JSContext context, Source source, TruffleFile cacheDir) {
+        CompilerAsserts.neverPartOfCompilation();
+        byte[] bytes;
+        try {
+            TruffleFile file = cacheDir.resolve(getFileName(source, context));
+            if (!file.isReadable()) {
+                return null;
+            }
+            bytes = file.readAllBytes();
+        } catch (IOException | SecurityException e) {
+            return null;
+        }
+        if (!isValidHeader(bytes, source, context)) {
+            return null;
+        }
+        try {
+            BinarySnapshotProvider snapshot = new BinarySnapshotProvider(ByteBuffer.wrap(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH).slice());
+            return ScriptNode.fromFunctionRoot(context, (FunctionRootNode) snapshot.apply(NodeFactory.getInstance(context), context, source));
+        } catch (IllegalArgumentException | IllegalStateException | BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException | ClassCastException e) {
+            // snapshot of a different format or truncated; fall back to parsing
+            return null;
+        }
+    }
+
+    private static boolean isValidHeader(byte[] bytes, Source source, JSContext context) {
+        if (bytes.length < HEADER_LENGTH) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.wrap(bytes, 0, HEADER_LENGTH);
+        if (header.getInt() != MAGIC || header.getInt() != fingerprint(context)) {
+            return false;
+        }
+        byte[] hash = new byte[DIGEST_LENGTH];
+        header.get(hash);
+        return MessageDigest.isEqual(hash, digest(source));
+    }
+}
@@ -57,6 +57,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
 
+import com.oracle.js.parser.Lexer.RegexToken;
 import com.oracle.js.parser.ir.Expression;
 import com.oracle.js.parser.ir.Module;
 import com.oracle.js.parser.ir.Module.ExportEntry;
@@ -64,6 +65,7 @@ import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.DirectCallNode;
@@ -255,6 +257,12 @@ public final class GraalJSEvaluator implements JSParser {
         if (MODULE_MIME_TYPE.equals(mimeType) || (mimeType == null && source.getName().endsWith(MODULE_SOURCE_NAME_SUFFIX))) {
             return fakeScriptForModule(context, source);
         }
+        if (prolog.isEmpty() && epilog.isEmpty() && (argumentNames == null || argumentNames.length == 0)) {
+            ScriptNode cached = loadFromCodeCache(context, source);
+            if (cached != null) {
+                return cached;
+            }
+        }
         try {
             return JavaScriptTranslator.translateScript(NodeFactory.getInstance(context), context, source, context.getParserOptions().isStrict(), prolog, epilog, argumentNames);
         } catch (com.oracle.js.parser.ParserException e) {
@@ -262,6 +270,20 @@ public final class GraalJSEvaluator implements JSParser {
         }
     }
 
+    private static ScriptNode loadFromCodeCache(JSContext context, Source source) {
+        String cacheDir = context.getContextOptions().getCodeCacheDir();
+        if (cacheDir.isEmpty()) {
+            return null;
+        }
+        TruffleFile cacheDirFile;
+        try {
+            cacheDirFile = context.getRealm().getEnv().getPublicTruffleFile(cacheDir);
+        } catch (SecurityException | UnsupportedOperationException | IllegalArgumentException e) {
+            return null;
+        }
+        return CodeCache.load(context, source, cacheDirFile);
+    }
+
     private ScriptNode fakeScriptForModule(JSContext context, Source source) {
         RootNode rootNode = new JavaScriptRootNode(context.getLanguage(), JSBuiltin.createSourceSection(), null) {
             @Child private PerformPromiseThenNode performPromiseThenNode = PerformPromiseThenNode.create(context);
@@ -369,6 +391,45 @@ public final class GraalJSEvaluator implements JSParser {
         }
     }
 
+    /**
+     * A module parsed in the background, and the regular expression literals in it that still need
+     * to be validated.
+     */
+    private static final class PreparsedModule {
+        final com.oracle.js.parser.ir.FunctionNode functionNode;
+        final List<RegexToken> regexLiterals;
+
+        PreparsedModule(com.oracle.js.parser.ir.FunctionNode functionNode, List<RegexToken> regexLiterals) {
+            this.functionNode = functionNode;
+            this.regexLiterals = regexLiterals;
+        }
+    }
+
+    @Override
+    public Object preparseModule(JSContext context, Source source) {
+        List<RegexToken> regexLiterals = new ArrayList<>();
+        com.oracle.js.parser.ir.FunctionNode parsed = GraalJSParserHelper.parseModule(context, source, context.getParserOptions().putStrict(true), regexLiterals);
+        return new PreparsedModule(parsed, regexLiterals);
+    }
+
+    @Override
+    public List<String> getRequestedModules(Object preparsedModule) {
+        return ((PreparsedModule) preparsedModule).functionNode.getModule().getRequestedModules();
+    }
+
+    @TruffleBoundary
+    @Override
+    public JSModuleRecord parseModule(JSContext context, Source source, JSModuleLoader moduleLoader, Object preparsedModule) {
+        if (preparsedModule != null) {
+            PreparsedModule preparsed = (PreparsedModule) preparsedModule;
+            // if a literal is invalid, parse again to report the error at its position
+            if (GraalJSParserHelper.validateRegexLiterals(context, context.getParserOptions(), preparsed.regexLiterals)) {
+                return JavaScriptTranslator.translateModule(NodeFactory.getInstance(context), context, source, moduleLoader, preparsed.functionNode);
+            }
+        }
+        return parseModule(context, source, moduleLoader);
+    }
+
     @TruffleBoundary
     @Override
     public JSModuleRecord hostResolveImportedModule(JSContext context, ScriptOrModule referrer, String specifier) {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -41,6 +41,7 @@
 package com.oracle.truffle.js.parser;
 
 import java.io.PrintWriter;
+import java.util.List;
 import java.util.function.Function;
 
 import com.oracle.js.parser.ErrorManager;
@@ -79,20 +80,48 @@ public final class GraalJSParserHelper {
 
     public static FunctionNode parseScript(JSContext context, com.oracle.truffle.api.source.Source truffleSource, JSParserOptions parserOptions, boolean eval, boolean evalInFunction,
                     Scope evalScope, String prologue, String epilogue) {
-        return parseSource(context, truffleSource, parserOptions, false, eval, evalInFunction, evalScope, prologue, epilogue, null);
+        return parseSource(context, truffleSource, parserOptions, false, eval, evalInFunction, evalScope, prologue, epilogue, null, null);
     }
 
     public static FunctionNode parseScript(JSContext context, com.oracle.truffle.api.source.Source truffleSource, JSParserOptions parserOptions, boolean eval, boolean evalInFunction,
                     Scope evalScope, String prologue, String epilogue, String[] argumentNames) {
-        return parseSource(context, truffleSource, parserOptions, false, eval, evalInFunction, evalScope, prologue, epilogue, argumentNames);
+        return parseSource(context, truffleSource, parserOptions, false, eval, evalInFunction, evalScope, prologue, epilogue, argumentNames, null);
     }
 
     public static FunctionNode parseModule(JSContext context, com.oracle.truffle.api.source.Source truffleSource, JSParserOptions parserOptions) {
-        return parseSource(context, truffleSource, parserOptions, true, false, false, null, "", "", null);
+        return parseSource(context, truffleSource, parserOptions, true, false, false, null, "", "", null, null);
+    }
+
+    /**
+     * Parses a module on a thread that need not have entered the context. Regular expression
+     * literals are not validated, but added to {@code regexLiterals} to be checked later by
+     * {@link #validateRegexLiterals}.
+     */
+    public static FunctionNode parseModule(JSContext context, com.oracle.truffle.api.source.Source truffleSource, JSParserOptions parserOptions, List<RegexToken> regexLiterals) {
+        return parseSource(context, truffleSource, parserOptions, true, false, false, null, "", "", null, regexLiterals);
+    }
+
+    /**
+     * Validates regular expression literals collected while parsing a module in the background.
+     *
+     * @return false if any of the literals is invalid
+     */
+    public static boolean validateRegexLiterals(JSContext context, JSParserOptions parserOptions, List<RegexToken> regexLiterals) {
+        if (!context.getContextOptions().isValidateRegExpLiterals()) {
+            return true;
+        }
+        try {
+            for (RegexToken regex : regexLiterals) {
+                RegexCompilerInterface.validate(context, regex.getExpression(), regex.getOptions(), parserOptions.getEcmaScriptVersion());
+            }
+        } catch (JSException e) {
+            return false;
+        }
+        return true;
     }
 
     private static FunctionNode parseSource(JSContext context, com.oracle.truffle.api.source.Source truffleSource, JSParserOptions parserOptions,
-                    boolean parseModule, boolean eval, boolean evalInFunction, Scope evalScope, String prologue, String epilogue, String[] argumentNames) {
+                    boolean parseModule, boolean eval, boolean evalInFunction, Scope evalScope, String prologue, String epilogue, String[] argumentNames, List<RegexToken> regexLiterals) {
         CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
         CharSequence code;
         if (prologue.isEmpty() && epilogue.isEmpty()) {
@@ -106,7 +135,9 @@ public final class GraalJSParserHelper {
         }
         com.oracle.js.parser.Source source = com.oracle.js.parser.Source.sourceFor(truffleSource.getName(), code, eval);
 
-        ScriptEnvironment env = makeScriptEnvironment(parserOptions);
+        // functions can only be parsed again from the original source text
+        boolean lazyParsing = !eval && prologue.isEmpty() && epilogue.isEmpty() && context.getContextOptions().isLazyParsing();
+        ScriptEnvironment env = makeScriptEnvironment(parserOptions, lazyParsing);
         ErrorManager errors;
         if (eval) {
             errors = new ErrorManager.ThrowErrorManager();
@@ -115,7 +146,7 @@ public final class GraalJSParserHelper {
         }
         errors.setLimit(0);
 
-        Parser parser = createParser(context, env, source, errors, parserOptions);
+        Parser parser = createParser(context, env, source, errors, parserOptions, env.isStrict(), 0, regexLiterals);
 
         FunctionNode parsed;
         if (parseModule) {
@@ -134,6 +165,27 @@ public final class GraalJSParserHelper {
         return parsed;
     }
 
+    /**
+     * Parses the body of a function whose body has been skipped by lazy parsing.
+     */
+    public static FunctionNode parseLazyFunction(JSContext context, com.oracle.truffle.api.source.Source truffleSource, JSParserOptions parserOptions, FunctionNode lazyFunction,
+                    boolean module) {
+        CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
+        com.oracle.js.parser.Source source = com.oracle.js.parser.Source.sourceFor(truffleSource.getName(), truffleSource.getCharacters(), false);
+
+        ScriptEnvironment env = makeScriptEnvironment(parserOptions, true);
+        ErrorManager errors = new ErrorManager.StringBuilderErrorManager();
+        errors.setLimit(0);
+
+        int lineOffset = lazyFunction.getLineNumber() - 1;
+        Parser parser = createParser(context, env, source, errors, parserOptions, lazyFunction.isStrict(), lineOffset, null);
+        FunctionNode parsed = parser.parseLazyFunction(lazyFunction, module);
+        if (errors.hasErrors()) {
+            throwErrors(truffleSource, errors);
+        }
+        return parsed;
+    }
+
     public static Expression parseExpression(JSContext context, com.oracle.truffle.api.source.Source truffleSource, JSParserOptions parserOptions) {
         CompilerAsserts.neverPartOfCompilation(NEVER_PART_OF_COMPILATION_MESSAGE);
         CharSequence code = truffleSource.getCharacters();
@@ -153,13 +205,21 @@ public final class GraalJSParserHelper {
     }
 
     private static Parser createParser(JSContext context, ScriptEnvironment env, com.oracle.js.parser.Source source, ErrorManager errors, JSParserOptions parserOptions) {
-        return new Parser(env, source, errors) {
+        return createParser(context, env, source, errors, parserOptions, env.isStrict(), 0, null);
+    }
+
+    private static Parser createParser(JSContext context, ScriptEnvironment env, com.oracle.js.parser.Source source, ErrorManager errors, JSParserOptions parserOptions, boolean strict,
+                    int lineOffset, List<RegexToken> regexLiterals) {
+        return new Parser(env, source, errors, strict, lineOffset) {
             @Override
             protected void validateLexerToken(LexerToken lexerToken) {
                 if (lexerToken instanceof RegexToken) {
                     final RegexToken regex = (RegexToken) lexerToken;
-                    // validate regular expression
-                    if (context.getContextOptions().isValidateRegExpLiterals()) {
+                    if (regexLiterals != null) {
+                        // validation needs an entered context, defer it
+                        regexLiterals.add(regex);
+                    } else if (context.getContextOptions().isValidateRegExpLiterals()) {
+                        // validate regular expression
                         try {
                             RegexCompilerInterface.validate(context, regex.getExpression(), regex.getOptions(), parserOptions.getEcmaScriptVersion());
                         } catch (JSException e) {
@@ -177,6 +237,10 @@ public final class GraalJSParserHelper {
     }
 
     private static ScriptEnvironment makeScriptEnvironment(JSParserOptions parserOptions) {
+        return makeScriptEnvironment(parserOptions, false);
+    }
+
+    private static ScriptEnvironment makeScriptEnvironment(JSParserOptions parserOptions, boolean lazyParsing) {
         ScriptEnvironment.Builder builder = ScriptEnvironment.builder();
         builder.strict(parserOptions.isStrict());
         builder.ecmaScriptVersion(parserOptions.getEcmaScriptVersion());
@@ -188,6 +252,7 @@ public final class GraalJSParserHelper {
         builder.allowBigInt(parserOptions.isAllowBigInt());
         builder.annexB(parserOptions.isAnnexB());
         builder.classFields(parserOptions.isClassFields());
+        builder.lazyParsing(lazyParsing);
         if (parserOptions.isFunctionStatementError()) {
             builder.functionStatementBehavior(FunctionStatementBehavior.ERROR);
         } else {
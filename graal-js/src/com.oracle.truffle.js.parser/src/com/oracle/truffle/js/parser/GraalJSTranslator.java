@@ -353,13 +353,25 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
 
             LexicalContext savedLC = lc.copy();
             Environment parentEnv = environment;
+            functionData.setNumericComparatorOrder(getNumericComparatorOrder(functionNode));
             functionData.setLazyInit(fd -> {
-                GraalJSTranslator translator = newTranslator(parentEnv, savedLC);
-                translator.translateFunctionOnDemand(functionNode, fd, isStrict, isArrowFunction, isGeneratorFunction, isAsyncFunction, isDerivedConstructor, isGlobal,
+                FunctionNode parsedFunctionNode = functionNode;
+                LexicalContext functionLC = savedLC;
+                if (functionNode.isLazilyParsed()) {
+                    parsedFunctionNode = GraalJSParserHelper.parseLazyFunction(context, source, context.getParserOptions(), functionNode, savedLC.inModule());
+                    functionLC = savedLC.copy();
+                    functionLC.pop(functionNode);
+                    functionNeedsParentFramePass(parsedFunctionNode, context, functionLC.copy());
+                    functionLC.push(parsedFunctionNode);
+                    fd.setNumericComparatorOrder(getNumericComparatorOrder(parsedFunctionNode));
+                }
+                GraalJSTranslator translator = newTranslator(parentEnv, functionLC);
+                translator.translateFunctionOnDemand(parsedFunctionNode, fd, isStrict, isArrowFunction, isGeneratorFunction, isAsyncFunction, isDerivedConstructor, isGlobal,
                                 needsNewTarget, needsParentFrame, functionName, hasSyntheticArguments);
             });
             functionRoot = null;
         } else {
+            assert !functionNode.isLazilyParsed() : functionNode;
             try (EnvironmentCloseable functionEnv = enterFunctionEnvironment(isStrict, isArrowFunction, isGeneratorFunction, isDerivedConstructor, isAsyncFunction, isGlobal, hasSyntheticArguments)) {
                 FunctionEnvironment currentFunction = currentFunction();
                 currentFunction.setFunctionName(functionName);
@@ -398,6 +410,7 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
                                 needsParentFrame, isGeneratorFunction, isAsyncFunction, isClassConstructor, strictFunctionProperties, needsNewTarget);
 
                 functionRoot = createFunctionRoot(functionNode, functionData, currentFunction, body);
+                functionData.setNumericComparatorOrder(getNumericComparatorOrder(functionNode));
 
                 if (isEval) {
                     // force eager call target init for Function() code to avoid deopt at call site
@@ -836,6 +849,44 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
         return functionNode.getName();
     }
 
+    /**
+     * Recognizes comparison functions of the form {@code (a, b) => a - b} or
+     * {@code function(a, b) { return b - a; }}, which order numbers without side effects, so that
+     * sort can order numeric arrays without calling them.
+     *
+     * @return 1 for ascending order, -1 for descending order, or 0 if not recognized
+     */
+    private static int getNumericComparatorOrder(FunctionNode functionNode) {
+        if (functionNode.isLazilyParsed() || functionNode.getNumOfParams() != 2 || !functionNode.hasSimpleParameterList() || functionNode.isGenerator() || functionNode.isAsync()) {
+            return 0;
+        }
+        List<Statement> statements = functionNode.getBody().getStatements();
+        if (statements.size() != 1 || !(statements.get(0) instanceof com.oracle.js.parser.ir.ReturnNode)) {
+            return 0;
+        }
+        Expression expression = ((com.oracle.js.parser.ir.ReturnNode) statements.get(0)).getExpression();
+        if (!(expression instanceof BinaryNode) || !expression.isTokenType(TokenType.SUB)) {
+            return 0;
+        }
+        Expression lhs = ((BinaryNode) expression).getLhs();
+        Expression rhs = ((BinaryNode) expression).getRhs();
+        if (!(lhs instanceof IdentNode) || !(rhs instanceof IdentNode)) {
+            return 0;
+        }
+        String first = functionNode.getParameters().get(0).getName();
+        String second = functionNode.getParameters().get(1).getName();
+        String minuend = ((IdentNode) lhs).getName();
+        String subtrahend = ((IdentNode) rhs).getName();
+        if (first.equals(second)) {
+            return 0;
+        } else if (minuend.equals(first) && subtrahend.equals(second)) {
+            return 1;
+        } else if (minuend.equals(second) && subtrahend.equals(first)) {
+            return -1;
+        }
+        return 0;
+    }
+
     private JavaScriptNode prepareParameters(JavaScriptNode body) {
         FrameSlot[] frameSlots = currentFunction().getParameters().toArray(new FrameSlot[currentFunction().getParameterCount()]);
         return createEnterFrameBlock(frameSlots, body);
@@ -934,11 +985,18 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
     }
 
     private static void functionNeedsParentFramePass(FunctionNode rootFunctionNode, JSContext context) {
+        functionNeedsParentFramePass(rootFunctionNode, context, new LexicalContext());
+    }
+
+    /**
+     * @param parentLC lexical context of the enclosing functions of {@code rootFunctionNode}
+     */
+    private static void functionNeedsParentFramePass(FunctionNode rootFunctionNode, JSContext context, LexicalContext parentLC) {
         if (!context.getContextOptions().isLazyTranslation()) {
             return; // nothing to do
         }
 
-        com.oracle.js.parser.ir.visitor.NodeVisitor<LexicalContext> visitor = new com.oracle.js.parser.ir.visitor.NodeVisitor<LexicalContext>(new LexicalContext()) {
+        com.oracle.js.parser.ir.visitor.NodeVisitor<LexicalContext> visitor = new com.oracle.js.parser.ir.visitor.NodeVisitor<LexicalContext>(parentLC) {
             @Override
             public boolean enterIdentNode(IdentNode identNode) {
                 if (!identNode.isPropertyName()) {
@@ -1050,6 +1108,13 @@ abstract class GraalJSTranslator extends com.oracle.js.parser.ir.visitor.Transla
                 if (functionNode.hasEval()) {
                     markUsesAncestorScopeUntil(null, false);
                 }
+                if (functionNode.isLazilyParsed()) {
+                    // the body is not available, but its free variables have been recorded
+                    for (String varName : functionNode.getLazyFreeVariables()) {
+                        findSymbol(varName);
+                    }
+                    return false;
+                }
                 // TODO if function does not have nested functions we can skip it
                 return true;
             }
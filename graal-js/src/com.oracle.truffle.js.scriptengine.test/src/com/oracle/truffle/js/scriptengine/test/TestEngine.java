@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -50,10 +50,16 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.script.Bindings;
 import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.Invocable;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
@@ -104,6 +110,124 @@ public class TestEngine {
         ((Compilable) getEngine()).compile(":-(");
     }
 
+    @Test
+    public void compileAndEvalWithBindings() throws ScriptException {
+        ScriptEngine engine = getEngine();
+        CompiledScript script = ((Compilable) engine).compile("var count = (typeof count === 'number') ? count + 1 : 1; x * 2 + count");
+        for (int i = 0; i < 3; i++) {
+            Bindings bindings = engine.createBindings();
+            for (int x = 0; x < 5; x++) {
+                bindings.put("x", x);
+                // the script is parsed once per context, but executed on every eval
+                assertEquals(x * 3 + 1, ((Number) script.eval(bindings)).intValue());
+            }
+        }
+        engine.put("x", 0);
+        assertEquals(1, ((Number) script.eval()).intValue());
+        assertEquals(2, ((Number) script.eval()).intValue());
+    }
+
+    @Test
+    public void sharedPolyglotEngine() throws ScriptException {
+        // script engines of the same factory share the polyglot engine and thus parsed code
+        GraalJSScriptEngine engine1 = (GraalJSScriptEngine) getEngine();
+        GraalJSScriptEngine engine2 = (GraalJSScriptEngine) engine1.getFactory().getScriptEngine();
+        assertSame(engine1.getPolyglotEngine(), engine2.getPolyglotEngine());
+        String code = "function f(a) { return a + 1; } f(41)";
+        assertEquals(42, ((Number) ((Compilable) engine1).compile(code).eval()).intValue());
+        assertEquals(42, ((Number) ((Compilable) engine2).compile(code).eval()).intValue());
+    }
+
+    @Test
+    public void pooledEngine() throws Exception {
+        int threads = 4;
+        try (GraalJSScriptEngine engine = GraalJSScriptEngine.createPooled(null, null, threads)) {
+            CompiledScript script = engine.compile("result = x * 2; x + 1");
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    futures.add(executor.submit(() -> {
+                        for (int x = 0; x < 100; x++) {
+                            Bindings bindings = engine.createBindings();
+                            bindings.put("x", x);
+                            bindings.put("result", null);
+                            assertEquals(x + 1, ((Number) script.eval(bindings)).intValue());
+                            // values of global variables are copied back to the bindings
+                            assertEquals(x * 2, ((Number) bindings.get("result")).intValue());
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+            // bindings of one evaluation do not leak into the next one
+            assertEquals("undefined", engine.eval("typeof x", engine.createBindings()));
+        }
+    }
+
+    @Test
+    public void pooledEngineScriptObjects() throws Exception {
+        try (GraalJSScriptEngine engine = GraalJSScriptEngine.createPooled(null, null, 1)) {
+            // global state created by scripts stays in the pooled context
+            engine.eval("var counter = { n: 0 }; function next() { return ++counter.n; }");
+            assertEquals(1, ((Number) engine.eval("next()")).intValue());
+            assertEquals(2, ((Number) engine.eval("counter.n = next(); counter.n")).intValue());
+
+            Bindings bindings = engine.createBindings();
+            bindings.put("o", 1);
+            for (String code : new String[]{"o = { x: 42 }", "o = next"}) {
+                try {
+                    engine.eval(code, bindings);
+                    fail("ScriptException expected");
+                } catch (ScriptException e) {
+                    // script objects cannot be copied back to the bindings
+                }
+                assertEquals(1, ((Number) bindings.get("o")).intValue());
+            }
+            engine.eval("o = String(counter.n)", bindings);
+            assertEquals("2", bindings.get("o"));
+            assertEquals("string", engine.eval("typeof o", bindings));
+
+            try {
+                ((Invocable) engine).invokeFunction("next");
+                fail("UnsupportedOperationException expected");
+            } catch (UnsupportedOperationException e) {
+                // functions are local to one of the pooled contexts
+            }
+        }
+    }
+
+    @Test
+    public void pooledEngineResetImportedGlobals() throws Exception {
+        try (GraalJSScriptEngine engine = GraalJSScriptEngine.createPooled(null, null, 1)) {
+            Bindings bindings = engine.createBindings();
+            bindings.put("x", 1);
+            // redeclaring an imported variable makes it non-configurable
+            assertEquals(2, ((Number) engine.eval("var x = 2; var y = 3; x", bindings)).intValue());
+            assertEquals(2, ((Number) bindings.get("x")).intValue());
+            // the context could not be reset and has been replaced
+            assertEquals("undefined", engine.eval("typeof x", engine.createBindings()));
+            assertEquals("undefined", engine.eval("typeof y", engine.createBindings()));
+        }
+    }
+
+    @Test
+    public void pooledEngineGetPolyglotContext() throws Exception {
+        try (GraalJSScriptEngine engine = GraalJSScriptEngine.createPooled(null, null, 1)) {
+            try {
+                engine.getPolyglotContext();
+                fail("IllegalStateException expected");
+            } catch (IllegalStateException e) {
+                // no pooled context is leased by this thread
+            }
+        }
+    }
+
     @Test
     public void declareVar() throws ScriptException {
         // @formatter:off
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -44,11 +44,14 @@ import java.util.AbstractMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import javax.script.Bindings;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.TypeLiteral;
 import org.graalvm.polyglot.Value;
 
@@ -67,6 +70,8 @@ final class GraalJSBindings extends AbstractMap<String, Object> implements Bindi
     private Context.Builder contextBuilder;
     // ScriptContext of the ScriptEngine where these bindings form ENGINE_SCOPE bindings
     private ScriptContext engineScriptContext;
+    // scripts compiled by the ScriptEngine, parsed in this context
+    private Map<CompiledScript, Value> parsedScripts;
 
     GraalJSBindings(Context.Builder contextBuilder, ScriptContext scriptContext) {
         this.contextBuilder = contextBuilder;
@@ -189,6 +194,23 @@ final class GraalJSBindings extends AbstractMap<String, Object> implements Bindi
         }
     }
 
+    /**
+     * Returns the script parsed in this context for the given compiled script, parsing the source
+     * on first use. Parsed scripts do not keep their compiled script alive.
+     */
+    Value getParsedScript(CompiledScript compiledScript, Source source) {
+        requireContext();
+        if (parsedScripts == null) {
+            parsedScripts = new WeakHashMap<>();
+        }
+        Value parsedScript = parsedScripts.get(compiledScript);
+        if (parsedScript == null) {
+            parsedScript = context.parse(source);
+            parsedScripts.put(compiledScript, parsedScript);
+        }
+        return parsedScript;
+    }
+
     void updateEngineScriptContext(ScriptContext scriptContext) {
         engineScriptContext = scriptContext;
     }
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.scriptengine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.polyglot.Context;
+
+/**
+ * Pool of polyglot contexts used by a {@link GraalJSScriptEngine} in pooled mode. All contexts are
+ * created from the same context configuration and thus share the polyglot engine and its compiled
+ * code. A context is leased by one thread at a time; nested leases by the same thread reuse the
+ * context it already holds.
+ */
+final class GraalJSContextPool implements AutoCloseable {
+
+    private static final long CLOSED_CHECK_INTERVAL_MILLIS = 100;
+
+    private final Context.Builder contextConfig;
+    private final int size;
+    private final BlockingQueue<GraalJSBindings> idle;
+    private final List<GraalJSBindings> all;
+    private final ThreadLocal<Lease> currentLease = new ThreadLocal<>();
+    private boolean closed;
+
+    private static final class Lease {
+        final GraalJSBindings bindings;
+        int depth;
+        boolean discarded;
+
+        Lease(GraalJSBindings bindings) {
+            this.bindings = bindings;
+        }
+    }
+
+    GraalJSContextPool(Context.Builder contextConfig, int size) {
+        assert size > 0;
+        this.contextConfig = contextConfig;
+        this.size = size;
+        this.idle = new ArrayBlockingQueue<>(size);
+        this.all = new ArrayList<>(size);
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Leases a context to the calling thread, creating it if the pool is not full yet, or waiting
+     * for another thread to release one. Every call must be paired with {@link #release}.
+     */
+    GraalJSBindings acquire() {
+        Lease lease = currentLease.get();
+        if (lease == null) {
+            GraalJSBindings bindings = idle.poll();
+            if (bindings == null) {
+                bindings = createOrTake();
+            }
+            lease = new Lease(bindings);
+            currentLease.set(lease);
+        }
+        lease.depth++;
+        return lease.bindings;
+    }
+
+    void release(GraalJSBindings bindings) {
+        Lease lease = currentLease.get();
+        assert lease != null && lease.bindings == bindings;
+        if (--lease.depth == 0) {
+            currentLease.remove();
+            if (lease.discarded) {
+                synchronized (this) {
+                    if (!all.remove(bindings)) {
+                        return;
+                    }
+                }
+                bindings.getContext().close();
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+            }
+            idle.add(bindings);
+        }
+    }
+
+    /**
+     * Like {@link #release}, but for a context whose global state cannot be reset. Once the
+     * outermost lease ends, the context is closed and removed from the pool, which creates a new
+     * one on demand.
+     */
+    void discard(GraalJSBindings bindings) {
+        Lease lease = currentLease.get();
+        assert lease != null && lease.bindings == bindings;
+        lease.discarded = true;
+        release(bindings);
+    }
+
+    /**
+     * Returns the context leased by the calling thread, or {@code null} if the thread does not
+     * hold a lease.
+     */
+    GraalJSBindings getLeased() {
+        Lease lease = currentLease.get();
+        return lease == null ? null : lease.bindings;
+    }
+
+    private GraalJSBindings createOrTake() {
+        try {
+            while (true) {
+                synchronized (this) {
+                    if (closed) {
+                        throw new IllegalStateException("The script engine has been closed");
+                    }
+                    // the pool may have shrunk because a context was discarded
+                    if (all.size() < size) {
+                        // Context.Builder is not thread-safe
+                        GraalJSBindings bindings = new GraalJSBindings(GraalJSScriptEngine.createDefaultContext(contextConfig), null);
+                        all.add(bindings);
+                        return bindings;
+                    }
+                }
+                GraalJSBindings bindings = idle.poll(CLOSED_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (bindings != null) {
+                    return bindings;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Closes all contexts of the pool. Contexts that are currently leased are cancelled.
+     */
+    @Override
+    public void close() {
+        List<GraalJSBindings> toClose;
+        synchronized (this) {
+            closed = true;
+            toClose = new ArrayList<>(all);
+            all.clear();
+        }
+        idle.clear();
+        for (GraalJSBindings bindings : toClose) {
+            bindings.getContext().close(true);
+        }
+    }
+}
@@ -123,9 +123,10 @@ public final class GraalJSEngineFactory implements ScriptEngineFactory {
     }
 
     /**
-     * Returns the underlying polyglot engine.
+     * Returns the underlying polyglot engine. Script engines created by this factory share it, and
+     * thus also the code parsed in their contexts.
      */
-    public Engine getPolyglotEngine() {
+    public synchronized Engine getPolyglotEngine() {
         if (userDefinedEngine != null) {
             return userDefinedEngine;
         } else {
@@ -196,6 +197,20 @@ public final class GraalJSEngineFactory implements ScriptEngineFactory {
         return new GraalJSScriptEngine(this);
     }
 
+    /**
+     * Returns a new script engine that can be used by multiple threads concurrently, evaluating
+     * scripts in a pool of up to {@code contextPoolSize} contexts of this factory's polyglot
+     * engine.
+     *
+     * @see GraalJSScriptEngine#createPooled
+     */
+    public GraalJSScriptEngine getPooledScriptEngine(int contextPoolSize) {
+        if (contextPoolSize <= 0) {
+            throw new IllegalArgumentException("contextPoolSize must be positive");
+        }
+        return new GraalJSScriptEngine(this, getPolyglotEngine(), null, contextPoolSize);
+    }
+
     @Override
     public String getMethodCallSyntax(final String obj, final String method, final String... args) {
         Objects.requireNonNull(obj);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -53,6 +53,10 @@ import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.function.Predicate;
 
 import javax.script.AbstractScriptEngine;
@@ -63,6 +67,7 @@ import javax.script.Invocable;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
+import javax.script.SimpleBindings;
 
 import org.graalvm.collections.EconomicMap;
 import org.graalvm.collections.EconomicSet;
@@ -79,6 +84,26 @@ import org.graalvm.polyglot.proxy.Proxy;
 /**
  * A Graal.JS implementation of the script engine. It provides access to the polyglot context using
  * {@link #getPolyglotContext()}.
+ * <p>
+ * A script engine created with {@link #createPooled(Engine, Context.Builder, int)} evaluates
+ * scripts in a pool of polyglot contexts instead, so that it can be used by multiple threads
+ * concurrently. Its {@link ScriptContext#ENGINE_SCOPE} bindings are plain thread-safe bindings:
+ * their entries are copied into the global scope of the leased context before a script is
+ * evaluated, and the values of these global variables are copied back afterwards. Only values that
+ * are not bound to a context (primitives, host objects and proxies) can be copied back; assigning
+ * a script object or function to such a variable makes the evaluation fail with a
+ * {@link ScriptException}. Imported variables are removed from the global scope after the
+ * evaluation; a context in which this is not possible, e.g., because a script redeclared such a
+ * variable with {@code var}, is discarded from the pool.
+ * <p>
+ * Any other global state created by scripts, such as functions and variables declared at the top
+ * level, is local to the pooled context that evaluated the script. Such state is not visible to
+ * evaluations that lease another context, so consecutive evaluations, even by the same thread, may
+ * see different global scopes. Scripts evaluated in pooled mode should therefore not depend on
+ * global state of previous evaluations other than the engine scope bindings. For the same reason,
+ * the {@link Invocable} methods are not supported in pooled mode. Pooled mode is only used by
+ * script engines created explicitly with {@link #createPooled} or
+ * {@link GraalJSEngineFactory#getPooledScriptEngine}.
  */
 public final class GraalJSScriptEngine extends AbstractScriptEngine implements Compilable, Invocable, AutoCloseable {
 
@@ -255,14 +280,19 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
 
     private final GraalJSEngineFactory factory;
     private final Context.Builder contextConfig;
+    private final GraalJSContextPool contextPool;
 
-    private boolean evalCalled;
+    private volatile boolean evalCalled;
 
     GraalJSScriptEngine(GraalJSEngineFactory factory) {
         this(factory, factory.getPolyglotEngine(), null);
     }
 
     GraalJSScriptEngine(GraalJSEngineFactory factory, Engine engine, Context.Builder contextConfig) {
+        this(factory, engine, contextConfig, 0);
+    }
+
+    GraalJSScriptEngine(GraalJSEngineFactory factory, Engine engine, Context.Builder contextConfig, int contextPoolSize) {
         Engine engineToUse = engine;
         if (engineToUse == null) {
             engineToUse = Engine.newBuilder().allowExperimentalOptions(true).build();
@@ -283,7 +313,17 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
         }
         this.factory = (factory == null) ? new GraalJSEngineFactory(engineToUse) : factory;
         this.contextConfig = contextConfigToUse.option(JS_SCRIPT_ENGINE_GLOBAL_SCOPE_IMPORT_OPTION, "true").engine(engineToUse);
-        this.context.setBindings(new GraalJSBindings(this.contextConfig, this.context), ScriptContext.ENGINE_SCOPE);
+        if (contextPoolSize > 0) {
+            this.contextPool = new GraalJSContextPool(this.contextConfig, contextPoolSize);
+            this.context.setBindings(createPooledBindings(), ScriptContext.ENGINE_SCOPE);
+        } else {
+            this.contextPool = null;
+            this.context.setBindings(new GraalJSBindings(this.contextConfig, this.context), ScriptContext.ENGINE_SCOPE);
+        }
+    }
+
+    private static Bindings createPooledBindings() {
+        return new SimpleBindings(Collections.synchronizedMap(new HashMap<>()));
     }
 
     private static void updateForNashornCompatibilityMode(Context.Builder builder) {
@@ -313,7 +353,15 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
      */
     @Override
     public void close() {
-        getPolyglotContext().close();
+        if (contextPool != null) {
+            contextPool.close();
+            Object ctx = context.getBindings(ScriptContext.ENGINE_SCOPE).get(POLYGLOT_CONTEXT);
+            if (ctx instanceof Context) {
+                ((Context) ctx).close();
+            }
+        } else {
+            getPolyglotContext().close();
+        }
     }
 
     /**
@@ -324,12 +372,23 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
     }
 
     /**
-     * Returns the polyglot context associated with the default ScriptContext of the engine.
+     * Returns the polyglot context associated with the default ScriptContext of the engine. In
+     * pooled mode, this is the pooled context leased by the calling thread, i.e., the context of
+     * the script that the thread is currently evaluating.
      *
+     * @throws IllegalStateException in pooled mode, if the calling thread is not evaluating a
+     *             script of this engine
      * @see #getPolyglotContext(ScriptContext) to access the polyglot context of a particular
      *      context.
      */
     public Context getPolyglotContext() {
+        if (contextPool != null) {
+            GraalJSBindings leased = contextPool.getLeased();
+            if (leased == null) {
+                throw new IllegalStateException("The polyglot context of a pooled script engine is only accessible while evaluating a script");
+            }
+            return leased.getContext();
+        }
         return getPolyglotContext(context);
     }
 
@@ -348,6 +407,9 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
 
     @Override
     public Bindings createBindings() {
+        if (contextPool != null) {
+            return createPooledBindings();
+        }
         return new GraalJSBindings(contextConfig, null);
     }
 
@@ -417,6 +479,18 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
     }
 
     private Object eval(Source source, ScriptContext scriptContext) throws ScriptException {
+        return eval(source, null, scriptContext);
+    }
+
+    /**
+     * Evaluates the source in the polyglot context of the given script context. If a compiled
+     * script is given, the source is parsed only once per polyglot context and the parsed script
+     * is executed instead.
+     */
+    private Object eval(Source source, CompiledScript compiledScript, ScriptContext scriptContext) throws ScriptException {
+        if (contextPool != null && !(scriptContext.getBindings(ScriptContext.ENGINE_SCOPE) instanceof GraalJSBindings)) {
+            return evalPooled(source, compiledScript, scriptContext);
+        }
         GraalJSBindings engineBindings = getOrCreateGraalJSBindings(scriptContext);
         Context polyglotContext = engineBindings.getContext();
         updateDelegatingIOStreams(polyglotContext, scriptContext);
@@ -425,6 +499,9 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
                 jrunscriptInitWorkaround(source, polyglotContext);
             }
             engineBindings.importGlobalBindings(scriptContext);
+            if (compiledScript != null) {
+                return engineBindings.getParsedScript(compiledScript, source).execute().as(Object.class);
+            }
             return polyglotContext.eval(source).as(Object.class);
         } catch (PolyglotException e) {
             throw toScriptException(e);
@@ -433,6 +510,91 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
         }
     }
 
+    /**
+     * Evaluates the source in a context leased from the pool, with the entries of the engine scope
+     * bindings imported as global variables for the duration of the evaluation.
+     */
+    private Object evalPooled(Source source, CompiledScript compiledScript, ScriptContext scriptContext) throws ScriptException {
+        Bindings engineB = scriptContext.getBindings(ScriptContext.ENGINE_SCOPE);
+        GraalJSBindings pooledBindings = contextPool.acquire();
+        List<String> importedKeys = new ArrayList<>();
+        try {
+            updateDelegatingIOStreams(pooledBindings.getContext(), scriptContext);
+            pooledBindings.importGlobalBindings(scriptContext);
+            // toArray of a synchronized map's key set takes a consistent snapshot
+            for (String key : engineB.keySet().toArray(new String[0])) {
+                if (!key.equals(POLYGLOT_CONTEXT) && !key.startsWith(MAGIC_OPTION_PREFIX)) {
+                    pooledBindings.put(key, engineB.get(key));
+                    importedKeys.add(key);
+                }
+            }
+            Value result;
+            if (compiledScript != null) {
+                result = pooledBindings.getParsedScript(compiledScript, source).execute();
+            } else {
+                result = pooledBindings.getContext().eval(source);
+            }
+            // check all values before copying any of them back
+            Value globals = pooledBindings.getContext().getBindings(ID);
+            Object[] values = new Object[importedKeys.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = toUnboundValue(importedKeys.get(i), globals.getMember(importedKeys.get(i)));
+            }
+            for (int i = 0; i < values.length; i++) {
+                engineB.put(importedKeys.get(i), values[i]);
+            }
+            return result.as(Object.class);
+        } catch (PolyglotException e) {
+            throw toScriptException(e);
+        } finally {
+            if (removeImportedKeys(pooledBindings, importedKeys)) {
+                contextPool.release(pooledBindings);
+            } else {
+                contextPool.discard(pooledBindings);
+            }
+        }
+    }
+
+    /**
+     * Removes the imported global variables from a pooled context so that they do not leak into
+     * the next evaluation. Returns {@code false} if a variable could not be removed, e.g., because
+     * the script redeclared it with {@code var}, which makes it non-configurable.
+     */
+    private static boolean removeImportedKeys(GraalJSBindings pooledBindings, List<String> importedKeys) {
+        if (importedKeys.isEmpty()) {
+            return true;
+        }
+        try {
+            Value globals = pooledBindings.getContext().getBindings(ID);
+            for (String key : importedKeys) {
+                pooledBindings.remove(key);
+                if (globals.hasMember(key)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (PolyglotException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Converts the value of a global variable of a pooled context to a value that can be used
+     * outside of the context, i.e., in the next evaluation, which may use another context.
+     */
+    private static Object toUnboundValue(String name, Value value) throws ScriptException {
+        if (value == null || value.isNull()) {
+            return null;
+        } else if (value.isHostObject()) {
+            return value.asHostObject();
+        } else if (value.isProxyObject()) {
+            return value.asProxyObject();
+        } else if (value.isString() || value.isBoolean() || value.isNumber()) {
+            return value.as(Object.class);
+        }
+        throw new ScriptException("The value of global variable '" + name + "' is bound to a pooled context and cannot be copied back to the bindings");
+    }
+
     private static ScriptException toScriptException(PolyglotException ex) {
         ScriptException sex;
         if (ex.isHostException()) {
@@ -488,8 +650,15 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
         return factory;
     }
 
+    private void checkInvocable() {
+        if (contextPool != null) {
+            throw new UnsupportedOperationException("Invocable is not supported by a pooled script engine");
+        }
+    }
+
     @Override
     public Object invokeMethod(Object thiz, String name, Object... args) throws ScriptException, NoSuchMethodException {
+        checkInvocable();
         if (thiz == null) {
             throw new IllegalArgumentException("thiz is not a valid object.");
         }
@@ -513,6 +682,7 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
 
     @Override
     public Object invokeFunction(String name, Object... args) throws ScriptException, NoSuchMethodException {
+        checkInvocable();
         GraalJSBindings engineBindings = getOrCreateGraalJSBindings(context);
         engineBindings.importGlobalBindings(context);
         Value function = engineBindings.getContext().getBindings(ID).getMember(name);
@@ -539,12 +709,14 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
 
     @Override
     public <T> T getInterface(Class<T> clasz) {
+        checkInvocable();
         checkInterface(clasz);
         return getInterfaceInner(evalInternal(getPolyglotContext(), "this"), clasz);
     }
 
     @Override
     public <T> T getInterface(Object thiz, Class<T> clasz) {
+        checkInvocable();
         if (thiz == null) {
             throw new IllegalArgumentException("this cannot be null");
         }
@@ -586,8 +758,7 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
     }
 
     private CompiledScript compile(Source source) throws ScriptException {
-        checkSyntax(source);
-        return new CompiledScript() {
+        CompiledScript compiledScript = new CompiledScript() {
             @Override
             public ScriptEngine getEngine() {
                 return GraalJSScriptEngine.this;
@@ -595,17 +766,21 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
 
             @Override
             public Object eval(ScriptContext ctx) throws ScriptException {
-                return GraalJSScriptEngine.this.eval(source, ctx);
+                return GraalJSScriptEngine.this.eval(source, this, ctx);
             }
         };
-    }
-
-    private void checkSyntax(Source source) throws ScriptException {
+        // parsing the script in the context of the engine also checks its syntax
+        GraalJSBindings engineBindings = contextPool != null ? contextPool.acquire() : getOrCreateGraalJSBindings(context);
         try {
-            getPolyglotContext().parse(source);
+            engineBindings.getParsedScript(compiledScript, source);
         } catch (PolyglotException pex) {
             throw toScriptException(pex);
+        } finally {
+            if (contextPool != null) {
+                contextPool.release(engineBindings);
+            }
         }
+        return compiledScript;
     }
 
     private static class DelegatingInputStream extends InputStream implements Proxy {
@@ -704,6 +879,28 @@ public final class GraalJSScriptEngine extends AbstractScriptEngine implements C
         return new GraalJSScriptEngine(null, engine, newContextConfig);
     }
 
+    /**
+     * Creates a new GraalJS script engine that can be used by multiple threads concurrently. It
+     * evaluates scripts in a pool of up to {@code contextPoolSize} polyglot contexts that are
+     * created on demand from the same configuration and share the polyglot engine, and thus also
+     * the compiled code of {@linkplain Compilable#compile(String) compiled scripts}. A calling
+     * thread waits if all contexts of the pool are in use.
+     *
+     * @param engine the engine to be used for context configurations or <code>null</code> if a
+     *            default engine should be used.
+     * @param newContextConfig a base configuration to create new context instances or
+     *            <code>null</code> if the default configuration should be used to construct new
+     *            context instances.
+     * @param contextPoolSize the maximum number of contexts in the pool
+     * @see GraalJSScriptEngine the differences in the handling of bindings in pooled mode
+     */
+    public static GraalJSScriptEngine createPooled(Engine engine, Context.Builder newContextConfig, int contextPoolSize) {
+        if (contextPoolSize <= 0) {
+            throw new IllegalArgumentException("contextPoolSize must be positive");
+        }
+        return new GraalJSScriptEngine(null, engine, newContextConfig, contextPoolSize);
+    }
+
     private static boolean isInterfaceImplemented(final Class<?> iface, final Value obj) {
         for (final Method method : iface.getMethods()) {
             // ignore methods of java.lang.Object class
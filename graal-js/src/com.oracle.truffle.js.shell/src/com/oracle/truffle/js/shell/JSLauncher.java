@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -341,6 +341,8 @@ public class JSLauncher extends AbstractLanguageLauncher {
                 loadSourcesFromImage(context.getEngine().getCachedSources());
                 // Every engine runs different Source objects.
                 Source[] sources = parseSources();
+                // look up the event loop before the scripts can shadow the global
+                Value eventLoop = getEventLoop(context);
                 status = -1;
                 for (Source source : sources) {
                     try {
@@ -356,6 +358,14 @@ public class JSLauncher extends AbstractLanguageLauncher {
                         status = 8;
                     }
                 }
+                if (status == 0 && eventLoop != null) {
+                    // run the callbacks of setTimeout and friends (--js.timers) before exiting
+                    try {
+                        eventLoop.invokeMember("run");
+                    } catch (PolyglotException e) {
+                        status = handlePolyglotException(e);
+                    }
+                }
             } else {
                 status = runREPL(context);
             }
@@ -367,6 +377,15 @@ public class JSLauncher extends AbstractLanguageLauncher {
         return status;
     }
 
+    /**
+     * Returns the {@code EventLoop} global object that is provided with the {@code js.timers}
+     * option, or {@code null}.
+     */
+    private static Value getEventLoop(Context context) {
+        Value eventLoop = context.getBindings("js").getMember("EventLoop");
+        return eventLoop != null && eventLoop.hasMember("run") ? eventLoop : null;
+    }
+
     private static int handlePolyglotException(PolyglotException e) {
         int status;
         if (e.isExit()) {
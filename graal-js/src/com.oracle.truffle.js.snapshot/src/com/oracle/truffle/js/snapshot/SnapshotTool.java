@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -46,6 +46,7 @@ import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +54,7 @@ import org.graalvm.polyglot.Context;
 
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.parser.CodeCache;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSContextOptions;
 import com.oracle.truffle.js.runtime.JSRealm;
@@ -68,6 +70,8 @@ public class SnapshotTool {
         boolean wrapped = false;
         String outDir = null;
         String inDir = null;
+        String codeCacheDir = null;
+        Map<String, String> jsOptions = new HashMap<>();
         List<String> srcFiles = new ArrayList<>();
         for (String arg : args) {
             if (arg.startsWith("--")) {
@@ -83,12 +87,32 @@ public class SnapshotTool {
                     outDir = requireDirectory(arg.substring(arg.indexOf('=') + 1));
                 } else if (arg.startsWith("--indir=")) {
                     inDir = requireDirectory(arg.substring(arg.indexOf('=') + 1));
+                } else if (arg.startsWith("--code-cache=")) {
+                    codeCacheDir = requireDirectory(arg.substring(arg.indexOf('=') + 1));
+                } else if (arg.startsWith("--js.") && arg.indexOf('=') > 0) {
+                    jsOptions.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
                 }
             }
         }
 
         SnapshotTool snapshotTool = new SnapshotTool();
-        if (!srcFiles.isEmpty() && outDir != null) {
+        if (!srcFiles.isEmpty() && codeCacheDir != null) {
+            // the snapshots must be recorded with the options of the contexts that use the cache
+            try (Context polyglotContext = Context.newBuilder(JavaScriptLanguage.ID).allowIO(true).allowExperimentalOptions(true).options(jsOptions).option(
+                            JSContextOptions.LAZY_TRANSLATION_NAME, "false").build()) {
+                polyglotContext.initialize(JavaScriptLanguage.ID);
+                polyglotContext.enter();
+                for (String srcFile : srcFiles) {
+                    File sourceFile = inDir == null ? new File(srcFile) : Paths.get(inDir, srcFile).toFile();
+                    if (!sourceFile.isFile()) {
+                        throw new IllegalArgumentException("Not a file: " + sourceFile);
+                    }
+                    snapshotTool.snapshotScriptFileToCodeCache(srcFile, sourceFile, codeCacheDir);
+                }
+                snapshotTool.timeStats.print();
+                polyglotContext.leave();
+            }
+        } else if (!srcFiles.isEmpty() && outDir != null) {
             try (Context polyglotContext = Context.newBuilder(JavaScriptLanguage.ID).allowIO(true).allowExperimentalOptions(true).option(JSContextOptions.CLASS_FIELDS_NAME, "true").option(
                             JSContextOptions.LAZY_TRANSLATION_NAME, "false").build()) {
                 polyglotContext.initialize(JavaScriptLanguage.ID);
@@ -106,6 +130,7 @@ public class SnapshotTool {
             }
         } else {
             System.out.println("Usage: [--java|--binary] --outdir=DIR [--indir=DIR] --file=FILE [--file=FILE ...]");
+            System.out.println("       --code-cache=DIR [--js.OPTION=VALUE ...] [--indir=DIR] --file=FILE [--file=FILE ...]");
         }
     }
 
@@ -150,6 +175,23 @@ public class SnapshotTool {
         }
     }
 
+    private void snapshotScriptFileToCodeCache(String fileName, File sourceFile, String codeCacheDir) throws IOException {
+        JSRealm realm = JavaScriptLanguage.getCurrentJSRealm();
+        JSContext context = realm.getContext();
+        Recording.logv("recording code cache entry of %s", fileName);
+        Source source = Source.newBuilder(JavaScriptLanguage.ID, realm.getEnv().getPublicTruffleFile(sourceFile.getPath())).name(fileName).build();
+        try (TimerCloseable timer = timeStats.file(fileName)) {
+            final Recording rec = Recording.recordSource(source, context, context.getParserOptions().isStrict(), "", "");
+            File outputFile = Paths.get(codeCacheDir, CodeCache.getFileName(source, context)).toFile();
+            try (FileOutputStream outs = new FileOutputStream(outputFile)) {
+                CodeCache.writeHeader(outs, source, context);
+                rec.saveToStream(fileName, outs, true);
+            }
+        } catch (RuntimeException e) {
+            throw new RuntimeException(fileName, e);
+        }
+    }
+
     private interface TimerCloseable extends AutoCloseable {
         @Override
         void close();
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/**
+ * for-in and Object.keys/values/entries walk the enumerable keys cached per shape; shape changes
+ * during enumeration must still be observed.
+ */
+
+load('assert.js');
+
+function forInKeys(obj) {
+    var result = [];
+    for (var key in obj) {
+        result.push(key);
+    }
+    return result.join();
+}
+
+// same-shaped objects
+for (var i = 0; i < 3; i++) {
+    assertSame('a,b,c', forInKeys({a: i, b: i, c: i}));
+}
+
+// non-enumerable properties of skipped prototypes still shadow keys further up
+var base = {x: 1, y: 2};
+var middle = Object.create(base);
+Object.defineProperty(middle, 'x', {value: 3, enumerable: false});
+var obj = Object.create(middle);
+obj.z = 4;
+assertSame('z,y', forInKeys(obj));
+
+// class instances with methods on the prototype
+class Point {
+    constructor(x, y) {
+        this.x = x;
+        this.y = y;
+    }
+    length() {
+        return Math.hypot(this.x, this.y);
+    }
+}
+assertSame('x,y', forInKeys(new Point(1, 2)));
+
+// shape changes during enumeration
+var own = {a: 1, b: 2, c: 3};
+Object.defineProperty(own, 'p', {value: 0, enumerable: false});
+var seen = [];
+for (var key in Object.setPrototypeOf(own, {p: 'proto', q: 'proto'})) {
+    seen.push(key);
+    if (key === 'a') {
+        delete own.b;
+        own.d = 4;
+    }
+}
+assertSame('a,c,q', seen.join());
+
+// Object.values/entries with a getter that changes the shape
+var getterObj = {
+    get a() {
+        delete this.b;
+        Object.defineProperty(this, 'c', {enumerable: false});
+        return 'a';
+    },
+    b: 'b',
+    c: 'c',
+    d: 'd'
+};
+assertSame('a,d', Object.values(getterObj).join());
+assertSame('a,d', Object.keys(getterObj).join());
+assertSame('d:d', Object.entries(getterObj).map(function(e) { return e[0] + ':' + e[1]; }).slice(1).join());
+assertSame('1,2', Object.values({x: 1, y: 2}).join());
+assertSame('x=1,y=2', Object.entries({x: 1, y: 2}).map(function(e) { return e.join('='); }).join());
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/*
+ * Intl constructors are created on first use; make sure they behave like eagerly created ones.
+ *
+ * @option intl-402
+ * @option locale=en-US
+ */
+
+load('../assert.js');
+
+// used internally before the Intl object is touched
+assertSame("1,234.5", (1234.5).toLocaleString());
+assertSame(-1, "a".localeCompare("b"));
+
+assertSame(-1, Object.keys(globalThis).indexOf("Intl"));
+assertTrue(Object.getOwnPropertyNames(globalThis).indexOf("Intl") >= 0);
+
+var desc = Object.getOwnPropertyDescriptor(globalThis, "Intl");
+assertSame(Intl, desc.value);
+assertTrue(desc.writable);
+assertFalse(desc.enumerable);
+assertTrue(desc.configurable);
+assertSame(Intl, globalThis.Intl);
+
+assertSame(Intl.NumberFormat.prototype, Object.getPrototypeOf(new Intl.NumberFormat()));
+assertSame(Intl.Collator.prototype, Object.getPrototypeOf(new Intl.Collator()));
+assertSame("1,234.5", new Intl.NumberFormat().format(1234.5));
+
+var segments = new Intl.Segmenter().segment("ab");
+assertSame("function", typeof segments.next);
+
+var intl = Intl;
+Intl = 42;
+assertSame(42, Intl);
+assertTrue(delete globalThis.Intl);
+assertSame("undefined", typeof Intl);
+assertSame(-1, "a".localeCompare("b"));
+assertSame("1,234.5", new intl.NumberFormat().format(1234.5));
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/**
+ * Tests JSON.stringify of objects sharing the same shape.
+ */
+
+load('assert.js');
+
+var records = [];
+for (var i = 0; i < 5; i++) {
+    records.push({id: i, 'quo"te\n': 'v' + i, 2: true, 1: null});
+}
+assertSame('[{"1":null,"2":true,"id":0,"quo\\"te\\n":"v0"},{"1":null,"2":true,"id":1,"quo\\"te\\n":"v1"}]', JSON.stringify(records.slice(0, 2)));
+assertSame('{"1":null,"2":true,"id":4,"quo\\"te\\n":"v4"}', JSON.stringify(records[4]));
+
+// a toJSON function that modifies the holder
+var holder = {a: {toJSON() { delete holder.b; holder.c = 3; return 1; }}, b: 2, c: 0};
+assertSame('{"a":1,"c":3}', JSON.stringify(holder));
+holder = {a: {toJSON() { delete holder.b; return 1; }}, b: 2, c: 0};
+Object.prototype.b = 'proto';
+try {
+    assertSame('{"a":1,"b":"proto","c":0}', JSON.stringify(holder));
+} finally {
+    delete Object.prototype.b;
+}
+
+// accessors are read with [[Get]]
+var count = 0;
+var withGetter = {x: 1, get y() { return ++count; }};
+assertSame('{"x":1,"y":1}', JSON.stringify(withGetter));
+assertSame('{"x":1,"y":2}', JSON.stringify(withGetter));
+
+// non-enumerable and symbol keys are skipped
+var hidden = {visible: 1};
+Object.defineProperty(hidden, 'hidden', {value: 2, enumerable: false});
+hidden[Symbol('s')] = 3;
+assertSame('{"visible":1}', JSON.stringify(hidden));
+
+// replacer function and indentation
+assertSame('{\n  "1": null,\n  "id": 10\n}', JSON.stringify({id: 5, 1: null}, (k, v) => typeof v === 'number' ? v * 2 : v, 2));
+assertSame('{"a":[{"b":1},{"b":2}]}', JSON.stringify({a: [{b: 1}, {b: 2}]}));
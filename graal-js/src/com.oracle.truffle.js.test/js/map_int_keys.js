@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/**
+ * Maps and Sets with only int keys use a specialized storage that is migrated to generic keys on
+ * the first key of another type.
+ */
+
+load('assert.js');
+
+var map = new Map();
+for (var i = 0; i < 100; i++) {
+    map.set(i, i * 2);
+}
+map.delete(10);
+assertSame(99, map.size);
+assertSame(40, map.get(20));
+assertSame(40, map.get(20.0));
+assertSame(undefined, map.get('20'));
+assertFalse(map.has(10));
+assertFalse(map.has('x'));
+assertFalse(map.delete('x'));
+
+// migrate to generic keys while an iterator is live
+var it = map.keys();
+assertSame(0, it.next().value);
+assertSame(1, it.next().value);
+map.set('x', 'y');
+map.set(1.5, 'z');
+map.set(-0, 'zero');
+assertSame(2, it.next().value);
+assertSame('zero', map.get(0));
+assertSame('y', map.get('x'));
+assertSame('z', map.get(1.5));
+assertSame(198, map.get(99));
+var rest = [];
+for (var k of it) {
+    rest.push(k);
+}
+assertSame(98, rest.length);
+assertSame(99, rest[rest.length - 3]);
+assertSame('x', rest[rest.length - 2]);
+assertSame(1.5, rest[rest.length - 1]);
+
+// a deleted int key re-added goes to the end
+var set = new Set([3, 1, 2]);
+set.delete(3);
+set.add(3);
+set.add(-1);
+assertSame('1,2,3,-1', Array.from(set).join());
+assertTrue(set.has(-1));
+assertFalse(set.has(4));
+set.add(true);
+assertTrue(set.has(true));
+assertTrue(set.has(1));
+assertFalse(set.has('1'));
+assertSame('1,2,3,-1,true', Array.from(set).join());
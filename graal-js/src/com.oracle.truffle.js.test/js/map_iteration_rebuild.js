@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/**
+ * Map and Set iterators must continue at the right entry when the underlying hash table is
+ * compacted or grown while they are live.
+ */
+
+load('assert.js');
+
+var map = new Map();
+for (var i = 0; i < 100; i++) {
+    map.set(i, 'v' + i);
+}
+var it = map.keys();
+for (var i = 0; i < 10; i++) {
+    assertSame(i, it.next().value);
+}
+// remove entries before and after the iterator position, then grow the table
+for (var i = 0; i < 100; i += 2) {
+    map.delete(i);
+}
+for (var i = 100; i < 300; i++) {
+    map.set(i, 'v' + i);
+}
+var rest = [];
+for (var k of it) {
+    rest.push(k);
+}
+assertSame(11, rest[0]);
+assertSame(13, rest[1]);
+assertSame(45 + 200, rest.length);
+assertSame(299, rest[rest.length - 1]);
+assertSame(250, map.size);
+
+// clear moves live iterators to the start of the new contents
+var set = new Set([1, 2, 3]);
+var setIt = set.values();
+assertSame(1, setIt.next().value);
+set.clear();
+set.add('a');
+set.add('b');
+assertSame('a', setIt.next().value);
+assertSame('b', setIt.next().value);
+assertTrue(setIt.next().done);
+set.add('c');
+assertTrue(setIt.next().done);
+
+// deleting the current entry during forEach
+var seen = [];
+var m = new Map([[1, 1], [2, 2], [3, 3], [4, 4]]);
+m.forEach(function(v, k) {
+    seen.push(k);
+    m.delete(k);
+    if (k === 2) {
+        m.set(5, 5);
+    }
+});
+assertSame('1,2,3,4,5', seen.join());
+assertSame(0, m.size);
+
+// normalized keys
+var keys = new Map([[-0, 'zero'], [NaN, 'nan'], [1, 'one']]);
+assertSame('zero', keys.get(0));
+assertSame('nan', keys.get(NaN));
+assertSame('one', keys.get(1.0));
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * Licensed under the Universal Permissive License v 1.0 as shown at http://oss.oracle.com/licenses/upl.
+ */
+
+/**
+ * Promise jobs are run in FIFO order, also when the job queue grows while it wraps around.
+ */
+
+load('assert.js');
+
+var log = [];
+
+// interleave jobs so that the queue wraps around before it has to grow
+function chain(name, length) {
+    var p = Promise.resolve(0);
+    for (var i = 0; i < length; i++) {
+        p = p.then(function(v) {
+            log.push(name + v);
+            return v + 1;
+        });
+    }
+    return p;
+}
+
+var chains = Promise.all([chain('a', 3), chain('b', 3)]);
+Promise.resolve().then(function() {
+    for (var i = 0; i < 20; i++) {
+        Promise.resolve(i).then(function(v) {
+            log.push('c' + v);
+        });
+    }
+});
+Promise.reject(new Error('x')).then(null, function(e) {
+    log.push(e.message);
+});
+
+var asyncResult;
+(async function() {
+    await null;
+    log.push('async');
+    asyncResult = await Promise.resolve(42);
+})();
+
+chains.then(function() {
+    assertSame(42, asyncResult);
+    var expected = 'a0,b0,x,async,a1,b1,c0,c1,c2,c3,c4,c5,c6,c7,c8,c9,c10,c11,c12,c13,c14,c15,c16,c17,c18,c19,a2,b2';
+    assertSame(expected, log.join());
+});
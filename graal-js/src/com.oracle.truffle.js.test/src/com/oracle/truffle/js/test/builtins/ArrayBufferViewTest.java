@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -42,13 +42,17 @@ package com.oracle.truffle.js.test.builtins;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Value;
 import org.junit.Test;
 
 import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
 import com.oracle.truffle.js.test.JSTest;
 
 public class ArrayBufferViewTest {
@@ -84,4 +88,40 @@ public class ArrayBufferViewTest {
         }
     }
 
+    @Test
+    public void testSortDefault() {
+        String check = "function compare(a, b) {" +
+                        "  if (a !== a) return (b !== b) ? 0 : 1;" +
+                        "  if (b !== b) return -1;" +
+                        "  if (a !== b) return a < b ? -1 : 1;" +
+                        "  return Object.is(a, b) ? 0 : Object.is(a, -0) ? -1 : 1;" +
+                        "}" +
+                        "function check(array) {" +
+                        "  var expected = Array.prototype.slice.call(array).sort(compare);" +
+                        "  array.sort();" +
+                        "  for (var i = 0; i < array.length; i++) { if (!Object.is(array[i], expected[i])) return false; }" +
+                        "  return true;" +
+                        "}" +
+                        "var values = [];" +
+                        "for (var i = 0; i < 1000; i++) { values.push(Math.round((Math.random() - 0.5) * 1e6)); }" +
+                        "values.push(0, -0, NaN, Infinity, -Infinity, 0.5, 4294967295, -2147483648);" +
+                        "[Int8Array, Uint8Array, Uint8ClampedArray, Int16Array, Uint16Array, Int32Array, Uint32Array, Float32Array, Float64Array].every(function(T) {" +
+                        "  var withOffset = new T(new ArrayBuffer(8 * values.length + 8), 8, values.length);" +
+                        "  for (var i = 0; i < values.length; i++) { withOffset[i] = values[i]; }" +
+                        "  return check(new T(values)) && check(withOffset);" +
+                        "});";
+        try (Context context = JSTest.newContextBuilder().build()) {
+            assertTrue(context.eval(JavaScriptLanguage.ID, check).asBoolean());
+        }
+        ForkJoinPool pool;
+        try (Context context = JSTest.newContextBuilder().option(JSContextOptions.TYPED_ARRAY_PARALLEL_SORT_THRESHOLD_NAME, "16").option(JSContextOptions.TYPED_ARRAY_SORT_PARALLELISM_NAME,
+                        "2").build()) {
+            assertTrue(context.eval(JavaScriptLanguage.ID, check).asBoolean());
+            pool = JavaScriptLanguage.getJSRealm(context).getContext().getTypedArraySortPool(16);
+            assertNotSame(ForkJoinPool.commonPool(), pool);
+        }
+        // the threads of the pool do not outlive the context
+        assertTrue(pool.isShutdown());
+    }
+
 }
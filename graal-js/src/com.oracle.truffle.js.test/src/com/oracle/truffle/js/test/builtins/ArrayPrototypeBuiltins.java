@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -48,7 +48,12 @@ import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Value;
 import org.junit.Test;
 
+import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.runtime.builtins.JSFunction;
+import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
+import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.test.JSTest;
 
 public class ArrayPrototypeBuiltins {
@@ -81,4 +86,51 @@ public class ArrayPrototypeBuiltins {
         }
     }
 
+    @Test
+    public void testSortPrimitiveArrays() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            // default (string) order of int arrays
+            assertEquals("-10,-2,-2147483648,0,1,10,2,2147483647,9",
+                            context.eval(JavaScriptLanguage.ID, "[10, 9, 1, 2, 0, -2, -10, 2147483647, -2147483648].sort().join()").asString());
+
+            // recognized numeric comparators
+            assertEquals("-3,1,2,10", context.eval(JavaScriptLanguage.ID, "[10, 2, -3, 1].sort((a, b) => a - b).join()").asString());
+            assertEquals("10,2,1,-3", context.eval(JavaScriptLanguage.ID, "[10, 2, -3, 1].sort(function(a, b) { return b - a; }).join()").asString());
+            assertEquals("-3.5,1.5,2,10.25", context.eval(JavaScriptLanguage.ID, "[10.25, 2, -3.5, 1.5].sort((x, y) => x - y).join()").asString());
+
+            // comparators with side effects are called
+            assertEquals("-3,1,2,10:true", context.eval(JavaScriptLanguage.ID, "var calls = 0; [10, 2, -3, 1].sort((a, b) => (calls++, a - b)).join() + ':' + (calls > 0)").asString());
+            assertEquals("-3,1,2,10:true", context.eval(JavaScriptLanguage.ID, "calls = 0; [10, 2, -3, 1].sort((a, b) => { calls++; return a - b; }).join() + ':' + (calls > 0)").asString());
+
+            // -0 and 0 compare equal, so their order must be preserved by the (stable) sort
+            assertEquals("Infinity,-Infinity,1", context.eval(JavaScriptLanguage.ID, "[1, 0, -0].sort((a, b) => a - b).map(x => 1 / x).join()").asString());
+
+            // arrays with holes and frozen arrays are not sorted in place
+            assertEquals("1,2,3,,", context.eval(JavaScriptLanguage.ID, "var a = [3, 2, 1]; a[4] = 0.5; delete a[4]; a.sort((a, b) => a - b).join()").asString());
+            assertTrue(context.eval(JavaScriptLanguage.ID, "try { Object.freeze([2, 1]).sort((a, b) => a - b); false; } catch (e) { e instanceof TypeError; }").asBoolean());
+        }
+    }
+
+    @Test
+    public void testSortPrimitiveArraysInPlace() {
+        // with lazy translation, a function that is never called is never translated
+        try (Context context = JSTest.newContextBuilder().option(JSContextOptions.LAZY_TRANSLATION_NAME, "true").build()) {
+            context.eval(JavaScriptLanguage.ID, "var asc = function(a, b) { return a - b; }; var desc = (a, b) => b - a;");
+            assertEquals("1,2,3", context.eval(JavaScriptLanguage.ID, "[3, 1, 2].sort(asc).join()").asString());
+            assertEquals("300,2,-1", context.eval(JavaScriptLanguage.ID, "[2, 300, -1].sort(desc).join()").asString());
+            assertEquals("-1.5,2,3.25", context.eval(JavaScriptLanguage.ID, "[3.25, -1.5, 2].sort(asc).join()").asString());
+            assertEquals("3,2,1", context.eval(JavaScriptLanguage.ID, "var a = [1, 2]; a.push(3); a.sort(desc).join()").asString());
+            context.enter();
+            try {
+                for (String name : new String[]{"asc", "desc"}) {
+                    DynamicObject compare = (DynamicObject) JSObject.get(JavaScriptLanguage.getJSRealm(context).getGlobalObject(), name);
+                    JSFunctionData functionData = JSFunction.getFunctionData(compare);
+                    assertFalse(name, functionData.isMaterialized());
+                }
+            } finally {
+                context.leave();
+            }
+        }
+    }
+
 }
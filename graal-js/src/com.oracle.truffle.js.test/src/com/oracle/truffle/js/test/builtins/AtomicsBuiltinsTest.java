@@ -80,4 +80,67 @@ public class AtomicsBuiltinsTest {
         }
     }
 
+    @Test
+    public void testConcurrentSubWordUpdates() {
+        int agentCount = 4;
+        int iterations = 1000;
+        try (Context context = JSTest.newContextBuilder().option(JSContextOptions.TEST262_MODE_NAME, "true").build()) {
+            // agents update neighbouring elements that share a 32-bit word
+            String code = "let agentCount = " + agentCount + ";\n" //
+                            + "let iterations = " + iterations + ";\n" //
+                            + "for (let i = 0; i < agentCount; i++) {\n" //
+                            + "  $262.agent.start(`\n" //
+                            + "    $262.agent.receiveBroadcast(function(sab) {\n" //
+                            + "      const id = Atomics.add(new Int32Array(sab, 12, 1), 0, 1);\n" //
+                            + "      const u8 = new Uint8Array(sab, 0, 4);\n" //
+                            + "      const i16 = new Int16Array(sab, 4, 2);\n" //
+                            + "      const i32 = new Int32Array(sab, 8, 1);\n" //
+                            + "      for (let j = 0; j < ${iterations}; j++) {\n" //
+                            + "        Atomics.add(u8, id, 1);\n" //
+                            + "        Atomics.sub(i16, id & 1, 1);\n" //
+                            + "        Atomics.add(i32, 0, 1);\n" //
+                            + "      }\n" //
+                            + "      $262.agent.report('done');\n" //
+                            + "      $262.agent.leaving();\n" //
+                            + "    });\n" //
+                            + "  `);\n" //
+                            + "}\n" //
+                            + "const sab = new SharedArrayBuffer(16);\n" //
+                            + "$262.agent.broadcast(sab);\n" //
+                            + "let done = 0;\n" //
+                            + "while (done < agentCount) {\n" //
+                            + "  if ($262.agent.getReport() !== null) {\n" //
+                            + "    done++;\n" //
+                            + "  }\n" //
+                            + "}\n" //
+                            + "[...new Uint8Array(sab, 0, 4), ...new Int16Array(sab, 4, 2), ...new Int32Array(sab, 8, 1)].join();"; //
+            Value result = context.eval(JavaScriptLanguage.ID, code);
+            int byteValue = iterations & 0xff;
+            int shortValue = -2 * iterations;
+            String expected = byteValue + "," + byteValue + "," + byteValue + "," + byteValue + "," + shortValue + "," + shortValue + "," + (agentCount * iterations);
+            Assert.assertEquals(expected, result.asString());
+        }
+    }
+
+    @Test
+    public void testCompareExchange() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            String code = "const sab = new SharedArrayBuffer(15);\n" //
+                            + "const i8 = new Int8Array(sab);\n" //
+                            + "const u16 = new Uint16Array(sab, 8, 2);\n" //
+                            + "const u32 = new Uint32Array(sab, 4, 1);\n" //
+                            + "const r = [];\n" //
+                            + "i8[1] = 42;\n" //
+                            + "r.push(Atomics.compareExchange(i8, 0, 0, -1));\n" //
+                            + "r.push(Atomics.compareExchange(i8, 0, 0, 5));\n" //
+                            + "r.push(i8[0], i8[1]);\n" //
+                            + "r.push(Atomics.compareExchange(i8, 14, 0, -7), i8[14]);\n" //
+                            + "r.push(Atomics.compareExchange(u16, 1, 0, 0x12345), u16[0], u16[1]);\n" //
+                            + "r.push(Atomics.compareExchange(u32, 0, 0, -1), Atomics.compareExchange(u32, 0, -1, 1), u32[0]);\n" //
+                            + "r.join();";
+            Value result = context.eval(JavaScriptLanguage.ID, code);
+            Assert.assertEquals("0,-1,-1,42,0,-7,0,0,9029,0,4294967295,1", result.asString());
+        }
+    }
+
 }
@@ -42,14 +42,21 @@ package com.oracle.truffle.js.test.builtins;
 
 import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.HostAccess;
 import org.graalvm.polyglot.PolyglotException;
 import org.graalvm.polyglot.Value;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.oracle.truffle.js.runtime.JSContextOptions;
 import com.oracle.truffle.js.test.JSTest;
 
 public class JSONParseTest {
@@ -73,4 +80,104 @@ public class JSONParseTest {
         }
     }
 
+    @Test
+    public void testJSONParseRecords() {
+        String json = "[{\"a\": 1, \"b\": \"x\"}, {\"a\": 2.5, \"b\": null}, {\"a\": {\"a\": 1}, \"b\": [1]}, {\"b\": 1, \"a\": 2}, " +
+                        "{\"a\": 1, \"a\": 3, \"b\": 4}, {\"a\": 5}, {\"a\": 6, \"b\": 7, \"c\": 8}, {\"1\": 9, \"a\": 10}]";
+        try (Context context = JSTest.newContextBuilder().build()) {
+            Value result = context.eval(ID, "JSON.parse('" + json + "').map((o) => Object.keys(o).map((k) => k + '=' + JSON.stringify(o[k])).join()).join(';')");
+            assertEquals("a=1,b=\"x\";a=2.5,b=null;a={\"a\":1},b=[1];b=1,a=2;a=3,b=4;a=5;a=6,b=7,c=8;1=9,a=10", result.asString());
+        }
+    }
+
+    @Test
+    public void testJSONKeyCache() {
+        for (boolean nashornCompat : new boolean[]{false, true}) {
+            try (Context context = JSTest.newContextBuilder().option(JSContextOptions.DEBUG_BUILTIN_NAME, "true").option(JSContextOptions.NASHORN_COMPATIBILITY_MODE_NAME,
+                            Boolean.toString(nashornCompat)).build()) {
+                Value result = context.eval(ID, "JSON.parse('[{\"id\": 1}, {\"id\": 2, \"n\\u0061me\": \"x\"}, {\"id\": 3}]');" +
+                                "var statistics = Debug.jsonKeyCacheStatistics(); statistics.hits + ',' + statistics.misses");
+                assertEquals("2,1", result.asString());
+            }
+        }
+    }
+
+    @Test
+    public void testJSONParseUTF8() {
+        String json = "\uFEFF { \"a\u00e4\" : [1, -2.5e1, 9007199254740993, \"\u20ac \\u0041\\n\ud83d\ude00\"], \"b\": {\"\u00fc\\\"\": null, \"c\": true} } ";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        try (Context context = JSTest.newContextBuilder().allowHostAccess(HostAccess.ALL).option(JSContextOptions.JSON_UTF8_NAME, "true").build()) {
+            String expected = context.eval(ID, "JSON.stringify(JSON.parse('" + json.substring(1).replace("\\", "\\\\") + "'))").asString();
+            Value stringify = context.eval(ID, "(value) => JSON.stringify(value)");
+            Value parseHost = context.eval(ID, "(bytes) => JSON.parseUTF8(bytes)");
+            assertEquals(expected, stringify.execute(parseHost.execute(bytes)).asString());
+            assertEquals(expected, stringify.execute(parseHost.execute(ByteBuffer.wrap(bytes))).asString());
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 4);
+            direct.position(2);
+            direct.put(bytes);
+            direct.flip().position(2);
+            assertEquals(expected, stringify.execute(parseHost.execute(direct)).asString());
+            assertEquals(2, direct.position());
+
+            Value parseViews = context.eval(ID, "(bytes) => {\n" +
+                            "  var u8 = new Uint8Array(bytes.length + 3);\n" +
+                            "  for (var i = 0; i < bytes.length; i++) u8[i + 1] = bytes[i];\n" +
+                            "  return [JSON.parseUTF8(u8.subarray(1, bytes.length + 1)),\n" +
+                            "          JSON.parseUTF8(new DataView(u8.buffer, 1, bytes.length)),\n" +
+                            "          JSON.parseUTF8(u8.buffer.slice(1, bytes.length + 1))].map((value) => JSON.stringify(value));\n" +
+                            "}");
+            Value results = parseViews.execute(bytes);
+            for (int i = 0; i < results.getArraySize(); i++) {
+                assertEquals(expected, results.getArrayElement(i).asString());
+            }
+
+            assertEquals(42, context.eval(ID, "JSON.parseUTF8(new Uint8Array([0x34, 0x32]))").asInt());
+            assertEquals(3, context.eval(ID, "JSON.parseUTF8(new Uint8Array([0x5b, 0x31, 0x2c, 0x32, 0x5d]), (k, v) => Array.isArray(v) ? v.length + 1 : v)").asInt());
+            assertJSONParseUTF8Error(context, "JSON.parseUTF8(new Uint8Array([0x5b, 0x31]))", true);
+            assertJSONParseUTF8Error(context, "JSON.parseUTF8(new Uint8Array([0x7b, 0x61, 0x7d]))", true);
+            assertJSONParseUTF8Error(context, "JSON.parseUTF8('[]')", false);
+        }
+        try (Context context = JSTest.newContextBuilder().build()) {
+            assertTrue(context.eval(ID, "JSON.parseUTF8 === undefined").asBoolean());
+        }
+    }
+
+    @Test
+    public void testJSONStringifyUTF8() {
+        try (Context context = JSTest.newContextBuilder().allowHostAccess(HostAccess.ALL).option(JSContextOptions.JSON_UTF8_NAME, "true").build()) {
+            String value = "({a\u00e4: [1, -2.5, 'x\u20ac\\n\ud83d\ude00', '\ud800'], b: {c: null, d: true}, e: undefined})";
+            String expected = context.eval(ID, "JSON.stringify(" + value + ", null, 2)").asString();
+            Value roundTrip = context.eval(ID, "JSON.stringify(JSON.parseUTF8(JSON.stringifyUTF8(" + value + ", null, 2)), null, 2)");
+            assertEquals(expected, roundTrip.asString());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Value stringifyTo = context.eval(ID, "(out) => JSON.stringifyUTF8(" + value + ", null, 2, out)");
+            assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, stringifyTo.execute(out).asInt());
+            assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+            // large outputs are written in chunks, which may end within a surrogate pair
+            String large = "Array.from({length: 20000}, (_, i) => i % 3 === 0 ? '\ud83d\ude00' + i : {i})";
+            String expectedLarge = context.eval(ID, "JSON.stringify(" + large + ")").asString();
+            ByteArrayOutputStream largeOut = new ByteArrayOutputStream();
+            Value stringifyLargeTo = context.eval(ID, "(out) => JSON.stringifyUTF8(" + large + ", null, undefined, out)");
+            assertEquals(expectedLarge.getBytes(StandardCharsets.UTF_8).length, stringifyLargeTo.execute(largeOut).asInt());
+            assertEquals(expectedLarge, new String(largeOut.toByteArray(), StandardCharsets.UTF_8));
+
+            assertEquals(6, context.eval(ID, "JSON.stringifyUTF8('\u00e4\u00e4').byteLength").asInt());
+            assertTrue(context.eval(ID, "JSON.stringifyUTF8(undefined) === undefined").asBoolean());
+            assertTrue(context.eval(ID, "JSON.stringifyUTF8(() => 42) === undefined").asBoolean());
+            assertJSONParseUTF8Error(context, "JSON.stringifyUTF8({}, null, 0, {})", false);
+        }
+    }
+
+    private static void assertJSONParseUTF8Error(Context context, String code, boolean syntaxError) {
+        try {
+            context.eval(ID, code);
+            Assert.fail("failure expected");
+        } catch (PolyglotException ex) {
+            assertEquals(syntaxError, ex.isSyntaxError());
+            assertFalse(ex.isInternalError());
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2020, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -43,13 +43,17 @@ package com.oracle.truffle.js.test.interop;
 import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
 import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
 import org.graalvm.polyglot.io.FileSystem;
 import org.junit.Test;
 
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
 import com.oracle.truffle.js.test.JSTest;
 
 import java.io.BufferedReader;
@@ -61,6 +65,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.AccessMode;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
@@ -73,6 +78,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Various tests for EcmaScript 6 module loading via {@link Source}.
@@ -401,4 +407,47 @@ public class ESModuleTest {
             deleteFiles(allFilesArray);
         }
     }
+
+    /**
+     * Test a module graph whose static imports are parsed in the background.
+     */
+    @Test
+    public void testParallelModuleParsing() throws IOException {
+        Path dir = Files.createTempDirectory("modulegraph");
+        ForkJoinPool pool;
+        try (Context context = JSTest.newContextBuilder().allowIO(true).option(JSContextOptions.MODULE_PARSE_PARALLELISM_NAME, "2").build()) {
+            Files.write(dir.resolve("left.mjs"), "import {base} from './base.mjs'; export const left = base + 1;".getBytes(StandardCharsets.UTF_8));
+            Files.write(dir.resolve("right.mjs"), "import {base} from './base.mjs'; export const right = /b+/.exec('abbc')[0].length * base;".getBytes(StandardCharsets.UTF_8));
+            Files.write(dir.resolve("base.mjs"), "export const base = 20;".getBytes(StandardCharsets.UTF_8));
+            Files.write(dir.resolve("invalid.mjs"), "export const invalid = /(/;".getBytes(StandardCharsets.UTF_8));
+            Path main = dir.resolve("main.mjs");
+            Files.write(main, "import {left} from './left.mjs'; import {right} from './right.mjs'; left + right;".getBytes(StandardCharsets.UTF_8));
+            assertEquals(61, context.eval(Source.newBuilder(ID, main.toFile()).build()).asInt());
+
+            // modules of a linear import chain are discovered by the background parses
+            int chainLength = 8;
+            for (int i = 0; i < chainLength; i++) {
+                String code = i == chainLength - 1 ? "export const n = 0;" : "import {n as m} from './chain" + (i + 1) + ".mjs'; export const n = m + 1;";
+                Files.write(dir.resolve("chain" + i + ".mjs"), code.getBytes(StandardCharsets.UTF_8));
+            }
+            Path chain = dir.resolve("chain.mjs");
+            Files.write(chain, "import {n} from './chain0.mjs'; n;".getBytes(StandardCharsets.UTF_8));
+            assertEquals(chainLength - 1, context.eval(Source.newBuilder(ID, chain.toFile()).build()).asInt());
+
+            Path importsInvalid = dir.resolve("importsinvalid.mjs");
+            Files.write(importsInvalid, "import {invalid} from './invalid.mjs'; invalid;".getBytes(StandardCharsets.UTF_8));
+            try {
+                context.eval(Source.newBuilder(ID, importsInvalid.toFile()).build());
+                fail("expected a syntax error");
+            } catch (PolyglotException e) {
+                assertTrue(e.isSyntaxError());
+            }
+            pool = JavaScriptLanguage.getJSRealm(context).getContext().getModuleParsePool();
+        } finally {
+            deleteFiles(dir.toFile().listFiles());
+            Files.delete(dir);
+        }
+        // the threads of the pool do not outlive the context
+        assertTrue(pool.isShutdown());
+    }
 }
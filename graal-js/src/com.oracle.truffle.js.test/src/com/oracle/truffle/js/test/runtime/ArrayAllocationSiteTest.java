@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Array;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.test.JSTest;
+
+public class ArrayAllocationSiteTest {
+
+    private static Context newContext(boolean allocationSites) {
+        return JSTest.newContextBuilder().option(JSContextOptions.ARRAY_ALLOCATION_SITES_NAME, String.valueOf(allocationSites)).option(JSContextOptions.DEBUG_BUILTIN_NAME, "true").build();
+    }
+
+    @Test
+    public void testEmptyArrayLiteral() {
+        try (Context context = newContext(true)) {
+            context.eval(ID, "function make(fill) { var a = []; if (fill) { a.push(1); a.push(1.5); a.push('x'); } return a; }");
+            context.eval(ID, "make(true); make(true);");
+            assertEquals("ZeroBasedObjectArray", context.eval(ID, "Debug.arraytype(make(false))").asString());
+            assertEquals(0, context.eval(ID, "make(false).length").asInt());
+            assertEquals("[1,1.5,\"x\"]", context.eval(ID, "JSON.stringify(make(true))").asString());
+        }
+    }
+
+    @Test
+    public void testPresizedCapacity() {
+        try (Context context = newContext(true)) {
+            context.eval(ID, "function make(n) { var a = []; for (var i = 0; i < n; i++) { a.push(i); } return a; }");
+            context.eval(ID, "make(100); make(100); var empty = make(0);");
+            assertEquals("ZeroBasedIntArray", context.eval(ID, "Debug.arraytype(empty)").asString());
+            context.enter();
+            try {
+                DynamicObject empty = (DynamicObject) JSObject.get(JavaScriptLanguage.getJSRealm(context).getGlobalObject(), "empty");
+                // the backing array is allocated with the length seen at the site
+                assertTrue(Array.getLength(JSAbstractArray.arrayGetArray(empty)) >= 100);
+            } finally {
+                context.leave();
+            }
+        }
+    }
+
+    @Test
+    public void testArrayLiteral() {
+        try (Context context = newContext(true)) {
+            context.eval(ID, "function make(x) { var a = [1, 2, x]; a.push(0.5); return a; }");
+            context.eval(ID, "make(3); make(3);");
+            assertEquals("ZeroBasedDoubleArray", context.eval(ID, "Debug.arraytype(make(3))").asString());
+            assertEquals("[1,2,3,0.5]", context.eval(ID, "JSON.stringify(make(3))").asString());
+            assertEquals("[1,2,\"s\",0.5]", context.eval(ID, "JSON.stringify(make('s'))").asString());
+        }
+    }
+
+    @Test
+    public void testConstantArrayLiteral() {
+        try (Context context = newContext(true)) {
+            context.eval(ID, "function make() { var a = [1, 2, 3]; a.push('s'); return a; }\n" +
+                            "function constant() { return [1, 2, 3]; }");
+            context.eval(ID, "make(); make(); constant(); constant();");
+            assertEquals("ZeroBasedObjectArray", context.eval(ID, "Debug.arraytype(make())").asString());
+            assertEquals("[1,2,3,\"s\"]", context.eval(ID, "JSON.stringify(make())").asString());
+            assertEquals("ConstantByteArray", context.eval(ID, "Debug.arraytype(constant())").asString());
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        try (Context context = newContext(false)) {
+            context.eval(ID, "function make(fill) { var a = []; if (fill) { a.push(1.5); } return a; }");
+            context.eval(ID, "make(true); make(true);");
+            assertEquals("ConstantEmptyArray", context.eval(ID, "Debug.arraytype(make(false))").asString());
+        }
+    }
+}
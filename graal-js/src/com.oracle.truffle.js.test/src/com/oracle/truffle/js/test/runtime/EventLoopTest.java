@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge, or any payment, to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and either this complete permission notice or at
+ * a minimum a reference to the UPL must be included in all copies or
+ * substantial portions of the Software, or any larger work that includes the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.runtime.JSEventLoop;
+import com.oracle.truffle.js.test.JSTest;
+
+public class EventLoopTest {
+
+    private static Context newContext() {
+        return JSTest.newContextBuilder().option(JSContextOptions.TIMERS_NAME, "true").build();
+    }
+
+    private static JSEventLoop getEventLoop(Context context) {
+        return JavaScriptLanguage.getJSRealm(context).getEventLoop();
+    }
+
+    @Test
+    public void testOrdering() {
+        try (Context context = newContext()) {
+            context.eval(ID, "var log = [];" +
+                            "setTimeout(function(x) { log.push('t20' + x); }, 20, '!');" +
+                            "setTimeout(function() { log.push('t0'); Promise.resolve().then(function() { log.push('p'); }); }, 0);" +
+                            "setTimeout(function() { log.push('t5'); }, 5);" +
+                            "var cleared = setTimeout(function() { log.push('cleared'); }, 1);" +
+                            "setImmediate(function() { log.push('i'); setImmediate(function() { log.push('i2'); }); });" +
+                            "clearTimeout(cleared);" +
+                            "log.push('main');");
+            JSEventLoop eventLoop = getEventLoop(context);
+            assertTrue(eventLoop.hasPendingTasks());
+            eventLoop.run();
+            assertFalse(eventLoop.hasPendingTasks());
+            assertEquals(-1, eventLoop.getDelayToNextTask());
+            // whether the first immediate runs before the 0ms timer depends on timing, like in Node.js
+            assertTrue(context.eval(ID, "log.indexOf('i') >= 0 && log.indexOf('i') < log.indexOf('i2') && log.indexOf('t0') + 1 === log.indexOf('p')").asBoolean());
+            assertEquals("main,t0,p,t5,t20!", context.eval(ID, "log.filter(function(e) { return e[0] !== 'i'; }).join()").asString());
+        }
+    }
+
+    @Test
+    public void testInterval() {
+        try (Context context = newContext()) {
+            context.eval(ID, "var count = 0;" +
+                            "var id = setInterval(function() { if (++count === 3) { clearInterval(id); } }, 2);" +
+                            "clearImmediate(setImmediate(function() { count = -100; }));" +
+                            "clearTimeout('not an id');");
+            getEventLoop(context).run();
+            assertEquals(3, context.eval(ID, "count").asInt());
+        }
+    }
+
+    @Test
+    public void testExternalTask() throws InterruptedException {
+        try (Context context = newContext()) {
+            context.eval(ID, "var done = false; var id = setInterval(function() { if (done) { clearInterval(id); } }, 1000);");
+            JSEventLoop eventLoop = getEventLoop(context);
+            Thread thread = new Thread(() -> eventLoop.execute(() -> context.eval(ID, "done = true; clearInterval(id);")));
+            thread.start();
+            eventLoop.run();
+            thread.join();
+            assertTrue(context.eval(ID, "done").asBoolean());
+        }
+    }
+
+    @Test
+    public void testThrowingTimer() {
+        try (Context context = newContext()) {
+            context.eval(ID, "var log = [];" +
+                            "setTimeout(function() { log.push('a'); throw new Error('a'); }, 1);" +
+                            "setTimeout(function() { log.push('b'); }, 1);" +
+                            "setTimeout(function() { log.push('c'); }, 2);");
+            JSEventLoop eventLoop = getEventLoop(context);
+            try {
+                eventLoop.run();
+                fail("exception expected");
+            } catch (RuntimeException e) {
+                // the remaining timers are kept
+            }
+            assertTrue(eventLoop.hasPendingTasks());
+            eventLoop.run();
+            assertEquals("a,b,c", context.eval(ID, "log.join()").asString());
+        }
+    }
+
+    @Test
+    public void testPolyglotEventLoop() {
+        try (Context context = newContext()) {
+            context.eval(ID, "var log = [];" +
+                            "setTimeout(function() { log.push('t'); }, 1);" +
+                            "setImmediate(function() { log.push('i'); });");
+            Value eventLoop = context.getBindings(ID).getMember("EventLoop");
+            assertTrue(eventLoop.invokeMember("hasPendingTasks").asBoolean());
+            eventLoop.invokeMember("run");
+            assertFalse(eventLoop.invokeMember("hasPendingTasks").asBoolean());
+            assertFalse(eventLoop.invokeMember("runOnce").asBoolean());
+            assertEquals(2, context.eval(ID, "log.length").asInt());
+        }
+    }
+
+    @Test
+    public void testNestedRun() {
+        try (Context context = newContext()) {
+            context.eval(ID, "var error;" +
+                            "setImmediate(function() { try { EventLoop.run(); } catch (e) { error = e; } });");
+            getEventLoop(context).run();
+            assertTrue(context.eval(ID, "error instanceof TypeError").asBoolean());
+        }
+    }
+
+    @Test
+    public void testClearKinds() {
+        try (Context context = newContext()) {
+            context.eval(ID, "var log = [];" +
+                            "var t = setTimeout(function() { log.push('t'); }, 1);" +
+                            "var i = setImmediate(function() { log.push('i'); });" +
+                            "clearTimeout(i);" +
+                            "clearImmediate(t);");
+            getEventLoop(context).run();
+            assertEquals("i,t", context.eval(ID, "log.join()").asString());
+        }
+    }
+
+    @Test
+    public void testChildRealm() {
+        try (Context context = JSTest.newContextBuilder().option(JSContextOptions.TIMERS_NAME, "true").option(JSContextOptions.V8_REALM_BUILTIN_NAME, "true").build()) {
+            context.eval(ID, "var log = [];" +
+                            "var r = Realm.create();" +
+                            "Realm.global(r).log = log;" +
+                            "Realm.eval(r, 'setTimeout(function() { log.push(1); }, 1)');");
+            JSEventLoop eventLoop = getEventLoop(context);
+            assertTrue(eventLoop.hasPendingTasks());
+            eventLoop.run();
+            assertEquals(1, context.eval(ID, "log.length").asInt());
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            assertTrue(context.eval(ID, "typeof setTimeout === 'undefined' && typeof setImmediate === 'undefined' && typeof EventLoop === 'undefined'").asBoolean());
+            assertNull(getEventLoop(context));
+        }
+    }
+}
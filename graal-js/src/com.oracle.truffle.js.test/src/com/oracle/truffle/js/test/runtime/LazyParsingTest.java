@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.runtime.builtins.JSFunction;
+import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
+import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.test.JSTest;
+
+public class LazyParsingTest {
+
+    private static Context newContext() {
+        return JSTest.newContextBuilder().option(JSContextOptions.LAZY_PARSING_NAME, "true").build();
+    }
+
+    @Test
+    public void testClosures() {
+        try (Context context = newContext()) {
+            String code = "function counter(start) {\n" +
+                            "  var count = start;\n" +
+                            "  function inc() { return ++count; }\n" +
+                            "  return function() { inc(); return function() { return count; }(); };\n" +
+                            "}\n" +
+                            "var c = counter(40);\n" +
+                            "c();\n" +
+                            "c();";
+            assertEquals(42, context.eval(ID, code).asInt());
+        }
+    }
+
+    @Test
+    public void testFunctionKinds() {
+        try (Context context = newContext()) {
+            context.eval(ID, "function* gen(n) { for (let i = 0; i < n; i++) { yield function() { return i; }; } }\n" +
+                            "async function twice(x) { var y = await x; return function() { 'use strict'; return this; }() === undefined ? y * 2 : -1; }\n" +
+                            "function f() { f = 1; return typeof f; }\n" +
+                            "var g = function h() { h = 1; return typeof h; };\n" +
+                            "var result; twice(21).then(function(v) { result = v; });");
+            assertEquals(32, context.eval(ID, "var fs = []; for (var fn of gen(3)) { fs.push(fn); } fs.length * 10 + fs[2]()").asInt());
+            assertEquals(42, context.eval(ID, "result").asInt());
+            assertEquals("number", context.eval(ID, "f()").asString());
+            assertEquals("function", context.eval(ID, "g()").asString());
+            assertEquals("function f() { f = 1; return typeof f; }", context.eval(ID, "String(function f() { f = 1; return typeof f; })").asString());
+        }
+    }
+
+    @Test
+    public void testLineNumbers() {
+        try (Context context = newContext()) {
+            context.eval(Source.create(ID, "function outer() {\n" +
+                            "  return function inner() {\n" +
+                            "    throw new Error('boom');\n" +
+                            "  };\n" +
+                            "}"));
+            try {
+                context.eval(ID, "outer()()");
+                fail("expected an error");
+            } catch (PolyglotException e) {
+                assertEquals(3, e.getSourceLocation().getStartLine());
+            }
+        }
+    }
+
+    @Test
+    public void testSkippedBodies() {
+        try (Context context = newContext()) {
+            context.eval(ID, "function regex(s) { if (s) /}/.test(s); return s.replace(/[{(]/g, '') / 2; }\n" +
+                            "function template(x) { return `{${x + `}${ {a: x}.a }`}}`; }\n" +
+                            "function nested(x) { var o = {f() { return {x}; }}; return o.f().x; }\n" +
+                            "var iife = (function() { return function() { return 'iife'; }; })();");
+            assertEquals(21, context.eval(ID, "regex('{42')").asInt());
+            assertEquals("{1}1}", context.eval(ID, "template(1)").asString());
+            assertEquals(42, context.eval(ID, "nested(42)").asInt());
+            assertEquals("iife", context.eval(ID, "iife()").asString());
+        }
+    }
+
+    @Test
+    public void testNumericComparator() {
+        try (Context context = newContext()) {
+            context.eval(ID, "var cmp = function(a, b) { return a - b; }");
+            context.enter();
+            try {
+                DynamicObject cmp = (DynamicObject) JSObject.get(JavaScriptLanguage.getJSRealm(context).getGlobalObject(), "cmp");
+                JSFunctionData functionData = JSFunction.getFunctionData(cmp);
+                assertFalse(functionData.isMaterialized());
+                assertEquals("1,2,3", context.eval(ID, "[3, 1, 2].sort(cmp).join()").asString());
+                assertEquals(1, functionData.getNumericComparatorOrder());
+            } finally {
+                context.leave();
+            }
+        }
+    }
+
+    @Test
+    public void testEarlyErrors() {
+        try (Context context = newContext()) {
+            for (String code : new String[]{
+                            "function outer() { function inner() { return 1 +; } }",
+                            "function outer() { function inner() { if (x) { return 1; } }",
+                            "function outer() { function inner() { return [1, 2); } }",
+                            "function outer() { 'use strict'; function inner() { return 010; } }",
+                            "function outer() { function inner() { return /(/; } }",
+            }) {
+                try {
+                    context.eval(ID, code);
+                    fail("expected a syntax error: " + code);
+                } catch (PolyglotException e) {
+                    assertTrue(e.isSyntaxError());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDeferredErrors() {
+        try (Context context = newContext()) {
+            // only reported when the function is parsed on its first invocation
+            context.eval(ID, "function f() { let x; let x; }");
+            try {
+                context.eval(ID, "f()");
+                fail("expected a syntax error");
+            } catch (PolyglotException e) {
+                assertTrue(e.isSyntaxError());
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge, or any payment, to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and either this complete permission notice or at
+ * a minimum a reference to the UPL must be included in all copies or
+ * substantial portions of the Software, or any larger work that includes the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.junit.Test;
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.runtime.util.MemoryAccounting;
+import com.oracle.truffle.js.test.JSTest;
+
+public class MemoryAccountingTest {
+
+    private static Context newContext() {
+        return JSTest.newContextBuilder().option(JSContextOptions.MEMORY_ACCOUNTING_NAME, "true").option(JSContextOptions.DIRECT_BYTE_BUFFER_NAME, "true").build();
+    }
+
+    @Test
+    public void testArrayBufferBytes() {
+        try (Context context = newContext()) {
+            MemoryAccounting memoryAccounting = JavaScriptLanguage.getJSRealm(context).getMemoryAccounting();
+            assertNotNull(memoryAccounting);
+            assertEquals(0, memoryAccounting.getArrayBufferBytes());
+
+            context.eval(ID, "var buffers = [new ArrayBuffer(1000), new SharedArrayBuffer(200), new Uint8Array(30)];");
+            assertEquals(1230, memoryAccounting.getArrayBufferBytes());
+            assertEquals(1230, memoryAccounting.getArrayBufferBytesAllocated());
+        }
+    }
+
+    @Test
+    public void testContextsAreAccountedSeparately() {
+        try (Context context1 = newContext(); Context context2 = newContext()) {
+            context1.eval(ID, "var buffer = new ArrayBuffer(1000);");
+            context2.eval(ID, "var buffer = new ArrayBuffer(10);");
+            assertEquals(1000, JavaScriptLanguage.getJSRealm(context1).getMemoryAccounting().getArrayBufferBytes());
+            assertEquals(10, JavaScriptLanguage.getJSRealm(context2).getMemoryAccounting().getArrayBufferBytes());
+        }
+    }
+
+    @Test
+    public void testAllocatedBytes() {
+        try (Context context = newContext()) {
+            context.initialize(ID);
+            MemoryAccounting memoryAccounting = JavaScriptLanguage.getJSRealm(context).getMemoryAccounting();
+            long before = memoryAccounting.getAllocatedBytes();
+            if (before < 0) {
+                return; // allocations of threads are not measured by this JVM
+            }
+            context.eval(ID, "var strings = []; for (var i = 0; i < 10000; i++) { strings.push('s' + i); }");
+            long after = memoryAccounting.getAllocatedBytes();
+            assertTrue(after > before);
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        try (Context context = JSTest.newContextBuilder().build()) {
+            assertNull(JavaScriptLanguage.getJSRealm(context).getMemoryAccounting());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge, or any payment, to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and either this complete permission notice or at
+ * a minimum a reference to the UPL must be included in all copies or
+ * substantial portions of the Software, or any larger work that includes the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.PolyglotAccess;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.test.JSTest;
+
+public class RealmPoolTest {
+
+    @Test
+    public void testPooledRealmIsPristine() {
+        try (Engine engine = JSTest.newEngineBuilder().option(JSContextOptions.REALM_POOL_SIZE_NAME, "2").build()) {
+            JSRealm lastRealm = null;
+            JSContext jsContext = null;
+            for (int i = 0; i < 4; i++) {
+                if (jsContext != null) {
+                    awaitPooledRealms(jsContext, 2);
+                }
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (Context context = JSTest.newContextBuilder().engine(engine).option(JSContextOptions.INTL_402_NAME, "true").out(out).build()) {
+                    if (jsContext != null) {
+                        // the realm of this context has been taken from the pool
+                        assertEquals(1, jsContext.getPooledRealmCount());
+                    }
+                    assertTrue(context.eval(ID, "typeof leaked === 'undefined' && Array.prototype.leaked === undefined").asBoolean());
+                    context.eval(ID, "var leaked = 42; Array.prototype.leaked = 43; Object.freeze(Object.prototype);");
+                    assertEquals("42,43,true", context.eval(ID, "[leaked, [].leaked, Object.isFrozen(Object.prototype)].join()").asString());
+                    context.eval(ID, "console.log(new Intl.NumberFormat('en').format(1234))");
+                    assertEquals("1,234", new String(out.toByteArray(), StandardCharsets.UTF_8).trim());
+
+                    JSRealm realm = JavaScriptLanguage.getJSRealm(context);
+                    assertNotSame(lastRealm, realm);
+                    lastRealm = realm;
+                    jsContext = realm.getContext();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPooledRealmAdoptsEnv() {
+        try (Engine engine = JSTest.newEngineBuilder().option(JSContextOptions.REALM_POOL_SIZE_NAME, "1").build()) {
+            JSContext jsContext = null;
+            for (int i = 0; i < 4; i++) {
+                // contexts 1 to 3 use pooled realms, and differ from the previous context in the
+                // arguments, the time zone, and host or polyglot access
+                boolean tokyo = i % 2 == 1;
+                boolean hostLookup = i >= 2;
+                Context.Builder builder = JSTest.newContextBuilder().engine(engine).arguments(ID, new String[]{"arg" + i});
+                builder.timeZone(ZoneId.of(tokyo ? "Asia/Tokyo" : "UTC"));
+                if (hostLookup) {
+                    builder.allowHostClassLookup(c -> true);
+                } else {
+                    builder.allowPolyglotAccess(PolyglotAccess.ALL);
+                }
+                if (jsContext != null) {
+                    awaitPooledRealms(jsContext, 1);
+                }
+                try (Context context = builder.build()) {
+                    jsContext = JavaScriptLanguage.getJSContext(context);
+                    if (i > 0) {
+                        assertEquals(0, jsContext.getPooledRealmCount());
+                    }
+                    assertEquals("arg" + i, context.eval(ID, "arguments.join()").asString());
+                    assertEquals(tokyo ? -540 : 0, context.eval(ID, "new Date(0).getTimezoneOffset()").asInt());
+                    assertEquals(hostLookup, context.eval(ID, "typeof Java === 'object'").asBoolean());
+                    assertEquals(!hostLookup, context.eval(ID, "typeof Polyglot === 'object'").asBoolean());
+                }
+            }
+        }
+    }
+
+    private static void awaitPooledRealms(JSContext jsContext, int count) {
+        // the pool is filled in the background after a context has been closed
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (jsContext.getPooledRealmCount() < count) {
+            assertTrue("realm pool not filled", System.currentTimeMillis() < deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge, or any payment, to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and either this complete permission notice or at
+ * a minimum a reference to the UPL must be included in all copies or
+ * substantial portions of the Software, or any larger work that includes the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.test.runtime;
+
+import static com.oracle.truffle.js.lang.JavaScriptLanguage.ID;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.junit.Test;
+
+import com.oracle.truffle.js.lang.JavaScriptLanguage;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.runtime.util.RegexCompileCache;
+import com.oracle.truffle.js.test.JSTest;
+
+public class RegexCompileCacheTest {
+
+    private static RegexCompileCache getCache(Context context) {
+        return JavaScriptLanguage.getJSRealm(context).getContext().getRegexCompileCache();
+    }
+
+    @Test
+    public void testDynamicPatterns() {
+        try (Engine engine = JSTest.newEngineBuilder().option(JSContextOptions.REGEX_CACHE_SIZE_NAME, "4").build()) {
+            RegexCompileCache cache;
+            try (Context context = JSTest.newContextBuilder().engine(engine).build()) {
+                context.eval(ID, "function make(p) { return new RegExp(p, 'g'); }");
+                // more distinct patterns than the inline cache and the compile cache can hold
+                context.eval(ID, "for (var i = 0; i < 10; i++) { make('p' + i); }");
+                cache = getCache(context);
+                assertTrue(cache.getMissCount() >= 10);
+                assertTrue(cache.getEvictionCount() >= 6);
+                assertTrue(cache.size() <= 4);
+
+                long hits = cache.getHitCount();
+                assertTrue(context.eval(ID, "var ok = true; for (var j = 0; j < 5; j++) { for (var i = 7; i < 10; i++) { ok = ok && make('p' + i).test('xp' + i); } } ok").asBoolean());
+                assertEquals(hits + 15, cache.getHitCount());
+            }
+
+            // the cache is shared by contexts of the same engine
+            try (Context context = JSTest.newContextBuilder().engine(engine).build()) {
+                assertSame(cache, getCache(context));
+                long hits = cache.getHitCount();
+                long misses = cache.getMissCount();
+                assertTrue(context.eval(ID, "new RegExp('p9', 'g').test('p9')").asBoolean());
+                assertEquals(hits + 1, cache.getHitCount());
+                assertEquals(misses, cache.getMissCount());
+            }
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        try (Context context = JSTest.newContextBuilder().option(JSContextOptions.REGEX_CACHE_SIZE_NAME, "0").build()) {
+            assertTrue(context.eval(ID, "new RegExp('a' + 'b').test('ab')").asBoolean());
+            assertNull(getCache(context));
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2020, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -41,19 +41,30 @@
 package com.oracle.truffle.js.test.tools;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 
+import org.graalvm.polyglot.Context;
 import org.junit.Test;
 
+import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.js.lang.JavaScriptLanguage;
 import com.oracle.truffle.js.nodes.ScriptNode;
+import com.oracle.truffle.js.parser.CodeCache;
 import com.oracle.truffle.js.parser.JSParser;
 import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSContextOptions;
+import com.oracle.truffle.js.runtime.JSRealm;
 import com.oracle.truffle.js.snapshot.Recording;
 import com.oracle.truffle.js.test.JSTest;
 
@@ -162,4 +173,67 @@ public class RecordingTest extends JSTest {
         Object result = script.run(testHelper.getRealm());
         assertEquals("OK", result);
     }
+
+    @Test
+    public void testCodeCache() throws IOException {
+        JSContext context = testHelper.getJSContext();
+        // "'Aa'" and "'BB'" have the same length and String hash code
+        Source cached = Source.newBuilder(JavaScriptLanguage.ID, "'Aa'", "cached.js").build();
+        Source colliding = Source.newBuilder(JavaScriptLanguage.ID, "'BB'", "colliding.js").build();
+        Recording rec = Recording.recordSource(cached, context, false, "", "");
+        byte[] snapshot;
+        try (ByteArrayOutputStream outs = new ByteArrayOutputStream()) {
+            rec.saveToStream(cached.getName(), outs, true);
+            snapshot = outs.toByteArray();
+        }
+
+        Path cacheDir = Files.createTempDirectory("code-cache");
+        try (Context polyglotContext = JSTest.newContextBuilder().allowIO(true).option(JSContextOptions.CODE_CACHE_DIR_NAME, cacheDir.toString()).build()) {
+            JSRealm realm = JavaScriptLanguage.getJSRealm(polyglotContext);
+            JSContext cacheContext = realm.getContext();
+            polyglotContext.enter();
+            try {
+                TruffleFile cacheDirFile = realm.getEnv().getPublicTruffleFile(cacheDir.toString());
+                Path cacheFile = cacheDir.resolve(CodeCache.getFileName(cached, cacheContext));
+                writeCacheFile(cacheFile, cached, cacheContext, snapshot);
+                assertNotNull(CodeCache.load(cacheContext, cached, cacheDirFile));
+
+                // the snapshot of a source with the same String hash code is not used
+                Path collidingFile = cacheDir.resolve(CodeCache.getFileName(colliding, cacheContext));
+                Files.copy(cacheFile, collidingFile);
+                assertNull(CodeCache.load(cacheContext, colliding, cacheDirFile));
+
+                // neither is a snapshot recorded with other options
+                try (Context v8Context = JSTest.newContextBuilder().option(JSContextOptions.V8_COMPATIBILITY_MODE_NAME, "true").build()) {
+                    writeCacheFile(cacheFile, cached, JavaScriptLanguage.getJSContext(v8Context), snapshot);
+                }
+                assertNull(CodeCache.load(cacheContext, cached, cacheDirFile));
+
+                // unusable snapshots are ignored
+                Files.write(cacheFile, new byte[]{1, 2, 3, 4});
+                assertNull(CodeCache.load(cacheContext, cached, cacheDirFile));
+
+                // so are truncated ones
+                writeCacheFile(cacheFile, cached, cacheContext, Arrays.copyOf(snapshot, snapshot.length / 2));
+                assertNull(CodeCache.load(cacheContext, cached, cacheDirFile));
+            } finally {
+                polyglotContext.leave();
+            }
+            assertEquals("BB", polyglotContext.eval(org.graalvm.polyglot.Source.create(JavaScriptLanguage.ID, "'BB'")).asString());
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir)) {
+                for (Path file : files) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(cacheDir);
+        }
+    }
+
+    private static void writeCacheFile(Path cacheFile, Source source, JSContext context, byte[] snapshot) throws IOException {
+        try (OutputStream outs = Files.newOutputStream(cacheFile)) {
+            CodeCache.writeHeader(outs, source, context);
+            outs.write(snapshot);
+        }
+    }
 }
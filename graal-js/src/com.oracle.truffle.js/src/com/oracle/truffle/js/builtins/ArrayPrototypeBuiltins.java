@@ -162,8 +162,10 @@ import com.oracle.truffle.js.runtime.Symbol;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.array.SparseArray;
 import com.oracle.truffle.js.runtime.array.TypedArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractConstantArray;
 import com.oracle.truffle.js.runtime.array.dyn.AbstractDoubleArray;
 import com.oracle.truffle.js.runtime.array.dyn.AbstractIntArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractWritableArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantByteArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantDoubleArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantIntArray;
@@ -2607,6 +2609,7 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
 
         @Child private DeletePropertyNode deletePropertyNode; // DeletePropertyOrThrow
         private final ConditionProfile isSparse = ConditionProfile.create();
+        private final ConditionProfile isPrimitiveSort = ConditionProfile.create();
         private final BranchProfile hasCompareFnBranch = BranchProfile.create();
         private final BranchProfile noCompareFnBranch = BranchProfile.create();
         private final BranchProfile growProfile = BranchProfile.create();
@@ -2630,7 +2633,13 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
             }
 
             ScriptArray scriptArray = arrayGetArrayType(thisObj);
-            Object[] array = arrayToObjectArrayNode.executeObjectArray(thisObj, scriptArray, len);
+            if (isPrimitiveSort.profile(sortPrimitiveArray(thisObj, scriptArray, compare))) {
+                reportLoopCount(len);
+                return thisObj;
+            }
+
+            // the array type may have changed from a constant to a writable one
+            Object[] array = arrayToObjectArrayNode.executeObjectArray(thisObj, arrayGetArrayType(thisObj), len);
 
             sortIntl(getComparator(thisObj, compare), array);
             reportLoopCount(len); // best effort guess, let's not go for n*log(n)
@@ -2645,6 +2654,79 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
             return thisObj;
         }
 
+        /**
+         * Sorts a dense int or double array in place on its backing store, without boxing and
+         * writing back the elements. This is only possible if the order can be determined without
+         * calling the comparison function, i.e., for the default order of an int array or for a
+         * comparison function that the parser has recognized as a numeric comparison. Returns
+         * false if the array has not been sorted.
+         */
+        private static boolean sortPrimitiveArray(DynamicObject thisObj, ScriptArray scriptArray, Object compare) {
+            boolean isIntArray = scriptArray instanceof AbstractIntArray || scriptArray instanceof ConstantByteArray || scriptArray instanceof ConstantIntArray;
+            boolean isDoubleArray = scriptArray instanceof AbstractDoubleArray || scriptArray instanceof ConstantDoubleArray;
+            if (!(isIntArray || isDoubleArray) || scriptArray.isFrozen()) {
+                return false;
+            }
+            int order = 0;
+            if (compare == Undefined.instance) {
+                if (!isIntArray) {
+                    return false;
+                }
+            } else {
+                order = getNumericComparatorOrder(compare);
+                if (order == 0) {
+                    return false;
+                }
+            }
+            AbstractWritableArray writableArray;
+            if (scriptArray instanceof AbstractConstantArray) {
+                // array literal, sort a writable copy of its elements
+                AbstractConstantArray constantArray = (AbstractConstantArray) scriptArray;
+                if (isIntArray) {
+                    writableArray = constantArray.createWriteableInt(thisObj, 0, 0, ScriptArray.ProfileHolder.empty());
+                } else {
+                    writableArray = constantArray.createWriteableDouble(thisObj, 0, 0, ScriptArray.ProfileHolder.empty());
+                }
+                arraySetArrayType(thisObj, writableArray);
+            } else {
+                writableArray = (AbstractWritableArray) scriptArray;
+            }
+            if (!writableArray.isDenseZeroBased(thisObj)) {
+                return false;
+            }
+            if (compare == Undefined.instance) {
+                ((AbstractIntArray) writableArray).sortDenseAsStrings(thisObj);
+                return true;
+            }
+            boolean descending = order < 0;
+            if (writableArray instanceof AbstractIntArray) {
+                ((AbstractIntArray) writableArray).sortDenseNumeric(thisObj, descending);
+                return true;
+            } else {
+                return ((AbstractDoubleArray) writableArray).sortDenseNumeric(thisObj, descending);
+            }
+        }
+
+        private static int getNumericComparatorOrder(Object compare) {
+            if (!JSFunction.isJSFunction(compare)) {
+                return 0;
+            }
+            JSFunctionData functionData = JSFunction.getFunctionData((DynamicObject) compare);
+            int order = functionData.getNumericComparatorOrder();
+            if (order == 0 && !functionData.isMaterialized() && !functionData.isBuiltin()) {
+                // the body of a lazily parsed function is only known after it has been parsed
+                order = materializeNumericComparatorOrder(functionData);
+            }
+            return order;
+        }
+
+        @TruffleBoundary
+        private static int materializeNumericComparatorOrder(JSFunctionData functionData) {
+            // the comparison function is about to be called anyway if this is not a numeric one
+            functionData.materialize();
+            return functionData.getNumericComparatorOrder();
+        }
+
         private void delete(Object obj, Object i) {
             if (deletePropertyNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -2674,6 +2756,14 @@ public final class ArrayPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum
                 return thisJSObj;
             }
 
+            if (isTypedArrayImplementation && comparefn == Undefined.instance) {
+                TypedArray typedArray = JSArrayBufferView.typedArrayGetArrayType(thisJSObj);
+                if (typedArray.sortDefault(thisJSObj, getContext().getTypedArraySortPool((int) len))) {
+                    reportLoopCount(len);
+                    return thisJSObj;
+                }
+            }
+
             Iterable<Object> keys = getKeys(thisJSObj);
             Object[] array = jsobjectToArray(thisJSObj, len, keys);
 
@@ -61,6 +61,7 @@ import com.oracle.truffle.js.nodes.cast.JSToIndexNode;
 import com.oracle.truffle.js.nodes.cast.JSToInt32Node;
 import com.oracle.truffle.js.nodes.cast.JSToIntegerAsLongNode;
 import com.oracle.truffle.js.nodes.cast.JSToNumberNode;
+import com.oracle.truffle.js.nodes.cast.JSToUInt32Node;
 import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
 import com.oracle.truffle.js.runtime.BigInt;
@@ -297,29 +298,30 @@ public final class AtomicsBuiltins extends JSBuiltinsContainer.SwitchEnum<Atomic
 
         @Child private JSToBigIntNode toBigIntNode;
         @Child private JSToIntegerAsLongNode toIntNode;
+        @Child private JSToUInt32Node toUInt32Node;
 
         public AtomicsCompareExchangeNode(JSContext context, JSBuiltin builtin) {
             super(context, builtin);
         }
 
         protected int doCASInt8(DynamicObject target, int index, int expected, int replacement, boolean sign) {
-            return SharedMemorySync.atomicFetchOrGetByte(getContext(), target, index, (byte) expected, replacement, sign);
+            return SharedMemorySync.atomicFetchOrGetByte(target, index, (byte) expected, replacement, sign);
         }
 
         protected int doCASInt16(DynamicObject target, int index, int expected, int replacement, boolean sign) {
-            return SharedMemorySync.atomicFetchOrGetShort(getContext(), target, index, expected, replacement, sign);
+            return SharedMemorySync.atomicFetchOrGetShort(target, index, expected, replacement, sign);
         }
 
         protected Object doCASUint32(DynamicObject target, int index, Object expected, Object replacement) {
-            return SafeInteger.valueOf(SharedMemorySync.atomicFetchOrGetUnsigned(getContext(), target, index, expected, replacement));
+            return SafeInteger.valueOf(SharedMemorySync.atomicFetchOrGetUnsigned(target, index, (int) toUInt32(expected), (int) toUInt32(replacement)));
         }
 
         protected int doCASInt(DynamicObject target, int index, int expected, int replacement) {
-            return SharedMemorySync.atomicFetchOrGetInt(getContext(), target, index, expected, replacement);
+            return SharedMemorySync.atomicFetchOrGetInt(target, index, expected, replacement);
         }
 
         protected BigInt doCASBigInt(DynamicObject target, int index, BigInt expected, BigInt replacement) {
-            return SharedMemorySync.atomicFetchOrGetBigInt(getContext(), target, index, expected, replacement);
+            return SharedMemorySync.atomicFetchOrGetBigInt(target, index, expected, replacement);
         }
 
         @Specialization(guards = {"isInt8SharedBufferView(target)", "inboundFast(target,index)"})
@@ -438,6 +440,14 @@ public final class AtomicsBuiltins extends JSBuiltinsContainer.SwitchEnum<Atomic
             return (int) toIntNode.executeLong(v);
         }
 
+        private long toUInt32(Object v) {
+            if (toUInt32Node == null) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                toUInt32Node = insert(JSToUInt32Node.create());
+            }
+            return toUInt32Node.executeLong(v);
+        }
+
         private BigInt toBigInt(Object v) {
             if (toBigIntNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
@@ -678,7 +688,7 @@ public final class AtomicsBuiltins extends JSBuiltinsContainer.SwitchEnum<Atomic
             do {
                 initial = SharedMemorySync.doVolatileGet(target, index);
                 result = intOperator.applyAsInt(initial, value);
-            } while (!SharedMemorySync.compareAndSwapInt(getContext(), target, index, initial, result));
+            } while (!SharedMemorySync.compareAndSwapInt(target, index, initial, result));
             return initial;
         }
 
@@ -688,7 +698,7 @@ public final class AtomicsBuiltins extends JSBuiltinsContainer.SwitchEnum<Atomic
             do {
                 initial = SharedMemorySync.doVolatileGetBigInt(target, index);
                 result = bigIntOperator.apply(initial, value);
-            } while (!SharedMemorySync.compareAndSwapBigInt(getContext(), target, index, initial, result));
+            } while (!SharedMemorySync.compareAndSwapBigInt(target, index, initial, result));
             return initial;
         }
 
@@ -42,7 +42,6 @@ package com.oracle.truffle.js.builtins;
 
 import java.nio.ByteBuffer;
 import java.util.EnumSet;
-import java.util.LinkedHashMap;
 import java.util.Objects;
 import java.util.StringJoiner;
 
@@ -238,6 +237,7 @@ import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.LRUCache;
 import com.oracle.truffle.js.runtime.util.SimpleArrayList;
 import com.oracle.truffle.js.runtime.util.TRegexUtil;
 
@@ -1690,21 +1690,6 @@ public final class ConstructorBuiltins extends JSBuiltinsContainer.SwitchEnum<Co
         }
     }
 
-    static final class LRUCache<K, V> extends LinkedHashMap<K, V> {
-        private static final long serialVersionUID = 7813848977534444613L;
-        private final int maxCacheSize;
-
-        LRUCache(int maxCacheSize) {
-            super(16, 0.75F, true);
-            this.maxCacheSize = maxCacheSize;
-        }
-
-        @Override
-        protected boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
-            return size() > maxCacheSize;
-        }
-    }
-
     /**
      * Create (and potentially cache) dynamic function from parameter list and body strings.
      */
@@ -73,6 +73,7 @@ import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugDumpCountersNode
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugDumpFunctionTreeNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugHeapDumpNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugIsHolesArrayNodeGen;
+import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugJSONKeyCacheStatisticsNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugJSStackNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugLoadModuleNodeGen;
 import com.oracle.truffle.js.builtins.DebugBuiltinsFactory.DebugNeverPartOfCompilationNodeGen;
@@ -119,6 +120,7 @@ import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
 import com.oracle.truffle.js.runtime.objects.ScriptOrModule;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.JSONKeyCache;
 
 /**
  * Contains builtins for {@code Debug} object.
@@ -156,7 +158,8 @@ public final class DebugBuiltins extends JSBuiltinsContainer.SwitchEnum<DebugBui
         systemProperty(1),
         systemProperties(0),
         neverPartOfCompilation(0),
-        dumpHeap(2);
+        dumpHeap(2),
+        jsonKeyCacheStatistics(0);
 
         private final int length;
 
@@ -226,6 +229,8 @@ public final class DebugBuiltins extends JSBuiltinsContainer.SwitchEnum<DebugBui
 
             case dumpHeap:
                 return DebugHeapDumpNodeGen.create(context, builtin, args().fixedArgs(2).createArgumentNodes(context));
+            case jsonKeyCacheStatistics:
+                return DebugJSONKeyCacheStatisticsNodeGen.create(context, builtin, args().createArgumentNodes(context));
         }
         return null;
     }
@@ -667,6 +672,23 @@ public final class DebugBuiltins extends JSBuiltinsContainer.SwitchEnum<DebugBui
         }
     }
 
+    public abstract static class DebugJSONKeyCacheStatisticsNode extends JSBuiltinNode {
+
+        public DebugJSONKeyCacheStatisticsNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @TruffleBoundary
+        @Specialization
+        protected Object jsonKeyCacheStatistics() {
+            JSONKeyCache cache = getContext().getJSONKeyCache();
+            DynamicObject result = JSOrdinary.create(getContext());
+            JSObject.set(result, "hits", (double) cache.getHitCount());
+            JSObject.set(result, "misses", (double) cache.getMissCount());
+            return result;
+        }
+    }
+
     public abstract static class DebugSystemProperty extends JSBuiltinNode {
 
         public DebugSystemProperty(JSContext context, JSBuiltin builtin) {
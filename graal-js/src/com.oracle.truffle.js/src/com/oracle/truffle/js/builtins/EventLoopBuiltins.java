@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins;
+
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.js.builtins.EventLoopBuiltinsFactory.JSEventLoopHasPendingTasksNodeGen;
+import com.oracle.truffle.js.builtins.EventLoopBuiltinsFactory.JSEventLoopRunNodeGen;
+import com.oracle.truffle.js.builtins.EventLoopBuiltinsFactory.JSEventLoopRunOnceNodeGen;
+import com.oracle.truffle.js.nodes.function.JSBuiltin;
+import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSEventLoop;
+import com.oracle.truffle.js.runtime.JSRealm;
+import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+
+/**
+ * Contains the functions of the {@code EventLoop} global object (enabled by the {@code js.timers}
+ * option), through which embedders drive the realm's {@link JSEventLoop}:
+ * <ul>
+ * <li>{@code EventLoop.run()} runs the event loop until there are no more pending tasks, waiting
+ * for timers to expire;</li>
+ * <li>{@code EventLoop.runOnce()} runs the tasks that are ready without waiting and returns
+ * whether there are more pending tasks;</li>
+ * <li>{@code EventLoop.hasPendingTasks()} returns whether there are pending tasks.</li>
+ * </ul>
+ */
+public final class EventLoopBuiltins extends JSBuiltinsContainer.SwitchEnum<EventLoopBuiltins.EventLoop> {
+
+    public static final JSBuiltinsContainer BUILTINS = new EventLoopBuiltins();
+
+    protected EventLoopBuiltins() {
+        super(JSRealm.EVENT_LOOP_CLASS_NAME, EventLoop.class);
+    }
+
+    public enum EventLoop implements BuiltinEnum<EventLoop> {
+        run(0),
+        runOnce(0),
+        hasPendingTasks(0);
+
+        private final int length;
+
+        EventLoop(int length) {
+            this.length = length;
+        }
+
+        @Override
+        public int getLength() {
+            return length;
+        }
+    }
+
+    @Override
+    protected Object createNode(JSContext context, JSBuiltin builtin, boolean construct, boolean newTarget, EventLoop builtinEnum) {
+        switch (builtinEnum) {
+            case run:
+                return JSEventLoopRunNodeGen.create(context, builtin, args().createArgumentNodes(context));
+            case runOnce:
+                return JSEventLoopRunOnceNodeGen.create(context, builtin, args().createArgumentNodes(context));
+            case hasPendingTasks:
+                return JSEventLoopHasPendingTasksNodeGen.create(context, builtin, args().createArgumentNodes(context));
+        }
+        return null;
+    }
+
+    public abstract static class JSEventLoopRunNode extends JSBuiltinNode {
+
+        public JSEventLoopRunNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization
+        protected Object run() {
+            getContext().getRealm().getEventLoop().run();
+            return Undefined.instance;
+        }
+    }
+
+    public abstract static class JSEventLoopRunOnceNode extends JSBuiltinNode {
+
+        public JSEventLoopRunOnceNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization
+        protected boolean runOnce() {
+            return getContext().getRealm().getEventLoop().runReadyTasks();
+        }
+    }
+
+    public abstract static class JSEventLoopHasPendingTasksNode extends JSBuiltinNode {
+
+        public JSEventLoopHasPendingTasksNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization
+        protected boolean hasPendingTasks() {
+            return getContext().getRealm().getEventLoop().hasPendingTasks();
+        }
+    }
+}
@@ -171,8 +171,8 @@ public final class ForInIteratorPrototypeBuiltins extends JSBuiltinsContainer.Sw
                     int size;
                     if (fastOwnKeysProfile.profile(JSConfig.FastOwnKeys && hasOnlyShapePropertiesNode.execute(object, jsclass))) {
                         fastOwnKeys = true;
-                        // if the object does not have enumerable properties, no need to enumerate
-                        list = JSShape.getPropertiesIfHasEnumerablePropertyNames(objectShape);
+                        // enumerable keys are cached per shape and can be walked directly
+                        list = JSShape.getEnumerablePropertyNames(objectShape);
                         size = list.size();
                     } else {
                         fastOwnKeys = false;
@@ -189,8 +189,7 @@ public final class ForInIteratorPrototypeBuiltins extends JSBuiltinsContainer.Sw
 
                 assert state.remainingKeysSize == state.remainingKeys.size();
                 while (state.remainingKeysIndex < state.remainingKeysSize) {
-                    final Object next = listGet.execute(state.remainingKeys, state.remainingKeysIndex++);
-                    final Object key = getKey(next);
+                    final Object key = listGet.execute(state.remainingKeys, state.remainingKeysIndex++);
                     if (!(key instanceof String)) {
                         continue;
                     }
@@ -198,14 +197,10 @@ public final class ForInIteratorPrototypeBuiltins extends JSBuiltinsContainer.Sw
                         continue;
                     }
 
-                    if (fastOwnKeysProfile.profile(state.fastOwnKeys && next instanceof Property)) {
+                    if (fastOwnKeysProfile.profile(state.fastOwnKeys)) {
                         if (sameShapeProfile.profile(state.objectShape == object.getShape())) {
-                            // same shape => can skip GetOwnProperty
-                            if (JSProperty.isEnumerable((Property) next)) {
-                                return key;
-                            } else {
-                                continue;
-                            }
+                            // same shape => key is an enumerable own property, skip GetOwnProperty
+                            return key;
                         } else {
                             // shape has changed => must perform GetOwnProperty
                             addPreviouslyVisitedKeys(state);
@@ -229,8 +224,8 @@ public final class ForInIteratorPrototypeBuiltins extends JSBuiltinsContainer.Sw
                 }
 
                 DynamicObject proto = getPrototypeNode.executeJSObject(object);
-                if (tryFastForwardImmutablePrototype(proto)) {
-                    proto = Null.instance;
+                if (JSConfig.FastOwnKeys) {
+                    proto = skipPrototypesWithoutEnumerableProperties(state, proto);
                 }
                 state.object = proto;
                 state.objectWasVisited = false;
@@ -250,31 +245,43 @@ public final class ForInIteratorPrototypeBuiltins extends JSBuiltinsContainer.Sw
             }
         }
 
-        private static Object getKey(final Object next) {
-            return next instanceof Property ? ((Property) next).getKey() : next;
-        }
-
         @TruffleBoundary
         private static void addPreviouslyVisitedKeys(ForInIterator state) {
             for (int i = 0; i < state.remainingKeysIndex - 1; i++) {
-                state.addVisitedKey(getKey(state.remainingKeys.get(i)));
+                state.addVisitedKey(state.remainingKeys.get(i));
+            }
+            // non-enumerable properties are not in the key list but still shadow prototype keys
+            for (Property property : state.objectShape.getPropertyList()) {
+                if (!JSProperty.isEnumerable(property) && property.getKey() instanceof String) {
+                    state.addVisitedKey(property.getKey());
+                }
             }
         }
 
-        private boolean tryFastForwardImmutablePrototype(DynamicObject proto) {
-            if (proto == Null.instance) {
-                return false;
-            }
-            // If none of the remaining prototypes have enumerable properties, we are done.
-            // If the object has an immutable prototype (i.e., Object.prototype, Module Namespace),
-            // its prototype is always null and we can skip [[GetPrototypeOf]]().
-            JSClass jsclass = JSObject.getJSClass(proto);
-            if (jsclass == JSObjectPrototype.INSTANCE && hasOnlyShapePropertiesNode.execute(proto, jsclass) && JSShape.getEnumerablePropertyNames(proto.getShape()).isEmpty()) {
-                assert JSObject.getPrototype(proto) == Null.instance;
-                return true;
-            } else {
-                return false;
+        /**
+         * Skips prototypes that have no enumerable properties, remembering their shapes so that
+         * their (non-enumerable) properties still shadow keys further up the prototype chain.
+         *
+         * @return the first prototype that needs to be enumerated, or {@link Null#instance} if
+         *         none of the remaining prototypes have enumerable properties.
+         */
+        private DynamicObject skipPrototypesWithoutEnumerableProperties(ForInIterator state, DynamicObject start) {
+            DynamicObject proto = start;
+            while (proto != Null.instance) {
+                JSClass jsclass = JSObject.getJSClass(proto);
+                if (!hasOnlyShapePropertiesNode.execute(proto, jsclass) || !JSShape.getEnumerablePropertyNames(proto.getShape()).isEmpty()) {
+                    break;
+                }
+                // If the object has an immutable prototype (i.e., Object.prototype, Module
+                // Namespace), its prototype is always null and we can skip [[GetPrototypeOf]]().
+                if (jsclass == JSObjectPrototype.INSTANCE) {
+                    assert JSObject.getPrototype(proto) == Null.instance;
+                    return Null.instance;
+                }
+                state.addVisitedShape(proto.getShape(), growProfile);
+                proto = getPrototypeNode.executeJSObject(proto);
             }
+            return proto;
         }
 
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,22 +40,36 @@
  */
 package com.oracle.truffle.js.builtins;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.dsl.ImportStatic;
 import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONParseNodeGen;
+import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONParseUTF8NodeGen;
 import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONStringifyNodeGen;
+import com.oracle.truffle.js.builtins.JSONBuiltinsFactory.JSONStringifyUTF8NodeGen;
 import com.oracle.truffle.js.builtins.helper.JSONData;
 import com.oracle.truffle.js.builtins.helper.JSONStringifyStringNode;
+import com.oracle.truffle.js.builtins.helper.TruffleJSONByteParser;
 import com.oracle.truffle.js.builtins.helper.TruffleJSONParser;
 import com.oracle.truffle.js.nodes.access.CreateDataPropertyNode;
 import com.oracle.truffle.js.nodes.cast.JSToIntegerAsIntNode;
@@ -65,10 +79,17 @@ import com.oracle.truffle.js.nodes.function.JSBuiltin;
 import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
 import com.oracle.truffle.js.nodes.unary.IsCallableNode;
 import com.oracle.truffle.js.nodes.unary.JSIsArrayNode;
+import com.oracle.truffle.js.runtime.Boundaries;
+import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSErrorType;
+import com.oracle.truffle.js.runtime.JSException;
 import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBuffer;
+import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
+import com.oracle.truffle.js.runtime.builtins.JSDataView;
 import com.oracle.truffle.js.runtime.builtins.JSNumber;
 import com.oracle.truffle.js.runtime.builtins.JSString;
 import com.oracle.truffle.js.runtime.builtins.JSOrdinary;
@@ -85,6 +106,7 @@ import com.oracle.truffle.js.runtime.util.StringBuilderProfile;
 public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuiltins.JSON> {
 
     public static final JSBuiltinsContainer BUILTINS = new JSONBuiltins();
+    public static final JSBuiltinsContainer BUILTINS_UTF8 = new JSONUTF8Builtins();
 
     protected JSONBuiltins() {
         super(com.oracle.truffle.js.runtime.builtins.JSON.CLASS_NAME, JSON.class);
@@ -112,11 +134,48 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
             case parse:
                 return JSONParseNodeGen.create(context, builtin, args().fixedArgs(2).createArgumentNodes(context));
             case stringify:
-                return JSONStringifyNodeGen.create(context, builtin, args().fixedArgs(3).createArgumentNodes(context));
+                return JSONStringifyNodeGen.create(context, builtin, false, args().fixedArgs(3).createArgumentNodes(context));
         }
         return null;
     }
 
+    /**
+     * Non-standard JSON functions operating on UTF-8 encoded bytes, enabled by the
+     * {@code js.json-utf8} option.
+     */
+    public static final class JSONUTF8Builtins extends JSBuiltinsContainer.SwitchEnum<JSONUTF8Builtins.JSONUTF8> {
+        protected JSONUTF8Builtins() {
+            super(JSONUTF8.class);
+        }
+
+        public enum JSONUTF8 implements BuiltinEnum<JSONUTF8> {
+            parseUTF8(2),
+            stringifyUTF8(4);
+
+            private final int length;
+
+            JSONUTF8(int length) {
+                this.length = length;
+            }
+
+            @Override
+            public int getLength() {
+                return length;
+            }
+        }
+
+        @Override
+        protected Object createNode(JSContext context, JSBuiltin builtin, boolean construct, boolean newTarget, JSONUTF8 builtinEnum) {
+            switch (builtinEnum) {
+                case parseUTF8:
+                    return JSONParseUTF8NodeGen.create(context, builtin, args().fixedArgs(2).createArgumentNodes(context));
+                case stringifyUTF8:
+                    return JSONStringifyUTF8NodeGen.create(context, builtin, args().fixedArgs(4).createArgumentNodes(context));
+            }
+            return null;
+        }
+    }
+
     public abstract static class JSONOperation extends JSBuiltinNode {
         public JSONOperation(JSContext context, JSBuiltin builtin) {
             super(context, builtin);
@@ -135,36 +194,15 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
         protected boolean isArray(Object replacer) {
             return JSRuntime.isArray(replacer);
         }
-    }
-
-    public abstract static class JSONParseNode extends JSONOperation {
 
-        public JSONParseNode(JSContext context, JSBuiltin builtin) {
-            super(context, builtin);
-        }
-
-        @Specialization(guards = "isCallable.executeBoolean(reviver)", limit = "1")
-        protected Object parse(Object text, Object reviver,
-                        @Cached @Shared("isCallable") @SuppressWarnings("unused") IsCallableNode isCallable) {
-            Object unfiltered = parseIntl(toString(text));
+        protected Object internalize(Object unfiltered, DynamicObject reviver) {
             DynamicObject root = JSOrdinary.create(getContext());
             JSObjectUtil.putDataProperty(getContext(), root, "", unfiltered, JSAttributes.getDefault());
-            return walk((DynamicObject) reviver, root, "");
-        }
-
-        @Specialization(guards = "!isCallable.executeBoolean(reviver)", limit = "1")
-        protected Object parseUnfiltered(Object text, @SuppressWarnings("unused") Object reviver,
-                        @Cached @Shared("isCallable") @SuppressWarnings("unused") IsCallableNode isCallable) {
-            return parseIntl(toString(text));
-        }
-
-        @TruffleBoundary(transferToInterpreterOnException = false)
-        private Object parseIntl(String jsonString) {
-            return new TruffleJSONParser(getContext()).parse(jsonString);
+            return walk(reviver, root, "");
         }
 
         @TruffleBoundary
-        private Object walk(DynamicObject reviverFn, DynamicObject holder, String property) {
+        protected Object walk(DynamicObject reviverFn, DynamicObject holder, String property) {
             Object value = JSObject.get(holder, property);
             if (JSRuntime.isObject(value)) {
                 DynamicObject object = (DynamicObject) value;
@@ -194,10 +232,106 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
         }
     }
 
+    public abstract static class JSONParseNode extends JSONOperation {
+
+        public JSONParseNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization(guards = "isCallable.executeBoolean(reviver)", limit = "1")
+        protected Object parse(Object text, Object reviver,
+                        @Cached @Shared("isCallable") @SuppressWarnings("unused") IsCallableNode isCallable) {
+            Object unfiltered = parseIntl(toString(text));
+            return internalize(unfiltered, (DynamicObject) reviver);
+        }
+
+        @Specialization(guards = "!isCallable.executeBoolean(reviver)", limit = "1")
+        protected Object parseUnfiltered(Object text, @SuppressWarnings("unused") Object reviver,
+                        @Cached @Shared("isCallable") @SuppressWarnings("unused") IsCallableNode isCallable) {
+            return parseIntl(toString(text));
+        }
+
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private Object parseIntl(String jsonString) {
+            return new TruffleJSONParser(getContext()).parse(jsonString);
+        }
+    }
+
+    public abstract static class JSONParseUTF8Node extends JSONOperation {
+
+        public JSONParseUTF8Node(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization(guards = "isCallable.executeBoolean(reviver)", limit = "1")
+        protected Object parse(Object source, Object reviver,
+                        @Cached @Shared("isCallable") @SuppressWarnings("unused") IsCallableNode isCallable) {
+            Object unfiltered = parseIntl(getSourceBuffer(source));
+            return internalize(unfiltered, (DynamicObject) reviver);
+        }
+
+        @Specialization(guards = "!isCallable.executeBoolean(reviver)", limit = "1")
+        protected Object parseUnfiltered(Object source, @SuppressWarnings("unused") Object reviver,
+                        @Cached @Shared("isCallable") @SuppressWarnings("unused") IsCallableNode isCallable) {
+            return parseIntl(getSourceBuffer(source));
+        }
+
+        @TruffleBoundary(transferToInterpreterOnException = false)
+        private Object parseIntl(ByteBuffer buffer) {
+            return new TruffleJSONByteParser(getContext()).parse(buffer);
+        }
+
+        /**
+         * Returns the bytes of an ArrayBuffer, an ArrayBuffer view, or a host ByteBuffer or byte[]
+         * without copying them.
+         */
+        @TruffleBoundary
+        private ByteBuffer getSourceBuffer(Object source) {
+            if (JSArrayBuffer.isJSHeapArrayBuffer(source) || JSArrayBuffer.isJSDirectOrSharedArrayBuffer(source)) {
+                return getArrayBufferContents((DynamicObject) source);
+            } else if (JSArrayBufferView.isJSArrayBufferView(source)) {
+                DynamicObject view = (DynamicObject) source;
+                ByteBuffer contents = getArrayBufferContents(JSArrayBufferView.getArrayBuffer(view));
+                int offset = JSArrayBufferView.getByteOffset(view, getContext());
+                return Boundaries.byteBufferSlice(contents, offset, offset + JSArrayBufferView.getByteLength(view, getContext()));
+            } else if (JSDataView.isJSDataView(source)) {
+                DynamicObject view = (DynamicObject) source;
+                ByteBuffer contents = getArrayBufferContents(JSDataView.getArrayBuffer(view));
+                int offset = JSDataView.typedArrayGetOffset(view);
+                return Boundaries.byteBufferSlice(contents, offset, offset + JSDataView.typedArrayGetLength(view));
+            }
+            TruffleLanguage.Env env = getContext().getRealm().getEnv();
+            if (env.isHostObject(source)) {
+                Object hostObject = env.asHostObject(source);
+                if (hostObject instanceof ByteBuffer) {
+                    return (ByteBuffer) hostObject;
+                } else if (hostObject instanceof byte[]) {
+                    return ByteBuffer.wrap((byte[]) hostObject);
+                }
+            }
+            throw Errors.createTypeError("ArrayBuffer, ArrayBuffer view or ByteBuffer expected");
+        }
+
+        private static ByteBuffer getArrayBufferContents(DynamicObject arrayBuffer) {
+            if (JSArrayBuffer.isDetachedBuffer(arrayBuffer)) {
+                throw Errors.createTypeErrorDetachedBuffer();
+            }
+            if (JSArrayBuffer.isJSHeapArrayBuffer(arrayBuffer)) {
+                return ByteBuffer.wrap(JSArrayBuffer.getByteArray(arrayBuffer));
+            } else {
+                return JSArrayBuffer.getDirectByteBuffer(arrayBuffer);
+            }
+        }
+    }
+
     public abstract static class JSONStringifyNode extends JSONOperation {
 
-        public JSONStringifyNode(JSContext context, JSBuiltin builtin) {
+        /** Return the {@link PreparedStringify prepared value} instead of the JSON text. */
+        private final boolean prepareOnly;
+
+        public JSONStringifyNode(JSContext context, JSBuiltin builtin, boolean prepareOnly) {
             super(context, builtin);
+            this.prepareOnly = prepareOnly;
         }
 
         @Child private JSONStringifyStringNode jsonStringifyStringNode;
@@ -210,6 +344,9 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
         private final ConditionProfile spaceIsUndefinedProfile = ConditionProfile.createBinaryProfile();
 
         protected Object jsonStr(Object jsonData, String key, DynamicObject holder) {
+            if (prepareOnly) {
+                return new PreparedStringify((JSONData) jsonData, key, holder);
+            }
             if (jsonStringifyStringNode == null) {
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 jsonStringifyStringNode = insert(JSONStringifyStringNode.create(getContext()));
@@ -217,6 +354,32 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
             return jsonStringifyStringNode.execute(jsonData, key, holder);
         }
 
+        /**
+         * Creates a node that returns a {@link PreparedStringify} instead of the JSON text, so that
+         * the caller can serialize it to an output of its choice.
+         */
+        public static JSONStringifyNode createPrepareStringify(JSContext context) {
+            return JSONStringifyNodeGen.create(context, null, true, null);
+        }
+
+        /**
+         * A value wrapped in its holder object, with the replacer and the gap evaluated, that is
+         * ready to be serialized by a {@link JSONStringifyStringNode}.
+         */
+        static final class PreparedStringify {
+            final JSONData data;
+            final String key;
+            final DynamicObject holder;
+
+            PreparedStringify(JSONData data, String key, DynamicObject holder) {
+                this.data = data;
+                this.key = key;
+                this.holder = holder;
+            }
+        }
+
+        public abstract Object executeStringify(Object value, Object replacer, Object space);
+
         @Override
         protected boolean isArray(Object replacer) {
             if (isArrayNode == null) {
@@ -348,4 +511,160 @@ public final class JSONBuiltins extends JSBuiltinsContainer.SwitchEnum<JSONBuilt
             return toNumberNode.executeNumber(target);
         }
     }
+
+    @ImportStatic(JSONStringifyNode.class)
+    public abstract static class JSONStringifyUTF8Node extends JSBuiltinNode {
+
+        private static final int OUTPUT_CHUNK_SIZE = 8192;
+
+        public JSONStringifyUTF8Node(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization
+        protected Object stringifyUTF8(Object value, Object replacer, Object space, Object output,
+                        @Cached("createPrepareStringify(getContext())") JSONStringifyNode prepareNode,
+                        @Cached("create(getContext())") JSONStringifyStringNode stringifyNode) {
+            OutputStream stream = output == Undefined.instance ? null : getOutputStream(output);
+            JSONStringifyNode.PreparedStringify prepared = (JSONStringifyNode.PreparedStringify) prepareNode.executeStringify(value, replacer, space);
+            if (stream == null) {
+                StringBuilder json = stringifyNode.executeBuilder(prepared.data, prepared.key, prepared.holder);
+                return json == null ? Undefined.instance : toArrayBuffer(json);
+            }
+            UTF8StreamOutput streamOutput = UTF8StreamOutput.create(stream, this);
+            prepared.data.setOutput(streamOutput);
+            StringBuilder rest = stringifyNode.executeBuilder(prepared.data, prepared.key, prepared.holder);
+            if (rest == null) {
+                return Undefined.instance;
+            }
+            return streamOutput.finish(rest);
+        }
+
+        /**
+         * Encodes the JSON text directly into the backing store of a new ArrayBuffer.
+         */
+        @TruffleBoundary
+        private DynamicObject toArrayBuffer(CharSequence json) {
+            int length = utf8Length(json, getContext().getContextOptions().getMaxTypedArrayLength());
+            boolean direct = getContext().isOptionDirectByteBuffer();
+            byte[] bytes = direct ? null : new byte[length];
+            ByteBuffer out = direct ? ByteBuffer.allocateDirect(length) : ByteBuffer.wrap(bytes);
+            CoderResult result = newEncoder().encode(CharBuffer.wrap(json), out, true);
+            assert result.isUnderflow() && !out.hasRemaining();
+            if (direct) {
+                out.clear();
+                return JSArrayBuffer.createDirectArrayBuffer(getContext(), out);
+            } else {
+                return JSArrayBuffer.createArrayBuffer(getContext(), bytes);
+            }
+        }
+
+        @TruffleBoundary
+        private OutputStream getOutputStream(Object output) {
+            TruffleLanguage.Env env = getContext().getRealm().getEnv();
+            if (env.isHostObject(output)) {
+                Object hostObject = env.asHostObject(output);
+                if (hostObject instanceof OutputStream) {
+                    return (OutputStream) hostObject;
+                }
+            }
+            throw Errors.createTypeError("OutputStream expected");
+        }
+
+        /**
+         * Encodes the JSON text into an OutputStream chunk by chunk while it is being serialized,
+         * so that neither the full text nor a byte array of its full size is held in memory.
+         */
+        private static final class UTF8StreamOutput implements JSONData.Output {
+            private final OutputStream stream;
+            private final Node location;
+            private final CharsetEncoder encoder = newEncoder();
+            private final ByteBuffer out = ByteBuffer.allocate(OUTPUT_CHUNK_SIZE);
+            private long written;
+
+            private UTF8StreamOutput(OutputStream stream, Node location) {
+                this.stream = stream;
+                this.location = location;
+            }
+
+            @TruffleBoundary
+            static UTF8StreamOutput create(OutputStream stream, Node location) {
+                return new UTF8StreamOutput(stream, location);
+            }
+
+            @TruffleBoundary
+            @Override
+            public void write(StringBuilder builder) {
+                encode(builder, false);
+            }
+
+            /**
+             * Writes the rest of the JSON text and flushes the stream.
+             *
+             * @return the total number of bytes written
+             */
+            @TruffleBoundary
+            Number finish(StringBuilder builder) {
+                encode(builder, true);
+                encoder.flush(out);
+                writeChunk();
+                try {
+                    stream.flush();
+                } catch (IOException e) {
+                    throw JSException.create(JSErrorType.Error, e.getMessage(), e, location);
+                }
+                return JSRuntime.longToIntOrDouble(written);
+            }
+
+            private void encode(StringBuilder builder, boolean endOfInput) {
+                CharBuffer in = CharBuffer.wrap(builder);
+                CoderResult result;
+                do {
+                    result = encoder.encode(in, out, endOfInput);
+                    writeChunk();
+                } while (result.isOverflow());
+                // a high surrogate at the end of the text stays in the builder for the next chunk
+                builder.delete(0, in.position());
+            }
+
+            @TruffleBoundary
+            private void writeChunk() {
+                try {
+                    stream.write(out.array(), 0, out.position());
+                } catch (IOException e) {
+                    throw JSException.create(JSErrorType.Error, e.getMessage(), e, location);
+                }
+                written += out.position();
+                out.clear();
+            }
+        }
+
+        private static CharsetEncoder newEncoder() {
+            // unpaired surrogates (possible in the gap string only) are replaced by '?'
+            return StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        private static int utf8Length(CharSequence json, int maxLength) {
+            long length = 0;
+            for (int i = 0; i < json.length(); i++) {
+                char c = json.charAt(i);
+                if (c < 0x80) {
+                    length++;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < json.length() && Character.isLowSurrogate(json.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    length++;
+                } else {
+                    length += 3;
+                }
+            }
+            if (length > maxLength) {
+                throw Errors.createRangeError("Array buffer allocation failed");
+            }
+            return (int) length;
+        }
+    }
 }
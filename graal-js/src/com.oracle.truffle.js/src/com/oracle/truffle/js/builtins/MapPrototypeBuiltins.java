@@ -176,6 +176,11 @@ public final class MapPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<M
         }
 
         @Specialization(guards = "isJSMap(thisObj)")
+        protected static boolean deleteInt(DynamicObject thisObj, int key) {
+            return JSMap.getInternalMap(thisObj).removeInt(key);
+        }
+
+        @Specialization(guards = "isJSMap(thisObj)", replaces = "deleteInt")
         protected boolean delete(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
             return JSMap.getInternalMap(thisObj).remove(normalizedKey);
@@ -198,6 +203,12 @@ public final class MapPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<M
         }
 
         @Specialization(guards = "isJSMap(thisObj)")
+        protected static Object getInt(DynamicObject thisObj, int key) {
+            Object value = JSMap.getInternalMap(thisObj).getInt(key);
+            return JSRuntime.nullToUndefined(value);
+        }
+
+        @Specialization(guards = "isJSMap(thisObj)", replaces = "getInt")
         protected Object get(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
             Object value = JSMap.getInternalMap(thisObj).get(normalizedKey);
@@ -221,6 +232,12 @@ public final class MapPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<M
         }
 
         @Specialization(guards = "isJSMap(thisObj)")
+        protected static DynamicObject setInt(DynamicObject thisObj, int key, Object value) {
+            JSMap.getInternalMap(thisObj).putInt(key, value);
+            return thisObj;
+        }
+
+        @Specialization(guards = "isJSMap(thisObj)", replaces = "setInt")
         protected DynamicObject set(DynamicObject thisObj, Object key, Object value) {
             Object normalizedKey = normalize(key);
             JSMap.getInternalMap(thisObj).put(normalizedKey, value);
@@ -244,6 +261,11 @@ public final class MapPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<M
         }
 
         @Specialization(guards = "isJSMap(thisObj)")
+        protected static boolean hasInt(DynamicObject thisObj, int key) {
+            return JSMap.getInternalMap(thisObj).hasInt(key);
+        }
+
+        @Specialization(guards = "isJSMap(thisObj)", replaces = "hasInt")
         protected boolean has(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
             return JSMap.getInternalMap(thisObj).has(normalizedKey);
@@ -172,6 +172,11 @@ public final class SetPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<S
         }
 
         @Specialization(guards = "isJSSet(thisObj)")
+        protected static boolean deleteInt(DynamicObject thisObj, int key) {
+            return JSSet.getInternalSet(thisObj).removeInt(key);
+        }
+
+        @Specialization(guards = "isJSSet(thisObj)", replaces = "deleteInt")
         protected boolean delete(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
             return JSSet.getInternalSet(thisObj).remove(normalizedKey);
@@ -194,6 +199,12 @@ public final class SetPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<S
         }
 
         @Specialization(guards = "isJSSet(thisObj)")
+        protected static DynamicObject addInt(DynamicObject thisObj, int key) {
+            JSSet.getInternalSet(thisObj).putInt(key, PRESENT);
+            return thisObj;
+        }
+
+        @Specialization(guards = "isJSSet(thisObj)", replaces = "addInt")
         protected DynamicObject add(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
             JSSet.getInternalSet(thisObj).put(normalizedKey, PRESENT);
@@ -217,6 +228,11 @@ public final class SetPrototypeBuiltins extends JSBuiltinsContainer.SwitchEnum<S
         }
 
         @Specialization(guards = "isJSSet(thisObj)")
+        protected static boolean hasInt(DynamicObject thisObj, int key) {
+            return JSSet.getInternalSet(thisObj).hasInt(key);
+        }
+
+        @Specialization(guards = "isJSSet(thisObj)", replaces = "hasInt")
         protected boolean has(DynamicObject thisObj, Object key) {
             Object normalizedKey = normalize(key);
             return JSSet.getInternalSet(thisObj).has(normalizedKey);
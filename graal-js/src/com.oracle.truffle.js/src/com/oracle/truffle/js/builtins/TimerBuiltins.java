@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins;
+
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Fallback;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.js.builtins.TimerBuiltinsFactory.JSClearTimerNodeGen;
+import com.oracle.truffle.js.builtins.TimerBuiltinsFactory.JSSetImmediateNodeGen;
+import com.oracle.truffle.js.builtins.TimerBuiltinsFactory.JSSetTimerNodeGen;
+import com.oracle.truffle.js.nodes.cast.JSToNumberNode;
+import com.oracle.truffle.js.nodes.function.JSBuiltin;
+import com.oracle.truffle.js.nodes.function.JSBuiltinNode;
+import com.oracle.truffle.js.nodes.unary.IsCallableNode;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSEventLoop;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.builtins.BuiltinEnum;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+
+/**
+ * Contains the {@code setTimeout}, {@code setInterval} and {@code setImmediate} global functions
+ * (and their {@code clear} counterparts) backed by the realm's {@link JSEventLoop}.
+ *
+ * @see JSEventLoop
+ */
+public final class TimerBuiltins extends JSBuiltinsContainer.SwitchEnum<TimerBuiltins.Timer> {
+
+    public static final JSBuiltinsContainer BUILTINS = new TimerBuiltins();
+
+    protected TimerBuiltins() {
+        super(Timer.class);
+    }
+
+    public enum Timer implements BuiltinEnum<Timer> {
+        setTimeout(1),
+        setInterval(1),
+        setImmediate(1),
+        clearTimeout(1),
+        clearInterval(1),
+        clearImmediate(1);
+
+        private final int length;
+
+        Timer(int length) {
+            this.length = length;
+        }
+
+        @Override
+        public int getLength() {
+            return length;
+        }
+    }
+
+    @Override
+    protected Object createNode(JSContext context, JSBuiltin builtin, boolean construct, boolean newTarget, Timer builtinEnum) {
+        switch (builtinEnum) {
+            case setTimeout:
+                return JSSetTimerNodeGen.create(context, builtin, false, args().fixedArgs(2).varArgs().createArgumentNodes(context));
+            case setInterval:
+                return JSSetTimerNodeGen.create(context, builtin, true, args().fixedArgs(2).varArgs().createArgumentNodes(context));
+            case setImmediate:
+                return JSSetImmediateNodeGen.create(context, builtin, args().fixedArgs(1).varArgs().createArgumentNodes(context));
+            case clearTimeout:
+            case clearInterval:
+                return JSClearTimerNodeGen.create(context, builtin, false, args().fixedArgs(1).createArgumentNodes(context));
+            case clearImmediate:
+                return JSClearTimerNodeGen.create(context, builtin, true, args().fixedArgs(1).createArgumentNodes(context));
+        }
+        return null;
+    }
+
+    public abstract static class JSSetTimerNode extends JSBuiltinNode {
+        private final boolean repeat;
+
+        public JSSetTimerNode(JSContext context, JSBuiltin builtin, boolean repeat) {
+            super(context, builtin);
+            this.repeat = repeat;
+        }
+
+        @Specialization
+        protected int setTimer(Object callback, Object delay, Object[] arguments,
+                        @Cached IsCallableNode isCallable,
+                        @Cached JSToNumberNode toNumber) {
+            if (!isCallable.executeBoolean(callback)) {
+                throw Errors.createTypeErrorNotAFunction(callback, this);
+            }
+            double delayMillis = delay == Undefined.instance ? 0 : JSRuntime.doubleValue(toNumber.executeNumber(delay));
+            return getContext().getRealm().getEventLoop().setTimer(callback, delayMillis, arguments, repeat);
+        }
+    }
+
+    public abstract static class JSSetImmediateNode extends JSBuiltinNode {
+
+        public JSSetImmediateNode(JSContext context, JSBuiltin builtin) {
+            super(context, builtin);
+        }
+
+        @Specialization
+        protected int setImmediate(Object callback, Object[] arguments,
+                        @Cached IsCallableNode isCallable) {
+            if (!isCallable.executeBoolean(callback)) {
+                throw Errors.createTypeErrorNotAFunction(callback, this);
+            }
+            return getContext().getRealm().getEventLoop().setImmediate(callback, arguments);
+        }
+    }
+
+    public abstract static class JSClearTimerNode extends JSBuiltinNode {
+        /** Whether this clears immediate tasks rather than timers; the two kinds share ids. */
+        private final boolean immediate;
+
+        public JSClearTimerNode(JSContext context, JSBuiltin builtin, boolean immediate) {
+            super(context, builtin);
+            this.immediate = immediate;
+        }
+
+        @Specialization
+        protected Object clear(int id) {
+            JSEventLoop eventLoop = getContext().getRealm().getEventLoop();
+            if (immediate) {
+                eventLoop.clearImmediate(id);
+            } else {
+                eventLoop.clearTimer(id);
+            }
+            return Undefined.instance;
+        }
+
+        @Specialization
+        protected Object clear(double id) {
+            if (JSRuntime.doubleIsRepresentableAsInt(id)) {
+                return clear((int) id);
+            }
+            return Undefined.instance;
+        }
+
+        @Fallback
+        protected Object clear(@SuppressWarnings("unused") Object id) {
+            // not a timer id: ignored, like in browsers and Node.js
+            return Undefined.instance;
+        }
+    }
+}
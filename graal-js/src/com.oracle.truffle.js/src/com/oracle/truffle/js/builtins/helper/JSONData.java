@@ -52,9 +52,20 @@ public class JSONData {
     private final String gap;
     private final List<String> propertyList;
     private final DynamicObject replacerFnObj;
+    private Output output;
 
     private static final int MAX_STACK_SIZE = 1000;
 
+    /**
+     * Receives the JSON text in chunks while it is being serialized.
+     */
+    public interface Output {
+        /**
+         * Consumes the JSON text serialized so far and removes the consumed part from the builder.
+         */
+        void write(StringBuilder builder);
+    }
+
     public JSONData(String gap, DynamicObject replacerFnObj, List<String> replacerList) {
         this.gap = gap;
         this.replacerFnObj = replacerFnObj;
@@ -81,6 +92,18 @@ public class JSONData {
         return replacerFnObj;
     }
 
+    public Output getOutput() {
+        return output;
+    }
+
+    /**
+     * Sets an output that the JSON text is passed to in chunks during serialization, instead of
+     * building the whole text in memory.
+     */
+    public void setOutput(Output output) {
+        this.output = output;
+    }
+
     public void pushStack(Object value) {
         stack.add(value);
     }
@@ -40,6 +40,7 @@
  */
 package com.oracle.truffle.js.builtins.helper;
 
+import java.lang.ref.WeakReference;
 import java.util.List;
 
 import com.oracle.truffle.api.CompilerDirectives;
@@ -51,11 +52,14 @@ import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.js.nodes.JSGuards;
 import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
 import com.oracle.truffle.js.nodes.access.PropertyGetNode;
 import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
 import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.JSArguments;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRuntime;
@@ -65,20 +69,32 @@ import com.oracle.truffle.js.runtime.builtins.JSBigInt;
 import com.oracle.truffle.js.runtime.builtins.JSBoolean;
 import com.oracle.truffle.js.runtime.builtins.JSClass;
 import com.oracle.truffle.js.runtime.builtins.JSNumber;
+import com.oracle.truffle.js.runtime.builtins.JSOrdinary;
 import com.oracle.truffle.js.runtime.builtins.JSString;
 import com.oracle.truffle.js.runtime.interop.JSInteropUtil;
 import com.oracle.truffle.js.runtime.objects.JSDynamicObject;
 import com.oracle.truffle.js.runtime.objects.JSObject;
+import com.oracle.truffle.js.runtime.objects.JSProperty;
+import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.Null;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.StringBuilderProfile;
 
 public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
 
+    private static final int SHAPE_CACHE_SIZE = 16;
+    /** Minimum number of chars passed to the {@linkplain JSONData#getOutput() output} at once. */
+    private static final int OUTPUT_CHUNK_SIZE = 8192;
+
     private final JSContext context;
     @Child private PropertyGetNode getToJSONProperty;
     @Child private JSFunctionCallNode callToJSONFunction;
     private final StringBuilderProfile stringBuilderProfile;
+    /**
+     * Direct-mapped cache of the properties to serialize for recently seen ordinary shapes. The
+     * shapes are held weakly, so that the cache does not keep them alive for the life of the AST.
+     */
+    private final ShapeProperties[] shapeCache = new ShapeProperties[SHAPE_CACHE_SIZE];
 
     protected JSONStringifyStringNode(JSContext context) {
         this.context = context;
@@ -93,16 +109,27 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
 
     @Specialization
     public Object jsonStrMain(Object jsonData, String key, DynamicObject holder) {
+        assert jsonData instanceof JSONData;
+        StringBuilder builder = executeBuilder((JSONData) jsonData, key, holder);
+        if (builder == null) {
+            return Undefined.instance;
+        }
+        return stringBuilderProfile.toString(builder);
+    }
+
+    /**
+     * Serializes the value like {@link #execute} but returns the builder holding the JSON text
+     * without converting it to a String, or null if the value is not serializable.
+     */
+    public final StringBuilder executeBuilder(JSONData data, String key, DynamicObject holder) {
         try {
-            assert jsonData instanceof JSONData;
-            JSONData data = (JSONData) jsonData;
             Object value = jsonStrPrepare(data, key, holder);
             if (!isStringifyable(value)) {
-                return Undefined.instance;
+                return null;
             }
             StringBuilder builder = new StringBuilder();
             jsonStrExecute(builder, data, value);
-            return stringBuilderProfile.toString(builder);
+            return builder;
         } catch (StackOverflowError ex) {
             throwStackError();
             return null;
@@ -143,6 +170,10 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
         } else {
             throw new RuntimeException("JSON.stringify: should never reach here, unknown type: " + value + " " + value.getClass());
         }
+        JSONData.Output output = data.getOutput();
+        if (output != null && builder.length() >= OUTPUT_CHUNK_SIZE) {
+            output.write(builder);
+        }
     }
 
     private void jsonForeignObject(StringBuilder builder, JSONData data, Object obj) {
@@ -273,7 +304,10 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
         concatStart(builder, '{');
         boolean hasContent;
         if (data.getPropertyList() == null) {
-            if (JSDynamicObject.isJSDynamicObject(value)) {
+            ShapeProperties shapeProperties = getShapeProperties(value);
+            if (shapeProperties != null) {
+                hasContent = serializeShapeProperties(builder, data, (DynamicObject) value, indent, shapeProperties);
+            } else if (JSDynamicObject.isJSDynamicObject(value)) {
                 hasContent = serializeJSONObjectProperties(builder, data, value, indent, JSObject.enumerableOwnNames((DynamicObject) value));
             } else {
                 hasContent = serializeForeignObjectProperties(builder, data, value, indent);
@@ -309,6 +343,92 @@ public abstract class JSONStringifyStringNode extends JavaScriptBaseNode {
         return hasContent;
     }
 
+    /**
+     * Serializes an ordinary object using the cached property list of its shape. Values are read
+     * directly from the property locations as long as the shape of the object does not change;
+     * toJSON or replacer functions may modify the object, so the remaining properties are then
+     * read with a regular [[Get]].
+     */
+    private boolean serializeShapeProperties(StringBuilder builder, JSONData data, DynamicObject value, int indent, ShapeProperties shapeProperties) {
+        boolean isFirst = true;
+        boolean hasContent = false;
+        Shape shape = value.getShape();
+        Property[] properties = shapeProperties.properties;
+        for (int i = 0; i < properties.length; i++) {
+            Property property = properties[i];
+            String name = (String) property.getKey();
+            Object strPPrepared;
+            if (value.getShape() == shape) {
+                strPPrepared = jsonStrPreparePart2(data, name, value, property.get(value, true));
+            } else {
+                strPPrepared = jsonStrPrepare(data, name, value);
+            }
+            if (isStringifyable(strPPrepared)) {
+                if (isFirst) {
+                    concatFirstStep(builder, data);
+                    isFirst = false;
+                } else {
+                    appendSeparator(builder, data, indent);
+                }
+                stringBuilderProfile.append(builder, shapeProperties.quotedKeys[i]);
+                appendColon(builder, data);
+                jsonStrExecute(builder, data, strPPrepared);
+                hasContent = true;
+            }
+        }
+        return hasContent;
+    }
+
+    private ShapeProperties getShapeProperties(Object value) {
+        if (!JSConfig.FastOwnKeys || !JSDynamicObject.isJSDynamicObject(value) || !(JSObject.getJSClass((DynamicObject) value) instanceof JSOrdinary)) {
+            return null;
+        }
+        Shape shape = ((DynamicObject) value).getShape();
+        int index = System.identityHashCode(shape) & (SHAPE_CACHE_SIZE - 1);
+        ShapeProperties cached = shapeCache[index];
+        if (cached != null && cached.shapeRef.get() == shape) {
+            return cached.properties == null ? null : cached;
+        }
+        ShapeProperties created = createShapeProperties(shape);
+        shapeCache[index] = created;
+        return created.properties == null ? null : created;
+    }
+
+    private ShapeProperties createShapeProperties(Shape shape) {
+        List<String> names = JSShape.getEnumerablePropertyNames(shape);
+        Property[] properties = new Property[names.size()];
+        String[] quotedKeys = new String[names.size()];
+        for (int i = 0; i < properties.length; i++) {
+            Property property = shape.getProperty(names.get(i));
+            if (!JSProperty.isData(property) || JSProperty.isProxy(property)) {
+                // accessors and proxy properties have to be read with [[Get]]
+                return new ShapeProperties(shape, null, null);
+            }
+            properties[i] = property;
+            StringBuilder quoted = new StringBuilder(names.get(i).length() + 2);
+            jsonQuote(stringBuilderProfile, quoted, names.get(i));
+            quotedKeys[i] = quoted.toString();
+        }
+        return new ShapeProperties(shape, properties, quotedKeys);
+    }
+
+    /**
+     * Enumerable own properties of an ordinary object shape in serialization order, together with
+     * their quoted and escaped keys. Both arrays are null if the shape has properties that cannot
+     * be read directly.
+     */
+    private static final class ShapeProperties {
+        final WeakReference<Shape> shapeRef;
+        final Property[] properties;
+        final String[] quotedKeys;
+
+        ShapeProperties(Shape shape, Property[] properties, String[] quotedKeys) {
+            this.shapeRef = new WeakReference<>(shape);
+            this.properties = properties;
+            this.quotedKeys = quotedKeys;
+        }
+    }
+
     private void appendColon(StringBuilder builder, JSONData data) {
         stringBuilderProfile.append(builder, ':');
         if (data.getGap().length() > 0) {
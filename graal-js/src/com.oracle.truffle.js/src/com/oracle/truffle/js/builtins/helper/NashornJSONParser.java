@@ -123,7 +123,7 @@ public class NashornJSONParser {
             case '[':
                 return parseArray();
             case '"':
-                return parseString();
+                return parseString(false);
             case 'f':
                 return parseKeyword(FALSE, Boolean.FALSE);
             case 't':
@@ -158,7 +158,7 @@ public class NashornJSONParser {
                     if (state == STATE_ELEMENT_PARSED) {
                         throw expectedError(pos, ", or }", toString(c));
                     }
-                    final String id = parseString();
+                    final String id = parseString(true);
                     expectColon();
                     final Object value = parseLiteral();
                     addObjectProperty(jsobject, id, value);
@@ -238,7 +238,7 @@ public class NashornJSONParser {
         throw expectedError(pos, ", or ]", "eof");
     }
 
-    private String parseString() {
+    private String parseString(final boolean isKey) {
         // String buffer is only instantiated if string contains escape sequences.
         int start = ++pos;
         StringBuilder sb = null;
@@ -262,6 +262,9 @@ public class NashornJSONParser {
                     sb.append(source, start, pos - 1);
                     return sb.toString();
                 }
+                if (isKey) {
+                    return context.getJSONKeyCache().intern(source, start, pos - 1);
+                }
                 return source.substring(start, pos - 1);
             }
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -48,7 +48,6 @@ import com.oracle.truffle.js.runtime.BigInt;
 import com.oracle.truffle.js.runtime.JSAgentWaiterList;
 import com.oracle.truffle.js.runtime.JSAgentWaiterList.JSAgentWaiterListEntry;
 import com.oracle.truffle.js.runtime.JSContext;
-import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.array.TypedArray;
 import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.builtins.JSSharedArrayBuffer;
@@ -63,154 +62,103 @@ public final class SharedMemorySync {
         // should not be constructed
     }
 
+    /*
+     * The accessors below are partially evaluated. They dispatch on the exact (final) class of the
+     * typed array, so that the element accesses and the compare-and-exchange of the direct buffer
+     * can be inlined instead of being virtual calls on an unknown receiver.
+     */
+
     // ##### Getters and setters with ordering and memory barriers
-    @TruffleBoundary
     public static int doVolatileGet(DynamicObject target, int intArrayOffset) {
         Fences.acquireFence();
-        TypedArray array = typedArrayGetArrayType(target);
-        TypedArray.TypedIntArray<?> typedArray = (TypedArray.TypedIntArray<?>) array;
-        return typedArray.getInt(target, intArrayOffset);
+        return getIntArray(target).getInt(target, intArrayOffset);
     }
 
     // ##### Getters and setters with ordering and memory barriers
-    @TruffleBoundary
     public static BigInt doVolatileGetBigInt(DynamicObject target, int intArrayOffset) {
         Fences.acquireFence();
-        TypedArray array = typedArrayGetArrayType(target);
-        TypedArray.TypedBigIntArray<?> typedArray = (TypedArray.TypedBigIntArray<?>) array;
-        return typedArray.getBigInt(target, intArrayOffset);
+        return getBigIntArray(target).getBigInt(target, intArrayOffset);
     }
 
-    @TruffleBoundary
     public static void doVolatilePut(DynamicObject target, int index, int value) {
-        TypedArray array = typedArrayGetArrayType(target);
-        TypedArray.TypedIntArray<?> typedArray = (TypedArray.TypedIntArray<?>) array;
-        typedArray.setInt(target, index, value);
+        getIntArray(target).setInt(target, index, value);
         Fences.releaseFence();
     }
 
-    @TruffleBoundary
     public static void doVolatilePutBigInt(DynamicObject target, int index, BigInt value) {
-        TypedArray array = typedArrayGetArrayType(target);
-        TypedArray.TypedBigIntArray<?> typedArray = (TypedArray.TypedBigIntArray<?>) array;
-        typedArray.setBigInt(target, index, value);
+        getBigIntArray(target).setBigInt(target, index, value);
         Fences.releaseFence();
     }
 
     // ##### Atomic CAS primitives
-    @TruffleBoundary
-    public static boolean compareAndSwapInt(JSContext cx, DynamicObject target, int intArrayOffset, int initial, int result) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        try {
-            int value = doVolatileGet(target, intArrayOffset);
-            if (value == initial) {
-                doVolatilePut(target, intArrayOffset, result);
-                return true;
-            }
-            return false;
-        } finally {
-            cx.getJSAgent().atomicSectionLeave(target);
-        }
+    public static boolean compareAndSwapInt(DynamicObject target, int intArrayOffset, int initial, int result) {
+        return compareExchangeInt(target, intArrayOffset, initial, result) == initial;
     }
 
-    @TruffleBoundary
-    public static boolean compareAndSwapBigInt(JSContext cx, DynamicObject target, int intArrayOffset, BigInt initial, BigInt result) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        try {
-            BigInt value = doVolatileGetBigInt(target, intArrayOffset);
-            if (value.compareTo(initial) == 0) {
-                doVolatilePutBigInt(target, intArrayOffset, result);
-                return true;
-            }
-            return false;
-        } finally {
-            cx.getJSAgent().atomicSectionLeave(target);
-        }
+    public static boolean compareAndSwapBigInt(DynamicObject target, int intArrayOffset, BigInt initial, BigInt result) {
+        return compareExchangeBigInt(target, intArrayOffset, initial, result).compareTo(initial) == 0;
     }
 
-    // ##### Atomic Fetch-or-Get primitives
-    @TruffleBoundary
-    public static long atomicFetchOrGetUnsigned(JSContext cx, DynamicObject target, int intArrayOffset, Object expected, Object replacement) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        long read = JSRuntime.toUInt32(doVolatileGet(target, intArrayOffset));
-        if (read == JSRuntime.toUInt32(expected)) {
-            doVolatilePut(target, intArrayOffset, (int) JSRuntime.toUInt32(replacement));
-        }
-        cx.getJSAgent().atomicSectionLeave(target);
-        return read;
+    private static int compareExchangeInt(DynamicObject target, int intArrayOffset, int expected, int replacement) {
+        return getIntArray(target).compareExchangeInt(target, intArrayOffset, expected, replacement);
     }
 
-    @TruffleBoundary
-    public static long atomicFetchOrGetLong(JSContext cx, DynamicObject target, int intArrayOffset, long expected, long replacement) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        try {
-            int read = doVolatileGet(target, intArrayOffset);
-            if (read == expected) {
-                doVolatilePut(target, intArrayOffset, (int) replacement);
-            }
-            return read;
-        } finally {
-            cx.getJSAgent().atomicSectionLeave(target);
+    private static BigInt compareExchangeBigInt(DynamicObject target, int intArrayOffset, BigInt expected, BigInt replacement) {
+        return getBigIntArray(target).compareExchangeBigInt(target, intArrayOffset, expected, replacement);
+    }
+
+    private static TypedArray.TypedIntArray<?> getIntArray(DynamicObject target) {
+        TypedArray array = typedArrayGetArrayType(target);
+        if (array instanceof TypedArray.DirectInt8Array) {
+            return (TypedArray.DirectInt8Array) array;
+        } else if (array instanceof TypedArray.DirectUint8Array) {
+            return (TypedArray.DirectUint8Array) array;
+        } else if (array instanceof TypedArray.DirectInt16Array) {
+            return (TypedArray.DirectInt16Array) array;
+        } else if (array instanceof TypedArray.DirectUint16Array) {
+            return (TypedArray.DirectUint16Array) array;
+        } else if (array instanceof TypedArray.DirectInt32Array) {
+            return (TypedArray.DirectInt32Array) array;
+        } else if (array instanceof TypedArray.DirectUint32Array) {
+            return (TypedArray.DirectUint32Array) array;
+        } else {
+            return (TypedArray.TypedIntArray<?>) array;
         }
     }
 
-    @TruffleBoundary
-    public static int atomicFetchOrGetInt(JSContext cx, DynamicObject target, int intArrayOffset, int expected, int replacement) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        try {
-            int read = doVolatileGet(target, intArrayOffset);
-            if (read == expected) {
-                doVolatilePut(target, intArrayOffset, replacement);
-            }
-            return read;
-        } finally {
-            cx.getJSAgent().atomicSectionLeave(target);
+    private static TypedArray.TypedBigIntArray<?> getBigIntArray(DynamicObject target) {
+        TypedArray array = typedArrayGetArrayType(target);
+        if (array instanceof TypedArray.DirectBigInt64Array) {
+            return (TypedArray.DirectBigInt64Array) array;
+        } else if (array instanceof TypedArray.DirectBigUint64Array) {
+            return (TypedArray.DirectBigUint64Array) array;
+        } else {
+            return (TypedArray.TypedBigIntArray<?>) array;
         }
     }
 
-    @TruffleBoundary
-    public static int atomicFetchOrGetShort(JSContext cx, DynamicObject target, int intArrayOffset, int expected, int replacement, boolean sign) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        int read = doVolatileGet(target, intArrayOffset);
-        read = sign ? read : read & 0xFFFF;
+    // ##### Atomic Fetch-or-Get primitives
+    public static long atomicFetchOrGetUnsigned(DynamicObject target, int intArrayOffset, int expected, int replacement) {
+        int read = compareExchangeInt(target, intArrayOffset, expected, replacement);
+        return read & 0xFFFFFFFFL;
+    }
+
+    public static int atomicFetchOrGetInt(DynamicObject target, int intArrayOffset, int expected, int replacement) {
+        return compareExchangeInt(target, intArrayOffset, expected, replacement);
+    }
+
+    public static int atomicFetchOrGetShort(DynamicObject target, int intArrayOffset, int expected, int replacement, boolean sign) {
         int expectedChopped = sign ? (short) expected : expected & 0xFFFF;
-        if (read == expectedChopped) {
-            int signed = sign ? replacement : replacement & 0xFFFF;
-            SharedMemorySync.doVolatilePut(target, intArrayOffset, (short) signed);
-        }
-        cx.getJSAgent().atomicSectionLeave(target);
-        return read;
+        return compareExchangeInt(target, intArrayOffset, expectedChopped, replacement);
     }
 
-    @TruffleBoundary
-    public static int atomicFetchOrGetByte(JSContext cx, DynamicObject target, int intArrayOffset, int expected, int replacement, boolean sign) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        try {
-            int read = doVolatileGet(target, intArrayOffset);
-            read = sign ? read : read & 0xFF;
-            int expectedChopped = sign ? (byte) expected : expected & 0xFF;
-            if (read == expectedChopped) {
-                int signed = sign ? replacement : replacement & 0xFF;
-                SharedMemorySync.doVolatilePut(target, intArrayOffset, (byte) signed);
-            }
-            return read;
-        } finally {
-            cx.getJSAgent().atomicSectionLeave(target);
-        }
+    public static int atomicFetchOrGetByte(DynamicObject target, int intArrayOffset, int expected, int replacement, boolean sign) {
+        int expectedChopped = sign ? (byte) expected : expected & 0xFF;
+        return compareExchangeInt(target, intArrayOffset, expectedChopped, replacement);
     }
 
-    @TruffleBoundary
-    public static BigInt atomicFetchOrGetBigInt(JSContext cx, DynamicObject target, int intArrayOffset, BigInt expected, BigInt replacement) {
-        cx.getJSAgent().atomicSectionEnter(target);
-        try {
-            BigInt read = doVolatileGetBigInt(target, intArrayOffset);
-            if (read.compareTo(expected) == 0) {
-                doVolatilePutBigInt(target, intArrayOffset, replacement);
-            }
-            return read;
-        } finally {
-            cx.getJSAgent().atomicSectionLeave(target);
-        }
+    public static BigInt atomicFetchOrGetBigInt(DynamicObject target, int intArrayOffset, BigInt expected, BigInt replacement) {
+        return compareExchangeBigInt(target, intArrayOffset, expected, replacement);
     }
 
     // ##### Thread Wake/Park primitives
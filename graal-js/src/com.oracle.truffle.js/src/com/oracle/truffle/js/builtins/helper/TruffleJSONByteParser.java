@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.builtins.helper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JSRuntime;
+import com.oracle.truffle.js.runtime.util.BufferUtil;
+
+/**
+ * JSON parser operating directly on UTF-8 encoded bytes. Only string and number tokens are decoded
+ * into Java strings, so the JSON text as a whole is never materialized as a {@link String}.
+ */
+public final class TruffleJSONByteParser extends TruffleJSONParser {
+
+    private static final int UTF8_BOM_LENGTH = 3;
+
+    private ByteBuffer parseBuffer;
+
+    public TruffleJSONByteParser(JSContext context) {
+        super(context);
+    }
+
+    /**
+     * Parses the bytes between the position and the limit of the buffer. The position of the buffer
+     * is not modified.
+     */
+    public Object parse(ByteBuffer buffer) {
+        ByteBuffer input = buffer.slice();
+        if (hasByteOrderMark(input)) {
+            BufferUtil.asBaseBuffer(input).position(UTF8_BOM_LENGTH);
+            input = input.slice();
+        }
+        this.parseBuffer = input;
+        this.len = input.limit();
+        try {
+            return parseInput();
+        } finally {
+            parseBuffer = null;
+        }
+    }
+
+    private static boolean hasByteOrderMark(ByteBuffer input) {
+        return input.limit() >= UTF8_BOM_LENGTH && (input.get(0) & 0xFF) == 0xEF && (input.get(1) & 0xFF) == 0xBB && (input.get(2) & 0xFF) == 0xBF;
+    }
+
+    /**
+     * Returns the byte at the given position. All structural characters of JSON are ASCII and bytes
+     * of multi-byte UTF-8 sequences are never in the ASCII range, so they cannot be confused with
+     * them. Non-ASCII bytes only occur inside of strings, where they are copied as they are.
+     */
+    @Override
+    protected char get(int posParam) {
+        return (char) (parseBuffer.get(posParam) & 0xFF);
+    }
+
+    @Override
+    protected String substring(int startPos, int endPos) {
+        if (parseBuffer.hasArray()) {
+            return new String(parseBuffer.array(), parseBuffer.arrayOffset() + startPos, endPos - startPos, StandardCharsets.UTF_8);
+        }
+        ByteBuffer range = parseBuffer.duplicate();
+        BufferUtil.asBaseBuffer(range).position(startPos).limit(endPos);
+        return StandardCharsets.UTF_8.decode(range).toString();
+    }
+
+    @Override
+    protected String internKey(int startPos, int endPos) {
+        String key = context.getJSONKeyCache().intern(parseBuffer, startPos, endPos);
+        return key != null ? key : substring(startPos, endPos);
+    }
+
+    @Override
+    protected String unquoteJSON(String string, int posFirstBackslash) {
+        // the byte offset of the backslash does not match its char index if non-ASCII text precedes
+        return super.unquoteJSON(string, string.indexOf('\\'));
+    }
+
+    @Override
+    protected long parseSafeInteger(int startPos, int endPos, int radix) {
+        assert radix == 10;
+        long result = 0;
+        for (int i = startPos; i < endPos; i++) {
+            int digit = get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return JSRuntime.INVALID_SAFE_INTEGER;
+            }
+            result = result * 10 + digit;
+            if (result > JSRuntime.MAX_SAFE_INTEGER_LONG) {
+                return JSRuntime.INVALID_SAFE_INTEGER;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected String getSource() {
+        return substring(0, len);
+    }
+}
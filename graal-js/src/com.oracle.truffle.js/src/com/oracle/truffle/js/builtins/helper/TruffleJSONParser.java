@@ -42,6 +42,8 @@ package com.oracle.truffle.js.builtins.helper;
 
 import com.oracle.js.parser.ParserException;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Property;
+import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSException;
@@ -59,11 +61,14 @@ public class TruffleJSONParser {
     protected int len;
     protected String parseStr;
     protected int parseDepth;
+    private ObjectShapeCache[] objectShapeCaches;
 
     protected static final char[] NullLiteral = new char[]{'n', 'u', 'l', 'l'};
     protected static final char[] BooleanTrueLiteral = new char[]{'t', 'r', 'u', 'e'};
     protected static final char[] BooleanFalseLiteral = new char[]{'f', 'a', 'l', 's', 'e'};
     protected static final int MAX_PARSE_DEPTH = 100000;
+    protected static final int MAX_CACHED_OBJECT_DEPTH = 16;
+    protected static final int MAX_CACHED_OBJECT_KEYS = 32;
 
     private static final String MALFORMED_NUMBER = "malformed number";
 
@@ -72,10 +77,21 @@ public class TruffleJSONParser {
     }
 
     public Object parse(String value) {
-        this.pos = 0;
-        this.parseDepth = 0;
         this.parseStr = value;
         this.len = parseStr.length();
+        try {
+            return parseInput();
+        } finally {
+            parseStr = null;
+        }
+    }
+
+    /**
+     * Parses the whole input, which is accessed via {@link #get(int)} in the range [0, len).
+     */
+    protected final Object parseInput() {
+        this.pos = 0;
+        this.parseDepth = 0;
         try {
             skipWhitespace();
             Object result = parseJSONValue();
@@ -88,12 +104,10 @@ public class TruffleJSONParser {
             throwStackError();
         } catch (JSException ex) {
             throw ex;
-        } catch (StringIndexOutOfBoundsException ex) {
+        } catch (IndexOutOfBoundsException ex) {
             throwSyntaxError(unexpectedEndOfInputMessage());
         } catch (Exception ex) {
             throwSyntaxError(null);
-        } finally {
-            parseStr = null;
         }
         return null;
     }
@@ -156,18 +170,46 @@ public class TruffleJSONParser {
     }
 
     private void parseJSONMemberList(DynamicObject object) {
+        ObjectShapeCache cache = getObjectShapeCache();
+        int index = 0;
         Member member = parseJSONMember();
-        JSRuntime.createDataProperty(object, member.getKey(), member.getValue());
+        addMember(object, member, cache, index);
         while (get() == ',') {
             skipChar(',');
             skipWhitespace();
+            index++;
             member = parseJSONMember();
+            addMember(object, member, cache, index);
+        }
+    }
+
+    private static void addMember(DynamicObject object, Member member, ObjectShapeCache cache, int index) {
+        if (cache == null || index >= MAX_CACHED_OBJECT_KEYS) {
+            JSRuntime.createDataProperty(object, member.getKey(), member.getValue());
+        } else if (!cache.put(object, member, index)) {
+            Shape oldShape = object.getShape();
             JSRuntime.createDataProperty(object, member.getKey(), member.getValue());
+            cache.update(oldShape, object.getShape(), member.getKey(), index);
+        }
+    }
+
+    private ObjectShapeCache getObjectShapeCache() {
+        if (parseDepth >= MAX_CACHED_OBJECT_DEPTH) {
+            return null;
+        }
+        if (objectShapeCaches == null) {
+            objectShapeCaches = new ObjectShapeCache[MAX_CACHED_OBJECT_DEPTH];
+        }
+        ObjectShapeCache cache = objectShapeCaches[parseDepth];
+        if (cache == null) {
+            cache = new ObjectShapeCache();
+            objectShapeCaches[parseDepth] = cache;
         }
+        return cache;
     }
 
     private Member parseJSONMember() {
-        String jsonString = parseJSONString();
+        String jsonString = parseJSONString(true);
         expectChar(':');
         skipWhitespace();
         Object jsonValue = parseJSONValue();
@@ -226,6 +268,10 @@ public class TruffleJSONParser {
     }
 
     protected String parseJSONString() {
+        return parseJSONString(false);
+    }
+
+    protected String parseJSONString(boolean isKey) {
         if (!isStringQuote(get())) {
             if (isDigit(get())) {
                 unexpectedNumber();
@@ -234,7 +280,7 @@ public class TruffleJSONParser {
             }
         }
         skipChar('"');
-        String str = parseJSONStringCharacters();
+        String str = parseJSONStringCharacters(isKey);
         if (!isStringQuote(get())) {
             error("String quote expected");
         }
@@ -251,7 +297,7 @@ public class TruffleJSONParser {
         return '0' <= c && c <= '9';
     }
 
-    protected String parseJSONStringCharacters() {
+    protected String parseJSONStringCharacters(boolean isKey) {
         int startPos = pos;
         boolean hasEscapes = false;
         int firstEscape = -1;
@@ -269,11 +315,12 @@ public class TruffleJSONParser {
             skipChar();
             c = get();
         }
-        String s = parseStr.substring(startPos, pos);
         if (hasEscapes) {
-            return unquoteJSON(s, firstEscape - startPos);
+            return unquoteJSON(substring(startPos, pos), firstEscape - startPos);
+        } else if (isKey) {
+            return internKey(startPos, pos);
         } else {
-            return s;
+            return substring(startPos, pos);
         }
     }
 
@@ -407,7 +454,7 @@ public class TruffleJSONParser {
         } else if (fractionPos == -1 && !hasExponent && (endPos - startPos <= JSRuntime.MAX_SAFE_INTEGER_DIGITS)) {
             // safe integer but not zero
             final int radix = 10;
-            long safeInt = JSRuntime.parseSafeInteger(parseStr, startPos, endPos, radix);
+            long safeInt = parseSafeInteger(startPos, endPos, radix);
             assert safeInt != 0;
             if (safeInt != JSRuntime.INVALID_SAFE_INTEGER) {
                 safeInt *= sign;
@@ -418,10 +465,14 @@ public class TruffleJSONParser {
                 }
             }
         }
-        String valueStr = parseStr.substring(startPos, endPos);
+        String valueStr = substring(startPos, endPos);
         return parseAsDouble(sign, valueStr);
     }
 
+    protected long parseSafeInteger(int startPos, int endPos, int radix) {
+        return JSRuntime.parseSafeInteger(parseStr, startPos, endPos, radix);
+    }
+
     protected static Number parseAsDouble(int sign, String valueStr) {
         return Double.parseDouble(valueStr) * sign;
     }
@@ -488,7 +539,7 @@ public class TruffleJSONParser {
     protected Object error(String message) {
         if (context.isOptionNashornCompatibilityMode()) {
             // use the Nashorn parser to get the proper error
-            NashornJSONParser parser = new NashornJSONParser(parseStr, context);
+            NashornJSONParser parser = new NashornJSONParser(getSource(), context);
             try {
                 parser.parse(); // should throw
             } catch (ParserException ex) {
@@ -526,10 +577,28 @@ public class TruffleJSONParser {
         return parseStr.charAt(posParam);
     }
 
+    protected String substring(int startPos, int endPos) {
+        return parseStr.substring(startPos, endPos);
+    }
+
+    /**
+     * Returns the property key in the given range, which contains no escape sequences.
+     */
+    protected String internKey(int startPos, int endPos) {
+        return context.getJSONKeyCache().intern(parseStr, startPos, endPos);
+    }
+
+    /**
+     * Returns the complete JSON text, used for error reporting only.
+     */
+    protected String getSource() {
+        return parseStr;
+    }
+
     // needs to be checked by the caller already that the content matches!
     protected void skipString(String expected) {
         assert len >= pos + expected.length();
-        assert parseStr.substring(pos, pos + expected.length()).equals(expected);
+        assert substring(pos, pos + expected.length()).equals(expected);
         pos += expected.length();
         skipWhitespace();
     }
@@ -578,6 +647,45 @@ public class TruffleJSONParser {
         return true;
     }
 
+    /**
+     * Remembers the shape transitions of the last object parsed at a certain nesting depth. Objects
+     * with the same keys in the same order (typically records in an array) can then be built
+     * without looking up the shape transitions again, like in object literals.
+     */
+    private static final class ObjectShapeCache {
+        private final Shape[] oldShapes = new Shape[MAX_CACHED_OBJECT_KEYS];
+        private final Shape[] newShapes = new Shape[MAX_CACHED_OBJECT_KEYS];
+        private final Property[] properties = new Property[MAX_CACHED_OBJECT_KEYS];
+
+        boolean put(DynamicObject object, Member member, int index) {
+            Shape oldShape = oldShapes[index];
+            if (oldShape == null || !oldShape.check(object) || !newShapes[index].isValid()) {
+                return false;
+            }
+            Property property = properties[index];
+            Object value = member.getValue();
+            if (property.getKey().equals(member.getKey()) && property.getLocation().canStore(value)) {
+                property.setSafe(object, value, oldShape, newShapes[index]);
+                return true;
+            }
+            return false;
+        }
+
+        void update(Shape oldShape, Shape newShape, String key, int index) {
+            if (newShape.getPropertyCount() != oldShape.getPropertyCount() + 1) {
+                // duplicate key, the existing property has been redefined
+                return;
+            }
+            Property property = newShape.getProperty(key);
+            if (property == null) {
+                return;
+            }
+            oldShapes[index] = oldShape;
+            newShapes[index] = newShape;
+            properties[index] = property;
+        }
+    }
+
     protected final class Member {
         private final String key;
         private final Object value;
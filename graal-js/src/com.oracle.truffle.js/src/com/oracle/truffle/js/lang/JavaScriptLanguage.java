@@ -111,6 +111,7 @@ import com.oracle.truffle.js.runtime.JSRuntime;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.interop.JavaScriptLanguageView;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.MemoryAccounting;
 
 @ProvidedTags({
                 StandardTags.StatementTag.class,
@@ -367,6 +368,7 @@ public final class JavaScriptLanguage extends AbstractJavaScriptLanguage {
                     JSContextOptions.PRINT,
                     JSContextOptions.CONSOLE,
                     JSContextOptions.PERFORMANCE,
+                    JSContextOptions.TIMERS,
                     JSContextOptions.CLASS_FIELDS,
                     JSContextOptions.REGEXP_STATIC_RESULT,
                     JSContextOptions.TIME_ZONE,
@@ -410,6 +412,26 @@ public final class JavaScriptLanguage extends AbstractJavaScriptLanguage {
             context.getTimeProfiler().printCumulative();
         }
         realm.setGlobalObject(Undefined.instance);
+        if (realm.getParent() == null) {
+            context.topLevelRealmDisposed();
+            context.fillRealmPool();
+        }
+    }
+
+    @Override
+    protected void initializeThread(JSRealm realm, Thread thread) {
+        MemoryAccounting memoryAccounting = realm.getMemoryAccounting();
+        if (memoryAccounting != null && realm.getParent() == null) {
+            memoryAccounting.threadAttached(thread);
+        }
+    }
+
+    @Override
+    protected void disposeThread(JSRealm realm, Thread thread) {
+        MemoryAccounting memoryAccounting = realm.getMemoryAccounting();
+        if (memoryAccounting != null && realm.getParent() == null) {
+            memoryAccounting.threadDetached(thread);
+        }
     }
 
     @Override
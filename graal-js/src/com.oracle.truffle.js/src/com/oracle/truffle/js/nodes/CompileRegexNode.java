@@ -47,6 +47,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.RegexCompilerInterface;
+import com.oracle.truffle.js.runtime.util.RegexCompileCache;
 
 @ImportStatic(JSConfig.class)
 public abstract class CompileRegexNode extends JavaScriptBaseNode {
@@ -93,6 +94,17 @@ public abstract class CompileRegexNode extends JavaScriptBaseNode {
     @ReportPolymorphism.Megamorphic
     @Specialization(replaces = {"getCached"})
     protected Object doCompile(String pattern, String flags) {
-        return RegexCompilerInterface.compile(pattern, flags, context);
+        RegexCompileCache cache = context.getRegexCompileCache();
+        if (cache != null) {
+            Object cachedCompiledRegex = cache.get(pattern, flags);
+            if (cachedCompiledRegex != null) {
+                return cachedCompiledRegex;
+            }
+        }
+        Object compiledRegex = RegexCompilerInterface.compile(pattern, flags, context);
+        if (cache != null) {
+            cache.put(pattern, flags, compiledRegex);
+        }
+        return compiledRegex;
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,9 +40,16 @@
  */
 package com.oracle.truffle.js.nodes.access;
 
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Set;
+
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.instrumentation.GenerateWrapper;
 import com.oracle.truffle.api.instrumentation.ProbeNode;
@@ -61,19 +68,28 @@ import com.oracle.truffle.js.nodes.instrumentation.JSTags.LiteralTag;
 import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.array.ArrayAllocationSite;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 import com.oracle.truffle.js.runtime.array.dyn.AbstractConstantArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractDoubleArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractIntArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractJSObjectArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractObjectArray;
+import com.oracle.truffle.js.runtime.array.dyn.AbstractWritableArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantByteArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantDoubleArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantIntArray;
 import com.oracle.truffle.js.runtime.array.dyn.ConstantObjectArray;
 import com.oracle.truffle.js.runtime.array.dyn.HolesIntArray;
+import com.oracle.truffle.js.runtime.array.dyn.ZeroBasedDoubleArray;
+import com.oracle.truffle.js.runtime.array.dyn.ZeroBasedIntArray;
+import com.oracle.truffle.js.runtime.array.dyn.ZeroBasedJSObjectArray;
+import com.oracle.truffle.js.runtime.array.dyn.ZeroBasedObjectArray;
+import com.oracle.truffle.js.runtime.builtins.JSAbstractArray;
 import com.oracle.truffle.js.runtime.builtins.JSArray;
 import com.oracle.truffle.js.runtime.objects.IteratorRecord;
 import com.oracle.truffle.js.runtime.util.SimpleArrayList;
 
-import java.util.Set;
-
 @GenerateWrapper
 public abstract class ArrayLiteralNode extends JavaScriptNode {
 
@@ -265,9 +281,11 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
         protected static final byte DOUBLE_ARRAY = 2;
         protected static final byte OBJECT_ARRAY = 3;
         @CompilationFinal protected boolean seenUnexpectedInteger;
+        protected final ArrayLiteralAllocationSite allocationSite;
 
         DefaultArrayLiteralBaseNode(JSContext context) {
             super(context);
+            this.allocationSite = ArrayLiteralAllocationSite.create(context);
         }
 
         protected abstract int getLength();
@@ -277,18 +295,25 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
         protected final DynamicObject executeAndSpecialize(Object[] values) {
             CompilerAsserts.neverPartOfCompilation();
             Object primitive = createPrimitiveArray(values, false);
+            byte newState;
             if (primitive instanceof int[]) {
-                state = INT_ARRAY;
-                return JSArray.createZeroBasedIntArray(context, (int[]) primitive);
+                newState = INT_ARRAY;
             } else if (primitive instanceof double[]) {
-                state = DOUBLE_ARRAY;
-                return JSArray.createZeroBasedDoubleArray(context, (double[]) primitive);
+                newState = DOUBLE_ARRAY;
             } else if (primitive instanceof Object[]) {
-                state = OBJECT_ARRAY;
-                return JSArray.createZeroBasedObjectArray(context, values);
+                newState = OBJECT_ARRAY;
             } else {
                 throw Errors.shouldNotReachHere();
             }
+            state = (byte) Math.max(newState, getAllocationSiteState());
+            int allocationLength = getAllocationLength();
+            if (state == INT_ARRAY) {
+                return createArray(ZeroBasedIntArray.createZeroBasedIntArray(), Arrays.copyOf((int[]) primitive, allocationLength));
+            } else if (state == DOUBLE_ARRAY) {
+                return createArray(ZeroBasedDoubleArray.createZeroBasedDoubleArray(), Arrays.copyOf(createDoubleArray(values), allocationLength));
+            } else {
+                return createArray(ZeroBasedObjectArray.createZeroBasedObjectArray(), Arrays.copyOf(values, allocationLength));
+            }
         }
 
         @Override
@@ -301,20 +326,51 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
                 }
                 return executeAndSpecialize(values);
             }
-            if (state == INT_ARRAY) {
+            // The allocation site may ask for a more general representation than seen so far.
+            byte effectiveState = (byte) Math.max(state, getAllocationSiteState());
+            if (effectiveState == INT_ARRAY) {
                 return executeZeroBasedIntArray(frame);
-            } else if (state == DOUBLE_ARRAY) {
+            } else if (effectiveState == DOUBLE_ARRAY) {
                 return executeZeroBasedDoubleArray(frame);
             } else {
-                assert state == OBJECT_ARRAY;
+                assert effectiveState == OBJECT_ARRAY;
                 return executeZeroBasedObjectArray(frame);
 
             }
         }
 
+        private byte getAllocationSiteState() {
+            if (allocationSite != null) {
+                ScriptArray siteArrayType = allocationSite.getInitialArrayType();
+                if (siteArrayType instanceof AbstractIntArray) {
+                    return INT_ARRAY;
+                } else if (siteArrayType instanceof AbstractDoubleArray) {
+                    return DOUBLE_ARRAY;
+                } else if (siteArrayType != null) {
+                    return OBJECT_ARRAY;
+                }
+            }
+            return 0;
+        }
+
+        private int getAllocationLength() {
+            if (allocationSite != null) {
+                return Math.max(getLength(), allocationSite.getState().capacity);
+            }
+            return getLength();
+        }
+
+        private DynamicObject createArray(ScriptArray arrayType, Object array) {
+            int length = getLength();
+            if (allocationSite != null) {
+                return allocationSite.track(JSArray.create(context, arrayType, array, allocationSite, length, length, 0, 0, 0));
+            }
+            return JSArray.create(context, arrayType, array, length, length, 0, 0);
+        }
+
         @ExplodeLoop
         private DynamicObject executeZeroBasedIntArray(VirtualFrame frame) {
-            int[] primitiveArray = new int[getLength()];
+            int[] primitiveArray = new int[getAllocationLength()];
             for (int i = 0; i < getLength(); i++) {
                 try {
                     primitiveArray[i] = getElement(i).executeInt(frame);
@@ -323,7 +379,7 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
                     return executeIntArrayFallback(frame, primitiveArray, i, e.getResult());
                 }
             }
-            return JSArray.createZeroBasedIntArray(context, primitiveArray);
+            return createArray(ZeroBasedIntArray.createZeroBasedIntArray(), primitiveArray);
         }
 
         private DynamicObject executeIntArrayFallback(VirtualFrame frame, int[] primitiveArray, int failIdx, Object failValue) {
@@ -336,7 +392,7 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
 
         @ExplodeLoop
         private DynamicObject executeZeroBasedDoubleArray(VirtualFrame frame) {
-            double[] primitiveArray = new double[getLength()];
+            double[] primitiveArray = new double[getAllocationLength()];
             for (int i = 0; i < getLength(); i++) {
                 try {
                     double doubleValue;
@@ -364,7 +420,7 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
                     return executeDoubleArrayFallback(frame, primitiveArray, i, e.getResult());
                 }
             }
-            return JSArray.createZeroBasedDoubleArray(context, primitiveArray);
+            return createArray(ZeroBasedDoubleArray.createZeroBasedDoubleArray(), primitiveArray);
         }
 
         private DynamicObject executeDoubleArrayFallback(VirtualFrame frame, double[] primitiveArray, int failIdx, Object failValue) {
@@ -377,11 +433,11 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
 
         @ExplodeLoop
         private DynamicObject executeZeroBasedObjectArray(VirtualFrame frame) {
-            Object[] primitiveArray = new Object[getLength()];
+            Object[] primitiveArray = new Object[getAllocationLength()];
             for (int i = 0; i < getLength(); i++) {
                 primitiveArray[i] = getElement(i).execute(frame);
             }
-            return JSArray.createZeroBasedObjectArray(context, primitiveArray);
+            return createArray(ZeroBasedObjectArray.createZeroBasedObjectArray(), primitiveArray);
         }
 
         private DynamicObject executeFallback(VirtualFrame frame, Object[] objectArray, int failingIndex, Object failingValue) {
@@ -487,19 +543,93 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
         private final AbstractConstantArray arrayType;
         private final Object array;
         private final long length;
+        private final ArrayLiteralAllocationSite allocationSite;
 
         ConstantArrayLiteralNode(JSContext context, AbstractConstantArray arrayType, Object array, long length) {
             super(context);
             this.arrayType = arrayType;
             this.array = array;
             this.length = length;
+            this.allocationSite = arrayType.isHolesType() ? null : ArrayLiteralAllocationSite.create(context);
         }
 
         @Override
         public DynamicObject execute(VirtualFrame frame) {
+            if (allocationSite != null) {
+                ArrayLiteralAllocationSite.State siteState = allocationSite.getState();
+                if (siteState.arrayType != null) {
+                    // Arrays created here are written to, so skip the copy-on-write constant array.
+                    ScriptArray writableArrayType = ArrayLiteralAllocationSite.join(siteState.arrayType, getWritableArrayType());
+                    int capacity = Math.max((int) length, siteState.capacity);
+                    Object writableArray = copyToWritableArray(writableArrayType, capacity);
+                    return allocationSite.track(JSArray.create(context, writableArrayType, writableArray, allocationSite, length, (int) length, 0, 0, 0));
+                }
+                return allocationSite.track(JSArray.create(context, arrayType, array, allocationSite, length, 0, 0, 0, 0));
+            }
             return JSArray.create(context, arrayType, array, length);
         }
 
+        private ScriptArray getWritableArrayType() {
+            if (array instanceof byte[] || array instanceof int[]) {
+                return ZeroBasedIntArray.createZeroBasedIntArray();
+            } else if (array instanceof double[]) {
+                return ZeroBasedDoubleArray.createZeroBasedDoubleArray();
+            } else {
+                return ZeroBasedObjectArray.createZeroBasedObjectArray();
+            }
+        }
+
+        private Object copyToWritableArray(ScriptArray writableArrayType, int capacity) {
+            int len = (int) length;
+            if (writableArrayType instanceof AbstractIntArray) {
+                int[] intArray = new int[capacity];
+                if (array instanceof byte[]) {
+                    byte[] byteArray = (byte[]) array;
+                    for (int i = 0; i < len; i++) {
+                        intArray[i] = byteArray[i];
+                    }
+                } else {
+                    System.arraycopy((int[]) array, 0, intArray, 0, len);
+                }
+                return intArray;
+            } else if (writableArrayType instanceof AbstractDoubleArray) {
+                double[] doubleArray = new double[capacity];
+                for (int i = 0; i < len; i++) {
+                    doubleArray[i] = getConstantDouble(i);
+                }
+                return doubleArray;
+            } else {
+                assert writableArrayType instanceof AbstractObjectArray;
+                Object[] objectArray = new Object[capacity];
+                for (int i = 0; i < len; i++) {
+                    objectArray[i] = getConstantObject(i);
+                }
+                return objectArray;
+            }
+        }
+
+        private double getConstantDouble(int index) {
+            if (array instanceof byte[]) {
+                return ((byte[]) array)[index];
+            } else if (array instanceof int[]) {
+                return ((int[]) array)[index];
+            } else {
+                return ((double[]) array)[index];
+            }
+        }
+
+        private Object getConstantObject(int index) {
+            if (array instanceof byte[]) {
+                return (int) ((byte[]) array)[index];
+            } else if (array instanceof int[]) {
+                return ((int[]) array)[index];
+            } else if (array instanceof double[]) {
+                return ((double[]) array)[index];
+            } else {
+                return ((Object[]) array)[index];
+            }
+        }
+
         @Override
         protected JavaScriptNode copyUninitialized(Set<Class<? extends Tag>> materializedTags) {
             return copy();
@@ -528,12 +658,23 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
 
     private static final class ConstantEmptyArrayLiteralNode extends ArrayLiteralNode {
 
+        private final ArrayLiteralAllocationSite allocationSite;
+
         ConstantEmptyArrayLiteralNode(JSContext context) {
             super(context);
+            this.allocationSite = ArrayLiteralAllocationSite.create(context);
         }
 
         @Override
         public DynamicObject execute(VirtualFrame frame) {
+            if (allocationSite != null) {
+                ArrayLiteralAllocationSite.State siteState = allocationSite.getState();
+                if (siteState.arrayType != null) {
+                    Object array = ((AbstractWritableArray) siteState.arrayType).allocateArray(siteState.capacity);
+                    return allocationSite.track(JSArray.create(context, siteState.arrayType, array, allocationSite, 0, 0, 0, 0, 0));
+                }
+                return allocationSite.track(JSArray.createConstantEmptyArray(context, allocationSite));
+            }
             return JSArray.createConstantEmptyArray(context);
         }
 
@@ -631,6 +772,130 @@ public abstract class ArrayLiteralNode extends JavaScriptNode {
         }
     }
 
+    /**
+     * Allocation site of an array literal. Remembers the most general representation and the
+     * largest length reached by the arrays created by the literal, so that new arrays can be
+     * allocated in that representation with a backing store of that capacity. The state is only
+     * updated in the interpreter, by looking at the previously created array whenever the literal
+     * creates a new one.
+     */
+    private static final class ArrayLiteralAllocationSite implements ArrayAllocationSite {
+        /**
+         * Array type and capacity of the arrays created by the site, valid as long as the
+         * assumption is. The site may be shared by multiple threads, so it is updated by publishing
+         * a new state as a whole, and a reader never sees the array type of one state with the
+         * capacity of another.
+         */
+        static final class State {
+            final ScriptArray arrayType;
+            final int capacity;
+            final Assumption assumption;
+
+            State(ScriptArray arrayType, int capacity, Assumption assumption) {
+                this.arrayType = arrayType;
+                this.capacity = capacity;
+                this.assumption = assumption;
+            }
+        }
+
+        private static final State INVALID = new State(null, 0, null);
+
+        @CompilationFinal private volatile State state = new State(null, 0, createAssumption());
+        /** Guarded by this site. */
+        private WeakReference<DynamicObject> lastArray;
+
+        static ArrayLiteralAllocationSite create(JSContext context) {
+            return context.getContextOptions().isArrayAllocationSites() ? new ArrayLiteralAllocationSite() : null;
+        }
+
+        private static Assumption createAssumption() {
+            return Truffle.getRuntime().createAssumption("Array literal allocation site");
+        }
+
+        State getState() {
+            State current = state;
+            return current.assumption.isValid() ? current : INVALID;
+        }
+
+        @Override
+        public ScriptArray getInitialArrayType() {
+            return getState().arrayType;
+        }
+
+        DynamicObject track(DynamicObject array) {
+            if (CompilerDirectives.inInterpreter()) {
+                recordArray(array);
+            }
+            return array;
+        }
+
+        @TruffleBoundary
+        private synchronized void recordArray(DynamicObject array) {
+            DynamicObject previous = lastArray == null ? null : lastArray.get();
+            if (previous != null) {
+                ScriptArray previousArrayType = JSAbstractArray.arrayGetArrayType(previous);
+                notifyArrayTransition(previousArrayType, (int) Math.min(previousArrayType.length(previous), Integer.MAX_VALUE));
+            }
+            lastArray = new WeakReference<>(array);
+        }
+
+        @Override
+        public void notifyArrayTransition(ScriptArray newArrayType, int length) {
+            CompilerAsserts.neverPartOfCompilation("do not notify array transitions from compiled code");
+            ScriptArray zeroBasedArrayType = toZeroBasedArrayType(newArrayType);
+            if (zeroBasedArrayType == null || length == 0) {
+                return;
+            }
+            synchronized (this) {
+                State current = state;
+                ScriptArray newType = join(current.arrayType, zeroBasedArrayType);
+                int newCapacity = current.capacity;
+                if (length > newCapacity && newCapacity < JSConfig.MaxArrayAllocationSiteCapacity) {
+                    // grow geometrically to bound the number of invalidations
+                    newCapacity = Math.min(Math.max(length, newCapacity * 2), JSConfig.MaxArrayAllocationSiteCapacity);
+                }
+                if (newType != current.arrayType || newCapacity != current.capacity) {
+                    // publish the new state before invalidating code that depends on the old one
+                    state = new State(newType, newCapacity, createAssumption());
+                    current.assumption.invalidate("Array literal allocation site update");
+                }
+            }
+        }
+
+        private static ScriptArray toZeroBasedArrayType(ScriptArray arrayType) {
+            if (arrayType instanceof AbstractIntArray) {
+                return ZeroBasedIntArray.createZeroBasedIntArray();
+            } else if (arrayType instanceof AbstractDoubleArray) {
+                return ZeroBasedDoubleArray.createZeroBasedDoubleArray();
+            } else if (arrayType instanceof AbstractJSObjectArray) {
+                return ZeroBasedJSObjectArray.createZeroBasedJSObjectArray();
+            } else if (arrayType instanceof AbstractObjectArray) {
+                return ZeroBasedObjectArray.createZeroBasedObjectArray();
+            }
+            // constant, sparse and other special arrays are not tracked
+            return null;
+        }
+
+        /**
+         * Returns the most specific zero-based array type that can hold the elements of both types.
+         */
+        static ScriptArray join(ScriptArray type1, ScriptArray type2) {
+            if (type1 == null || type1 == type2) {
+                return type2;
+            } else if (type2 == null) {
+                return type1;
+            } else if (isNumberArrayType(type1) && isNumberArrayType(type2)) {
+                return ZeroBasedDoubleArray.createZeroBasedDoubleArray();
+            } else {
+                return ZeroBasedObjectArray.createZeroBasedObjectArray();
+            }
+        }
+
+        private static boolean isNumberArrayType(ScriptArray arrayType) {
+            return arrayType instanceof AbstractIntArray || arrayType instanceof AbstractDoubleArray;
+        }
+    }
+
     @Override
     public boolean isResultAlwaysOfType(Class<?> clazz) {
         return clazz == DynamicObject.class;
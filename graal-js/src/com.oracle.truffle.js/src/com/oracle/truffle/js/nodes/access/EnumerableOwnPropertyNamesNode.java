@@ -40,12 +40,14 @@
  */
 package com.oracle.truffle.js.nodes.access;
 
+import java.util.Arrays;
 import java.util.List;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.builtins.helper.ListGetNode;
@@ -72,6 +74,7 @@ public abstract class EnumerableOwnPropertyNamesNode extends JavaScriptBaseNode
     private final JSContext context;
     @Child private JSGetOwnPropertyNode getOwnPropertyNode;
     private final ConditionProfile hasFastShapesProfile = ConditionProfile.createBinaryProfile();
+    private final ConditionProfile sameShapeProfile = ConditionProfile.createBinaryProfile();
     private final BranchProfile growProfile = BranchProfile.create();
 
     protected EnumerableOwnPropertyNamesNode(JSContext context, boolean keys, boolean values) {
@@ -101,8 +104,13 @@ public abstract class EnumerableOwnPropertyNamesNode extends JavaScriptBaseNode
                     @Cached ListGetNode listGet,
                     @Cached HasOnlyShapePropertiesNode hasOnlyShapeProperties) {
         JSClass jsclass = jsclassProfile.getJSClass(thisObj);
-        if (hasFastShapesProfile.profile(keys && !values && JSConfig.FastOwnKeys && hasOnlyShapeProperties.execute(thisObj, jsclass))) {
-            return JSShape.getEnumerablePropertyNames(thisObj.getShape());
+        if (hasFastShapesProfile.profile(JSConfig.FastOwnKeys && hasOnlyShapeProperties.execute(thisObj, jsclass))) {
+            Shape shape = thisObj.getShape();
+            UnmodifiableArrayList<String> names = JSShape.getEnumerablePropertyNames(shape);
+            if (keys && !values) {
+                return names;
+            }
+            return enumerableOwnPropertyValues(thisObj, jsclass, shape, names);
         } else {
             boolean isProxy = JSProxy.isJSProxy(thisObj);
             List<Object> ownKeys = jsclass.ownPropertyKeys(thisObj);
@@ -133,6 +141,32 @@ public abstract class EnumerableOwnPropertyNamesNode extends JavaScriptBaseNode
         }
     }
 
+    /**
+     * Collects values or entries of an object with only shape properties, using the enumerable
+     * property names cached for its shape. As long as the shape does not change (e.g. by a getter),
+     * every name is still an enumerable own property and GetOwnProperty can be skipped.
+     */
+    private UnmodifiableArrayList<? extends Object> enumerableOwnPropertyValues(DynamicObject thisObj, JSClass jsclass, Shape shape, UnmodifiableArrayList<String> names) {
+        int size = names.size();
+        Object[] properties = new Object[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            String key = names.get(i);
+            Object value;
+            if (sameShapeProfile.profile(thisObj.getShape() == shape)) {
+                value = jsclass.get(thisObj, key);
+            } else {
+                PropertyDescriptor desc = getOwnProperty(thisObj, key);
+                if (desc == null || !desc.getEnumerable()) {
+                    continue;
+                }
+                value = desc.isAccessorDescriptor() ? jsclass.get(thisObj, key) : desc.getValue();
+            }
+            properties[count++] = keys ? JSArray.createConstant(context, new Object[]{key, value}) : value;
+        }
+        return new UnmodifiableArrayList<>(count == size ? properties : Arrays.copyOf(properties, count));
+    }
+
     protected PropertyDescriptor getOwnProperty(DynamicObject thisObj, Object key) {
         if (getOwnPropertyNode == null) {
             CompilerDirectives.transferToInterpreterAndInvalidate();
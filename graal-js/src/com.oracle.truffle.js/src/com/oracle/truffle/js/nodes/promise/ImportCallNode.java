@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -82,7 +82,6 @@ public class ImportCallNode extends JavaScriptNode {
     @Child private JavaScriptNode activeScriptOrModuleNode;
     @Child private NewPromiseCapabilityNode newPromiseCapabilityNode;
     @Child private JSToStringNode toStringNode;
-    @Child private PromiseReactionJobNode promiseReactionJobNode;
 
     // lazily initialized
     @Child private JSFunctionCallNode callRejectNode;
@@ -97,7 +96,6 @@ public class ImportCallNode extends JavaScriptNode {
         this.activeScriptOrModuleNode = activeScriptOrModuleNode;
         this.newPromiseCapabilityNode = NewPromiseCapabilityNode.create(context);
         this.toStringNode = JSToStringNode.create();
-        this.promiseReactionJobNode = PromiseReactionJobNode.create(context);
     }
 
     public static ImportCallNode create(JSContext context, JavaScriptNode argRefNode, JavaScriptNode activeScriptOrModuleNode) {
@@ -140,7 +138,7 @@ public class ImportCallNode extends JavaScriptNode {
             return promise;
         } else {
             PromiseCapabilityRecord promiseCapability = newPromiseCapability();
-            context.promiseEnqueueJob(realm, createImportModuleDynamicallyJob((ScriptOrModule) referencingScriptOrModule, specifier, promiseCapability));
+            enqueueImportModuleDynamicallyJob(realm, (ScriptOrModule) referencingScriptOrModule, specifier, promiseCapability);
             return promiseCapability.getPromise();
         }
     }
@@ -179,17 +177,18 @@ public class ImportCallNode extends JavaScriptNode {
     }
 
     /**
-     * Returns a promise job that performs both HostImportModuleDynamically and FinishDynamicImport.
+     * Enqueues a promise job that performs both HostImportModuleDynamically and
+     * FinishDynamicImport.
      */
-    public DynamicObject createImportModuleDynamicallyJob(ScriptOrModule referencingScriptOrModule, String specifier, PromiseCapabilityRecord promiseCapability) {
+    public void enqueueImportModuleDynamicallyJob(JSRealm realm, ScriptOrModule referencingScriptOrModule, String specifier, PromiseCapabilityRecord promiseCapability) {
         if (context.isOptionTopLevelAwait()) {
             Triple<ScriptOrModule, String, PromiseCapabilityRecord> request = new Triple<>(referencingScriptOrModule, specifier, promiseCapability);
             PromiseCapabilityRecord startModuleLoadCapability = newPromiseCapability();
             PromiseReactionRecord startModuleLoad = PromiseReactionRecord.create(startModuleLoadCapability, createImportModuleDynamicallyHandler(), true);
-            return promiseReactionJobNode.execute(startModuleLoad, request);
+            context.promiseEnqueueReactionJob(realm, startModuleLoad, request);
         } else {
             Pair<ScriptOrModule, String> request = new Pair<>(referencingScriptOrModule, specifier);
-            return promiseReactionJobNode.execute(PromiseReactionRecord.create(promiseCapability, createImportModuleDynamicallyHandler(), true), request);
+            context.promiseEnqueueReactionJob(realm, PromiseReactionRecord.create(promiseCapability, createImportModuleDynamicallyHandler(), true), request);
         }
     }
 
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.nodes.promise;
+
+import com.oracle.truffle.api.TruffleContext;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.profiles.ConditionProfile;
+import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
+import com.oracle.truffle.js.runtime.JSArguments;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.JavaScriptRootNode;
+import com.oracle.truffle.js.runtime.PromiseJobsQueue;
+import com.oracle.truffle.js.runtime.objects.PromiseReactionRecord;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+
+/**
+ * Runs the pending promise jobs of a context until the queue is empty or the next job belongs to
+ * another context. The context has to be entered by the caller.
+ *
+ * Arguments: the {@link PromiseJobsQueue} and the entered {@link TruffleContext}.
+ */
+public final class PromiseJobsRootNode extends JavaScriptRootNode {
+
+    @Child private PromiseReactionJobNode reactionJobNode;
+    @Child private JSFunctionCallNode callJobNode;
+    private final ConditionProfile reactionJobProfile = ConditionProfile.createBinaryProfile();
+
+    public PromiseJobsRootNode(JSContext context) {
+        super(context.getLanguage(), null, null);
+        this.reactionJobNode = PromiseReactionJobNode.create(context);
+        this.callJobNode = JSFunctionCallNode.createCall();
+    }
+
+    @Override
+    public Object execute(VirtualFrame frame) {
+        Object[] arguments = frame.getArguments();
+        PromiseJobsQueue queue = (PromiseJobsQueue) arguments[0];
+        TruffleContext truffleContext = (TruffleContext) arguments[1];
+        while (queue.hasJobFor(truffleContext)) {
+            Object job = queue.getJob();
+            Object argument = queue.getArgument();
+            queue.remove();
+            if (reactionJobProfile.profile(job instanceof PromiseReactionRecord)) {
+                reactionJobNode.execute((PromiseReactionRecord) job, argument);
+            } else {
+                callJobNode.executeCall(JSArguments.createZeroArg(Undefined.instance, job));
+            }
+        }
+        return Undefined.instance;
+    }
+
+    @Override
+    public boolean isInternal() {
+        return true;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -53,12 +53,10 @@ import com.oracle.truffle.api.instrumentation.ProbeNode;
 import com.oracle.truffle.api.instrumentation.StandardTags;
 import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.object.DynamicObject;
-import com.oracle.truffle.api.object.HiddenKey;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.js.nodes.JavaScriptBaseNode;
-import com.oracle.truffle.js.nodes.access.PropertyGetNode;
-import com.oracle.truffle.js.nodes.access.PropertySetNode;
 import com.oracle.truffle.js.nodes.control.AwaitNode;
 import com.oracle.truffle.js.nodes.control.TryCatchNode;
 import com.oracle.truffle.js.nodes.function.JSFunctionCallNode;
@@ -66,7 +64,6 @@ import com.oracle.truffle.js.runtime.Errors;
 import com.oracle.truffle.js.runtime.JSArguments;
 import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.JSContext;
-import com.oracle.truffle.js.runtime.JSFrameUtil;
 import com.oracle.truffle.js.runtime.JavaScriptRootNode;
 import com.oracle.truffle.js.runtime.PromiseHook;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
@@ -75,30 +72,29 @@ import com.oracle.truffle.js.runtime.objects.PromiseCapabilityRecord;
 import com.oracle.truffle.js.runtime.objects.PromiseReactionRecord;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
+/**
+ * Runs a PromiseReactionJob. Reaction jobs are enqueued as (reaction, argument) pairs, so no job
+ * function is created per reaction; the reaction and its argument are passed as arguments to the
+ * shared job call target.
+ */
 public class PromiseReactionJobNode extends JavaScriptBaseNode {
-    static final HiddenKey REACTION_KEY = new HiddenKey("Reaction");
-    static final HiddenKey ARGUMENT_KEY = new HiddenKey("Argument");
-
-    private final JSContext context;
-    @Child private PropertySetNode setReaction;
-    @Child private PropertySetNode setArgument;
+    @Child private DirectCallNode callNode;
 
     protected PromiseReactionJobNode(JSContext context) {
-        this.context = context;
-        this.setReaction = PropertySetNode.createSetHidden(REACTION_KEY, context);
-        this.setArgument = PropertySetNode.createSetHidden(ARGUMENT_KEY, context);
+        this.callNode = DirectCallNode.create(getCallTarget(context));
     }
 
     public static PromiseReactionJobNode create(JSContext context) {
         return new PromiseReactionJobNode(context);
     }
 
-    public DynamicObject execute(Object reaction, Object argument) {
+    public Object execute(PromiseReactionRecord reaction, Object argument) {
+        return callNode.call(JSArguments.create(Undefined.instance, Undefined.instance, reaction, argument));
+    }
+
+    private static CallTarget getCallTarget(JSContext context) {
         JSFunctionData functionData = context.getOrCreateBuiltinFunctionData(JSContext.BuiltinFunctionKey.PromiseReactionJob, (c) -> createPromiseReactionJobImpl(c));
-        DynamicObject function = JSFunction.create(context.getRealm(), functionData);
-        setReaction.setValue(function, reaction);
-        setArgument.setValue(function, argument);
-        return function;
+        return functionData.getCallTarget();
     }
 
     private static JSFunctionData createPromiseReactionJobImpl(JSContext context) {
@@ -108,8 +104,6 @@ public class PromiseReactionJobNode extends JavaScriptBaseNode {
 
     public static class PromiseReactionJobRootNode extends JavaScriptRootNode implements InstrumentableNode {
         private final JSContext context;
-        @Child private PropertyGetNode getReaction;
-        @Child private PropertyGetNode getArgument;
         @Child private JSFunctionCallNode callResolveNode;
         @Child private JSFunctionCallNode callRejectNode;
         @Child private JSFunctionCallNode callHandlerNode;
@@ -120,15 +114,13 @@ public class PromiseReactionJobNode extends JavaScriptBaseNode {
         PromiseReactionJobRootNode(JSContext context) {
             super(context.getLanguage(), null, null);
             this.context = context;
-            this.getReaction = PropertyGetNode.createGetHidden(REACTION_KEY, context);
-            this.getArgument = PropertyGetNode.createGetHidden(ARGUMENT_KEY, context);
         }
 
         @Override
         public Object execute(VirtualFrame frame) {
-            DynamicObject functionObject = JSFrameUtil.getFunctionObject(frame);
-            PromiseReactionRecord reaction = (PromiseReactionRecord) getReaction.getValue(functionObject);
-            Object argument = getArgument.getValue(functionObject);
+            Object[] arguments = frame.getArguments();
+            PromiseReactionRecord reaction = (PromiseReactionRecord) JSArguments.getUserArgument(arguments, 0);
+            Object argument = JSArguments.getUserArgument(arguments, 1);
 
             PromiseCapabilityRecord promiseCapability = reaction.getCapability();
             Object handler = reaction.getHandler();
@@ -220,8 +212,7 @@ public class PromiseReactionJobNode extends JavaScriptBaseNode {
                 return null;
             }
 
-            DynamicObject functionObject = JSFrameUtil.getFunctionObject(frame);
-            PromiseReactionRecord reaction = (PromiseReactionRecord) getReaction.getValue(functionObject);
+            PromiseReactionRecord reaction = (PromiseReactionRecord) JSArguments.getUserArgument(frame.getArguments(), 0);
             PromiseCapabilityRecord promiseCapability = reaction.getCapability();
             if (promiseCapability != null) {
                 return AwaitNode.findAsyncStackFramesFromPromise(promiseCapability.getPromise());
@@ -40,6 +40,8 @@
  */
 package com.oracle.truffle.js.runtime;
 
+import java.util.List;
+
 import com.oracle.js.parser.ir.Expression;
 import com.oracle.truffle.api.frame.MaterializedFrame;
 import com.oracle.truffle.api.nodes.Node;
@@ -85,6 +87,25 @@ public interface Evaluator {
 
     JSModuleRecord parseModule(JSContext context, Source source, JSModuleLoader moduleLoader);
 
+    /**
+     * Parses a module without translating it. Unlike {@link #parseModule}, this method may be
+     * called on a thread that has not entered the context. Returns an opaque result that can be
+     * passed to {@link #parseModule(JSContext, Source, JSModuleLoader, Object)}.
+     */
+    Object preparseModule(JSContext context, Source source);
+
+    /**
+     * Returns the specifiers of the modules requested by the import and export declarations of a
+     * module returned by {@link #preparseModule}.
+     */
+    List<String> getRequestedModules(Object preparsedModule);
+
+    /**
+     * Translates a module that has been parsed by {@link #preparseModule}, or parses it if
+     * {@code preparsedModule} is null.
+     */
+    JSModuleRecord parseModule(JSContext context, Source source, JSModuleLoader moduleLoader, Object preparsedModule);
+
     JSModuleRecord hostResolveImportedModule(JSContext context, ScriptOrModule referencingScriptOrModule, String specifier);
 
     void moduleInstantiation(JSRealm realm, JSModuleRecord moduleRecord);
@@ -50,13 +50,13 @@ import org.graalvm.collections.EconomicSet;
 import org.graalvm.collections.Equivalence;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleContext;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.JSAgentWaiterList.JSAgentWaiterListEntry;
-import com.oracle.truffle.js.runtime.builtins.JSArrayBufferView;
 import com.oracle.truffle.js.runtime.builtins.JSFinalizationRegistry;
 import com.oracle.truffle.js.runtime.builtins.JSFinalizationRegistryObject;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
-import com.oracle.truffle.js.runtime.builtins.JSSharedArrayBuffer;
+import com.oracle.truffle.js.runtime.objects.PromiseReactionRecord;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 
 /**
@@ -70,13 +70,12 @@ public abstract class JSAgent implements EcmaAgent {
     private final int signifier;
     private final boolean canBlock;
 
-    private boolean inAtomicSection;
     private boolean inCriticalSection;
 
     /**
      * ECMA 8.4 "PromiseJobs" job queue.
      */
-    private final Deque<DynamicObject> promiseJobsQueue;
+    private final PromiseJobsQueue promiseJobsQueue;
 
     /**
      * According to ECMA2017 8.4 the queue of pending jobs (promises reactions) must be processed
@@ -98,7 +97,7 @@ public abstract class JSAgent implements EcmaAgent {
     public JSAgent(boolean canBlock) {
         this.signifier = signifierGenerator.incrementAndGet();
         this.canBlock = canBlock;
-        this.promiseJobsQueue = new ArrayDeque<>(4);
+        this.promiseJobsQueue = new PromiseJobsQueue();
         this.finalizationRegistryQueue = new ArrayDeque<>(4);
     }
 
@@ -128,27 +127,19 @@ public abstract class JSAgent implements EcmaAgent {
         wl.unlock();
     }
 
-    public void atomicSectionEnter(DynamicObject target) {
-        assert !inAtomicSection;
-        assert JSArrayBufferView.isJSArrayBufferView(target);
-        DynamicObject arrayBuffer = JSArrayBufferView.getArrayBuffer(target);
-        JSAgentWaiterList waiterList = JSSharedArrayBuffer.getWaiterList(arrayBuffer);
-        waiterList.lock();
-        inAtomicSection = true;
-    }
-
-    public void atomicSectionLeave(DynamicObject target) {
-        assert inAtomicSection;
-        assert JSArrayBufferView.isJSArrayBufferView(target);
-        DynamicObject arrayBuffer = JSArrayBufferView.getArrayBuffer(target);
-        JSAgentWaiterList waiterList = JSSharedArrayBuffer.getWaiterList(arrayBuffer);
-        inAtomicSection = false;
-        waiterList.unlock();
+    @TruffleBoundary
+    public final void enqueuePromiseJob(DynamicObject job) {
+        if (JSFunction.isJSFunction(job)) {
+            promiseJobsQueue.add(JSFunction.getRealm(job), job, Undefined.instance);
+        }
     }
 
+    /**
+     * ECMA 25.6.2.1 NewPromiseReactionJob: enqueues the reaction without creating a job function.
+     */
     @TruffleBoundary
-    public final void enqueuePromiseJob(DynamicObject job) {
-        promiseJobsQueue.push(job);
+    public final void enqueuePromiseReactionJob(JSRealm realm, PromiseReactionRecord reaction, Object argument) {
+        promiseJobsQueue.add(realm, reaction, argument);
     }
 
     @TruffleBoundary
@@ -156,15 +147,14 @@ public abstract class JSAgent implements EcmaAgent {
         try {
             interopBoundaryEnter();
             while (!promiseJobsQueue.isEmpty()) {
-                DynamicObject nextJob = promiseJobsQueue.pollLast();
-                if (JSFunction.isJSFunction(nextJob)) {
-                    JSRealm functionRealm = JSFunction.getRealm(nextJob);
-                    Object prev = functionRealm.getTruffleContext().enter(null);
-                    try {
-                        JSFunction.call(nextJob, Undefined.instance, JSArguments.EMPTY_ARGUMENTS_ARRAY);
-                    } finally {
-                        functionRealm.getTruffleContext().leave(null, prev);
-                    }
+                // Enter the context once for all consecutive jobs that run in it.
+                JSRealm realm = promiseJobsQueue.getRealm();
+                TruffleContext truffleContext = realm.getTruffleContext();
+                Object prev = truffleContext.enter(null);
+                try {
+                    realm.getContext().getPromiseJobsCallTarget().call(promiseJobsQueue, truffleContext);
+                } finally {
+                    truffleContext.leave(null, prev);
                 }
             }
         } finally {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2020, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -56,6 +56,7 @@ public final class JSConfig {
     public static final int MaxArrayHoleSize = 5000;
     public static final int MaxFlatArraySize = 1000000;
     public static final boolean TrackArrayAllocationSites = Boolean.FALSE;
+    public static final int MaxArrayAllocationSiteCapacity = 1024;
     public static final int BigArrayThreshold = 10000;
     public static final boolean MarkElementsNonNull = true;
 
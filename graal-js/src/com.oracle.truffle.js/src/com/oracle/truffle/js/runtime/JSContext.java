@@ -43,8 +43,12 @@ package com.oracle.truffle.js.runtime;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
@@ -67,6 +71,7 @@ import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.js.lang.JavaScriptLanguage;
 import com.oracle.truffle.js.nodes.access.GetPrototypeNode;
 import com.oracle.truffle.js.nodes.cast.JSToObjectNode;
+import com.oracle.truffle.js.nodes.promise.PromiseJobsRootNode;
 import com.oracle.truffle.js.runtime.array.TypedArray;
 import com.oracle.truffle.js.runtime.array.TypedArrayFactory;
 import com.oracle.truffle.js.runtime.builtins.Builtin;
@@ -127,11 +132,14 @@ import com.oracle.truffle.js.runtime.objects.JSPrototypeData;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.JSShapeData;
 import com.oracle.truffle.js.runtime.objects.Null;
+import com.oracle.truffle.js.runtime.objects.PromiseReactionRecord;
 import com.oracle.truffle.js.runtime.objects.PropertyProxy;
 import com.oracle.truffle.js.runtime.objects.ScriptOrModule;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.CompilableBiFunction;
 import com.oracle.truffle.js.runtime.util.DebugJSAgent;
+import com.oracle.truffle.js.runtime.util.JSONKeyCache;
+import com.oracle.truffle.js.runtime.util.RegexCompileCache;
 import com.oracle.truffle.js.runtime.util.TRegexUtil;
 import com.oracle.truffle.js.runtime.util.TimeProfiler;
 
@@ -179,6 +187,25 @@ public class JSContext {
 
     private volatile Map<String, Symbol> symbolRegistry;
 
+    /** Thread pool for sorting large TypedArrays; shut down when the last realm is disposed. */
+    private volatile ForkJoinPool typedArraySortPool;
+
+    /** Thread pool for parsing modules; shut down when the last realm is disposed. */
+    private volatile ForkJoinPool moduleParsePool;
+
+    private volatile JSONKeyCache jsonKeyCache;
+
+    private volatile RegexCompileCache regexCompileCache;
+
+    /**
+     * Pristine top-level realms created in advance for new contexts of this engine. Filled up to
+     * the pool size by one background task at a time.
+     *
+     * @see JSContextOptions#REALM_POOL_SIZE
+     */
+    private final Queue<JSRealm> realmPool = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean realmPoolFilling = new AtomicBoolean();
+
     private final Object nodeFactory;
 
     private final TimeProfiler timeProfiler;
@@ -213,6 +240,7 @@ public class JSContext {
     private volatile CallTarget boundFunctionCallTargetCache;
     private volatile CallTarget boundFunctionConstructTargetCache;
     private volatile CallTarget boundFunctionConstructNewTargetCache;
+    private volatile CallTarget promiseJobsCallTargetCache;
 
     public enum BuiltinFunctionKey {
         ArrayFlattenIntoArray,
@@ -317,6 +345,8 @@ public class JSContext {
     private final boolean isMultiContext;
 
     private final AtomicInteger realmInit = new AtomicInteger();
+    /** Number of top-level realms that have been created and not disposed yet. */
+    private final AtomicInteger liveTopLevelRealms = new AtomicInteger();
     private static final int REALM_UNINITIALIZED = 0;
     private static final int REALM_INITIALIZING = 1;
     private static final int REALM_INITIALIZED = 2;
@@ -640,8 +670,11 @@ public class JSContext {
         if (!isTop) {
             noChildRealmsAssumption.invalidate();
         }
-        JSRealm newRealm = new JSRealm(this, env);
-        newRealm.setupGlobals();
+        JSRealm newRealm = isTop ? pollPooledRealm(env) : null;
+        if (newRealm == null) {
+            newRealm = new JSRealm(this, env);
+            newRealm.setupGlobals();
+        }
 
         if (isTop) {
             if (contextOptions.isTest262Mode() || contextOptions.isTestV8Mode()) {
@@ -653,12 +686,66 @@ public class JSContext {
                 newRealm.initRealmList();
                 newRealm.addToRealmList(newRealm);
             }
+            liveTopLevelRealms.incrementAndGet();
         }
 
         realmInit.set(REALM_INITIALIZED);
         return newRealm;
     }
 
+    private JSRealm pollPooledRealm(TruffleLanguage.Env env) {
+        if (env.isPreInitialization()) {
+            return null;
+        }
+        JSRealm pooledRealm = realmPool.poll();
+        if (pooledRealm != null) {
+            pooledRealm.adoptEnv(env);
+        }
+        return pooledRealm;
+    }
+
+    /**
+     * Returns the number of realms currently in the realm pool.
+     */
+    public int getPooledRealmCount() {
+        return realmPool.size();
+    }
+
+    /**
+     * Starts creating pristine realms in the background until the realm pool is full. Called when
+     * a context is disposed, so that realm construction is on the path of neither disposing this
+     * context nor creating the next one. Pooled realms are set up without an env; the parts that
+     * depend on it are added when a realm is handed out to a new context, see
+     * {@link JSRealm#adoptEnv}. The pool is only reachable from this context, so it is released
+     * together with the engine.
+     */
+    public void fillRealmPool() {
+        CompilerAsserts.neverPartOfCompilation();
+        if (contextOptions.getRealmPoolSize() <= 0 || contextOptions.isWebAssembly() || getEcmaScriptVersion() < 6) {
+            // WebAssembly intrinsics are bound to the wasm context of the creating env, and the
+            // ES5 RegExp prototype is created by the regex language of the creating env
+            return;
+        }
+        // pooled realms are handed out to later contexts, so there is more than one realm
+        singleRealmAssumption.invalidate("single realm assumption");
+        if (realmPoolFilling.compareAndSet(false, true)) {
+            ForkJoinPool.commonPool().execute(this::createPooledRealms);
+        }
+    }
+
+    private void createPooledRealms() {
+        try {
+            // realms are only taken from the pool in the meantime
+            while (realmPool.size() < contextOptions.getRealmPoolSize()) {
+                JSRealm pooledRealm = new JSRealm(this, null);
+                pooledRealm.setupGlobals();
+                realmPool.add(pooledRealm);
+            }
+        } finally {
+            realmPoolFilling.set(false);
+        }
+    }
+
     public final Shape createEmptyShape() {
         return makeEmptyShapeWithNullPrototype(JSOrdinary.INSTANCE);
     }
@@ -705,6 +792,120 @@ public class JSContext {
         }
     }
 
+    /**
+     * Returns the cache of property keys shared by all JSON.parse invocations in this context.
+     */
+    public final JSONKeyCache getJSONKeyCache() {
+        JSONKeyCache cache = jsonKeyCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = jsonKeyCache;
+                if (cache == null) {
+                    cache = jsonKeyCache = new JSONKeyCache();
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the cache of compiled regular expressions, or null if it is disabled.
+     *
+     * @see JSContextOptions#REGEX_CACHE_SIZE
+     */
+    public final RegexCompileCache getRegexCompileCache() {
+        RegexCompileCache cache = regexCompileCache;
+        if (cache == null) {
+            int cacheSize = getContextOptions().getRegexCacheSize();
+            if (cacheSize <= 0) {
+                return null;
+            }
+            synchronized (this) {
+                cache = regexCompileCache;
+                if (cache == null) {
+                    cache = regexCompileCache = new RegexCompileCache(cacheSize);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Called when a top-level realm is disposed. Shuts down the thread pools of this context if no
+     * other realm can use them anymore, so that their threads do not outlive the engine. The pools
+     * are created again on demand.
+     */
+    public void topLevelRealmDisposed() {
+        if (liveTopLevelRealms.decrementAndGet() == 0) {
+            shutdownThreadPools();
+        }
+    }
+
+    private synchronized void shutdownThreadPools() {
+        if (liveTopLevelRealms.get() != 0) {
+            // a new realm has been created in the meantime
+            return;
+        }
+        ForkJoinPool sortPool = typedArraySortPool;
+        if (sortPool != null) {
+            typedArraySortPool = null;
+            sortPool.shutdown();
+        }
+        ForkJoinPool parsePool = moduleParsePool;
+        if (parsePool != null) {
+            moduleParsePool = null;
+            parsePool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the pool to be used for sorting a TypedArray of the given length in parallel, or
+     * null if the array should be sorted sequentially.
+     */
+    @TruffleBoundary
+    public final ForkJoinPool getTypedArraySortPool(int length) {
+        int threshold = contextOptions.getTypedArrayParallelSortThreshold();
+        if (threshold <= 0 || length < threshold) {
+            return null;
+        }
+        int parallelism = contextOptions.getTypedArraySortParallelism();
+        if (parallelism <= 0) {
+            return ForkJoinPool.commonPool();
+        }
+        ForkJoinPool pool = typedArraySortPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = typedArraySortPool;
+                if (pool == null) {
+                    pool = typedArraySortPool = new ForkJoinPool(parallelism);
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Returns the pool used to parse imported modules in the background, or null if modules are
+     * parsed on demand.
+     */
+    @TruffleBoundary
+    public final ForkJoinPool getModuleParsePool() {
+        int parallelism = contextOptions.getModuleParseParallelism();
+        if (parallelism <= 0) {
+            return null;
+        }
+        ForkJoinPool pool = moduleParsePool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = moduleParsePool;
+                if (pool == null) {
+                    pool = moduleParsePool = new ForkJoinPool(parallelism);
+                }
+            }
+        }
+        return pool;
+    }
+
     /**
      * ECMA 8.4.1 EnqueueJob.
      */
@@ -713,6 +914,14 @@ public class JSContext {
         realm.getAgent().enqueuePromiseJob(job);
     }
 
+    /**
+     * ECMA 8.4.1 EnqueueJob("PromiseJobs", PromiseReactionJob, << reaction, argument >>).
+     */
+    public final void promiseEnqueueReactionJob(JSRealm realm, PromiseReactionRecord reaction, Object argument) {
+        invalidatePromiseQueueNotUsedAssumption();
+        realm.getAgent().enqueuePromiseReactionJob(realm, reaction, argument);
+    }
+
     private void invalidatePromiseQueueNotUsedAssumption() {
         Assumption promiseJobsQueueEmptyAssumption = language.getPromiseJobsQueueEmptyAssumption();
         if (promiseJobsQueueEmptyAssumption.isValid()) {
@@ -1128,6 +1337,25 @@ public class JSContext {
         });
     }
 
+    /**
+     * CallTarget that runs the pending promise jobs of the entered context.
+     *
+     * @see PromiseJobsRootNode
+     */
+    @TruffleBoundary
+    public CallTarget getPromiseJobsCallTarget() {
+        CallTarget result = promiseJobsCallTargetCache;
+        if (result == null) {
+            synchronized (this) {
+                result = promiseJobsCallTargetCache;
+                if (result == null) {
+                    result = promiseJobsCallTargetCache = Truffle.getRuntime().createCallTarget(new PromiseJobsRootNode(this));
+                }
+            }
+        }
+        return result;
+    }
+
     @TruffleBoundary
     public CallTarget getBoundFunctionCallTarget() {
         CallTarget result = boundFunctionCallTargetCache;
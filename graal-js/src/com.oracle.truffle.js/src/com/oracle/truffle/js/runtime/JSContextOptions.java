@@ -253,6 +253,10 @@ public final class JSContextOptions {
     @Option(name = PERFORMANCE_NAME, category = OptionCategory.USER, help = "Provide 'performance' global property.") //
     public static final OptionKey<Boolean> PERFORMANCE = new OptionKey<>(false);
 
+    public static final String TIMERS_NAME = JS_OPTION_PREFIX + "timers";
+    @Option(name = TIMERS_NAME, category = OptionCategory.USER, help = "Provide 'setTimeout', 'setInterval' and 'setImmediate' global functions backed by an event loop that the embedder runs through the 'EventLoop' global object.") //
+    public static final OptionKey<Boolean> TIMERS = new OptionKey<>(false);
+
     public static final String SHELL_NAME = JS_OPTION_PREFIX + "shell";
     @Option(name = SHELL_NAME, category = OptionCategory.USER, help = "Provide global functions for js shell.") //
     public static final OptionKey<Boolean> SHELL = new OptionKey<>(false);
@@ -323,6 +327,18 @@ public final class JSContextOptions {
     @Option(name = POLYGLOT_EVALFILE_NAME, category = OptionCategory.USER, help = "Provide 'Polyglot.evalFile' function.") //
     public static final OptionKey<Boolean> POLYGLOT_EVALFILE = new OptionKey<>(true);
 
+    public static final String JSON_UTF8_NAME = JS_OPTION_PREFIX + "json-utf8";
+    @Option(name = JSON_UTF8_NAME, category = OptionCategory.EXPERT, help = "Provide non-standard 'JSON.parseUTF8' and 'JSON.stringifyUTF8' functions that work on UTF-8 encoded bytes.") //
+    public static final OptionKey<Boolean> JSON_UTF8 = new OptionKey<>(false);
+
+    public static final String REALM_POOL_SIZE_NAME = JS_OPTION_PREFIX + "realm-pool-size";
+    @Option(name = REALM_POOL_SIZE_NAME, category = OptionCategory.EXPERT, help = "Number of pristine realms kept ready for new contexts sharing an engine (0 = disabled).") //
+    public static final OptionKey<Integer> REALM_POOL_SIZE = new OptionKey<>(0);
+
+    public static final String CODE_CACHE_DIR_NAME = JS_OPTION_PREFIX + "code-cache-dir";
+    @Option(name = CODE_CACHE_DIR_NAME, category = OptionCategory.EXPERT, help = "Directory with binary snapshots of scripts, used instead of parsing. The directory is not written at runtime, it must be populated beforehand by the snapshot tool (--code-cache=DIR) with the same options.") //
+    public static final OptionKey<String> CODE_CACHE_DIR = new OptionKey<>("");
+
     public static final String AWAIT_OPTIMIZATION_NAME = JS_OPTION_PREFIX + "await-optimization";
     @Option(name = AWAIT_OPTIMIZATION_NAME, category = OptionCategory.INTERNAL, help = "Use PromiseResolve for Await.") //
     public static final OptionKey<Boolean> AWAIT_OPTIMIZATION = new OptionKey<>(true);
@@ -409,6 +425,11 @@ public final class JSContextOptions {
     public static final OptionKey<Integer> FUNCTION_CONSTRUCTOR_CACHE_SIZE = new OptionKey<>(32);
     @CompilationFinal private int functionConstructorCacheSize;
 
+    public static final String REGEX_CACHE_SIZE_NAME = JS_OPTION_PREFIX + "regex-cache-size";
+    @Option(name = REGEX_CACHE_SIZE_NAME, category = OptionCategory.EXPERT, help = "Maximum size of the cache of compiled RegExps created from dynamic patterns (0 = disabled).") //
+    public static final OptionKey<Integer> REGEX_CACHE_SIZE = new OptionKey<>(256);
+    @CompilationFinal private int regexCacheSize;
+
     public static final String STRING_LENGTH_LIMIT_NAME = JS_OPTION_PREFIX + "string-length-limit";
     @Option(name = STRING_LENGTH_LIMIT_NAME, category = OptionCategory.EXPERT, help = "Maximum string length.") //
     public static final OptionKey<Integer> STRING_LENGTH_LIMIT = new OptionKey<>(JSConfig.StringLengthLimit);
@@ -451,11 +472,41 @@ public final class JSContextOptions {
     public static final OptionKey<Boolean> LAZY_TRANSLATION = new OptionKey<>(false);
     @CompilationFinal private boolean lazyTranslation;
 
+    public static final String LAZY_PARSING_NAME = JS_OPTION_PREFIX + "lazy-parsing";
+    @Option(name = LAZY_PARSING_NAME, category = OptionCategory.EXPERT, help = "Only scan the bodies of functions in the initial parse and parse them on first invocation. Implies lazy translation.") //
+    public static final OptionKey<Boolean> LAZY_PARSING = new OptionKey<>(false);
+    @CompilationFinal private boolean lazyParsing;
+
     public static final String MAX_TYPED_ARRAY_LENGTH_NAME = JS_OPTION_PREFIX + "max-typed-array-length";
     @Option(name = MAX_TYPED_ARRAY_LENGTH_NAME, category = OptionCategory.EXPERT, help = "Maximum allowed length for TypedArrays.") //
     public static final OptionKey<Integer> MAX_TYPED_ARRAY_LENGTH = new OptionKey<>(JSConfig.MaxTypedArrayLength);
     @CompilationFinal private int maxTypedArrayLength;
 
+    public static final String TYPED_ARRAY_PARALLEL_SORT_THRESHOLD_NAME = JS_OPTION_PREFIX + "typed-array-parallel-sort-threshold";
+    @Option(name = TYPED_ARRAY_PARALLEL_SORT_THRESHOLD_NAME, category = OptionCategory.EXPERT, help = "Minimum length of a TypedArray that is sorted in parallel when no comparison function is given (0 disables parallel sorting).") //
+    public static final OptionKey<Integer> TYPED_ARRAY_PARALLEL_SORT_THRESHOLD = new OptionKey<>(0);
+    @CompilationFinal private int typedArrayParallelSortThreshold;
+
+    public static final String TYPED_ARRAY_SORT_PARALLELISM_NAME = JS_OPTION_PREFIX + "typed-array-sort-parallelism";
+    @Option(name = TYPED_ARRAY_SORT_PARALLELISM_NAME, category = OptionCategory.EXPERT, help = "Number of threads used to sort a TypedArray in parallel (0 uses the common fork-join pool).") //
+    public static final OptionKey<Integer> TYPED_ARRAY_SORT_PARALLELISM = new OptionKey<>(0);
+    @CompilationFinal private int typedArraySortParallelism;
+
+    public static final String MODULE_PARSE_PARALLELISM_NAME = JS_OPTION_PREFIX + "module-parse-parallelism";
+    @Option(name = MODULE_PARSE_PARALLELISM_NAME, category = OptionCategory.EXPERT, help = "Number of threads used to parse the static imports of ES modules in the background (0 parses modules on demand).") //
+    public static final OptionKey<Integer> MODULE_PARSE_PARALLELISM = new OptionKey<>(0);
+    @CompilationFinal private int moduleParseParallelism;
+
+    public static final String ARRAY_ALLOCATION_SITES_NAME = JS_OPTION_PREFIX + "array-allocation-sites";
+    @Option(name = ARRAY_ALLOCATION_SITES_NAME, category = OptionCategory.EXPERT, help = "Let array literals allocate new arrays in the representation and capacity reached by previously created arrays.") //
+    public static final OptionKey<Boolean> ARRAY_ALLOCATION_SITES = new OptionKey<>(false);
+    @CompilationFinal private boolean arrayAllocationSites;
+
+    public static final String MEMORY_ACCOUNTING_NAME = JS_OPTION_PREFIX + "memory-accounting";
+    @Option(name = MEMORY_ACCOUNTING_NAME, category = OptionCategory.EXPERT, help = "Account the heap memory allocated by the threads of a context and the memory of its array buffers.") //
+    public static final OptionKey<Boolean> MEMORY_ACCOUNTING = new OptionKey<>(false);
+    @CompilationFinal private boolean memoryAccounting;
+
     public static final String MAX_APPLY_ARGUMENT_LENGTH_NAME = JS_OPTION_PREFIX + "max-apply-argument-length";
     @Option(name = MAX_APPLY_ARGUMENT_LENGTH_NAME, category = OptionCategory.EXPERT, help = "Maximum allowed number of arguments allowed in an apply function.") //
     public static final OptionKey<Integer> MAX_APPLY_ARGUMENT_LENGTH = new OptionKey<>(JSConfig.MaxApplyArgumentLength);
@@ -568,15 +619,22 @@ public final class JSContextOptions {
         this.testV8Mode = readBooleanOption(TESTV8_MODE);
         this.validateRegExpLiterals = readBooleanOption(VALIDATE_REGEXP_LITERALS);
         this.functionConstructorCacheSize = readIntegerOption(FUNCTION_CONSTRUCTOR_CACHE_SIZE);
+        this.regexCacheSize = readIntegerOption(REGEX_CACHE_SIZE);
         this.stringLengthLimit = readIntegerOption(STRING_LENGTH_LIMIT);
         this.bindMemberFunctions = readBooleanOption(BIND_MEMBER_FUNCTIONS);
         this.commonJSRequire = readBooleanOption(COMMONJS_REQUIRE);
         this.regexRegressionTestMode = readBooleanOption(REGEX_REGRESSION_TEST_MODE);
         this.interopCompletePromises = readBooleanOption(INTEROP_COMPLETE_PROMISES);
         this.testCloneUninitialized = readBooleanOption(TEST_CLONE_UNINITIALIZED);
-        this.lazyTranslation = readBooleanOption(LAZY_TRANSLATION);
+        this.lazyParsing = readBooleanOption(LAZY_PARSING);
+        this.lazyTranslation = readBooleanOption(LAZY_TRANSLATION) || lazyParsing;
         this.stackTraceLimit = readIntegerOption(STACK_TRACE_LIMIT);
         this.maxTypedArrayLength = readIntegerOption(MAX_TYPED_ARRAY_LENGTH);
+        this.typedArrayParallelSortThreshold = readIntegerOption(TYPED_ARRAY_PARALLEL_SORT_THRESHOLD);
+        this.typedArraySortParallelism = readIntegerOption(TYPED_ARRAY_SORT_PARALLELISM);
+        this.moduleParseParallelism = readIntegerOption(MODULE_PARSE_PARALLELISM);
+        this.arrayAllocationSites = readBooleanOption(ARRAY_ALLOCATION_SITES);
+        this.memoryAccounting = readBooleanOption(MEMORY_ACCOUNTING);
         this.maxApplyArgumentLength = readIntegerOption(MAX_APPLY_ARGUMENT_LENGTH);
         this.maxPrototypeChainLength = readIntegerOption(MAX_PROTOTYPE_CHAIN_LENGTH);
         this.asyncStackTraces = readBooleanOption(ASYNC_STACK_TRACES);
@@ -814,6 +872,11 @@ public final class JSContextOptions {
         return PERFORMANCE.getValue(optionValues) || (!PERFORMANCE.hasBeenSet(optionValues) && isShell());
     }
 
+    public boolean isTimers() {
+        CompilerAsserts.neverPartOfCompilation("Context patchable option timers was assumed not to be accessed in compiled code.");
+        return TIMERS.getValue(optionValues);
+    }
+
     public boolean isShell() {
         CompilerAsserts.neverPartOfCompilation("Context patchable option shell was assumed not to be accessed in compiled code.");
         return SHELL.getValue(optionValues);
@@ -831,6 +894,19 @@ public final class JSContextOptions {
         return POLYGLOT_EVALFILE.getValue(optionValues);
     }
 
+    public boolean isJSONUTF8() {
+        return JSON_UTF8.getValue(optionValues);
+    }
+
+    public int getRealmPoolSize() {
+        return REALM_POOL_SIZE.getValue(optionValues);
+    }
+
+    public String getCodeCacheDir() {
+        CompilerAsserts.neverPartOfCompilation();
+        return CODE_CACHE_DIR.getValue(optionValues);
+    }
+
     public boolean isLoadFromURL() {
         return LOAD_FROM_URL.getValue(optionValues);
     }
@@ -870,6 +946,10 @@ public final class JSContextOptions {
         return functionConstructorCacheSize;
     }
 
+    public int getRegexCacheSize() {
+        return regexCacheSize;
+    }
+
     public int getStringLengthLimit() {
         return stringLengthLimit;
     }
@@ -904,6 +984,10 @@ public final class JSContextOptions {
         return lazyTranslation;
     }
 
+    public boolean isLazyParsing() {
+        return lazyParsing;
+    }
+
     public boolean isProfileTimePrintCumulative() {
         CompilerAsserts.neverPartOfCompilation("Context patchable option profile-time-print-cumulative was assumed not to be accessed in compiled code.");
         return PROFILE_TIME_PRINT_CUMULATIVE.getValue(optionValues);
@@ -917,6 +1001,26 @@ public final class JSContextOptions {
         return maxTypedArrayLength;
     }
 
+    public int getTypedArrayParallelSortThreshold() {
+        return typedArrayParallelSortThreshold;
+    }
+
+    public int getTypedArraySortParallelism() {
+        return typedArraySortParallelism;
+    }
+
+    public int getModuleParseParallelism() {
+        return moduleParseParallelism;
+    }
+
+    public boolean isArrayAllocationSites() {
+        return arrayAllocationSites;
+    }
+
+    public boolean isMemoryAccounting() {
+        return memoryAccounting;
+    }
+
     public int getMaxApplyArgumentLength() {
         return maxApplyArgumentLength;
     }
@@ -978,6 +1082,7 @@ public final class JSContextOptions {
         hash = 53 * hash + (this.testV8Mode ? 1 : 0);
         hash = 53 * hash + (this.validateRegExpLiterals ? 1 : 0);
         hash = 53 * hash + this.functionConstructorCacheSize;
+        hash = 53 * hash + this.regexCacheSize;
         hash = 53 * hash + this.stringLengthLimit;
         hash = 53 * hash + (this.bindMemberFunctions ? 1 : 0);
         hash = 53 * hash + (this.commonJSRequire ? 1 : 0);
@@ -985,9 +1090,15 @@ public final class JSContextOptions {
         hash = 53 * hash + (this.interopCompletePromises ? 1 : 0);
         hash = 53 * hash + (this.testCloneUninitialized ? 1 : 0);
         hash = 53 * hash + (this.lazyTranslation ? 1 : 0);
+        hash = 53 * hash + (this.lazyParsing ? 1 : 0);
         hash = 53 * hash + this.stackTraceLimit;
         hash = 53 * hash + (this.asyncStackTraces ? 1 : 0);
         hash = 53 * hash + this.maxTypedArrayLength;
+        hash = 53 * hash + this.typedArrayParallelSortThreshold;
+        hash = 53 * hash + this.typedArraySortParallelism;
+        hash = 53 * hash + this.moduleParseParallelism;
+        hash = 53 * hash + (this.arrayAllocationSites ? 1 : 0);
+        hash = 53 * hash + (this.memoryAccounting ? 1 : 0);
         hash = 53 * hash + this.maxApplyArgumentLength;
         hash = 53 * hash + this.maxPrototypeChainLength;
         hash = 53 * hash + this.propertyCacheLimit;
@@ -1097,6 +1208,9 @@ public final class JSContextOptions {
         if (this.functionConstructorCacheSize != other.functionConstructorCacheSize) {
             return false;
         }
+        if (this.regexCacheSize != other.regexCacheSize) {
+            return false;
+        }
         if (this.stringLengthLimit != other.stringLengthLimit) {
             return false;
         }
@@ -1118,6 +1232,9 @@ public final class JSContextOptions {
         if (this.lazyTranslation != other.lazyTranslation) {
             return false;
         }
+        if (this.lazyParsing != other.lazyParsing) {
+            return false;
+        }
         if (this.stackTraceLimit != other.stackTraceLimit) {
             return false;
         }
@@ -1127,6 +1244,21 @@ public final class JSContextOptions {
         if (this.maxTypedArrayLength != other.maxTypedArrayLength) {
             return false;
         }
+        if (this.typedArrayParallelSortThreshold != other.typedArrayParallelSortThreshold) {
+            return false;
+        }
+        if (this.typedArraySortParallelism != other.typedArraySortParallelism) {
+            return false;
+        }
+        if (this.moduleParseParallelism != other.moduleParseParallelism) {
+            return false;
+        }
+        if (this.arrayAllocationSites != other.arrayAllocationSites) {
+            return false;
+        }
+        if (this.memoryAccounting != other.memoryAccounting) {
+            return false;
+        }
         if (this.maxApplyArgumentLength != other.maxApplyArgumentLength) {
             return false;
         }
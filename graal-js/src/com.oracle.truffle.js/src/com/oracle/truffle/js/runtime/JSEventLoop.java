@@ -0,0 +1,437 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.graalvm.collections.EconomicMap;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleContext;
+import com.oracle.truffle.js.runtime.objects.Undefined;
+
+/**
+ * Event loop of a realm that backs the {@code setTimeout}, {@code setInterval} and
+ * {@code setImmediate} global functions (enabled by the {@code js.timers} option).
+ *
+ * The event loop does not run by itself; it is driven by the embedder, either by calling
+ * {@link #run()}, which returns when there are no more pending tasks, or by calling
+ * {@link #runReadyTasks()} whenever {@link #getDelayToNextTask()} has elapsed, e.g. from a
+ * scheduler. {@link #run()} waits for timers by parking the current thread, so it can also be used
+ * from a virtual thread. All methods except {@link #execute(Runnable)} must be called from the
+ * thread that uses the realm. The event loop must not be run from one of its own tasks.
+ *
+ * Each iteration runs the expired timers (in the order of their deadlines) and then the
+ * immediates that were pending at the start of the iteration. Pending promise jobs are run after
+ * each task. An exception thrown by a callback is propagated to the caller of {@link #run()} or
+ * {@link #runReadyTasks()}; the tasks that have not run yet are kept for the next iteration.
+ *
+ * Polyglot embedders drive the event loop through the {@code EventLoop} global object (see
+ * {@link com.oracle.truffle.js.builtins.EventLoopBuiltins}), e.g.
+ * {@code context.getBindings("js").getMember("EventLoop").invokeMember("run")}. Child realms
+ * share the event loop of their top-level realm.
+ */
+public final class JSEventLoop implements Executor {
+
+    /** Maximum timer delay in milliseconds; larger (or invalid) delays are set to 1. */
+    public static final double TIMEOUT_MAX = Integer.MAX_VALUE;
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    /** Number of slots of the timer wheel (a power of 2). */
+    private static final int WHEEL_SIZE = 256;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private static final Comparator<Task> DEADLINE_ORDER = (a, b) -> {
+        int cmp = Long.compare(a.deadlineTick, b.deadlineTick);
+        return cmp != 0 ? cmp : Integer.compare(a.id, b.id);
+    };
+
+    private final JSRealm realm;
+    private final long originNanos;
+
+    /**
+     * Hashed timer wheel: each slot is a doubly linked list of the timers whose deadline tick maps
+     * to it, in insertion order.
+     */
+    private final Task[] wheel = new Task[WHEEL_SIZE];
+    private final Task[] wheelTails = new Task[WHEEL_SIZE];
+    /** Last tick up to which timers have been expired. */
+    private long currentTick;
+    private int timerCount;
+    /**
+     * Expired timers that have not run yet, in the order of their deadlines. Timers stay here if a
+     * previous timer callback threw, and run first in the next iteration.
+     */
+    private final ArrayDeque<Task> expiredTimers = new ArrayDeque<>();
+
+    private final ArrayDeque<Task> immediates = new ArrayDeque<>();
+    private final EconomicMap<Integer, Task> tasksById = EconomicMap.create();
+    private int nextId = 1;
+
+    private final ConcurrentLinkedQueue<Runnable> externalTasks = new ConcurrentLinkedQueue<>();
+    private volatile Thread waitingThread;
+    private boolean running;
+
+    private static final class Task {
+        final int id;
+        /** Whether this is an immediate task rather than a timer. */
+        final boolean immediate;
+        final Object callback;
+        final Object[] arguments;
+        /** Repeat interval in ticks, or 0. */
+        final long intervalTicks;
+
+        long deadlineTick;
+        Task prev;
+        Task next;
+        boolean scheduled;
+        boolean cancelled;
+
+        Task(int id, boolean immediate, Object callback, Object[] arguments, long intervalTicks) {
+            this.id = id;
+            this.immediate = immediate;
+            this.callback = callback;
+            this.arguments = arguments;
+            this.intervalTicks = intervalTicks;
+        }
+    }
+
+    public JSEventLoop(JSRealm realm) {
+        this.realm = realm;
+        this.originNanos = System.nanoTime();
+    }
+
+    private long nowTick() {
+        return (System.nanoTime() - originNanos) / TICK_NANOS;
+    }
+
+    private static long delayToTicks(double delay) {
+        // same clamping as in Node.js
+        return (delay >= 1 && delay <= TIMEOUT_MAX) ? (long) delay : 1;
+    }
+
+    /**
+     * Schedules a timer that calls the callback with the given arguments after {@code delay}
+     * milliseconds, and then every {@code delay} milliseconds if {@code repeat} is set.
+     *
+     * @return the id of the timer
+     */
+    @TruffleBoundary
+    public int setTimer(Object callback, double delay, Object[] arguments, boolean repeat) {
+        long ticks = delayToTicks(delay);
+        Task timer = new Task(newId(), false, callback, arguments, repeat ? ticks : 0);
+        schedule(timer, Math.max(nowTick(), currentTick) + ticks);
+        tasksById.put(timer.id, timer);
+        return timer.id;
+    }
+
+    /**
+     * Schedules a task that calls the callback with the given arguments in the next iteration of
+     * the event loop.
+     *
+     * @return the id of the task
+     */
+    @TruffleBoundary
+    public int setImmediate(Object callback, Object[] arguments) {
+        Task task = new Task(newId(), true, callback, arguments, 0);
+        immediates.add(task);
+        tasksById.put(task.id, task);
+        return task.id;
+    }
+
+    /**
+     * Cancels the timer with the given id. Unknown ids and ids of immediate tasks are ignored.
+     */
+    @TruffleBoundary
+    public void clearTimer(int id) {
+        clear(id, false);
+    }
+
+    /**
+     * Cancels the immediate task with the given id. Unknown ids and ids of timers are ignored.
+     */
+    @TruffleBoundary
+    public void clearImmediate(int id) {
+        clear(id, true);
+    }
+
+    private void clear(int id, boolean immediate) {
+        Task task = tasksById.get(id);
+        if (task != null && task.immediate == immediate) {
+            tasksById.removeKey(id);
+            task.cancelled = true;
+            if (task.scheduled) {
+                unlink(task);
+            }
+        }
+    }
+
+    /**
+     * Submits a task to be run by the event loop thread in the next iteration, with the realm's
+     * context entered. Can be called from any thread.
+     */
+    @Override
+    public void execute(Runnable task) {
+        externalTasks.add(task);
+        Thread waiting = waitingThread;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+    }
+
+    /**
+     * Returns {@code true} if there are pending timers or tasks.
+     */
+    public boolean hasPendingTasks() {
+        return timerCount != 0 || !expiredTimers.isEmpty() || !immediates.isEmpty() || !externalTasks.isEmpty();
+    }
+
+    /**
+     * Returns the number of nanoseconds until the next task is ready to run: 0 if a task is ready
+     * now, or -1 if there are no pending tasks.
+     */
+    @TruffleBoundary
+    public long getDelayToNextTask() {
+        if (!expiredTimers.isEmpty() || !immediates.isEmpty() || !externalTasks.isEmpty()) {
+            return 0;
+        } else if (timerCount == 0) {
+            return -1;
+        }
+        long delayNanos = (nextDeadlineTick() * TICK_NANOS) - (System.nanoTime() - originNanos);
+        return Math.max(delayNanos, 0);
+    }
+
+    /**
+     * Runs the event loop until there are no more pending tasks, waiting for timers to expire.
+     */
+    @TruffleBoundary
+    public void run() {
+        while (runReadyTasks()) {
+            long delay = getDelayToNextTask();
+            if (delay > 0) {
+                waitingThread = Thread.currentThread();
+                try {
+                    if (externalTasks.isEmpty()) {
+                        LockSupport.parkNanos(this, delay);
+                    }
+                } finally {
+                    waitingThread = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs one iteration of the event loop: all expired timers and the pending tasks, without
+     * waiting.
+     *
+     * @return {@code true} if there are more pending tasks
+     */
+    @TruffleBoundary
+    public boolean runReadyTasks() {
+        if (running) {
+            throw Errors.createTypeError("The event loop is already running");
+        }
+        TruffleContext truffleContext = realm.getTruffleContext();
+        Object prev = truffleContext.enter(null);
+        running = true;
+        try {
+            runExternalTasks();
+            runExpiredTimers();
+            runImmediates();
+        } finally {
+            running = false;
+            truffleContext.leave(null, prev);
+        }
+        return hasPendingTasks();
+    }
+
+    private void runExternalTasks() {
+        Runnable task;
+        while ((task = externalTasks.poll()) != null) {
+            task.run();
+            runJobs();
+        }
+    }
+
+    private void runExpiredTimers() {
+        collectExpiredTimers();
+        // timers are removed before they run, so that the remaining ones are kept if one throws
+        Task timer;
+        while ((timer = expiredTimers.poll()) != null) {
+            if (timer.cancelled) {
+                continue;
+            }
+            if (timer.intervalTicks == 0) {
+                tasksById.removeKey(timer.id);
+                runTask(timer);
+            } else {
+                try {
+                    runTask(timer);
+                } finally {
+                    if (!timer.cancelled) {
+                        schedule(timer, Math.max(nowTick(), currentTick) + timer.intervalTicks);
+                    }
+                }
+            }
+        }
+    }
+
+    private void collectExpiredTimers() {
+        if (timerCount == 0) {
+            return;
+        }
+        long now = nowTick();
+        if (now <= currentTick) {
+            return;
+        }
+        List<Task> expired = new ArrayList<>();
+        long lastTick = Math.min(now, currentTick + WHEEL_SIZE);
+        for (long tick = currentTick + 1; tick <= lastTick; tick++) {
+            Task timer = wheel[slot(tick)];
+            while (timer != null) {
+                Task next = timer.next;
+                if (timer.deadlineTick <= now) {
+                    unlink(timer);
+                    expired.add(timer);
+                }
+                timer = next;
+            }
+        }
+        currentTick = now;
+        expired.sort(DEADLINE_ORDER);
+        expiredTimers.addAll(expired);
+    }
+
+    private void runImmediates() {
+        // immediates scheduled by these tasks run in the next iteration
+        for (int count = immediates.size(); count > 0; count--) {
+            Task task = immediates.poll();
+            if (!task.cancelled) {
+                tasksById.removeKey(task.id);
+                runTask(task);
+            }
+        }
+    }
+
+    private void runTask(Task task) {
+        try {
+            JSRuntime.call(task.callback, Undefined.instance, task.arguments);
+        } finally {
+            runJobs();
+        }
+    }
+
+    private void runJobs() {
+        realm.getAgent().processAllPromises(true);
+    }
+
+    private int newId() {
+        int id = nextId;
+        nextId = id == Integer.MAX_VALUE ? 1 : id + 1;
+        return id;
+    }
+
+    private static int slot(long tick) {
+        return (int) (tick & WHEEL_MASK);
+    }
+
+    private void schedule(Task timer, long deadlineTick) {
+        assert !timer.scheduled;
+        int slot = slot(deadlineTick);
+        Task tail = wheelTails[slot];
+        timer.deadlineTick = deadlineTick;
+        timer.prev = tail;
+        timer.next = null;
+        if (tail == null) {
+            wheel[slot] = timer;
+        } else {
+            tail.next = timer;
+        }
+        wheelTails[slot] = timer;
+        timer.scheduled = true;
+        timerCount++;
+    }
+
+    private void unlink(Task timer) {
+        assert timer.scheduled;
+        int slot = slot(timer.deadlineTick);
+        if (timer.prev == null) {
+            wheel[slot] = timer.next;
+        } else {
+            timer.prev.next = timer.next;
+        }
+        if (timer.next == null) {
+            wheelTails[slot] = timer.prev;
+        } else {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.scheduled = false;
+        timerCount--;
+    }
+
+    private long nextDeadlineTick() {
+        // the first slot in the next round of the wheel that has a timer due in this round
+        for (long tick = currentTick + 1; tick <= currentTick + WHEEL_SIZE; tick++) {
+            for (Task timer = wheel[slot(tick)]; timer != null; timer = timer.next) {
+                if (timer.deadlineTick == tick) {
+                    return tick;
+                }
+            }
+        }
+        long min = Long.MAX_VALUE;
+        for (Task head : wheel) {
+            for (Task timer = head; timer != null; timer = timer.next) {
+                min = Math.min(min, timer.deadlineTick);
+            }
+        }
+        return min;
+    }
+}
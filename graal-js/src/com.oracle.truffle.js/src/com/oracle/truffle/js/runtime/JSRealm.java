@@ -72,6 +72,7 @@ import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.nodes.LanguageInfo;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.DynamicObjectLibrary;
+import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.js.builtins.ArrayIteratorPrototypeBuiltins;
@@ -79,6 +80,7 @@ import com.oracle.truffle.js.builtins.AtomicsBuiltins;
 import com.oracle.truffle.js.builtins.ConsoleBuiltins;
 import com.oracle.truffle.js.builtins.ConstructorBuiltins;
 import com.oracle.truffle.js.builtins.DebugBuiltins;
+import com.oracle.truffle.js.builtins.EventLoopBuiltins;
 import com.oracle.truffle.js.builtins.GlobalBuiltins;
 import com.oracle.truffle.js.builtins.JSBuiltinsContainer;
 import com.oracle.truffle.js.builtins.JavaBuiltins;
@@ -92,6 +94,7 @@ import com.oracle.truffle.js.builtins.RegExpBuiltins;
 import com.oracle.truffle.js.builtins.RegExpStringIteratorPrototypeBuiltins;
 import com.oracle.truffle.js.builtins.SetIteratorPrototypeBuiltins;
 import com.oracle.truffle.js.builtins.StringIteratorPrototypeBuiltins;
+import com.oracle.truffle.js.builtins.TimerBuiltins;
 import com.oracle.truffle.js.builtins.commonjs.CommonJSRequireBuiltin;
 import com.oracle.truffle.js.builtins.commonjs.GlobalCommonJSRequireBuiltins;
 import com.oracle.truffle.js.builtins.commonjs.NpmCompatibleESModuleLoader;
@@ -161,9 +164,11 @@ import com.oracle.truffle.js.runtime.objects.JSDynamicObject;
 import com.oracle.truffle.js.runtime.objects.JSModuleLoader;
 import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
+import com.oracle.truffle.js.runtime.objects.JSProperty;
 import com.oracle.truffle.js.runtime.objects.PropertyDescriptor;
 import com.oracle.truffle.js.runtime.objects.PropertyProxy;
 import com.oracle.truffle.js.runtime.objects.Undefined;
+import com.oracle.truffle.js.runtime.util.MemoryAccounting;
 import com.oracle.truffle.js.runtime.util.PrintWriterWrapper;
 import com.oracle.truffle.js.runtime.util.SimpleArrayList;
 import com.oracle.truffle.js.runtime.util.TRegexUtil;
@@ -183,6 +188,7 @@ public class JSRealm {
     public static final String JAVA_CLASS_NAME = "Java";
     public static final String JAVA_CLASS_NAME_NASHORN_COMPAT = "JavaNashornCompat";
     public static final String PERFORMANCE_CLASS_NAME = "performance";
+    public static final String EVENT_LOOP_CLASS_NAME = "EventLoop";
     public static final String DEBUG_CLASS_NAME = "Debug";
     public static final String CONSOLE_CLASS_NAME = "Console";
 
@@ -209,24 +215,27 @@ public class JSRealm {
     private final DynamicObject stringPrototype;
     private final DynamicObject regExpConstructor;
     private final DynamicObject regExpPrototype;
-    private final DynamicObject collatorConstructor;
-    private final DynamicObject collatorPrototype;
-    private final DynamicObject numberFormatConstructor;
-    private final DynamicObject numberFormatPrototype;
-    private final DynamicObject pluralRulesConstructor;
-    private final DynamicObject pluralRulesPrototype;
-    private final DynamicObject listFormatConstructor;
-    private final DynamicObject listFormatPrototype;
-    private final DynamicObject dateTimeFormatConstructor;
-    private final DynamicObject dateTimeFormatPrototype;
-    private final DynamicObject relativeTimeFormatConstructor;
-    private final DynamicObject relativeTimeFormatPrototype;
-    private final DynamicObject segmenterConstructor;
-    private final DynamicObject segmenterPrototype;
-    private final DynamicObject displayNamesConstructor;
-    private final DynamicObject displayNamesPrototype;
-    private final DynamicObject localeConstructor;
-    private final DynamicObject localePrototype;
+    /** Intl constructors and prototypes, created on first use. */
+    @CompilationFinal private boolean intlIntrinsicsInitialized;
+    private boolean intlIntrinsicsInitializing;
+    @CompilationFinal private DynamicObject collatorConstructor;
+    @CompilationFinal private DynamicObject collatorPrototype;
+    @CompilationFinal private DynamicObject numberFormatConstructor;
+    @CompilationFinal private DynamicObject numberFormatPrototype;
+    @CompilationFinal private DynamicObject pluralRulesConstructor;
+    @CompilationFinal private DynamicObject pluralRulesPrototype;
+    @CompilationFinal private DynamicObject listFormatConstructor;
+    @CompilationFinal private DynamicObject listFormatPrototype;
+    @CompilationFinal private DynamicObject dateTimeFormatConstructor;
+    @CompilationFinal private DynamicObject dateTimeFormatPrototype;
+    @CompilationFinal private DynamicObject relativeTimeFormatConstructor;
+    @CompilationFinal private DynamicObject relativeTimeFormatPrototype;
+    @CompilationFinal private DynamicObject segmenterConstructor;
+    @CompilationFinal private DynamicObject segmenterPrototype;
+    @CompilationFinal private DynamicObject displayNamesConstructor;
+    @CompilationFinal private DynamicObject displayNamesPrototype;
+    @CompilationFinal private DynamicObject localeConstructor;
+    @CompilationFinal private DynamicObject localePrototype;
     private final DynamicObject dateConstructor;
     private final DynamicObject datePrototype;
     @CompilationFinal(dimensions = 1) private final DynamicObject[] errorConstructors;
@@ -284,7 +293,7 @@ public class JSRealm {
     private final DynamicObject arrayIteratorPrototype;
     private final DynamicObject setIteratorPrototype;
     private final DynamicObject mapIteratorPrototype;
-    private final DynamicObject segmentIteratorPrototype;
+    @CompilationFinal private DynamicObject segmentIteratorPrototype;
     private final DynamicObject stringIteratorPrototype;
     private final DynamicObject regExpStringIteratorPrototype;
     private final DynamicObject enumerateIteratorPrototype;
@@ -395,6 +404,16 @@ public class JSRealm {
      */
     @CompilationFinal private JSAgent agent;
 
+    /**
+     * Event loop backing the timer functions (only with the {@code js.timers} option).
+     */
+    private JSEventLoop eventLoop;
+
+    /**
+     * Memory accounting of the context (only with the {@code js.memory-accounting} option).
+     */
+    private MemoryAccounting memoryAccounting;
+
     /**
      * List of realms (for V8 Realm built-in). The list is available in top-level realm only (not in
      * child realms).
@@ -559,35 +578,6 @@ public class JSRealm {
         this.stringIteratorPrototype = es6 ? createStringIteratorPrototype() : null;
         this.regExpStringIteratorPrototype = context.getContextOptions().getEcmaScriptVersion() >= JSConfig.ECMAScript2019 ? createRegExpStringIteratorPrototype() : null;
 
-        ctor = JSCollator.createConstructor(this);
-        this.collatorConstructor = ctor.getFunctionObject();
-        this.collatorPrototype = ctor.getPrototype();
-        ctor = JSNumberFormat.createConstructor(this);
-        this.numberFormatConstructor = ctor.getFunctionObject();
-        this.numberFormatPrototype = ctor.getPrototype();
-        ctor = JSDateTimeFormat.createConstructor(this);
-        this.dateTimeFormatConstructor = ctor.getFunctionObject();
-        this.dateTimeFormatPrototype = ctor.getPrototype();
-        ctor = JSPluralRules.createConstructor(this);
-        this.pluralRulesConstructor = ctor.getFunctionObject();
-        this.pluralRulesPrototype = ctor.getPrototype();
-        ctor = JSListFormat.createConstructor(this);
-        this.listFormatConstructor = ctor.getFunctionObject();
-        this.listFormatPrototype = ctor.getPrototype();
-        ctor = JSRelativeTimeFormat.createConstructor(this);
-        this.relativeTimeFormatConstructor = ctor.getFunctionObject();
-        this.relativeTimeFormatPrototype = ctor.getPrototype();
-        ctor = JSSegmenter.createConstructor(this);
-        this.segmenterConstructor = ctor.getFunctionObject();
-        this.segmenterPrototype = ctor.getPrototype();
-        this.segmentIteratorPrototype = JSSegmenter.createSegmentIteratorPrototype(context, this);
-        ctor = JSDisplayNames.createConstructor(this);
-        this.displayNamesConstructor = ctor.getFunctionObject();
-        this.displayNamesPrototype = ctor.getPrototype();
-        ctor = JSLocale.createConstructor(this);
-        this.localeConstructor = ctor.getFunctionObject();
-        this.localePrototype = ctor.getPrototype();
-
         if (es6) {
             ctor = JSFunction.createGeneratorFunctionConstructor(this);
             this.generatorFunctionConstructor = ctor.getFunctionObject();
@@ -676,6 +666,10 @@ public class JSRealm {
         this.errorWriter = new PrintWriterWrapper(errorStream, true);
         this.consoleUtil = new JSConsoleUtil();
 
+        if (context.getContextOptions().isMemoryAccounting() && CREATING_CHILD_REALM.get() != Boolean.TRUE) {
+            this.memoryAccounting = new MemoryAccounting();
+        }
+
         if (context.getContextOptions().isCommonJSRequire()) {
             this.commonJSRequireCache = new HashMap<>();
         } else {
@@ -748,6 +742,87 @@ public class JSRealm {
         }
     }
 
+    private void ensureIntlIntrinsicsInitialized() {
+        if (CompilerDirectives.injectBranchProbability(CompilerDirectives.SLOWPATH_PROBABILITY, !intlIntrinsicsInitialized)) {
+            if (CompilerDirectives.isPartialEvaluationConstant(this)) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+            }
+            initializeIntlIntrinsics();
+        }
+    }
+
+    @TruffleBoundary
+    private void initializeIntlIntrinsics() {
+        if (intlIntrinsicsInitialized || intlIntrinsicsInitializing) {
+            // lookups from within the initialization see the intrinsics created so far
+            return;
+        }
+        intlIntrinsicsInitializing = true;
+        try {
+            createIntlIntrinsics();
+            intlIntrinsicsInitialized = true;
+        } finally {
+            intlIntrinsicsInitializing = false;
+            if (!intlIntrinsicsInitialized) {
+                // do not leave a partially initialized group behind; retry on next use
+                clearIntlIntrinsics();
+            }
+        }
+    }
+
+    private void createIntlIntrinsics() {
+        JSConstructor ctor = JSCollator.createConstructor(this);
+        this.collatorConstructor = ctor.getFunctionObject();
+        this.collatorPrototype = ctor.getPrototype();
+        ctor = JSNumberFormat.createConstructor(this);
+        this.numberFormatConstructor = ctor.getFunctionObject();
+        this.numberFormatPrototype = ctor.getPrototype();
+        ctor = JSDateTimeFormat.createConstructor(this);
+        this.dateTimeFormatConstructor = ctor.getFunctionObject();
+        this.dateTimeFormatPrototype = ctor.getPrototype();
+        ctor = JSPluralRules.createConstructor(this);
+        this.pluralRulesConstructor = ctor.getFunctionObject();
+        this.pluralRulesPrototype = ctor.getPrototype();
+        ctor = JSListFormat.createConstructor(this);
+        this.listFormatConstructor = ctor.getFunctionObject();
+        this.listFormatPrototype = ctor.getPrototype();
+        ctor = JSRelativeTimeFormat.createConstructor(this);
+        this.relativeTimeFormatConstructor = ctor.getFunctionObject();
+        this.relativeTimeFormatPrototype = ctor.getPrototype();
+        ctor = JSSegmenter.createConstructor(this);
+        this.segmenterConstructor = ctor.getFunctionObject();
+        this.segmenterPrototype = ctor.getPrototype();
+        this.segmentIteratorPrototype = JSSegmenter.createSegmentIteratorPrototype(context, this);
+        ctor = JSDisplayNames.createConstructor(this);
+        this.displayNamesConstructor = ctor.getFunctionObject();
+        this.displayNamesPrototype = ctor.getPrototype();
+        ctor = JSLocale.createConstructor(this);
+        this.localeConstructor = ctor.getFunctionObject();
+        this.localePrototype = ctor.getPrototype();
+    }
+
+    private void clearIntlIntrinsics() {
+        this.collatorConstructor = null;
+        this.collatorPrototype = null;
+        this.numberFormatConstructor = null;
+        this.numberFormatPrototype = null;
+        this.dateTimeFormatConstructor = null;
+        this.dateTimeFormatPrototype = null;
+        this.pluralRulesConstructor = null;
+        this.pluralRulesPrototype = null;
+        this.listFormatConstructor = null;
+        this.listFormatPrototype = null;
+        this.relativeTimeFormatConstructor = null;
+        this.relativeTimeFormatPrototype = null;
+        this.segmenterConstructor = null;
+        this.segmenterPrototype = null;
+        this.segmentIteratorPrototype = null;
+        this.displayNamesConstructor = null;
+        this.displayNamesPrototype = null;
+        this.localeConstructor = null;
+        this.localePrototype = null;
+    }
+
     private void initializeTypedArrayConstructors() {
         JSConstructor taConst = JSArrayBufferView.createTypedArrayConstructor(this);
         typedArrayConstructor = taConst.getFunctionObject();
@@ -875,50 +950,62 @@ public class JSRealm {
     }
 
     public final DynamicObject getCollatorConstructor() {
+        ensureIntlIntrinsicsInitialized();
         return collatorConstructor;
     }
 
     public final DynamicObject getCollatorPrototype() {
+        ensureIntlIntrinsicsInitialized();
         return collatorPrototype;
     }
 
     public final DynamicObject getNumberFormatConstructor() {
+        ensureIntlIntrinsicsInitialized();
         return numberFormatConstructor;
     }
 
     public final DynamicObject getNumberFormatPrototype() {
+        ensureIntlIntrinsicsInitialized();
         return numberFormatPrototype;
     }
 
     public final DynamicObject getPluralRulesConstructor() {
+        ensureIntlIntrinsicsInitialized();
         return pluralRulesConstructor;
     }
 
     public final DynamicObject getPluralRulesPrototype() {
+        ensureIntlIntrinsicsInitialized();
         return pluralRulesPrototype;
     }
 
     public final DynamicObject getListFormatConstructor() {
+        ensureIntlIntrinsicsInitialized();
         return listFormatConstructor;
     }
 
     public final DynamicObject getListFormatPrototype() {
+        ensureIntlIntrinsicsInitialized();
         return listFormatPrototype;
     }
 
     public final DynamicObject getRelativeTimeFormatConstructor() {
+        ensureIntlIntrinsicsInitialized();
         return relativeTimeFormatConstructor;
     }
 
     public final DynamicObject getRelativeTimeFormatPrototype() {
+        ensureIntlIntrinsicsInitialized();
         return relativeTimeFormatPrototype;
     }
 
     public final DynamicObject getDateTimeFormatConstructor() {
+        ensureIntlIntrinsicsInitialized();
         return dateTimeFormatConstructor;
     }
 
     public final DynamicObject getDateTimeFormatPrototype() {
+        ensureIntlIntrinsicsInitialized();
         return dateTimeFormatPrototype;
     }
 
@@ -931,26 +1018,32 @@ public class JSRealm {
     }
 
     public final DynamicObject getSegmenterConstructor() {
+        ensureIntlIntrinsicsInitialized();
         return segmenterConstructor;
     }
 
     public final DynamicObject getSegmenterPrototype() {
+        ensureIntlIntrinsicsInitialized();
         return segmenterPrototype;
     }
 
     public final DynamicObject getDisplayNamesConstructor() {
+        ensureIntlIntrinsicsInitialized();
         return displayNamesConstructor;
     }
 
     public final DynamicObject getDisplayNamesPrototype() {
+        ensureIntlIntrinsicsInitialized();
         return displayNamesPrototype;
     }
 
     public final DynamicObject getLocaleConstructor() {
+        ensureIntlIntrinsicsInitialized();
         return localeConstructor;
     }
 
     public final DynamicObject getLocalePrototype() {
+        ensureIntlIntrinsicsInitialized();
         return localePrototype;
     }
 
@@ -1219,6 +1312,7 @@ public class JSRealm {
     }
 
     public DynamicObject getSegmentIteratorPrototype() {
+        ensureIntlIntrinsicsInitialized();
         return segmentIteratorPrototype;
     }
 
@@ -1315,8 +1409,9 @@ public class JSRealm {
             JSObjectUtil.putDataProperty(context, getScriptEngineImportScope(), builtin,
                             lookupFunction(GlobalBuiltins.GLOBAL_NASHORN_EXTENSIONS, builtin), JSAttributes.notConfigurableNotEnumerableNotWritable());
         }
-        if (context.getContextOptions().isPolyglotBuiltin() && (getEnv().isPolyglotEvalAllowed() || getEnv().isPolyglotBindingsAccessAllowed())) {
-            setupPolyglot();
+        if (getEnv() != null) {
+            // otherwise added by adoptEnv
+            addPolyglotGlobals();
         }
         if (context.isOptionDebugBuiltin()) {
             putGlobalProperty(context.getContextOptions().getDebugPropertyName(), createDebugObject());
@@ -1468,6 +1563,19 @@ public class JSRealm {
         }
     }
 
+    private void addTimerGlobals() {
+        if (context.getContextOptions().isTimers()) {
+            if (CREATING_CHILD_REALM.get() != Boolean.TRUE) {
+                // child realms share the event loop of the top-level realm, see createChildRealm
+                eventLoop = new JSEventLoop(this);
+            }
+            JSObjectUtil.putFunctionsFromContainer(this, getGlobalObject(), TimerBuiltins.BUILTINS);
+            DynamicObject eventLoopObject = JSOrdinary.createInit(this);
+            JSObjectUtil.putFunctionsFromContainer(this, eventLoopObject, EventLoopBuiltins.BUILTINS);
+            putGlobalProperty(EVENT_LOOP_CLASS_NAME, eventLoopObject);
+        }
+    }
+
     /**
      * Add optional global properties. Used by initializeContext and patchContext.
      */
@@ -1482,6 +1590,7 @@ public class JSRealm {
         addConsoleGlobals();
         addPrintGlobals();
         addPerformanceGlobal();
+        addTimerGlobals();
 
         if (isJavaInteropEnabled()) {
             setupJavaInterop();
@@ -1506,7 +1615,11 @@ public class JSRealm {
 
     private void addIntlGlobal() {
         if (context.isOptionIntl402()) {
-            putGlobalProperty(JSIntl.CLASS_NAME, preinitIntlObject != null ? preinitIntlObject : createIntlObject());
+            if (preinitIntlObject != null) {
+                putGlobalProperty(JSIntl.CLASS_NAME, preinitIntlObject);
+            } else {
+                JSObjectUtil.putProxyProperty(getGlobalObject(), JSIntl.CLASS_NAME, new LazyGlobalPropertyProxy(JSIntl.CLASS_NAME), JSAttributes.getDefaultNotEnumerable());
+            }
         }
     }
 
@@ -1633,6 +1746,12 @@ public class JSRealm {
         }
     }
 
+    private void addPolyglotGlobals() {
+        if (context.getContextOptions().isPolyglotBuiltin() && (getEnv().isPolyglotEvalAllowed() || getEnv().isPolyglotBindingsAccessAllowed())) {
+            setupPolyglot();
+        }
+    }
+
     private void setupPolyglot() {
         DynamicObject polyglotObject = JSObjectUtil.createOrdinaryPrototypeObject(this);
         JSObjectUtil.putFunctionsFromContainer(this, polyglotObject, PolyglotBuiltins.BUILTINS);
@@ -1916,6 +2035,23 @@ public class JSRealm {
         return truffleLanguageEnv;
     }
 
+    /**
+     * Makes this pooled realm, which has been set up without an env, the realm of the context with
+     * the given env. Globals that depend on the env are added here ({@code Polyglot}) and by
+     * {@link #initialize()} and {@code JavaScriptLanguage.createContext} (arguments, {@code $ARG}
+     * and {@code $ENV}, {@code Java} and {@code Packages}, the output streams), as for a new realm.
+     * The time zone is computed lazily from the env.
+     */
+    void adoptEnv(TruffleLanguage.Env newEnv) {
+        CompilerAsserts.neverPartOfCompilation();
+        assert truffleLanguageEnv == null && !newEnv.isPreInitialization();
+        truffleLanguageEnv = newEnv;
+        if (memoryAccounting != null) {
+            memoryAccounting = new MemoryAccounting();
+        }
+        addPolyglotGlobals();
+    }
+
     public boolean patchContext(TruffleLanguage.Env newEnv) {
         CompilerAsserts.neverPartOfCompilation();
         Objects.requireNonNull(newEnv, "New env cannot be null.");
@@ -1990,6 +2126,8 @@ public class JSRealm {
                 JSRealm childRealm = JavaScriptLanguage.getCurrentJSRealm();
                 childRealm.agent = this.agent;
                 childRealm.parentRealm = this;
+                childRealm.eventLoop = this.eventLoop;
+                childRealm.memoryAccounting = this.memoryAccounting;
 
                 if (getContext().getContextOptions().isV8RealmBuiltin()) {
                     JSRealm topLevelRealm = this;
@@ -2200,6 +2338,24 @@ public class JSRealm {
         return agent;
     }
 
+    /**
+     * Returns the event loop that runs the callbacks of {@code setTimeout}, {@code setInterval}
+     * and {@code setImmediate}, or {@code null} if the {@code js.timers} option is not enabled.
+     * Child realms return the event loop of their top-level realm.
+     */
+    public JSEventLoop getEventLoop() {
+        return eventLoop;
+    }
+
+    /**
+     * Returns the memory accounting of this realm, or {@code null} if the
+     * {@code js.memory-accounting} option is not enabled. Child realms return the memory accounting
+     * of their top-level realm.
+     */
+    public MemoryAccounting getMemoryAccounting() {
+        return memoryAccounting;
+    }
+
     public void setAgent(JSAgent newAgent) {
         assert newAgent != null : "Cannot set a null agent!";
         CompilerAsserts.neverPartOfCompilation("Assigning agent to context in compiled code");
@@ -2291,6 +2447,47 @@ public class JSRealm {
         v8RealmCurrent = realm;
     }
 
+    /**
+     * Global property whose value is only created when the property is first read. The first read
+     * or write replaces the proxy by an ordinary data property with the same attributes.
+     */
+    private final class LazyGlobalPropertyProxy implements PropertyProxy {
+        private final Object key;
+
+        LazyGlobalPropertyProxy(Object key) {
+            this.key = key;
+        }
+
+        @TruffleBoundary
+        @Override
+        public Object get(DynamicObject store) {
+            Object value = createGlobalPropertyValue(key);
+            materialize(store, value);
+            return value;
+        }
+
+        @TruffleBoundary
+        @Override
+        public boolean set(DynamicObject store, Object value) {
+            materialize(store, value);
+            return true;
+        }
+
+        private void materialize(DynamicObject store, Object value) {
+            Property property = store.getShape().getProperty(key);
+            if (property != null && JSProperty.isProxy(property) && JSProperty.getConstantProxy(property) == this) {
+                DynamicObjectLibrary.getUncached().putWithFlags(store, key, value, property.getFlags() & ~JSProperty.PROXY);
+            }
+        }
+    }
+
+    private Object createGlobalPropertyValue(Object key) {
+        if (JSIntl.CLASS_NAME.equals(key)) {
+            return createIntlObject();
+        }
+        throw Errors.shouldNotReachHere(String.valueOf(key));
+    }
+
     private static final String REALM_SHARED_NAME = "shared";
     private static final PropertyProxy REALM_SHARED_PROXY = new RealmSharedPropertyProxy();
 
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime;
+
+import java.util.Arrays;
+
+import com.oracle.truffle.api.TruffleContext;
+
+/**
+ * FIFO queue of pending promise jobs (ECMA 8.4 "PromiseJobs").
+ *
+ * A job is either a function to be called without arguments or a {@code PromiseReactionRecord}
+ * with its argument. Jobs are stored inline in a circular array together with the realm they were
+ * enqueued in, so that enqueuing a job does not allocate.
+ */
+public final class PromiseJobsQueue {
+
+    private static final int ENTRY_SIZE = 3;
+    private static final int REALM = 0;
+    private static final int JOB = 1;
+    private static final int ARGUMENT = 2;
+
+    private Object[] entries;
+    /** Index of the first slot of the oldest job. */
+    private int head;
+    /** Number of pending jobs. */
+    private int size;
+
+    public PromiseJobsQueue() {
+        this.entries = new Object[4 * ENTRY_SIZE];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(JSRealm realm, Object job, Object argument) {
+        if (size * ENTRY_SIZE == entries.length) {
+            grow();
+        }
+        int tail = slot(size * ENTRY_SIZE);
+        entries[tail + REALM] = realm;
+        entries[tail + JOB] = job;
+        entries[tail + ARGUMENT] = argument;
+        size++;
+    }
+
+    /**
+     * Returns {@code true} if the oldest job has to be run in the given context.
+     */
+    public boolean hasJobFor(TruffleContext truffleContext) {
+        return size != 0 && getRealm().getTruffleContext() == truffleContext;
+    }
+
+    public JSRealm getRealm() {
+        assert size != 0;
+        return (JSRealm) entries[head + REALM];
+    }
+
+    public Object getJob() {
+        assert size != 0;
+        return entries[head + JOB];
+    }
+
+    public Object getArgument() {
+        assert size != 0;
+        return entries[head + ARGUMENT];
+    }
+
+    /**
+     * Removes the oldest job.
+     */
+    public void remove() {
+        assert size != 0;
+        entries[head + REALM] = null;
+        entries[head + JOB] = null;
+        entries[head + ARGUMENT] = null;
+        head = slot(ENTRY_SIZE);
+        size--;
+    }
+
+    public void clear() {
+        Arrays.fill(entries, null);
+        head = 0;
+        size = 0;
+    }
+
+    private int slot(int offset) {
+        int index = head + offset;
+        return index < entries.length ? index : index - entries.length;
+    }
+
+    private void grow() {
+        Object[] newEntries = new Object[entries.length * 2];
+        int firstPart = entries.length - head;
+        System.arraycopy(entries, head, newEntries, 0, firstPart);
+        System.arraycopy(entries, 0, newEntries, firstPart, head);
+        entries = newEntries;
+        head = 0;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2020, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -43,6 +43,7 @@ package com.oracle.truffle.js.runtime.array;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.js.runtime.Boundaries;
 
 abstract class ByteBufferAccess {
@@ -89,6 +90,199 @@ abstract class ByteBufferAccess {
 
     public abstract void putInt64(ByteBuffer buffer, int index, long value);
 
+    /*
+     * Atomic accesses of shared memory (in native byte order). The default implementations
+     * serialize the accesses with a lock; subclasses that can access the memory atomically
+     * override them with lock-free versions.
+     *
+     * The lock is one of a fixed set of stripes, selected by the 8-byte granule of the index. The
+     * ByteBuffer instances of different agents may wrap the same shared memory, so the lock cannot
+     * be the buffer itself; but they all start at the same address, and an atomic access never
+     * spans more than one 8-byte granule, so accesses to overlapping locations use the same lock
+     * while unrelated locations rarely contend.
+     */
+
+    private static final Object[] ATOMIC_LOCKS = createAtomicLocks(64);
+
+    private static Object[] createAtomicLocks(int count) {
+        assert Integer.bitCount(count) == 1;
+        Object[] locks = new Object[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    private static Object atomicLock(int index) {
+        return ATOMIC_LOCKS[(index >>> 3) & (ATOMIC_LOCKS.length - 1)];
+    }
+
+    @TruffleBoundary
+    public int getInt32Volatile(ByteBuffer buffer, int index) {
+        synchronized (atomicLock(index)) {
+            return getInt32(buffer, index);
+        }
+    }
+
+    @TruffleBoundary
+    public void putInt32Volatile(ByteBuffer buffer, int index, int value) {
+        synchronized (atomicLock(index)) {
+            putInt32(buffer, index, value);
+        }
+    }
+
+    @TruffleBoundary
+    public long getInt64Volatile(ByteBuffer buffer, int index) {
+        synchronized (atomicLock(index)) {
+            return getInt64(buffer, index);
+        }
+    }
+
+    @TruffleBoundary
+    public void putInt64Volatile(ByteBuffer buffer, int index, long value) {
+        synchronized (atomicLock(index)) {
+            putInt64(buffer, index, value);
+        }
+    }
+
+    /**
+     * Atomically replaces the 32-bit value at the index if it is equal to {@code expected}.
+     *
+     * @return the previous value
+     */
+    @TruffleBoundary
+    public int compareExchangeInt32(ByteBuffer buffer, int index, int expected, int replacement) {
+        synchronized (atomicLock(index)) {
+            int read = getInt32(buffer, index);
+            if (read == expected) {
+                putInt32(buffer, index, replacement);
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Atomically replaces the 64-bit value at the index if it is equal to {@code expected}.
+     *
+     * @return the previous value
+     */
+    @TruffleBoundary
+    public long compareExchangeInt64(ByteBuffer buffer, int index, long expected, long replacement) {
+        synchronized (atomicLock(index)) {
+            long read = getInt64(buffer, index);
+            if (read == expected) {
+                putInt64(buffer, index, replacement);
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Returns the distance of the index from the preceding 4-byte aligned memory address, or -1
+     * if it is unknown. Sub-word atomic accesses are done by updating the enclosing aligned
+     * 32-bit word, or with the lock if there is none.
+     */
+    @SuppressWarnings("unused")
+    protected int int32AlignmentOffset(ByteBuffer buffer, int index) {
+        return -1;
+    }
+
+    /**
+     * Atomically replaces the byte at the index if it is equal to the low byte of
+     * {@code expected}.
+     *
+     * @return the previous value, sign-extended
+     */
+    public final int compareExchangeInt8(ByteBuffer buffer, int index, int expected, int replacement) {
+        int wordIndex = enclosingInt32Index(buffer, index, Byte.BYTES);
+        if (wordIndex < 0) {
+            return compareExchangeInt8Locked(buffer, index, expected, replacement);
+        }
+        int shift = subWordShift(index - wordIndex, Byte.BYTES);
+        for (;;) {
+            int word = getInt32Volatile(buffer, wordIndex);
+            int read = (byte) (word >> shift);
+            if (read != (byte) expected) {
+                return read;
+            }
+            int newWord = (word & ~(0xff << shift)) | ((replacement & 0xff) << shift);
+            if (compareExchangeInt32(buffer, wordIndex, word, newWord) == word) {
+                return read;
+            }
+        }
+    }
+
+    /**
+     * Atomically replaces the 16-bit value at the index if it is equal to the low 16 bits of
+     * {@code expected}.
+     *
+     * @return the previous value, sign-extended
+     */
+    public final int compareExchangeInt16(ByteBuffer buffer, int index, int expected, int replacement) {
+        int wordIndex = enclosingInt32Index(buffer, index, Short.BYTES);
+        if (wordIndex < 0) {
+            return compareExchangeInt16Locked(buffer, index, expected, replacement);
+        }
+        int shift = subWordShift(index - wordIndex, Short.BYTES);
+        for (;;) {
+            int word = getInt32Volatile(buffer, wordIndex);
+            int read = (short) (word >> shift);
+            if (read != (short) expected) {
+                return read;
+            }
+            int newWord = (word & ~(0xffff << shift)) | ((replacement & 0xffff) << shift);
+            if (compareExchangeInt32(buffer, wordIndex, word, newWord) == word) {
+                return read;
+            }
+        }
+    }
+
+    @TruffleBoundary
+    private int compareExchangeInt8Locked(ByteBuffer buffer, int index, int expected, int replacement) {
+        synchronized (atomicLock(index)) {
+            int read = getInt8(buffer, index);
+            if (read == (byte) expected) {
+                putInt8(buffer, index, replacement);
+            }
+            return read;
+        }
+    }
+
+    @TruffleBoundary
+    private int compareExchangeInt16Locked(ByteBuffer buffer, int index, int expected, int replacement) {
+        synchronized (atomicLock(index)) {
+            int read = getInt16(buffer, index);
+            if (read == (short) expected) {
+                putInt16(buffer, index, replacement);
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Index of the aligned 32-bit word that contains the value of the given size at the index,
+     * or -1 if there is no such word within the buffer.
+     */
+    private int enclosingInt32Index(ByteBuffer buffer, int index, int size) {
+        int alignmentOffset = int32AlignmentOffset(buffer, index);
+        if (alignmentOffset < 0 || alignmentOffset + size > Integer.BYTES) {
+            return -1;
+        }
+        int wordIndex = index - alignmentOffset;
+        if (wordIndex < 0 || wordIndex > buffer.limit() - Integer.BYTES) {
+            return -1;
+        }
+        return wordIndex;
+    }
+
+    private static int subWordShift(int offsetInWord, int size) {
+        if (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN) {
+            return offsetInWord * Byte.SIZE;
+        } else {
+            return (Integer.BYTES - size - offsetInWord) * Byte.SIZE;
+        }
+    }
+
     static final ByteBufferAccess littleEndian() {
         return ByteBufferSupport.littleEndian();
     }
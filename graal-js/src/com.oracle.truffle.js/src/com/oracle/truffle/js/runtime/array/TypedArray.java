@@ -46,7 +46,11 @@ import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArra
 import static com.oracle.truffle.js.runtime.builtins.JSArrayBufferView.typedArrayGetOffset;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.BigInt;
 import com.oracle.truffle.js.runtime.Errors;
@@ -227,6 +231,37 @@ public abstract class TypedArray extends ScriptArray {
         return offset;
     }
 
+    /**
+     * Sorts the elements in place in ascending numeric order, i.e., the default order of
+     * {@code %TypedArray%.prototype.sort}. The elements are sorted as a primitive array, in
+     * parallel on the given pool unless it is null. Returns false (without modifying the array) if
+     * this type of TypedArray cannot be sorted this way.
+     */
+    @SuppressWarnings("unused")
+    public boolean sortDefault(DynamicObject object, ForkJoinPool pool) {
+        return false;
+    }
+
+    protected static void sort(int[] array, ForkJoinPool pool) {
+        if (pool == null) {
+            Arrays.sort(array);
+        } else if (pool == ForkJoinPool.commonPool()) {
+            Arrays.parallelSort(array);
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> Arrays.parallelSort(array)));
+        }
+    }
+
+    protected static void sort(double[] array, ForkJoinPool pool) {
+        if (pool == null) {
+            Arrays.sort(array);
+        } else if (pool == ForkJoinPool.commonPool()) {
+            Arrays.parallelSort(array);
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> Arrays.parallelSort(array)));
+        }
+    }
+
     public abstract Object getBufferElement(DynamicObject buffer, int index, boolean littleEndian);
 
     public abstract void setBufferElement(DynamicObject buffer, int index, boolean littleEndian, Object value);
@@ -271,10 +306,41 @@ public abstract class TypedArray extends ScriptArray {
             return getIntImpl(getBufferFromTypedArrayT(object), getOffset(object), index);
         }
 
+        @TruffleBoundary
+        @Override
+        public final boolean sortDefault(DynamicObject object, ForkJoinPool pool) {
+            // flipping the sign bit maps the unsigned order of Uint32 values to the signed order
+            int signFlip = this instanceof AbstractUint32Array ? Integer.MIN_VALUE : 0;
+            T buffer = getBufferFromTypedArrayT(object);
+            int offset = getOffset(object);
+            int length = lengthInt(object);
+            int[] values = new int[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = getIntImpl(buffer, offset, i) ^ signFlip;
+            }
+            sort(values, pool);
+            for (int i = 0; i < length; i++) {
+                setIntImpl(buffer, offset, i, values[i] ^ signFlip);
+            }
+            return true;
+        }
+
         public final void setInt(DynamicObject object, int index, int value) {
             setIntImpl(getBufferFromTypedArrayT(object), getOffset(object), index, value);
         }
 
+        /**
+         * Replaces the element at the index if it is equal to {@code expected}, atomically if the
+         * array is backed by a direct buffer that may be shared.
+         *
+         * @param expected the expected element value, i.e., sign-extended or zero-extended
+         *            according to the element type
+         * @return the previous element value
+         */
+        public final int compareExchangeInt(DynamicObject object, int index, int expected, int replacement) {
+            return compareExchangeIntImpl(getBufferFromTypedArrayT(object), getOffset(object), index, expected, replacement);
+        }
+
         @SuppressWarnings("unchecked")
         private T getBufferFromTypedArrayT(DynamicObject object) {
             return (T) super.getBufferFromTypedArray(object);
@@ -283,6 +349,14 @@ public abstract class TypedArray extends ScriptArray {
         public abstract int getIntImpl(T buffer, int offset, int index);
 
         public abstract void setIntImpl(T buffer, int offset, int index, int value);
+
+        public int compareExchangeIntImpl(T buffer, int offset, int index, int expected, int replacement) {
+            int read = getIntImpl(buffer, offset, index);
+            if (read == expected) {
+                setIntImpl(buffer, offset, index, replacement);
+            }
+            return read;
+        }
     }
 
     static final int INT8_BYTES_PER_ELEMENT = 1;
@@ -328,6 +402,11 @@ public abstract class TypedArray extends ScriptArray {
             buffer.put(offset + index * INT8_BYTES_PER_ELEMENT, (byte) value);
         }
 
+        @Override
+        public int compareExchangeIntImpl(ByteBuffer buffer, int offset, int index, int expected, int replacement) {
+            return ByteBufferAccess.nativeOrder().compareExchangeInt8(buffer, offset + index * INT8_BYTES_PER_ELEMENT, expected, replacement);
+        }
+
         @Override
         public boolean isDirect() {
             return true;
@@ -387,6 +466,11 @@ public abstract class TypedArray extends ScriptArray {
             buffer.put(offset + index * UINT8_BYTES_PER_ELEMENT, (byte) value);
         }
 
+        @Override
+        public int compareExchangeIntImpl(ByteBuffer buffer, int offset, int index, int expected, int replacement) {
+            return ByteBufferAccess.nativeOrder().compareExchangeInt8(buffer, offset + index * UINT8_BYTES_PER_ELEMENT, expected, replacement) & 0xff;
+        }
+
         @Override
         public boolean isDirect() {
             return true;
@@ -525,6 +609,11 @@ public abstract class TypedArray extends ScriptArray {
             ByteBufferAccess.nativeOrder().putInt16(buffer, offset + index * INT16_BYTES_PER_ELEMENT, (short) value);
         }
 
+        @Override
+        public int compareExchangeIntImpl(ByteBuffer buffer, int offset, int index, int expected, int replacement) {
+            return ByteBufferAccess.nativeOrder().compareExchangeInt16(buffer, offset + index * INT16_BYTES_PER_ELEMENT, expected, replacement);
+        }
+
         @Override
         public boolean isDirect() {
             return true;
@@ -584,6 +673,11 @@ public abstract class TypedArray extends ScriptArray {
             ByteBufferAccess.nativeOrder().putInt16(buffer, offset + index * UINT16_BYTES_PER_ELEMENT, (char) value);
         }
 
+        @Override
+        public int compareExchangeIntImpl(ByteBuffer buffer, int offset, int index, int expected, int replacement) {
+            return ByteBufferAccess.nativeOrder().compareExchangeInt16(buffer, offset + index * UINT16_BYTES_PER_ELEMENT, expected, replacement) & 0xffff;
+        }
+
         @Override
         public boolean isDirect() {
             return true;
@@ -643,6 +737,11 @@ public abstract class TypedArray extends ScriptArray {
             ByteBufferAccess.nativeOrder().putInt32(buffer, offset + index * INT32_BYTES_PER_ELEMENT, value);
         }
 
+        @Override
+        public int compareExchangeIntImpl(ByteBuffer buffer, int offset, int index, int expected, int replacement) {
+            return ByteBufferAccess.nativeOrder().compareExchangeInt32(buffer, offset + index * INT32_BYTES_PER_ELEMENT, expected, replacement);
+        }
+
         @Override
         public boolean isDirect() {
             return true;
@@ -732,6 +831,11 @@ public abstract class TypedArray extends ScriptArray {
             ByteBufferAccess.nativeOrder().putInt32(buffer, offset + index * UINT32_BYTES_PER_ELEMENT, value);
         }
 
+        @Override
+        public int compareExchangeIntImpl(ByteBuffer buffer, int offset, int index, int expected, int replacement) {
+            return ByteBufferAccess.nativeOrder().compareExchangeInt32(buffer, offset + index * UINT32_BYTES_PER_ELEMENT, expected, replacement);
+        }
+
         @Override
         public boolean isDirect() {
             return true;
@@ -784,6 +888,16 @@ public abstract class TypedArray extends ScriptArray {
             setBigIntImpl(getBufferFromTypedArrayT(object), getOffset(object), index, value);
         }
 
+        /**
+         * Replaces the element at the index if it is equal to {@code expected}, atomically if the
+         * array is backed by a direct buffer that may be shared.
+         *
+         * @return the previous element value
+         */
+        public final BigInt compareExchangeBigInt(DynamicObject object, int index, BigInt expected, BigInt replacement) {
+            return compareExchangeBigIntImpl(getBufferFromTypedArrayT(object), getOffset(object), index, expected, replacement);
+        }
+
         @SuppressWarnings("unchecked")
         private T getBufferFromTypedArrayT(DynamicObject object) {
             return (T) super.getBufferFromTypedArray(object);
@@ -792,6 +906,14 @@ public abstract class TypedArray extends ScriptArray {
         public abstract BigInt getBigIntImpl(T buffer, int offset, int index);
 
         public abstract void setBigIntImpl(T buffer, int offset, int index, BigInt value);
+
+        public BigInt compareExchangeBigIntImpl(T buffer, int offset, int index, BigInt expected, BigInt replacement) {
+            BigInt read = getBigIntImpl(buffer, offset, index);
+            if (read.compareTo(expected) == 0) {
+                setBigIntImpl(buffer, offset, index, replacement);
+            }
+            return read;
+        }
     }
 
     static final int BIGINT64_BYTES_PER_ELEMENT = 8;
@@ -851,6 +973,11 @@ public abstract class TypedArray extends ScriptArray {
         public void setBigIntImpl(ByteBuffer buffer, int offset, int index, BigInt value) {
             ByteBufferAccess.nativeOrder().putInt64(buffer, offset + index * BIGINT64_BYTES_PER_ELEMENT, value.longValue());
         }
+
+        @Override
+        public BigInt compareExchangeBigIntImpl(ByteBuffer buffer, int offset, int index, BigInt expected, BigInt replacement) {
+            return BigInt.valueOf(ByteBufferAccess.nativeOrder().compareExchangeInt64(buffer, offset + index * BIGINT64_BYTES_PER_ELEMENT, expected.longValue(), replacement.longValue()));
+        }
     }
 
     static final int BIGUINT64_BYTES_PER_ELEMENT = 8;
@@ -911,6 +1038,11 @@ public abstract class TypedArray extends ScriptArray {
         public void setBigIntImpl(ByteBuffer buffer, int offset, int index, BigInt value) {
             ByteBufferAccess.nativeOrder().putInt64(buffer, offset + index * BIGUINT64_BYTES_PER_ELEMENT, value.longValue());
         }
+
+        @Override
+        public BigInt compareExchangeBigIntImpl(ByteBuffer buffer, int offset, int index, BigInt expected, BigInt replacement) {
+            return BigInt.valueOfUnsigned(ByteBufferAccess.nativeOrder().compareExchangeInt64(buffer, offset + index * BIGUINT64_BYTES_PER_ELEMENT, expected.longValue(), replacement.longValue()));
+        }
     }
 
     public abstract static class TypedFloatArray<T> extends TypedArray {
@@ -950,6 +1082,24 @@ public abstract class TypedArray extends ScriptArray {
             return getDoubleImpl(getBufferFromTypedArrayT(object), getOffset(object), index);
         }
 
+        @TruffleBoundary
+        @Override
+        public final boolean sortDefault(DynamicObject object, ForkJoinPool pool) {
+            // Arrays.sort orders -0 before +0 and NaN last, like the default comparison
+            T buffer = getBufferFromTypedArrayT(object);
+            int offset = getOffset(object);
+            int length = lengthInt(object);
+            double[] values = new double[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = getDoubleImpl(buffer, offset, i);
+            }
+            sort(values, pool);
+            for (int i = 0; i < length; i++) {
+                setDoubleImpl(buffer, offset, i, values[i]);
+            }
+            return true;
+        }
+
         public final void setDouble(DynamicObject object, int index, double value) {
             setDoubleImpl(getBufferFromTypedArrayT(object), getOffset(object), index, value);
         }
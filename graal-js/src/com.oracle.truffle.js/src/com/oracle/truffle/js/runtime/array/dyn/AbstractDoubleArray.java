@@ -45,7 +45,10 @@ import static com.oracle.truffle.api.CompilerDirectives.injectBranchProbability;
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arrayGetArray;
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetArray;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.JSRuntime;
@@ -187,6 +190,34 @@ public abstract class AbstractDoubleArray extends AbstractWritableArray {
         return getArray(object).clone();
     }
 
+    /**
+     * Sorts the elements of a {@linkplain #isDenseZeroBased dense} array in place, in ascending or
+     * descending numeric order. Returns false without modifying the array if it contains NaN or
+     * -0, since a numeric comparison function considers these equal to other values and their
+     * order would then depend on the stability of the sort.
+     */
+    @TruffleBoundary
+    public final boolean sortDenseNumeric(DynamicObject object, boolean descending) {
+        double[] array = getArray(object);
+        int from = getArrayOffset(object);
+        int to = from + getUsedLength(object);
+        for (int i = from; i < to; i++) {
+            double value = array[i];
+            if (Double.isNaN(value) || JSRuntime.isNegativeZero(value)) {
+                return false;
+            }
+        }
+        Arrays.sort(array, from, to);
+        if (descending) {
+            for (int i = from, j = to - 1; i < j; i++, j--) {
+                double tmp = array[i];
+                array[i] = array[j];
+                array[j] = tmp;
+            }
+        }
+        return true;
+    }
+
     @Override
     protected abstract AbstractDoubleArray withIntegrityLevel(int newIntegrityLevel);
 }
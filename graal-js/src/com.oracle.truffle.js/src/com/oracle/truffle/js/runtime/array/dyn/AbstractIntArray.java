@@ -46,13 +46,20 @@ import static com.oracle.truffle.api.CompilerDirectives.injectBranchProbability;
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arrayGetArray;
 import static com.oracle.truffle.js.runtime.builtins.JSAbstractArray.arraySetArray;
 
+import java.util.Arrays;
+
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.js.runtime.JSConfig;
 import com.oracle.truffle.js.runtime.array.ScriptArray;
 
 public abstract class AbstractIntArray extends AbstractWritableArray {
 
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L, 10000000000L};
+    private static final int MAX_DIGITS = 10;
+    private static final long NEGATIVE_KEY_BIAS = 1L << 40;
+
     protected AbstractIntArray(int integrityLevel, DynamicArrayCache cache) {
         super(integrityLevel, cache);
     }
@@ -209,6 +216,69 @@ public abstract class AbstractIntArray extends AbstractWritableArray {
         return getArray(object).clone();
     }
 
+    /**
+     * Sorts the elements of a {@linkplain #isDenseZeroBased dense} array in place, in ascending or
+     * descending numeric order.
+     */
+    @TruffleBoundary
+    public final void sortDenseNumeric(DynamicObject object, boolean descending) {
+        int[] array = getArray(object);
+        int from = getArrayOffset(object);
+        int to = from + getUsedLength(object);
+        Arrays.sort(array, from, to);
+        if (descending) {
+            for (int i = from, j = to - 1; i < j; i++, j--) {
+                int tmp = array[i];
+                array[i] = array[j];
+                array[j] = tmp;
+            }
+        }
+    }
+
+    /**
+     * Sorts the elements of a {@linkplain #isDenseZeroBased dense} array in place, in the order of
+     * their string representations (i.e., the default order of {@code Array.prototype.sort}).
+     * Every value is mapped to a {@code long} key that orders like its decimal string, so that the
+     * keys can be sorted as primitives and the values restored from them.
+     */
+    @TruffleBoundary
+    public final void sortDenseAsStrings(DynamicObject object) {
+        int[] array = getArray(object);
+        int from = getArrayOffset(object);
+        int usedLength = getUsedLength(object);
+        long[] keys = new long[usedLength];
+        for (int i = 0; i < usedLength; i++) {
+            keys[i] = stringOrderKey(array[from + i]);
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < usedLength; i++) {
+            array[from + i] = fromStringOrderKey(keys[i]);
+        }
+    }
+
+    /**
+     * The key consists of the decimal digits of the absolute value, left-aligned to
+     * {@link #MAX_DIGITS} digits, followed by the digit count in the lowest 4 bits, so that a
+     * prefix sorts before its extensions ("1" &lt; "10" &lt; "2"). Negative values sort before
+     * all others ('-' &lt; '0').
+     */
+    private static long stringOrderKey(int value) {
+        long abs = Math.abs((long) value);
+        int digits = 1;
+        while (digits < MAX_DIGITS && abs >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        long key = ((abs * POWERS_OF_TEN[MAX_DIGITS - digits]) << 4) | digits;
+        return value < 0 ? key - NEGATIVE_KEY_BIAS : key;
+    }
+
+    private static int fromStringOrderKey(long key) {
+        long unbiasedKey = key < 0 ? key + NEGATIVE_KEY_BIAS : key;
+        int digits = (int) (unbiasedKey & 0xF);
+        long abs = (unbiasedKey >>> 4) / POWERS_OF_TEN[MAX_DIGITS - digits];
+        return (int) (key < 0 ? -abs : abs);
+    }
+
     @Override
     protected abstract AbstractIntArray withIntegrityLevel(int newIntegrityLevel);
 }
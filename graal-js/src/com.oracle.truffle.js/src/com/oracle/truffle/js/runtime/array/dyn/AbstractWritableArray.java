@@ -174,6 +174,14 @@ public abstract class AbstractWritableArray extends DynamicArray {
         return index >= firstElementIndex(object) - JSConfig.MaxArrayHoleSize && index <= lastElementIndex(object) + JSConfig.MaxArrayHoleSize;
     }
 
+    /**
+     * Returns true if all elements from index 0 to length - 1 are present and stored in
+     * consecutive slots of the backing array, starting at {@link #getArrayOffset}.
+     */
+    public final boolean isDenseZeroBased(DynamicObject object) {
+        return !isHolesType() && firstElementIndex(object) == 0 && getUsedLength(object) == length(object);
+    }
+
     protected abstract int prepareSupported(DynamicObject object, int index, ProfileHolder profile);
 
     protected final void prepareSupportedZeroBased(DynamicObject object, int index, ProfileHolder profile) {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -67,6 +67,7 @@ import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.JSShape;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.DirectByteBufferHelper;
+import com.oracle.truffle.js.runtime.util.MemoryAccounting;
 
 public final class JSArrayBuffer extends JSAbstractBuffer implements JSConstructorFactory.Default.WithFunctionsAndSpecies, PrototypeSupplier {
 
@@ -111,6 +112,10 @@ public final class JSArrayBuffer extends JSAbstractBuffer implements JSConstruct
         DynamicObject obj = JSArrayBufferObject.createDirectArrayBuffer(factory.getShape(realm), buffer);
         factory.initProto(obj, realm);
         assert isJSDirectArrayBuffer(obj);
+        MemoryAccounting memoryAccounting = realm.getMemoryAccounting();
+        if (memoryAccounting != null) {
+            memoryAccounting.arrayBufferCreated(obj, buffer.capacity());
+        }
         return context.trackAllocation(obj);
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -92,6 +92,12 @@ public final class JSFunctionData {
     /** Is this a bound function. */
     private static final int IS_BOUND = 1 << 10;
 
+    /**
+     * 1 if the function is known to order numbers ascending, like {@code (a, b) => a - b}, -1 if it
+     * is known to order them descending, like {@code (a, b) => b - a}, or 0.
+     */
+    private int numericComparatorOrder;
+
     /** Innermost call target used for lazy creation of the actual call targets. */
     private volatile CallTarget rootTarget;
     /** Lazy initialization function. */
@@ -200,6 +206,15 @@ public final class JSFunctionData {
         return length;
     }
 
+    public int getNumericComparatorOrder() {
+        return numericComparatorOrder;
+    }
+
+    public void setNumericComparatorOrder(int numericComparatorOrder) {
+        assert numericComparatorOrder >= -1 && numericComparatorOrder <= 1;
+        this.numericComparatorOrder = numericComparatorOrder;
+    }
+
     public boolean isConstructor() {
         return (flags & IS_CONSTRUCTOR) != 0;
     }
@@ -350,6 +365,14 @@ public final class JSFunctionData {
         return lazyInit != null;
     }
 
+    /**
+     * Returns true if the function has been translated, i.e., if {@link #materialize()} has no
+     * effect.
+     */
+    public boolean isMaterialized() {
+        return lazyInit == null || rootTarget != null;
+    }
+
     private CallTarget ensureInitialized(Target target) {
         CompilerAsserts.neverPartOfCompilation();
         Initializer init = lazyInit;
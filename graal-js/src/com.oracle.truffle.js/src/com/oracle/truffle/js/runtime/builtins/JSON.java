@@ -56,6 +56,9 @@ public final class JSON {
         DynamicObject obj = JSOrdinary.createInit(realm);
         JSObjectUtil.putToStringTag(obj, CLASS_NAME);
         JSObjectUtil.putFunctionsFromContainer(realm, obj, JSONBuiltins.BUILTINS);
+        if (realm.getContext().getContextOptions().isJSONUTF8()) {
+            JSObjectUtil.putFunctionsFromContainer(realm, obj, JSONBuiltins.BUILTINS_UTF8);
+        }
         return obj;
     }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -62,6 +62,7 @@ import com.oracle.truffle.js.runtime.JavaScriptRootNode;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.DirectByteBufferHelper;
+import com.oracle.truffle.js.runtime.util.MemoryAccounting;
 
 public final class JSSharedArrayBuffer extends JSAbstractBuffer implements JSConstructorFactory.Default.WithFunctionsAndSpecies, PrototypeSupplier {
 
@@ -84,6 +85,10 @@ public final class JSSharedArrayBuffer extends JSAbstractBuffer implements JSCon
         DynamicObject obj = JSArrayBufferObject.createSharedArrayBuffer(factory.getShape(realm), buffer, new JSAgentWaiterList());
         factory.initProto(obj, realm);
         assert isJSSharedArrayBuffer(obj);
+        MemoryAccounting memoryAccounting = realm.getMemoryAccounting();
+        if (memoryAccounting != null) {
+            memoryAccounting.arrayBufferCreated(obj, buffer.capacity());
+        }
         return context.trackAllocation(obj);
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -44,6 +44,8 @@ import com.oracle.truffle.api.TruffleFile;
 import com.oracle.truffle.api.source.Source;
 import com.oracle.truffle.js.lang.JavaScriptLanguage;
 import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.Evaluator;
+import com.oracle.truffle.js.runtime.JSContext;
 import com.oracle.truffle.js.runtime.JSRealm;
 import com.oracle.truffle.js.runtime.UserScriptException;
 
@@ -51,15 +53,40 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.FileSystemException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 
 public class DefaultESModuleLoader implements JSModuleLoader {
 
     protected final JSRealm realm;
     protected final Map<String, JSModuleRecord> moduleMap = new HashMap<>();
 
+    /**
+     * Modules that have been parsed in the background or are being parsed, by canonical path. The
+     * entry of a module is cleared once the module has been loaded, but the key is kept so that the
+     * module is not parsed again. Only accessed by the thread that uses the realm; the futures are
+     * completed by the threads of the module parse pool.
+     */
+    private final Map<String, Future<PreparsedModule>> preparsedModules = new HashMap<>();
+
+    private static final Future<PreparsedModule> LOADED = CompletableFuture.completedFuture(null);
+
+    /**
+     * Modules requested by modules that have been parsed in the background. Every background parse
+     * adds one entry after completing its future, even if it failed, so that the evaluating thread
+     * can wait for a future while scheduling the newly discovered modules.
+     */
+    private final BlockingQueue<RequestedModules> discoveredModules = new LinkedBlockingQueue<>();
+
     public static DefaultESModuleLoader create(JSRealm realm) {
         return new DefaultESModuleLoader(realm);
     }
@@ -81,27 +108,37 @@ public class DefaultESModuleLoader implements JSModuleLoader {
         }
     }
 
+    /**
+     * Resolves the file of an imported module.
+     *
+     * @param refPath path of the referencing script or module, or null
+     */
+    protected TruffleFile resolveModuleFile(String refPath, String specifier) throws IOException {
+        TruffleFile moduleFile;
+        URI maybeUri = asURI(specifier);
+        if (refPath == null) {
+            if (maybeUri != null) {
+                moduleFile = realm.getEnv().getPublicTruffleFile(maybeUri).getCanonicalFile();
+            } else {
+                moduleFile = realm.getEnv().getPublicTruffleFile(specifier).getCanonicalFile();
+            }
+        } else {
+            TruffleFile refFile = realm.getEnv().getPublicTruffleFile(refPath);
+            if (maybeUri != null) {
+                String uriFile = realm.getEnv().getPublicTruffleFile(maybeUri).getCanonicalFile().getPath();
+                moduleFile = refFile.resolveSibling(uriFile).getCanonicalFile();
+            } else {
+                moduleFile = refFile.resolveSibling(specifier).getCanonicalFile();
+            }
+        }
+        return moduleFile;
+    }
+
     @Override
     public JSModuleRecord resolveImportedModule(ScriptOrModule referrer, String specifier) {
         String refPath = referrer == null ? null : referrer.getSource().getPath();
         try {
-            TruffleFile moduleFile;
-            URI maybeUri = asURI(specifier);
-            if (refPath == null) {
-                if (maybeUri != null) {
-                    moduleFile = realm.getEnv().getPublicTruffleFile(maybeUri).getCanonicalFile();
-                } else {
-                    moduleFile = realm.getEnv().getPublicTruffleFile(specifier).getCanonicalFile();
-                }
-            } else {
-                TruffleFile refFile = realm.getEnv().getPublicTruffleFile(refPath);
-                if (maybeUri != null) {
-                    String uriFile = realm.getEnv().getPublicTruffleFile(maybeUri).getCanonicalFile().getPath();
-                    moduleFile = refFile.resolveSibling(uriFile).getCanonicalFile();
-                } else {
-                    moduleFile = refFile.resolveSibling(specifier).getCanonicalFile();
-                }
-            }
+            TruffleFile moduleFile = resolveModuleFile(refPath, specifier);
             String canonicalPath = moduleFile.getPath();
             return loadModuleFromUrl(specifier, moduleFile, canonicalPath);
         } catch (FileSystemException fsex) {
@@ -129,12 +166,154 @@ public class DefaultESModuleLoader implements JSModuleLoader {
         if (existingModule != null) {
             return existingModule;
         }
-        Source source = Source.newBuilder(JavaScriptLanguage.ID, moduleFile).name(specifier).build();
-        JSModuleRecord newModule = realm.getContext().getEvaluator().parseModule(realm.getContext(), source, this);
+        scheduleDiscoveredModules();
+        PreparsedModule preparsed = takePreparsedModule(canonicalPath);
+        Source source;
+        if (preparsed != null) {
+            source = preparsed.source;
+            if (!source.getName().equals(specifier)) {
+                source = Source.newBuilder(source).name(specifier).build();
+            }
+        } else {
+            source = Source.newBuilder(JavaScriptLanguage.ID, moduleFile).name(specifier).build();
+        }
+        JSModuleRecord newModule = parseModule(source, canonicalPath, preparsed);
         moduleMap.put(canonicalPath, newModule);
         return newModule;
     }
 
+    /**
+     * Translates a module, parsing it first unless it has been parsed in the background. If the
+     * module parse pool is enabled, the modules it imports are parsed in the background, and so are
+     * the modules imported by these as soon as they have been parsed, so that the static import
+     * graph is parsed ahead in parallel while modules are translated and linked on the evaluating
+     * thread.
+     */
+    private JSModuleRecord parseModule(Source source, String canonicalPath, PreparsedModule preparsed) {
+        JSContext context = realm.getContext();
+        Evaluator evaluator = context.getEvaluator();
+        ForkJoinPool pool = context.getModuleParsePool();
+        if (pool == null) {
+            return evaluator.parseModule(context, source, this);
+        }
+        Object parsed;
+        if (preparsed != null) {
+            // the requested modules have been discovered by the background parse
+            parsed = preparsed.parsed;
+        } else {
+            preparsedModules.put(canonicalPath, LOADED);
+            try {
+                parsed = evaluator.preparseModule(context, source);
+            } catch (RuntimeException e) {
+                // parse again on this thread to report the error
+                return evaluator.parseModule(context, source, this);
+            }
+            preparseRequestedModules(pool, source.getPath(), evaluator.getRequestedModules(parsed));
+        }
+        return evaluator.parseModule(context, source, this, parsed);
+    }
+
+    /**
+     * Starts parsing the modules requested by a module in the background. The module files are
+     * resolved and read by the evaluating thread, which has entered the context; the threads of the
+     * pool only parse the sources. Once a module has been parsed, the modules it requests are
+     * handed back to the evaluating thread, which schedules them the next time it loads a module or
+     * while it waits for a background parse.
+     */
+    private void preparseRequestedModules(ForkJoinPool pool, String refPath, List<String> requestedModules) {
+        JSContext context = realm.getContext();
+        for (String specifier : requestedModules) {
+            String canonicalPath;
+            Source source;
+            try {
+                TruffleFile moduleFile = resolveModuleFile(refPath, specifier);
+                canonicalPath = moduleFile.getPath();
+                if (preparsedModules.containsKey(canonicalPath)) {
+                    continue;
+                }
+                source = Source.newBuilder(JavaScriptLanguage.ID, moduleFile).name(specifier).build();
+            } catch (IOException | RuntimeException e) {
+                continue; // reported when the module is resolved by the evaluating thread
+            }
+            CompletableFuture<PreparsedModule> future = new CompletableFuture<>();
+            preparsedModules.put(canonicalPath, future);
+            pool.execute(() -> {
+                List<String> discovered = Collections.emptyList();
+                try {
+                    Object parsed = context.getEvaluator().preparseModule(context, source);
+                    discovered = context.getEvaluator().getRequestedModules(parsed);
+                    future.complete(new PreparsedModule(source, parsed));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    // only after completing the future, see takePreparsedModule
+                    discoveredModules.add(new RequestedModules(source.getPath(), discovered));
+                }
+            });
+        }
+    }
+
+    /**
+     * Schedules the modules discovered by background parses that have completed so far.
+     */
+    private void scheduleDiscoveredModules() {
+        ForkJoinPool pool = realm.getContext().getModuleParsePool();
+        if (pool == null) {
+            return;
+        }
+        RequestedModules requested;
+        while ((requested = discoveredModules.poll()) != null) {
+            preparseRequestedModules(pool, requested.refPath, requested.specifiers);
+        }
+    }
+
+    /**
+     * Waits for a module that is being parsed in the background. Returns null if the module is not
+     * parsed in the background or if parsing failed, in which case it is parsed again by the
+     * evaluating thread to report the error.
+     */
+    private PreparsedModule takePreparsedModule(String canonicalPath) {
+        Future<PreparsedModule> future = preparsedModules.put(canonicalPath, LOADED);
+        if (future == null) {
+            return null;
+        }
+        try {
+            // keep discovering the import graph while waiting; every background parse adds an
+            // entry after completing its future, so this cannot block once the future is done
+            ForkJoinPool pool = realm.getContext().getModuleParsePool();
+            while (!future.isDone()) {
+                RequestedModules requested = discoveredModules.take();
+                preparseRequestedModules(pool, requested.refPath, requested.specifiers);
+            }
+            return future.get();
+        } catch (ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static final class RequestedModules {
+        final String refPath;
+        final List<String> specifiers;
+
+        RequestedModules(String refPath, List<String> specifiers) {
+            this.refPath = refPath;
+            this.specifiers = specifiers;
+        }
+    }
+
+    private static final class PreparsedModule {
+        final Source source;
+        final Object parsed;
+
+        PreparsedModule(Source source, Object parsed) {
+            this.source = source;
+            this.parsed = parsed;
+        }
+    }
+
     @Override
     public JSModuleRecord loadModule(Source source) {
         String path = source.getPath();
@@ -155,6 +334,6 @@ public class DefaultESModuleLoader implements JSModuleLoader {
                 throw Errors.createErrorFromException(e);
             }
         }
-        return moduleMap.computeIfAbsent(canonicalPath, (key) -> realm.getContext().getEvaluator().parseModule(realm.getContext(), source, this));
+        return moduleMap.computeIfAbsent(canonicalPath, (key) -> parseModule(source, canonicalPath, null));
     }
 }
@@ -164,11 +164,6 @@ public final class JSShape {
         return JSShapeData.getEnumerablePropertyNames(shape);
     }
 
-    public static UnmodifiableArrayList<Property> getPropertiesIfHasEnumerablePropertyNames(Shape shape) {
-        assert JSConfig.FastOwnKeys;
-        return JSShapeData.getPropertiesIfHasEnumerablePropertyNames(shape);
-    }
-
     /**
      * Internal constructor for null and undefined shapes.
      */
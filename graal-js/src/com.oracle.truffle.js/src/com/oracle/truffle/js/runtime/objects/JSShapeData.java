@@ -179,21 +179,6 @@ public final class JSShapeData {
         return asUnmodifiableList(shape.getPropertyCount() == 0 ? EMPTY_STRING_ARRAY : getEnumerablePropertyNamesArray(shape));
     }
 
-    @TruffleBoundary
-    private static Property[] getPropertiesArrayIfHasEnumerablePropertyNames(Shape shape) {
-        assert shape.getPropertyCount() != 0;
-        JSShapeData shapeData = getShapeData(shape);
-        if (getEnumerablePropertyNamesArray(shapeData, shape).length == 0) {
-            return EMPTY_PROPERTY_ARRAY;
-        } else {
-            return getPropertiesArray(shapeData, shape);
-        }
-    }
-
-    static UnmodifiableArrayList<Property> getPropertiesIfHasEnumerablePropertyNames(Shape shape) {
-        return asUnmodifiableList(shape.getPropertyCount() == 0 ? EMPTY_PROPERTY_ARRAY : getPropertiesArrayIfHasEnumerablePropertyNames(shape));
-    }
-
     static <T> UnmodifiablePropertyKeyList<T> getPropertyKeyList(Shape shape, boolean strings, boolean symbols) {
         CompilerAsserts.neverPartOfCompilation();
         Property[] propertyArray;
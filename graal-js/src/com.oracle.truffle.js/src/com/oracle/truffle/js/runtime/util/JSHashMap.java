@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2020, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,12 +40,23 @@
  */
 package com.oracle.truffle.js.runtime.util;
 
-import java.util.HashMap;
+import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.js.runtime.Errors;
 
 /**
  * ES6-compliant hash map implementation.
+ *
+ * Entries are kept in insertion order in a compact array, with a separate open-addressing index
+ * table (linear probing) mapping hash codes to entry positions. Removing an entry only clears its
+ * slot; removed slots are compacted away when the entry array is rebuilt on growth. A rebuilt
+ * table records the positions of the removed entries and a link to its successor, so that cursors
+ * created before the rebuild continue at the right entry.
+ *
+ * As long as all keys are (normalized) int values, the keys are stored unboxed in a primitive
+ * array. The first key of any other type migrates the map to generic object keys; the migration
+ * is a rebuild, so existing cursors are unaffected.
  */
 public final class JSHashMap {
     public interface Cursor {
@@ -72,21 +83,20 @@ public final class JSHashMap {
         Cursor copy();
     }
 
-    private final HashMap<Object, Node> map;
-    private final Node head;
-    private Node tail;
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int MAXIMUM_CAPACITY = 1 << 28;
+
+    private Table table;
+    private int size;
 
     @TruffleBoundary(allowInlining = true)
     public JSHashMap() {
-        this.map = new HashMap<>();
-        Node dummy = new Node(null, null, null, null);
-        this.head = dummy;
-        this.tail = dummy;
+        this.table = new Table(INITIAL_CAPACITY, true);
     }
 
     @TruffleBoundary(allowInlining = true)
     public int size() {
-        return map.size();
+        return size;
     }
 
     /**
@@ -94,172 +104,353 @@ public final class JSHashMap {
      */
     @TruffleBoundary
     public void put(Object key, Object value) {
-        Node newNode = new Node(key, value, null, null);
-        Node oldNode = map.putIfAbsent(key, newNode);
-        if (oldNode == null) {
-            newNode.setPrev(tail);
-            tail.setNext(newNode);
-            tail = newNode;
+        assert key != null && value != null;
+        if (key instanceof Integer) {
+            putInt((int) key, value);
+            return;
+        }
+        Table t = table;
+        if (t.isIntKeyed()) {
+            t = rebuild(t, false);
+        }
+        int hash = hash(key);
+        int entry = t.find(key, hash);
+        if (entry >= 0) {
+            t.values[entry] = value;
+            return;
+        }
+        if (t.used == t.capacity()) {
+            t = rebuild(t, false);
+        }
+        t.append(key, value, hash);
+        size++;
+    }
+
+    /**
+     * Insert new entry with an int key, if key does not already exist, otherwise update the
+     * existing entry's value.
+     */
+    @TruffleBoundary
+    public void putInt(int key, Object value) {
+        assert value != null;
+        int hash = hash(key);
+        Table t = table;
+        int entry = t.findInt(key, hash);
+        if (entry >= 0) {
+            t.values[entry] = value;
+            return;
+        }
+        if (t.used == t.capacity()) {
+            t = rebuild(t, t.isIntKeyed());
+        }
+        if (t.isIntKeyed()) {
+            t.appendInt(key, value, hash);
         } else {
-            oldNode.setValue(value);
+            t.append(key, value, hash);
         }
+        size++;
     }
 
     @TruffleBoundary
     public Object get(Object key) {
-        Node node = map.get(key);
-        return node == null ? null : node.getValue();
+        Table t = table;
+        int entry = t.find(key, hash(key));
+        return entry < 0 ? null : t.values[entry];
+    }
+
+    @TruffleBoundary
+    public Object getInt(int key) {
+        Table t = table;
+        int entry = t.findInt(key, hash(key));
+        return entry < 0 ? null : t.values[entry];
     }
 
     @TruffleBoundary
     public boolean has(Object key) {
-        return map.containsKey(key);
+        return table.find(key, hash(key)) >= 0;
+    }
+
+    @TruffleBoundary
+    public boolean hasInt(int key) {
+        return table.findInt(key, hash(key)) >= 0;
     }
 
     @TruffleBoundary
     public boolean remove(Object key) {
-        Node node = map.remove(key);
-        if (node == null) {
-            return false;
-        } else {
-            unlink(node);
-            return true;
-        }
+        Table t = table;
+        return removeEntry(t, t.find(key, hash(key)));
     }
 
-    private void unlink(Node node) {
-        Node next = node.getNext();
-        Node prev = node.getPrev();
-        prev.setNext(next);
-        if (next != null) {
-            next.setPrev(prev);
-        } else {
-            tail = prev;
+    @TruffleBoundary
+    public boolean removeInt(int key) {
+        Table t = table;
+        return removeEntry(t, t.findInt(key, hash(key)));
+    }
+
+    private boolean removeEntry(Table t, int entry) {
+        if (entry < 0) {
+            return false;
         }
-        node.setEmpty();
+        // the index slot keeps pointing to the empty entry until the next rebuild
+        if (t.keys != null) {
+            t.keys[entry] = null;
+        }
+        t.values[entry] = null;
+        size--;
+        return true;
     }
 
     @TruffleBoundary
     public void clear() {
-        map.clear();
-        for (Node current = head.getNext(); current != null; current = current.getNext()) {
-            current.setEmpty();
+        Table oldTable = table;
+        Table newTable = new Table(INITIAL_CAPACITY, true);
+        oldTable.supersede(newTable, null);
+        table = newTable;
+        size = 0;
+    }
+
+    /**
+     * Moves the live entries to a new table, doubling the capacity unless at least half of the
+     * entries have been removed.
+     *
+     * @param intKeyed whether the new table stores int keys; only an int-keyed table can be
+     *            rebuilt into an int-keyed table
+     */
+    private Table rebuild(Table oldTable, boolean intKeyed) {
+        assert !intKeyed || oldTable.isIntKeyed();
+        int oldCapacity = oldTable.capacity();
+        int newCapacity = size >= oldCapacity / 2 ? oldCapacity * 2 : oldCapacity;
+        if (newCapacity > MAXIMUM_CAPACITY) {
+            throw Errors.createRangeError("Maximum collection size exceeded");
         }
-        head.setNext(null);
-        tail = head;
+        Table newTable = new Table(newCapacity, intKeyed);
+        int[] removed = new int[oldTable.used - size];
+        int removedCount = 0;
+        Object[] oldValues = oldTable.values;
+        for (int i = 0; i < oldTable.used; i++) {
+            Object value = oldValues[i];
+            if (value == null) {
+                removed[removedCount++] = i;
+            } else if (intKeyed) {
+                int key = oldTable.intKeys[i];
+                newTable.appendInt(key, value, hash(key));
+            } else {
+                Object key = oldTable.getKey(i);
+                newTable.append(key, value, hash(key));
+            }
+        }
+        assert removedCount == removed.length;
+        oldTable.supersede(newTable, removed);
+        table = newTable;
+        return newTable;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(int key) {
+        // same as Integer.hashCode() followed by hash(Object)
+        return key ^ (key >>> 16);
     }
 
     @TruffleBoundary
     @Override
     public String toString() {
-        return map.toString();
+        StringBuilder sb = new StringBuilder().append('{');
+        Table t = table;
+        for (int i = 0; i < t.used; i++) {
+            Object value = t.values[i];
+            if (value != null) {
+                if (sb.length() > 1) {
+                    sb.append(", ");
+                }
+                sb.append(t.getKey(i)).append('=').append(value);
+            }
+        }
+        return sb.append('}').toString();
     }
 
     public Cursor getEntries() {
-        return new CursorImpl(head);
+        return new CursorImpl(table, -1);
     }
 
-    private static final class CursorImpl implements Cursor {
-        private Node current;
-
-        CursorImpl(Node head) {
-            this.current = head;
+    private static final class Table {
+        /** Object keys in insertion order, or {@code null} if this table has int keys. */
+        final Object[] keys;
+        /** Int keys in insertion order, or {@code null} if this table has object keys. */
+        final int[] intKeys;
+        /** Values in insertion order; {@code null} marks a removed entry. */
+        final Object[] values;
+        /** Open-addressing index table of entry positions (+1, 0 means unused). */
+        final int[] index;
+        /** Number of entries appended so far, including removed ones. */
+        int used;
+
+        /** The table that replaced this one, or {@code null} if this table is current. */
+        Table next;
+        /** Sorted positions of the entries removed before this table was superseded. */
+        int[] removed;
+
+        Table(int capacity, boolean intKeyed) {
+            this.keys = intKeyed ? null : new Object[capacity];
+            this.intKeys = intKeyed ? new int[capacity] : null;
+            this.values = new Object[capacity];
+            this.index = new int[2 * capacity];
         }
 
-        @Override
-        public boolean advance() {
-            if (current == null) {
-                return false;
-            } else {
-                // if current is no longer in the map, back up to a previous node still in the map
-                while (current.isEmpty() && current.getPrev() != null) {
-                    current = current.getPrev();
-                }
-                Node next = current.getNext();
-                assert next == null || next.getKey() != null;
-                current = next;
-                return next != null;
-            }
+        boolean isIntKeyed() {
+            return intKeys != null;
         }
 
-        @Override
-        public Object getKey() {
-            Object key = current.getKey();
-            assert key != null;
-            return key;
+        int capacity() {
+            return values.length;
         }
 
-        @Override
-        public Object getValue() {
-            Object value = current.getValue();
-            assert value != null;
-            return value;
+        Object getKey(int entry) {
+            return keys != null ? keys[entry] : Integer.valueOf(intKeys[entry]);
         }
 
-        @Override
-        public String toString() {
-            return "Cursor [current=" + current + "]";
+        int find(Object key, int hash) {
+            if (intKeys != null) {
+                return key instanceof Integer ? findInt((int) key, hash) : -1;
+            }
+            int[] idx = index;
+            int mask = idx.length - 1;
+            for (int i = hash & mask;; i = (i + 1) & mask) {
+                int slot = idx[i];
+                if (slot == 0) {
+                    return -1;
+                }
+                Object k = keys[slot - 1];
+                if (k == key || (k != null && k.equals(key))) {
+                    return slot - 1;
+                }
+            }
         }
 
-        @Override
-        public Cursor copy() {
-            return new CursorImpl(current);
+        int findInt(int key, int hash) {
+            if (intKeys == null) {
+                return find(key, hash);
+            }
+            int[] idx = index;
+            int mask = idx.length - 1;
+            for (int i = hash & mask;; i = (i + 1) & mask) {
+                int slot = idx[i];
+                if (slot == 0) {
+                    return -1;
+                }
+                if (intKeys[slot - 1] == key && values[slot - 1] != null) {
+                    return slot - 1;
+                }
+            }
         }
-    }
 
-    private static final class Node {
-        private Object key;
-        private Object value;
-        private Node prev;
-        private Node next;
-
-        Node(Object key, Object value, Node prev, Node next) {
-            this.key = key;
-            this.value = value;
-            this.prev = prev;
-            this.next = next;
+        void append(Object key, Object value, int hash) {
+            int entry = used++;
+            keys[entry] = key;
+            values[entry] = value;
+            insertIndex(entry, hash);
         }
 
-        Object getKey() {
-            return key;
+        void appendInt(int key, Object value, int hash) {
+            int entry = used++;
+            intKeys[entry] = key;
+            values[entry] = value;
+            insertIndex(entry, hash);
         }
 
-        Object getValue() {
-            return value;
+        private void insertIndex(int entry, int hash) {
+            int[] idx = index;
+            int mask = idx.length - 1;
+            int i = hash & mask;
+            while (idx[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            idx[i] = entry + 1;
         }
 
-        void setValue(Object value) {
-            this.value = value;
+        /**
+         * @param removedEntries positions of removed entries, or {@code null} if the map was
+         *            cleared
+         */
+        void supersede(Table successor, int[] removedEntries) {
+            this.next = successor;
+            this.removed = removedEntries;
         }
 
-        Node getPrev() {
-            return prev;
+        /**
+         * Translates an entry position of this table to the position in its successor.
+         */
+        int transition(int position) {
+            if (removed == null) {
+                // cleared: continue with the first entry of the successor
+                return -1;
+            }
+            // number of removed entries at or before the position
+            int found = Arrays.binarySearch(removed, position);
+            int removedBefore = found >= 0 ? found + 1 : -(found + 1);
+            return position - removedBefore;
         }
+    }
 
-        void setPrev(Node prev) {
-            this.prev = prev;
+    private static final class CursorImpl implements Cursor {
+        /** The table of the current entry, or {@code null} when the cursor is exhausted. */
+        private Table table;
+        /** Position of the current entry, {@code -1} before the first entry. */
+        private int current;
+
+        CursorImpl(Table table, int current) {
+            this.table = table;
+            this.current = current;
         }
 
-        Node getNext() {
-            return next;
+        @Override
+        public boolean advance() {
+            Table t = table;
+            if (t == null) {
+                return false;
+            }
+            int position = current;
+            while (t.next != null) {
+                position = t.transition(position);
+                t = t.next;
+            }
+            Object[] values = t.values;
+            for (int i = position + 1; i < t.used; i++) {
+                if (values[i] != null) {
+                    table = t;
+                    current = i;
+                    return true;
+                }
+            }
+            table = null;
+            return false;
         }
 
-        void setNext(Node next) {
-            this.next = next;
+        @Override
+        public Object getKey() {
+            Object key = table.getKey(current);
+            assert key != null;
+            return key;
         }
 
-        void setEmpty() {
-            this.key = null;
-            this.value = null;
+        @Override
+        public Object getValue() {
+            Object value = table.values[current];
+            assert value != null;
+            return value;
         }
 
-        boolean isEmpty() {
-            return this.key == null;
+        @Override
+        public String toString() {
+            return "Cursor [current=" + current + "]";
         }
 
         @Override
-        public String toString() {
-            return "Node [key=" + key + ", value=" + value + "]";
+        public Cursor copy() {
+            return new CursorImpl(table, current);
         }
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of canonical property key strings used by the JSON parsers. Real-world JSON texts
+ * repeat a small set of keys very often; looking them up here avoids allocating a new string for
+ * every occurrence and lets all parsed objects share the same key instances.
+ *
+ * The cache is direct-mapped: each key hashes to exactly one slot and replaces its previous
+ * occupant. Slots are written racily, which is safe since strings are immutable.
+ */
+public final class JSONKeyCache {
+
+    private static final int CACHE_SIZE = 1024;
+    private static final int MAX_KEY_LENGTH = 32;
+
+    private final String[] keys = new String[CACHE_SIZE];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Returns a string equal to {@code source.substring(start, end)}, preferably a cached one.
+     */
+    public String intern(String source, int start, int end) {
+        int length = end - start;
+        if (length > MAX_KEY_LENGTH) {
+            return source.substring(start, end);
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        int slot = slot(hash);
+        String cached = keys[slot];
+        if (cached != null && cached.length() == length && source.regionMatches(start, cached, 0, length)) {
+            hits.increment();
+            return cached;
+        }
+        String key = source.substring(start, end);
+        keys[slot] = key;
+        misses.increment();
+        return key;
+    }
+
+    /**
+     * Returns a string with the characters of the given range of ASCII bytes, preferably a cached
+     * one. Returns {@code null} if the range contains non-ASCII bytes.
+     */
+    public String intern(ByteBuffer source, int start, int end) {
+        int length = end - start;
+        if (length > MAX_KEY_LENGTH) {
+            return null;
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            byte b = source.get(i);
+            if (b < 0) {
+                return null;
+            }
+            hash = 31 * hash + b;
+        }
+        int slot = slot(hash);
+        String cached = keys[slot];
+        if (cached != null && cached.length() == length && regionMatches(source, start, cached)) {
+            hits.increment();
+            return cached;
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) source.get(start + i);
+        }
+        String key = new String(chars);
+        keys[slot] = key;
+        misses.increment();
+        return key;
+    }
+
+    private static boolean regionMatches(ByteBuffer source, int start, String key) {
+        for (int i = 0; i < key.length(); i++) {
+            if (source.get(start + i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+    }
+
+    /**
+     * Number of lookups that returned a cached key.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of lookups that had to create a new key.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+}
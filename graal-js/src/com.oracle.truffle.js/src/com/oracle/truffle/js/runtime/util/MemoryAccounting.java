@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Memory accounting of a top-level realm (only with the {@code js.memory-accounting} option). It
+ * tracks the bytes allocated by the threads attached to the realm, the backing stores of the
+ * array buffers created in the realm and derives an estimate of the heap memory retained by the
+ * realm from them. Embedders (like Node.js) use it to report memory usage per context.
+ *
+ * The allocated bytes are measured per thread, so the allocations of a thread that is attached
+ * to more than one context at the same time are attributed to each of these contexts.
+ */
+public final class MemoryAccounting {
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = getThreadBean();
+    private static final List<MemoryPoolMXBean> HEAP_POOLS = getHeapPools();
+
+    /** Allocated bytes of the attached threads when they were attached. */
+    private final Map<Thread, Long> threadBaselines = new HashMap<>();
+    /** Bytes allocated by threads while they were attached, counted when they were detached. */
+    private long detachedThreadsAllocatedBytes;
+
+    private final ReferenceQueue<Object> arrayBufferQueue = new ReferenceQueue<>();
+    private final Set<ArrayBufferReference> arrayBuffers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong arrayBufferBytes = new AtomicLong();
+    private final AtomicLong arrayBufferBytesAllocated = new AtomicLong();
+
+    private static final class ArrayBufferReference extends PhantomReference<Object> {
+        final long byteLength;
+
+        ArrayBufferReference(Object arrayBuffer, long byteLength, ReferenceQueue<Object> queue) {
+            super(arrayBuffer, queue);
+            this.byteLength = byteLength;
+        }
+    }
+
+    @TruffleBoundary
+    public synchronized void threadAttached(Thread thread) {
+        long allocated = getThreadAllocatedBytes(thread);
+        if (allocated >= 0) {
+            threadBaselines.put(thread, allocated);
+        }
+    }
+
+    @TruffleBoundary
+    public synchronized void threadDetached(Thread thread) {
+        Long baseline = threadBaselines.remove(thread);
+        if (baseline != null) {
+            long allocated = getThreadAllocatedBytes(thread);
+            if (allocated >= baseline) {
+                detachedThreadsAllocatedBytes += allocated - baseline;
+            }
+        }
+    }
+
+    /**
+     * Registers the backing store of a new array buffer. Its bytes are counted until the array
+     * buffer is garbage collected.
+     */
+    @TruffleBoundary
+    public void arrayBufferCreated(Object arrayBuffer, long byteLength) {
+        expungeArrayBuffers();
+        arrayBuffers.add(new ArrayBufferReference(arrayBuffer, byteLength, arrayBufferQueue));
+        arrayBufferBytes.addAndGet(byteLength);
+        arrayBufferBytesAllocated.addAndGet(byteLength);
+    }
+
+    private void expungeArrayBuffers() {
+        ArrayBufferReference ref;
+        while ((ref = (ArrayBufferReference) arrayBufferQueue.poll()) != null) {
+            if (arrayBuffers.remove(ref)) {
+                arrayBufferBytes.addAndGet(-ref.byteLength);
+            }
+        }
+    }
+
+    /**
+     * Bytes allocated on the heap by the threads attached to the realm while they were attached,
+     * or -1 if the JVM does not measure the allocations of threads.
+     */
+    @TruffleBoundary
+    public synchronized long getAllocatedBytes() {
+        if (THREAD_BEAN == null) {
+            return -1;
+        }
+        long allocated = detachedThreadsAllocatedBytes;
+        for (Map.Entry<Thread, Long> entry : threadBaselines.entrySet()) {
+            long threadAllocated = getThreadAllocatedBytes(entry.getKey());
+            if (threadAllocated >= entry.getValue()) {
+                allocated += threadAllocated - entry.getValue();
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * Estimate of the heap memory retained by the realm: the heap memory in use after the last
+     * garbage collection, bounded by what the realm has allocated. The heap is shared by all
+     * contexts of the process, so this is an upper bound when several contexts allocate.
+     */
+    @TruffleBoundary
+    public long getRetainedBytesEstimate() {
+        long retained = getHeapUsedAfterLastCollection();
+        long allocated = getAllocatedBytes();
+        return allocated < 0 ? retained : Math.min(retained, allocated);
+    }
+
+    /**
+     * Bytes of the backing stores of the array buffers of the realm that have not been garbage
+     * collected yet.
+     */
+    @TruffleBoundary
+    public long getArrayBufferBytes() {
+        expungeArrayBuffers();
+        return arrayBufferBytes.get();
+    }
+
+    /**
+     * Bytes of the backing stores of all array buffers created in the realm.
+     */
+    public long getArrayBufferBytesAllocated() {
+        return arrayBufferBytesAllocated.get();
+    }
+
+    private static long getThreadAllocatedBytes(Thread thread) {
+        if (THREAD_BEAN == null) {
+            return -1;
+        }
+        return THREAD_BEAN.getThreadAllocatedBytes(thread.getId());
+    }
+
+    private static long getHeapUsedAfterLastCollection() {
+        long used = 0;
+        boolean collected = false;
+        for (MemoryPoolMXBean pool : HEAP_POOLS) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                used += usage.getUsed();
+                collected = true;
+            }
+        }
+        if (!collected) {
+            Runtime runtime = Runtime.getRuntime();
+            used = runtime.totalMemory() - runtime.freeMemory();
+        }
+        return used;
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+                if (threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled()) {
+                    return threadBean;
+                }
+            }
+        } catch (UnsupportedOperationException | LinkageError e) {
+            // not available, e.g., in some native images
+        }
+        return null;
+    }
+
+    private static List<MemoryPoolMXBean> getHeapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        try {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pools.add(pool);
+                }
+            }
+        } catch (UnsupportedOperationException | LinkageError e) {
+            // not available, e.g., in some native images
+        }
+        return pools;
+    }
+}
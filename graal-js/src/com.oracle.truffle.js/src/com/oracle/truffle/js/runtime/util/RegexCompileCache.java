@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.js.runtime.util;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Bounded least-recently-used cache of compiled regular expressions, keyed by pattern and flags.
+ * Complements the per-node inline caches of compiled regular expressions for code that creates
+ * many different RegExps dynamically, e.g. {@code new RegExp(pattern)} with patterns from
+ * configuration. The regex options are fixed per {@code JSContext}, so they are implicitly part
+ * of the key.
+ */
+public final class RegexCompileCache {
+
+    private final LRUCache<Key, Object> map;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public RegexCompileCache(int maxSize) {
+        assert maxSize > 0;
+        this.map = new LRUCache<>(maxSize);
+    }
+
+    /**
+     * Returns the cached compiled regex for the given pattern and flags, or {@code null}.
+     */
+    @TruffleBoundary
+    public synchronized Object get(String pattern, String flags) {
+        Object compiledRegex = map.get(new Key(pattern, flags));
+        if (compiledRegex != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return compiledRegex;
+    }
+
+    @TruffleBoundary
+    public synchronized void put(String pattern, String flags, Object compiledRegex) {
+        int sizeBefore = map.size();
+        if (map.put(new Key(pattern, flags), compiledRegex) == null && map.size() == sizeBefore) {
+            // a new entry that did not grow the cache replaced the eldest one
+            evictions++;
+        }
+    }
+
+    /**
+     * Number of lookups that returned a cached regex.
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Number of lookups that did not find a cached regex.
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Number of compiled regexes dropped from the cache to make room for new ones.
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    private static final class Key {
+        private final String pattern;
+        private final String flags;
+
+        Key(String pattern, String flags) {
+            this.pattern = pattern;
+            this.flags = flags;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * pattern.hashCode() + flags.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return pattern.equals(other.pattern) && flags.equals(other.flags);
+        }
+
+        @Override
+        public String toString() {
+            return "/" + pattern + "/" + flags;
+        }
+    }
+}
@@ -493,12 +493,16 @@ namespace v8 {
         JNI_CALL_VOID(this, GraalAccessMethod::isolate_get_heap_statistics);
         heap_statistics->total_heap_size_ = graal_isolate->ReadInt64FromSharedBuffer();
         heap_statistics->total_heap_size_executable_ = 0;
-        heap_statistics->total_physical_size_ = 0;
+        heap_statistics->total_physical_size_ = heap_statistics->total_heap_size_;
         heap_statistics->total_available_size_ = graal_isolate->ReadInt64FromSharedBuffer();
         heap_statistics->used_heap_size_ = graal_isolate->ReadInt64FromSharedBuffer();
-        heap_statistics->heap_size_limit_ = 0;
+        heap_statistics->heap_size_limit_ = graal_isolate->ReadInt64FromSharedBuffer();
         heap_statistics->does_zap_garbage_ = false;
-        heap_statistics->external_memory_ = 4096; // dummy value
+        // memory of the array buffers of this isolate plus the memory reported
+        // to this isolate through AdjustAmountOfExternalAllocatedMemory()
+        int64_t array_buffer_memory = graal_isolate->ReadInt64FromSharedBuffer();
+        int64_t reported_external_memory = *reinterpret_cast<int64_t*> (reinterpret_cast<uint8_t*> (this) + internal::Internals::kExternalMemoryOffset);
+        heap_statistics->external_memory_ = array_buffer_memory + (reported_external_memory > 0 ? reported_external_memory : 0);
     }
 
     Isolate* Isolate::New(Isolate::CreateParams const& params) {
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -42,11 +42,16 @@
 // When NIO buffers are enabled, GraalJSAccess ensures that this module is loaded with the builtins constructor as extra argument.
 const NIOBufferPrototypeAllocator = typeof graalExtension === 'undefined' ? arguments[arguments.length - 1] : graalExtension;
 
+const encodings = ['utf8', 'latin1', 'ascii', 'hex', 'base64', 'ucs2'];
+
 function patchBufferPrototype(proto) {
 	if (NIOBufferPrototypeAllocator) {
-		const bufferBuiltin = NIOBufferPrototypeAllocator(proto.utf8Write, proto.utf8Slice);
-		proto.utf8Write = bufferBuiltin.utf8Write;
-		proto.utf8Slice = bufferBuiltin.utf8Slice;
+		// The original (native) functions are kept as fallbacks by the NIO builtins.
+		const bufferBuiltin = NIOBufferPrototypeAllocator(proto);
+		for (const encoding of encodings) {
+			proto[encoding + 'Write'] = bufferBuiltin[encoding + 'Write'];
+			proto[encoding + 'Slice'] = bufferBuiltin[encoding + 'Slice'];
+		}
 	}
 }
 
@@ -216,6 +216,7 @@ import com.oracle.truffle.js.runtime.objects.ScriptOrModule;
 import com.oracle.truffle.js.runtime.objects.Undefined;
 import com.oracle.truffle.js.runtime.util.DirectByteBufferHelper;
 import com.oracle.truffle.js.runtime.util.JSHashMap;
+import com.oracle.truffle.js.runtime.util.MemoryAccounting;
 import com.oracle.truffle.js.runtime.util.Pair;
 import com.oracle.truffle.js.runtime.util.TRegexUtil;
 import com.oracle.truffle.trufflenode.buffer.NIOBuffer;
@@ -314,6 +315,8 @@ public final class GraalJSAccess {
             contextBuilder.option(JSContextOptions.CONSOLE_NAME, "false");
             // Node.js does not have global arguments property
             contextBuilder.option(JSContextOptions.GLOBAL_ARGUMENTS_NAME, "false");
+            // per-isolate heap statistics
+            contextBuilder.option(JSContextOptions.MEMORY_ACCOUNTING_NAME, "true");
 
             exposeGC = options.isGCExposed();
             evaluator = contextBuilder.build();
@@ -2814,15 +2817,28 @@ public final class GraalJSAccess {
         throw Errors.createRangeErrorStackOverflow();
     }
 
+    /**
+     * Writes the heap statistics to the shared buffer. The heap sizes are those of the Java heap,
+     * which is shared by all isolates of the process. The used heap size is the estimate of the
+     * heap memory retained by this isolate and the external memory is the memory of the backing
+     * stores of its array buffers, both taken from the memory accounting of its context.
+     */
     public void isolateGetHeapStatistics() {
         Runtime runtime = Runtime.getRuntime();
         long total = runtime.totalMemory();
-        long free = runtime.freeMemory();
+        long used = total - runtime.freeMemory();
         long max = runtime.maxMemory();
+        if (max == Long.MAX_VALUE) {
+            // no limit of the heap size, report the committed size instead
+            max = total;
+        }
+        MemoryAccounting memoryAccounting = mainJSRealm.getMemoryAccounting();
         resetSharedBuffer();
         sharedBuffer.putLong(total);
+        sharedBuffer.putLong(Math.max(0, max - used));
+        sharedBuffer.putLong(memoryAccounting == null ? used : memoryAccounting.getRetainedBytesEstimate());
         sharedBuffer.putLong(max);
-        sharedBuffer.putLong(total - free);
+        sharedBuffer.putLong(memoryAccounting == null ? 0 : memoryAccounting.getArrayBufferBytes());
     }
 
     private boolean terminateExecution;
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -54,8 +54,7 @@ public final class RealmData {
     private final Map<Integer, Object> embedderData = new HashMap<>();
     private final Map<Integer, DynamicObject> functionTemplateObjects = new HashMap<>();
 
-    private DynamicObject nativeUtf8Write;
-    private DynamicObject nativeUtf8Slice;
+    private final Map<String, DynamicObject> nativeBufferFunctions = new HashMap<>();
     private DynamicObject resolverFactory;
     private DynamicObject extrasBindingObject;
 
@@ -70,20 +69,13 @@ public final class RealmData {
         return securityToken;
     }
 
-    public DynamicObject getNativeUtf8Write() {
-        return nativeUtf8Write;
-    }
-
-    public void setNativeUtf8Write(DynamicObject nativeUtf8Write) {
-        this.nativeUtf8Write = nativeUtf8Write;
-    }
-
-    public DynamicObject getNativeUtf8Slice() {
-        return nativeUtf8Slice;
+    @CompilerDirectives.TruffleBoundary
+    public DynamicObject getNativeBufferFunction(String name) {
+        return nativeBufferFunctions.get(name);
     }
 
-    public void setNativeUtf8Slice(DynamicObject nativeUtf8Slice) {
-        this.nativeUtf8Slice = nativeUtf8Slice;
+    public void setNativeBufferFunction(String name, DynamicObject nativeFunction) {
+        nativeBufferFunctions.put(name, nativeFunction);
     }
 
     public void setEmbedderData(int index, Object value) {
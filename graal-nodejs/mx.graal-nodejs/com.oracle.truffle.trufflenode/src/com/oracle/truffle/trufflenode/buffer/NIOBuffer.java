@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -52,6 +52,7 @@ import com.oracle.truffle.js.runtime.builtins.JSNonProxy;
 import com.oracle.truffle.js.runtime.builtins.JSFunction;
 import com.oracle.truffle.js.runtime.builtins.JSFunctionData;
 import com.oracle.truffle.js.runtime.builtins.JSOrdinary;
+import com.oracle.truffle.js.runtime.objects.JSObject;
 import com.oracle.truffle.js.runtime.objects.JSObjectUtil;
 import com.oracle.truffle.trufflenode.GraalJSAccess;
 import com.oracle.truffle.trufflenode.RealmData;
@@ -88,17 +89,28 @@ public final class NIOBuffer extends JSNonProxy {
             @Override
             public Object execute(VirtualFrame frame) {
                 Object[] args = frame.getArguments();
-                assert args.length == 4;
-                DynamicObject nativeUtf8Write = (DynamicObject) args[2];
-                DynamicObject nativeUtf8Slice = (DynamicObject) args[3];
-                RealmData embedderData = GraalJSAccess.getRealmEmbedderData(context.getRealm());
-                embedderData.setNativeUtf8Write(nativeUtf8Write);
-                embedderData.setNativeUtf8Slice(nativeUtf8Slice);
+                assert args.length == 3;
+                DynamicObject bufferPrototype = (DynamicObject) args[2];
+                registerNativeFunctions(GraalJSAccess.getRealmEmbedderData(context.getRealm()), bufferPrototype);
                 return create(context);
             }
         };
-        JSFunctionData functionData = JSFunctionData.createCallOnly(context, Truffle.getRuntime().createCallTarget(wrapperNode), 2, "NIOBufferBuiltinsInitFunction");
+        JSFunctionData functionData = JSFunctionData.createCallOnly(context, Truffle.getRuntime().createCallTarget(wrapperNode), 1, "NIOBufferBuiltinsInitFunction");
         return JSFunction.create(realm, functionData);
     }
 
+    /**
+     * Remembers the native implementations of the buffer prototype methods that are replaced by
+     * NIO builtins, so that the builtins can fall back to them.
+     */
+    @TruffleBoundary
+    private static void registerNativeFunctions(RealmData embedderData, DynamicObject bufferPrototype) {
+        for (NIOBufferBuiltins.Buffer builtin : NIOBufferBuiltins.Buffer.values()) {
+            Object nativeFunction = JSObject.get(bufferPrototype, builtin.name());
+            if (JSFunction.isJSFunction(nativeFunction)) {
+                embedderData.setNativeBufferFunction(builtin.name(), (DynamicObject) nativeFunction);
+            }
+        }
+    }
+
 }
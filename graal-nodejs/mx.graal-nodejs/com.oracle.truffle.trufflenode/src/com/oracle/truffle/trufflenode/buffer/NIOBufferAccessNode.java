@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -60,6 +60,7 @@ import com.oracle.truffle.js.runtime.objects.JSObject;
 public abstract class NIOBufferAccessNode extends JSBuiltinNode {
 
     protected static final Charset utf8 = Charset.forName("UTF-8");
+    protected static final int V8MaxStringLength = (1 << 30) - 1 - 24;
 
     @Child protected ArrayBufferViewGetByteLengthNode getLenNode;
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -52,7 +52,17 @@ public final class NIOBufferBuiltins extends JSBuiltinsContainer.SwitchEnum<NIOB
 
     public enum Buffer implements BuiltinEnum<Buffer> {
         utf8Write(0),
-        utf8Slice(0);
+        utf8Slice(0),
+        latin1Write(0),
+        latin1Slice(0),
+        asciiWrite(0),
+        asciiSlice(0),
+        hexWrite(0),
+        hexSlice(0),
+        base64Write(0),
+        base64Slice(0),
+        ucs2Write(0),
+        ucs2Slice(0);
 
         private final int length;
 
@@ -73,8 +83,36 @@ public final class NIOBufferBuiltins extends JSBuiltinsContainer.SwitchEnum<NIOB
                 return NIOBufferUTF8WriteNodeGen.create(context, builtin, args().withThis().fixedArgs(3).createArgumentNodes(context));
             case utf8Slice:
                 return NIOBufferUTF8SliceNodeGen.create(context, builtin, args().withThis().fixedArgs(2).createArgumentNodes(context));
+            case latin1Write:
+                return createWriteNode(context, builtin, NIOBufferEncoding.LATIN1);
+            case latin1Slice:
+                return createSliceNode(context, builtin, NIOBufferEncoding.LATIN1);
+            case asciiWrite:
+                return createWriteNode(context, builtin, NIOBufferEncoding.ASCII);
+            case asciiSlice:
+                return createSliceNode(context, builtin, NIOBufferEncoding.ASCII);
+            case hexWrite:
+                return createWriteNode(context, builtin, NIOBufferEncoding.HEX);
+            case hexSlice:
+                return createSliceNode(context, builtin, NIOBufferEncoding.HEX);
+            case base64Write:
+                return createWriteNode(context, builtin, NIOBufferEncoding.BASE64);
+            case base64Slice:
+                return createSliceNode(context, builtin, NIOBufferEncoding.BASE64);
+            case ucs2Write:
+                return createWriteNode(context, builtin, NIOBufferEncoding.UCS2);
+            case ucs2Slice:
+                return createSliceNode(context, builtin, NIOBufferEncoding.UCS2);
         }
         return null;
     }
 
+    private NIOBufferWriteNode createWriteNode(JSContext context, JSBuiltin builtin, NIOBufferEncoding encoding) {
+        return NIOBufferWriteNodeGen.create(context, builtin, encoding, args().withThis().fixedArgs(3).createArgumentNodes(context));
+    }
+
+    private NIOBufferSliceNode createSliceNode(JSContext context, JSBuiltin builtin, NIOBufferEncoding encoding) {
+        return NIOBufferSliceNodeGen.create(context, builtin, encoding, args().withThis().fixedArgs(2).createArgumentNodes(context));
+    }
+
 }
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.trufflenode.buffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * Node.js buffer encodings that are decoded and encoded directly on the direct byte buffer,
+ * mirroring {@code StringBytes::Encode} and {@code StringBytes::Write} of the native binding.
+ */
+public enum NIOBufferEncoding {
+    LATIN1,
+    ASCII,
+    HEX,
+    BASE64,
+    UCS2;
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] BASE64_DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.ISO_8859_1);
+    // Accepts both the regular and the URL-safe base64 alphabet.
+    private static final byte[] BASE64_VALUES = new byte[256];
+
+    static {
+        Arrays.fill(BASE64_VALUES, (byte) -1);
+        for (int i = 0; i < BASE64_DIGITS.length; i++) {
+            BASE64_VALUES[BASE64_DIGITS[i]] = (byte) i;
+        }
+        BASE64_VALUES['-'] = 62;
+        BASE64_VALUES['_'] = 63;
+    }
+
+    /**
+     * Returns the length of the string produced by {@link #decode} for the given number of bytes.
+     */
+    public long decodedLength(int byteLength) {
+        switch (this) {
+            case HEX:
+                return 2L * byteLength;
+            case BASE64:
+                return (byteLength + 2L) / 3 * 4;
+            case UCS2:
+                return byteLength / 2;
+            default:
+                return byteLength;
+        }
+    }
+
+    /**
+     * Creates a string from the remaining bytes of {@code data}.
+     */
+    @TruffleBoundary
+    public String decode(ByteBuffer data) {
+        int length = data.remaining();
+        switch (this) {
+            case LATIN1: {
+                byte[] bytes = new byte[length];
+                data.get(bytes);
+                return new String(bytes, StandardCharsets.ISO_8859_1);
+            }
+            case ASCII: {
+                byte[] bytes = new byte[length];
+                data.get(bytes);
+                for (int i = 0; i < length; i++) {
+                    bytes[i] &= 0x7f;
+                }
+                return new String(bytes, StandardCharsets.ISO_8859_1);
+            }
+            case HEX: {
+                byte[] digits = new byte[length * 2];
+                for (int i = 0; i < length; i++) {
+                    int b = data.get() & 0xff;
+                    digits[2 * i] = HEX_DIGITS[b >>> 4];
+                    digits[2 * i + 1] = HEX_DIGITS[b & 0x0f];
+                }
+                return new String(digits, StandardCharsets.ISO_8859_1);
+            }
+            case BASE64:
+                return decodeBase64(data, length);
+            case UCS2: {
+                char[] chars = new char[length / 2];
+                for (int i = 0; i < chars.length; i++) {
+                    int lo = data.get() & 0xff;
+                    int hi = data.get() & 0xff;
+                    chars[i] = (char) ((hi << 8) | lo);
+                }
+                return new String(chars);
+            }
+            default:
+                throw new IllegalStateException(name());
+        }
+    }
+
+    private static String decodeBase64(ByteBuffer data, int length) {
+        byte[] digits = new byte[(length + 2) / 3 * 4];
+        int fullGroups = length / 3;
+        int k = 0;
+        for (int i = 0; i < fullGroups; i++) {
+            int a = data.get() & 0xff;
+            int b = data.get() & 0xff;
+            int c = data.get() & 0xff;
+            digits[k++] = BASE64_DIGITS[a >>> 2];
+            digits[k++] = BASE64_DIGITS[((a & 0x03) << 4) | (b >>> 4)];
+            digits[k++] = BASE64_DIGITS[((b & 0x0f) << 2) | (c >>> 6)];
+            digits[k++] = BASE64_DIGITS[c & 0x3f];
+        }
+        int rest = length - fullGroups * 3;
+        if (rest != 0) {
+            int a = data.get() & 0xff;
+            int b = rest == 2 ? data.get() & 0xff : 0;
+            digits[k++] = BASE64_DIGITS[a >>> 2];
+            digits[k++] = BASE64_DIGITS[((a & 0x03) << 4) | (b >>> 4)];
+            digits[k++] = rest == 2 ? BASE64_DIGITS[(b & 0x0f) << 2] : (byte) '=';
+            digits[k++] = '=';
+        }
+        return new String(digits, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Writes {@code str} into the remaining bytes of {@code buffer} and returns the number of bytes
+     * written. Like in the native binding, the string is truncated when it does not fit, and hex
+     * and base64 decoding stops at the first character that cannot be decoded.
+     */
+    @TruffleBoundary
+    public int encode(String str, ByteBuffer buffer) {
+        int max = buffer.remaining();
+        switch (this) {
+            case LATIN1:
+            case ASCII: {
+                int n = Math.min(str.length(), max);
+                for (int i = 0; i < n; i++) {
+                    buffer.put((byte) str.charAt(i));
+                }
+                return n;
+            }
+            case HEX:
+                return encodeHex(str, buffer, max);
+            case BASE64:
+                return encodeBase64(str, buffer, max);
+            case UCS2: {
+                int n = Math.min(str.length(), max / 2);
+                for (int i = 0; i < n; i++) {
+                    char c = str.charAt(i);
+                    buffer.put((byte) c);
+                    buffer.put((byte) (c >>> 8));
+                }
+                return n * 2;
+            }
+            default:
+                throw new IllegalStateException(name());
+        }
+    }
+
+    private static int encodeHex(String str, ByteBuffer buffer, int max) {
+        int n = Math.min(str.length() / 2, max);
+        for (int i = 0; i < n; i++) {
+            // The native binding only looks at the low byte of each character.
+            int hi = hexValue(str.charAt(2 * i) & 0xff);
+            int lo = hexValue(str.charAt(2 * i + 1) & 0xff);
+            if (hi < 0 || lo < 0) {
+                return i;
+            }
+            buffer.put((byte) ((hi << 4) | lo));
+        }
+        return n;
+    }
+
+    private static int hexValue(int c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static int encodeBase64(String str, ByteBuffer buffer, int max) {
+        int written = 0;
+        int bits = 0;
+        int bitCount = 0;
+        for (int i = 0; i < str.length() && written < max; i++) {
+            // The native binding only looks at the low byte of each character.
+            int c = str.charAt(i) & 0xff;
+            int value = BASE64_VALUES[c];
+            if (value < 0) {
+                if (c == '=') {
+                    break;
+                }
+                // Whitespace and other illegal characters are skipped.
+                continue;
+            }
+            bits = ((bits << 6) | value) & 0xffff;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                buffer.put((byte) (bits >>> bitCount));
+                written++;
+            }
+        }
+        return written;
+    }
+}
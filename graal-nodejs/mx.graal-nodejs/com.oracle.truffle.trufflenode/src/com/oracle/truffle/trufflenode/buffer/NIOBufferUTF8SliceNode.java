@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -41,10 +41,7 @@
 package com.oracle.truffle.trufflenode.buffer;
 
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
-import java.nio.charset.CharsetDecoder;
-import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Specialization;
@@ -59,7 +56,7 @@ import com.oracle.truffle.trufflenode.GraalJSAccess;
 
 public abstract class NIOBufferUTF8SliceNode extends NIOBufferAccessNode {
 
-    private static final int V8MaxStringLength = (1 << 30) - 1 - 24;
+    private static final char REPLACEMENT_CHARACTER = '\ufffd';
 
     protected final BranchProfile nativePath = BranchProfile.create();
     protected final BranchProfile errorBranch = BranchProfile.create();
@@ -69,25 +66,17 @@ public abstract class NIOBufferUTF8SliceNode extends NIOBufferAccessNode {
     }
 
     private DynamicObject getNativeUtf8Slice() {
-        return GraalJSAccess.getRealmEmbedderData(getContext().getRealm()).getNativeUtf8Slice();
+        return GraalJSAccess.getRealmEmbedderData(getContext().getRealm()).getNativeBufferFunction(getBuiltin().getName());
     }
 
     @Specialization(guards = {"accept(target)"})
     public Object slice(DynamicObject target, int start, int end) {
-        try {
-            return doSlice(target, start, end);
-        } catch (CharacterCodingException e) {
-            return doNativeFallback(target, start, end);
-        }
+        return doSlice(target, start, end);
     }
 
     @Specialization(guards = {"accept(target)"})
     public Object slice(DynamicObject target, double start, double end) {
-        try {
-            return doSlice(target, (int) start, (int) end);
-        } catch (CharacterCodingException e) {
-            return doNativeFallback(target, start, end);
-        }
+        return doSlice(target, (int) start, (int) end);
     }
 
     @Specialization
@@ -106,7 +95,7 @@ public abstract class NIOBufferUTF8SliceNode extends NIOBufferAccessNode {
         return JSFunction.call(getNativeUtf8Slice(), target, new Object[]{start, end});
     }
 
-    private Object doSlice(DynamicObject target, int start, int end) throws CharacterCodingException {
+    private Object doSlice(DynamicObject target, int start, int end) {
         DynamicObject arrayBuffer = getArrayBuffer(target);
         ByteBuffer rawBuffer = getDirectByteBuffer(arrayBuffer);
         int byteOffset = getOffset(target);
@@ -135,13 +124,98 @@ public abstract class NIOBufferUTF8SliceNode extends NIOBufferAccessNode {
         return doDecode(data);
     }
 
+    /**
+     * Decodes UTF-8 like V8's {@code String::NewFromUtf8}, i.e., every maximal subpart of an
+     * ill-formed sequence is replaced by U+FFFD. The buffer is read in place, so the only copy
+     * besides the one made by the {@link String} constructor is a byte array for pure ASCII input
+     * (which becomes a Latin-1 string) or the char array the input is decoded into.
+     */
     @TruffleBoundary
-    private static Object doDecode(ByteBuffer data) throws CharacterCodingException {
-        CharsetDecoder decoder = utf8.newDecoder();
-        decoder.onMalformedInput(CodingErrorAction.REPORT);
-        decoder.onUnmappableCharacter(CodingErrorAction.REPORT);
-        CharBuffer decoded = decoder.decode(data);
-        return decoded.toString();
+    private static String doDecode(ByteBuffer data) {
+        int start = data.position();
+        int end = data.limit();
+        int asciiEnd = asciiPrefixEnd(data, start, end);
+        if (asciiEnd == end) {
+            byte[] bytes = new byte[end - start];
+            data.get(bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+        // Every byte produces at most one char (4-byte sequences produce a surrogate pair).
+        char[] chars = new char[end - start];
+        for (int i = start; i < asciiEnd; i++) {
+            chars[i - start] = (char) data.get(i);
+        }
+        int charLength = decodeUTF8(data, asciiEnd, end, chars, asciiEnd - start);
+        return new String(chars, 0, charLength);
+    }
+
+    private static int asciiPrefixEnd(ByteBuffer data, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (data.get(i) < 0) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static int decodeUTF8(ByteBuffer data, int fromIndex, int end, char[] chars, int charIndex) {
+        int i = fromIndex;
+        int o = charIndex;
+        while (i < end) {
+            int b = data.get(i++) & 0xff;
+            if (b < 0x80) {
+                chars[o++] = (char) b;
+                continue;
+            }
+            int continuationBytes;
+            int codePoint;
+            int lower = 0x80;
+            int upper = 0xbf;
+            if (b >= 0xc2 && b <= 0xdf) {
+                continuationBytes = 1;
+                codePoint = b & 0x1f;
+            } else if (b >= 0xe0 && b <= 0xef) {
+                continuationBytes = 2;
+                codePoint = b & 0x0f;
+                if (b == 0xe0) {
+                    lower = 0xa0; // overlong
+                } else if (b == 0xed) {
+                    upper = 0x9f; // surrogate
+                }
+            } else if (b >= 0xf0 && b <= 0xf4) {
+                continuationBytes = 3;
+                codePoint = b & 0x07;
+                if (b == 0xf0) {
+                    lower = 0x90; // overlong
+                } else if (b == 0xf4) {
+                    upper = 0x8f; // > U+10FFFF
+                }
+            } else {
+                chars[o++] = REPLACEMENT_CHARACTER;
+                continue;
+            }
+            boolean valid = true;
+            for (int k = 0; k < continuationBytes; k++) {
+                int c = i < end ? data.get(i) & 0xff : -1;
+                if (c < lower || c > upper) {
+                    valid = false;
+                    break;
+                }
+                codePoint = (codePoint << 6) | (c & 0x3f);
+                lower = 0x80;
+                upper = 0xbf;
+                i++;
+            }
+            if (!valid) {
+                chars[o++] = REPLACEMENT_CHARACTER;
+            } else if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                chars[o++] = Character.highSurrogate(codePoint);
+                chars[o++] = Character.lowSurrogate(codePoint);
+            } else {
+                chars[o++] = (char) codePoint;
+            }
+        }
+        return o;
     }
 
     private static boolean oobCheck(int start, int end) {
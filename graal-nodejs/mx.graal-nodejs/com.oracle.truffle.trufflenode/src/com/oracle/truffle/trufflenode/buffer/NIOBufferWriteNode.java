@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2021, 2021, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.trufflenode.buffer;
+
+import java.nio.ByteBuffer;
+
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.profiles.BranchProfile;
+import com.oracle.truffle.js.nodes.cast.JSToIntegerAsIntNode;
+import com.oracle.truffle.js.nodes.function.JSBuiltin;
+import com.oracle.truffle.js.runtime.Boundaries;
+import com.oracle.truffle.js.runtime.Errors;
+import com.oracle.truffle.js.runtime.JSContext;
+import com.oracle.truffle.js.runtime.builtins.JSFunction;
+import com.oracle.truffle.trufflenode.GraalJSAccess;
+
+/**
+ * Implements {@code latin1Write}, {@code asciiWrite}, {@code hexWrite}, {@code base64Write} and
+ * {@code ucs2Write}.
+ */
+public abstract class NIOBufferWriteNode extends NIOBufferAccessNode {
+
+    private final NIOBufferEncoding encoding;
+
+    @Child protected JSToIntegerAsIntNode toInt;
+
+    protected final BranchProfile errorBranch = BranchProfile.create();
+
+    public NIOBufferWriteNode(JSContext context, JSBuiltin builtin, NIOBufferEncoding encoding) {
+        super(context, builtin);
+        this.encoding = encoding;
+        this.toInt = JSToIntegerAsIntNode.create();
+    }
+
+    private DynamicObject getNativeWrite() {
+        return GraalJSAccess.getRealmEmbedderData(getContext().getRealm()).getNativeBufferFunction(getBuiltin().getName());
+    }
+
+    @Specialization(guards = "accept(target)")
+    public Object write(DynamicObject target, String str, int destOffset, int bytes) {
+        return doWrite(target, str, destOffset, bytes);
+    }
+
+    @Specialization(guards = {"accept(target)", "isUndefined(bytes)"})
+    public Object writeDefaultLength(DynamicObject target, String str, int destOffset, @SuppressWarnings("unused") Object bytes) {
+        return doWrite(target, str, destOffset, Integer.MAX_VALUE);
+    }
+
+    @Specialization(guards = {"accept(target)", "isUndefined(destOffset)", "isUndefined(bytes)"})
+    public Object writeDefaultValues(DynamicObject target, String str, @SuppressWarnings("unused") Object destOffset, @SuppressWarnings("unused") Object bytes) {
+        return doWrite(target, str, 0, Integer.MAX_VALUE);
+    }
+
+    @Specialization(guards = "accept(target)")
+    public Object write(DynamicObject target, String str, double destOffset, double bytes) {
+        return doWrite(target, str, toInt.executeInt(destOffset), toInt.executeInt(bytes));
+    }
+
+    @Specialization
+    public Object writeDefault(DynamicObject target, Object str, Object destOffset, Object bytes) {
+        return JSFunction.call(getNativeWrite(), target, new Object[]{str, destOffset, bytes});
+    }
+
+    @Specialization(guards = {"!isJSArrayBufferView(target)"})
+    @SuppressWarnings("unused")
+    public Object writeAbort(Object target, Object str, Object destOffset, Object bytes) {
+        throw Errors.createTypeErrorArrayBufferViewExpected();
+    }
+
+    private int doWrite(DynamicObject target, String str, int destOffset, int bytes) {
+        DynamicObject arrayBuffer = getArrayBuffer(target);
+        int bufferOffset = getOffset(target);
+        int bufferLen = getLength(target);
+
+        if (destOffset > bufferLen || bytes < 0 || destOffset < 0) {
+            errorBranch.enter();
+            outOfBoundsFail();
+        }
+        int destLimit = Math.min(bufferLen - destOffset, bytes) + destOffset;
+        if (destLimit == destOffset) {
+            return 0;
+        }
+        ByteBuffer rawBuffer = getDirectByteBuffer(arrayBuffer);
+        ByteBuffer buffer = Boundaries.byteBufferSlice(rawBuffer, bufferOffset + destOffset, bufferOffset + destLimit);
+        return encoding.encode(str, buffer);
+    }
+
+}
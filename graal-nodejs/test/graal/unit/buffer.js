@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2018, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2018, 2021, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -142,7 +142,74 @@ describe('Buffer.utf8Slice', function() {
             Buffer.prototype.utf8Slice.call(1)
         }, TypeError);
     });
+    it('should decode ascii', function() {
+        assert.strictEqual(Buffer.from([0x61, 0x62, 0x63, 0x7F]).utf8Slice(), 'abc\u007F');
+    });
+    it('should decode multi-byte sequences', function() {
+        assert.strictEqual(Buffer.from('abc\u00BD\u20AC\uD83D\uDE00').utf8Slice(), 'abc\u00BD\u20AC\uD83D\uDE00');
+    });
+    it('should replace invalid sequences', function() {
+        assert.strictEqual(Buffer.from([0x61, 0xFF, 0x62, 0xC0, 0x80]).utf8Slice(), 'a\uFFFDb\uFFFD\uFFFD');
+    });
+    it('should replace maximal subparts of truncated sequences', function() {
+        assert.strictEqual(Buffer.from([0xE2, 0x82, 0x61, 0xF0, 0x9F, 0x98]).utf8Slice(), '\uFFFDa\uFFFD');
+    });
+    it('should replace encoded surrogates', function() {
+        assert.strictEqual(Buffer.from([0xED, 0xA0, 0x80]).utf8Slice(), '\uFFFD\uFFFD\uFFFD');
+    });
     it('length is zero', function() {
         assert.strictEqual(Buffer.alloc(0).utf8Slice.length, 0);
     });
-});
\ No newline at end of file
+});
+describe('Buffer encodings', function() {
+    it('should round-trip latin1', function() {
+        var buf = Buffer.from('aÿĀ', 'latin1');
+        assert.strictEqual(buf.length, 3);
+        assert.strictEqual(buf[2], 0);
+        assert.strictEqual(buf.latin1Slice(0, 2), 'aÿ');
+    });
+    it('should strip the high bit in ascii', function() {
+        assert.strictEqual(Buffer.from([0x41, 0xC1]).asciiSlice(0, 2), 'AA');
+        assert.strictEqual(Buffer.alloc(4).asciiWrite('abcdef', 1), 3);
+    });
+    it('should encode and decode hex', function() {
+        var buf = Buffer.from([0x00, 0x7F, 0xAB, 0xFF]);
+        assert.strictEqual(buf.hexSlice(0, 4), '007fabff');
+        assert.strictEqual(buf.hexSlice(1, 3), '7fab');
+        assert.strictEqual(Buffer.alloc(4).hexWrite('00FFzz11', 0, 4), 2);
+        assert.strictEqual(Buffer.from('12345', 'hex').length, 2);
+    });
+    it('should encode and decode base64', function() {
+        assert.strictEqual(Buffer.from('hello world!!').base64Slice(0, 13), 'aGVsbG8gd29ybGQhIQ==');
+        assert.strictEqual(Buffer.from([0xFF, 0x00, 0x41, 0x80, 0x7F]).toString('base64'), '/wBBgH8=');
+        assert.strictEqual(Buffer.from('aGVsbG8g\nd29y bGQhIQ==', 'base64').toString(), 'hello world!!');
+        assert.strictEqual(Buffer.from('_-A', 'base64').toString('hex'), 'ffe0');
+        assert.strictEqual(Buffer.from('aGVs=bG8', 'base64').toString(), 'hel');
+    });
+    it('should encode and decode ucs2', function() {
+        var buf = Buffer.from('a€', 'ucs2');
+        assert.strictEqual(buf.hexSlice(0, 4), '6100ac20');
+        assert.strictEqual(buf.ucs2Slice(0, 3), 'a');
+        assert.strictEqual(Buffer.alloc(3).ucs2Write('abc'), 2);
+    });
+    it('should check range', function() {
+        assert.throws(() => {
+            Buffer.alloc(10).hexSlice(-1, 10)
+        }, RangeError);
+        assert.throws(() => {
+            Buffer.alloc(10).base64Slice(0, 11)
+        }, RangeError);
+        assert.throws(() => {
+            Buffer.alloc(10).latin1Write('abc', 11)
+        }, RangeError);
+    });
+    it('should convert arguments', function() {
+        assert.strictEqual(Buffer.from('abc').latin1Slice(false, true), 'a');
+        assert.strictEqual(Buffer.alloc(10).ucs2Write('abc', '2', '4'), 4);
+    });
+    it('should expect typed arrays', function() {
+        assert.throws(() => {
+            Buffer.prototype.base64Write.call('buffer', 'text to write')
+        }, TypeError);
+    });
+});